@@ -17,8 +17,31 @@ public interface Edges extends Iterable<Edge> {
 
     Edges filtered(Predicate<Edge> edgePredicate);
 
+    /**
+     * Returns an Edges object with the intersection of this Edges object and
+     * the otherEdges object, i.e. with all Edge instances that are in both.
+     * <p>
+     * This object and the otherEdges are not modified.
+     */
     Edges intersected(Edges otherEdges);
 
+    /**
+     * Returns an Edges object with the union of this Edges object and
+     * the otherEdges object, i.e. with all Edge instances that are either in
+     * this Edges object or in the otherEdges or in both.
+     * <p>
+     * This object and the otherEdges are not modified.
+     */
+    Edges union(Edges otherEdges);
+
+    /**
+     * Returns an Edges object with all Edge instances of this Edges object
+     * that are not in the otherEdges object.
+     * <p>
+     * This object and the otherEdges are not modified.
+     */
+    Edges minus(Edges otherEdges);
+
     //TODO make this return Edges
     Iterable<Edge> sorted(Comparator<? super Edge> comparator);
 
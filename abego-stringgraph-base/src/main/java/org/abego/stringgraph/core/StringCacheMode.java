@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.core;
+
+/**
+ * Defines how a {@link StringGraph} caches the Strings it decodes from its
+ * internal representation (e.g. node ids, edge labels, property names and 
+ * values).
+ */
+public enum StringCacheMode {
+    /**
+     * Strings are not cached but decoded on every access.
+     */
+    OFF,
+    /**
+     * Every String is cached after its first access. 
+     * <p>
+     * Fastest access, but eventually holds all Strings of the graph.
+     */
+    UNBOUNDED,
+    /**
+     * A limited number of Strings is cached, evicting Strings not recently
+     * used when the cache is full.
+     * <p>
+     * The size of the cache is derived from a memory limit, see 
+     * {@link StringGraphs.ReadOptions#getStringCacheMemoryLimit()}.
+     */
+    BOUNDED
+}
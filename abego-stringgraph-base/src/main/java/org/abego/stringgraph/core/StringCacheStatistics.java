@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.core;
+
+/**
+ * Statistics of the String cache of a {@link StringGraph}, e.g. to choose 
+ * a suitable {@link StringCacheMode} or memory limit.
+ * <p>
+ * A StringCacheStatistics object is a snapshot, i.e. it does not change when
+ * the cache is used later.
+ */
+public interface StringCacheStatistics {
+    /**
+     * Returns the number of String accesses answered by the cache.
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of String accesses that required to decode the 
+     * String.
+     */
+    long getMissCount();
+
+    /**
+     * Returns the ratio of hits to all String accesses, or {@code 0.0} when
+     * there was no access yet.
+     */
+    default double getHitRate() {
+        long total = getHitCount() + getMissCount();
+        return total == 0 ? 0.0 : (double) getHitCount() / total;
+    }
+}
@@ -24,11 +24,26 @@
 
 package org.abego.stringgraph.core;
 
+import org.abego.stringgraph.internal.StringGraphHandlesViaStrings;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Optional;
 import java.util.function.Predicate;
 
+/**
+ * A directed graph with {@link String}s as nodes and edge labels.
+ * <p>
+ * The StringGraph instances created by {@link StringGraphs} (e.g. through
+ * {@link StringGraphBuilder#build()} or 
+ * {@link StringGraphs#readStringGraph(java.net.URI)}) are immutable and safe 
+ * for use by concurrent readers, without external synchronization.
+ * <p>
+ * A StringGraph may hold resources, like the file a disk-resident 
+ * StringGraph reads from (see 
+ * {@link StringGraphs.ReadOptions#getDiskResident()}), that are released by
+ * {@link #close()}. (StringGraph is no {@link AutoCloseable}, as most 
+ * StringGraphs live in memory and hold no resources.)
+ */
 public interface StringGraph {
 
     //region Nodes
@@ -224,4 +239,51 @@ public interface StringGraph {
     }
 
     //endregion
+
+    /**
+     * Returns the low-level, {@code int} handle based API of this StringGraph,
+     * e.g. for efficient traversals of large graphs.
+     * <p>
+     * The default implementation returns new handles on every call, 
+     * implemented on top of the String based API of this StringGraph. 
+     * Creating them visits all nodes and edge labels, and their queries are
+     * slower than the ones of handles implemented by the StringGraph itself.
+     * So StringGraph implementations should override this method.
+     */
+    default StringGraphHandles handles() {
+        return StringGraphHandlesViaStrings.createStringGraphHandlesViaStrings(this);
+    }
+
+    /**
+     * Returns the current statistics of the cache this StringGraph uses for 
+     * the Strings it decodes (see {@link StringCacheMode}).
+     * <p>
+     * The default implementation returns statistics without any hits or 
+     * misses, for StringGraph implementations without a String cache.
+     */
+    default StringCacheStatistics getStringCacheStatistics() {
+        return new StringCacheStatistics() {
+            @Override
+            public long getHitCount() {
+                return 0;
+            }
+
+            @Override
+            public long getMissCount() {
+                return 0;
+            }
+        };
+    }
+
+    /**
+     * Releases the resources this StringGraph holds, e.g. closes the file a
+     * disk-resident StringGraph reads from. The StringGraph must not be used
+     * after it is closed.
+     * <p>
+     * The default implementation does nothing, for StringGraph 
+     * implementations holding no resources (like StringGraphs loaded into 
+     * memory).
+     */
+    default void close() {
+    }
 }
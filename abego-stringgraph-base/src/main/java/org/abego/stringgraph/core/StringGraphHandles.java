@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.core;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Low-level access to a {@link StringGraph} using {@code int} "handles" for
+ * nodes and edge labels, instead of Strings, {@link Node} or {@link Edge} 
+ * objects.
+ * <p>
+ * Use this API for "hot" code, like traversing large graphs: resolve the 
+ * Strings to handles once (e.g. via {@link #nodeHandle(String)}), navigate
+ * the graph using the handles and the primitive callbacks, and only convert
+ * the handles back to Strings (via {@link #stringOf(int)}) when needed. 
+ * Navigating this way does not allocate objects per visited node or edge.
+ * <p>
+ * Handles are only valid for the StringGraph they were retrieved from.
+ * {@link #NO_HANDLE} ({@code 0}) is never a valid handle.
+ */
+public interface StringGraphHandles {
+    /**
+     * The value returned when a String does not identify a node or label.
+     */
+    int NO_HANDLE = 0;
+
+    /**
+     * Accepts an edge, given by the handles of its label and its node on the
+     * "other side" (i.e. the 'to' node of an outgoing edge or the 'from' node
+     * of an incoming edge).
+     */
+    @FunctionalInterface
+    interface EdgeConsumer {
+        void accept(int labelHandle, int nodeHandle);
+    }
+
+    /**
+     * Returns the handle of the node with the given {@code id}, or 
+     * {@link #NO_HANDLE} when the graph contains no such node.
+     */
+    int nodeHandle(String id);
+
+    /**
+     * Returns the handle of the edge label {@code label}, or 
+     * {@link #NO_HANDLE} when no edge of the graph has this label.
+     */
+    int labelHandle(String label);
+
+    /**
+     * Returns the String of the given handle, i.e. the id of the node or the
+     * text of the label.
+     */
+    String stringOf(int handle);
+
+    /**
+     * Calls the {@code action} with the handle of every node of the graph.
+     */
+    void forEachNode(IntConsumer action);
+
+    /**
+     * Returns the number of edges starting at the node with the given handle.
+     */
+    int outDegree(int nodeHandle);
+
+    /**
+     * Returns the number of edges ending at the node with the given handle.
+     */
+    int inDegree(int nodeHandle);
+
+    /**
+     * Calls the {@code action} for every edge starting at the node with the
+     * given handle, with the label and the 'to' node of the edge. 
+     * <p>
+     * The edges are grouped by their label.
+     */
+    void forEachOutEdge(int nodeHandle, EdgeConsumer action);
+
+    /**
+     * Calls the {@code action} for every edge ending at the node with the
+     * given handle, with the label and the 'from' node of the edge. 
+     * <p>
+     * The edges are grouped by their label.
+     */
+    void forEachInEdge(int nodeHandle, EdgeConsumer action);
+
+    /**
+     * Calls the {@code action} with the 'to' node of every edge starting at
+     * the node {@code nodeHandle} with the label {@code labelHandle}.
+     * <p>
+     * Every 'to' node is passed exactly once, as with a fixed 'from' node and
+     * label there is at most one edge to a given 'to' node.
+     */
+    void forEachOutNeighbor(int nodeHandle, int labelHandle, IntConsumer action);
+
+    /**
+     * Calls the {@code action} with the 'from' node of every edge ending at
+     * the node {@code nodeHandle} with the label {@code labelHandle}.
+     * <p>
+     * Every 'from' node is passed exactly once, as with a fixed 'to' node and
+     * label there is at most one edge from a given 'from' node.
+     */
+    void forEachInNeighbor(int nodeHandle, int labelHandle, IntConsumer action);
+
+    /**
+     * Calls the {@code action} with the label of the edges starting at the 
+     * node with the given handle, every label only once.
+     */
+    void forEachOutLabel(int nodeHandle, IntConsumer action);
+
+    /**
+     * Calls the {@code action} with the label of the edges ending at the 
+     * node with the given handle, every label only once.
+     */
+    void forEachInLabel(int nodeHandle, IntConsumer action);
+
+    /**
+     * Returns {@code true} when the graph contains an edge from the node 
+     * {@code fromHandle} to the node {@code toHandle} with the label 
+     * {@code labelHandle}, {@code false} otherwise.
+     */
+    boolean hasEdge(int fromHandle, int labelHandle, int toHandle);
+}
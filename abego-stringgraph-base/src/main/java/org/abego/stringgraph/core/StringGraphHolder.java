@@ -0,0 +1,95 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.core;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Holds a {@link StringGraph} that is "served" to readers and that can be
+ * replaced, e.g. by a StringGraph reloaded from a file.
+ * <p>
+ * Replacing the StringGraph is atomic: a reader either gets the old or the 
+ * new StringGraph, never a partially loaded one. A reload is done in the 
+ * background, so readers keep getting the old StringGraph without a pause
+ * until the new one is ready (and warmed up, see 
+ * {@link StringGraphs.ReadOptions#getWarmUp()}).
+ * <p>
+ * Readers should get the StringGraph once per "unit of work" (e.g. a 
+ * request), and use it for all queries of that unit, to see a consistent 
+ * state.
+ * <p>
+ * A StringGraph replaced by a reload is closed (see 
+ * {@link StringGraph#close()}), e.g. to close the file of a disk-resident 
+ * StringGraph. To not affect readers still using it, it is closed when the 
+ * next reload replaces a StringGraph, i.e. a unit of work must not take 
+ * longer than the time between two reloads. A StringGraph replaced by 
+ * {@link #set(StringGraph)} is returned to the caller, not closed.
+ * <p>
+ * A StringGraphHolder is safe for concurrent use.
+ */
+public interface StringGraphHolder {
+    /**
+     * Returns the StringGraph currently held.
+     */
+    StringGraph get();
+
+    /**
+     * Replaces the StringGraph held by the given {@code graph} and returns
+     * the StringGraph held before.
+     */
+    StringGraph set(StringGraph graph);
+
+    /**
+     * Reads the StringGraph from the given {@code uri} in the background 
+     * and replaces the StringGraph held by it when it is ready.
+     * <p>
+     * See {@link #reload(URI, StringGraphs.ReadOptions)}.
+     */
+    default CompletableFuture<StringGraph> reload(URI uri) {
+        return reload(uri, new StringGraphs.ReadOptions() {
+        });
+    }
+
+    /**
+     * Reads the StringGraph from the given {@code uri}, using the given 
+     * {@code options}, in the background (see 
+     * {@link StringGraphs#readStringGraphAsync(URI, StringGraphs.ReadOptions)})
+     * and replaces the StringGraph held by it when it is ready.
+     * <p>
+     * The StringGraph is not replaced when a StringGraph of a later call to
+     * {@link #reload(URI, StringGraphs.ReadOptions)} or 
+     * {@link #set(StringGraph)} is held already, i.e. a slow reload does not 
+     * replace the StringGraph of a newer one.
+     * <p>
+     * Returns a future completed with the StringGraph read, after it 
+     * replaced the StringGraph held. When a newer StringGraph is held 
+     * already the StringGraph read is closed (see {@link StringGraph#close()})
+     * and the future is completed with the newer StringGraph. When reading
+     * fails the future is completed exceptionally and the StringGraph held
+     * is not changed.
+     */
+    CompletableFuture<StringGraph> reload(URI uri, StringGraphs.ReadOptions options);
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.core;
+
+/**
+ * The format used to store a {@link StringGraph} in a file.
+ * <p>
+ * When reading a StringGraph the format is detected automatically.
+ */
+public enum StringGraphStoreFormat {
+    /**
+     * A compact, stream based format.
+     * <p>
+     * The whole file is read into memory when reading the StringGraph.
+     */
+    DEFAULT,
+    /**
+     * A format made of fixed-width arrays, used "in place" by memory mapping 
+     * the file when reading the StringGraph.
+     * <p>
+     * Opening a StringGraph in this format is fast and most of its data stays
+     * off the Java heap, but the file is larger than in the 
+     * {@link #DEFAULT} format. Every array in the file (e.g. all edges, or 
+     * all Strings) must be smaller than 2 GB.
+     * <p>
+     * A StringGraph in this format may also stay on disk when reading it 
+     * (see {@link StringGraphs.ReadOptions#getDiskResident()}).
+     */
+    MAPPED,
+    /**
+     * A compact format made of length-prefixed blocks, with a directory of 
+     * these blocks.
+     * <p>
+     * Like with the {@link #DEFAULT} format the whole file is read into 
+     * memory when reading the StringGraph. The blocks (e.g. the nodes, 
+     * the edges and the Strings) are read and decoded concurrently when 
+     * loading in parallel (see 
+     * {@link StringGraphs.ReadOptions#getParallelLoad()}).
+     */
+    BLOCKS
+}
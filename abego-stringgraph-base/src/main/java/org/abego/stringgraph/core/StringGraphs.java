@@ -25,11 +25,264 @@
 package org.abego.stringgraph.core;
 
 import org.abego.stringgraph.internal.StringGraphsImpl;
+import org.eclipse.jdt.annotation.Nullable;
 
 import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.Deflater;
 
 public interface StringGraphs {
+    /**
+     * Options for reading a {@link StringGraph}, e.g. in
+     * {@link #readStringGraph(URI, ReadOptions)}.
+     * <p>
+     * Override the methods for the options you want to change.
+     */
+    interface ReadOptions {
+        /**
+         * Returns how the StringGraph caches the Strings it decodes.
+         * <p>
+         * [Default: {@link StringCacheMode#UNBOUNDED}]
+         */
+        default StringCacheMode getStringCacheMode() {
+            return StringCacheMode.UNBOUNDED;
+        }
+
+        /**
+         * Returns the (approximate) number of bytes the String cache may use
+         * when its mode is {@link StringCacheMode#BOUNDED}.
+         * <p>
+         * [Default: 64 MB]
+         */
+        default long getStringCacheMemoryLimit() {
+            return 64L * 1024 * 1024;
+        }
+
+        /**
+         * Returns {@code true} when the StringGraph should be loaded using 
+         * multiple threads, {@code false} otherwise.
+         * <p>
+         * When loading in parallel the indexes of the StringGraph not stored 
+         * in the file are built concurrently, by fork-join tasks of the 
+         * {@link #getLoadPool()} over ranges of the edges, and the blocks of
+         * a {@link StringGraphStoreFormat#BLOCKS} store are decoded 
+         * concurrently.
+         * <p>
+         * [Default: {@code false}]
+         */
+        default boolean getParallelLoad() {
+            return false;
+        }
+
+        /**
+         * Returns the pool running the tasks when loading the StringGraph, 
+         * e.g. a {@link ForkJoinPool} with a limited parallelism to fit a 
+         * thread budget.
+         * <p>
+         * The pool is used when loading in parallel (see 
+         * {@link #getParallelLoad()}).
+         * <p>
+         * [Default: {@link ForkJoinPool#commonPool()}]
+         */
+        default ForkJoinPool getLoadPool() {
+            return ForkJoinPool.commonPool();
+        }
+
+        /**
+         * Returns the "warm-up" to run on a StringGraph read asynchronously 
+         * (see {@link #readStringGraphAsync(URI, ReadOptions)}), before the 
+         * StringGraph is passed on.
+         * <p>
+         * Use the warm-up to run typical queries, e.g. to fill the String 
+         * cache with the Strings used most (like 
+         * {@code graph -> graph.edgeLabels().forEach(label -> {})}), so the
+         * first "real" queries do not run on "cold" caches.
+         * <p>
+         * [Default: no warm-up]
+         */
+        default Consumer<StringGraph> getWarmUp() {
+            return graph -> {
+            };
+        }
+
+        /**
+         * Returns {@code true} when the StringGraph should stay on disk,
+         * {@code false} when it should be loaded into memory.
+         * <p>
+         * A "disk-resident" StringGraph reads the parts of the file it needs
+         * on demand, through a page cache (see
+         * {@link #getPageCacheMemoryLimit()}). So it supports graphs larger
+         * than the heap, with the memory used depending on the parts of the
+         * graph queried, not on the size of the graph. For the same reason 
+         * the Strings are cached in a {@link StringCacheMode#BOUNDED} cache,
+         * also when {@link #getStringCacheMode()} is 
+         * {@link StringCacheMode#UNBOUNDED}. The file is kept open until the
+         * StringGraph is closed (see {@link StringGraph#close()}).
+         * <p>
+         * Only supported for files of the
+         * {@link StringGraphStoreFormat#MAPPED} format written with indexes
+         * (see {@link WriteOptions#getWriteIndexes()}). Other files are
+         * loaded into memory.
+         * <p>
+         * [Default: {@code false}]
+         */
+        default boolean getDiskResident() {
+            return false;
+        }
+
+        /**
+         * Returns the (approximate) number of bytes the page cache of a
+         * disk-resident StringGraph (see {@link #getDiskResident()}) may use.
+         * <p>
+         * When the cache is full a page not recently used is evicted.
+         * <p>
+         * [Default: 64 MB]
+         */
+        default long getPageCacheMemoryLimit() {
+            return 64L * 1024 * 1024;
+        }
+
+        /**
+         * Returns the labels of the edges to read, or {@code null} to read
+         * all edges.
+         * <p>
+         * Reading only some edges or properties (a "projection", see also
+         * {@link #getPropertyNames()}) makes the StringGraph smaller and
+         * faster to load, as the data not selected is dropped while
+         * decoding the file. With an edge label projection the StringGraph 
+         * only contains the nodes of the edges read and the nodes with 
+         * properties read. With only a property projection all nodes are 
+         * kept. Strings only used by the data dropped are dropped, too.
+         * <p>
+         * A StringGraph read with a projection is always loaded into
+         * memory, i.e. {@link #getDiskResident()} is ignored.
+         * <p>
+         * [Default: {@code null}, i.e. all edges]
+         */
+        default @Nullable Set<String> getEdgeLabels() {
+            return null;
+        }
+
+        /**
+         * Returns the names of the properties to read, or {@code null} to
+         * read all properties.
+         * <p>
+         * Return an empty set to read no properties at all.
+         * <p>
+         * See {@link #getEdgeLabels()} for details on reading a
+         * "projection" of a StringGraph.
+         * <p>
+         * [Default: {@code null}, i.e. all properties]
+         */
+        default @Nullable Set<String> getPropertyNames() {
+            return null;
+        }
+    }
+
+    /**
+     * Options for writing a {@link StringGraph}, e.g. in
+     * {@link #writeStringGraph(StringGraph, URI, WriteOptions)}.
+     * <p>
+     * Override the methods for the options you want to change.
+     */
+    interface WriteOptions {
+        /**
+         * Returns the format used to store the StringGraph.
+         * <p>
+         * [Default: {@link StringGraphStoreFormat#DEFAULT}]
+         */
+        default StringGraphStoreFormat getStoreFormat() {
+            return StringGraphStoreFormat.DEFAULT;
+        }
+
+        /**
+         * Returns {@code true} when the indexes of the StringGraph should be
+         * written, too, {@code false} otherwise.
+         * <p>
+         * Reading a StringGraph with indexes is faster, as the indexes 
+         * need not be rebuilt, but the file is larger. A 
+         * {@link StringGraphStoreFormat#MAPPED} file must be written with 
+         * indexes to be read disk-resident (see 
+         * {@link ReadOptions#getDiskResident()}).
+         * <p>
+         * [Default: {@code false}]
+         */
+        default boolean getWriteIndexes() {
+            return false;
+        }
+
+        /**
+         * Returns {@code true} when the Strings of the StringGraph should be 
+         * stored front-coded, i.e. sorted and with the prefix shared with the 
+         * preceding String omitted, {@code false} otherwise.
+         * <p>
+         * Front-coded Strings need less space, both in the file and in 
+         * memory, but looking up a String is a little slower.
+         * <p>
+         * Only used by the {@link StringGraphStoreFormat#BLOCKS} format.
+         * <p>
+         * [Default: {@code false}]
+         */
+        default boolean getFrontCodeStrings() {
+            return false;
+        }
+
+        /**
+         * Returns {@code true} when the blocks of the store should be 
+         * compressed, {@code false} otherwise.
+         * <p>
+         * The blocks are compressed with a {@link Deflater} of 
+         * the {@link #getCompressionLevel()}. A block that does not get
+         * smaller is stored uncompressed.
+         * <p>
+         * When reading the file a block is decompressed while decoding it, 
+         * i.e. without holding its whole payload in memory. The blocks are 
+         * decompressed concurrently only when loading in parallel (see 
+         * {@link ReadOptions#getParallelLoad()}).
+         * <p>
+         * Only used by the {@link StringGraphStoreFormat#BLOCKS} format.
+         * <p>
+         * [Default: {@code false}]
+         */
+        default boolean getCompressBlocks() {
+            return false;
+        }
+
+        /**
+         * Returns the compression level (0-9, see 
+         * {@link Deflater}) used when 
+         * {@link #getCompressBlocks()} is {@code true}.
+         * <p>
+         * [Default: {@link Deflater#BEST_SPEED}, i.e. a fast 
+         * compression with a smaller compression ratio]
+         */
+        default int getCompressionLevel() {
+            return Deflater.BEST_SPEED;
+        }
+
+        /**
+         * Returns {@code true} when Bloom filters over the nodes and over
+         * the (from, label, to) triples of the edges should be written,
+         * {@code false} otherwise.
+         * <p>
+         * When reading the StringGraph {@link StringGraph#hasNode(String)}
+         * and {@link StringGraph#hasEdge(String, String, String)} consult
+         * the Bloom filters first, so most lookups of missing nodes or edges
+         * need not read the Strings or indexes of the file. The filters use
+         * about 10 bits per node and edge, with about 1% false positives.
+         * <p>
+         * Only used by the {@link StringGraphStoreFormat#MAPPED} format.
+         * <p>
+         * [Default: {@code false}]
+         */
+        default boolean getWriteBloomFilters() {
+            return false;
+        }
+    }
 
     static StringGraphs getInstance() {
         return StringGraphsImpl.getInstance();
@@ -40,12 +293,77 @@ public interface StringGraphs {
     /**
      * Writes the {@code stringGraph} to the give {@code uri}.
      */
-    void writeStringGraph(StringGraph stringGraph, URI uri);
+    default void writeStringGraph(StringGraph stringGraph, URI uri) {
+        writeStringGraph(stringGraph, uri, new WriteOptions() {
+        });
+    }
+
+    /**
+     * Writes the {@code stringGraph} to the give {@code uri}, using the 
+     * given {@code options}.
+     */
+    void writeStringGraph(StringGraph stringGraph, URI uri, WriteOptions options);
+
+    /**
+     * Writes the StringGraph the {@code builder} would build (see 
+     * {@link StringGraphBuilder#build()}) to the given {@code uri}.
+     */
+    default void writeStringGraph(StringGraphBuilder builder, URI uri) {
+        writeStringGraph(builder, uri, new WriteOptions() {
+        });
+    }
+
+    /**
+     * Writes the StringGraph the {@code builder} would build (see 
+     * {@link StringGraphBuilder#build()}) to the given {@code uri}, using the 
+     * given {@code options}.
+     * <p>
+     * For builders created by {@link #createStringGraphBuilder()} the data 
+     * of the builder is written directly, i.e. without building the 
+     * StringGraph first. This saves time and memory when the StringGraph is 
+     * only built to be written.
+     */
+    void writeStringGraph(StringGraphBuilder builder, URI uri, WriteOptions options);
 
     /**
      * Reads the {@code stringGraph} from the give {@code uri} and returns it.
+     * <p>
+     * The {@link StringGraphStoreFormat} of the data is detected automatically.
+     */
+    default StringGraph readStringGraph(URI uri) {
+        return readStringGraph(uri, new ReadOptions() {
+        });
+    }
+
+    /**
+     * Reads the {@code stringGraph} from the give {@code uri}, using the
+     * given {@code options}, and returns it.
      */
-    StringGraph readStringGraph(URI uri);
+    StringGraph readStringGraph(URI uri, ReadOptions options);
+
+    /**
+     * Reads the {@code stringGraph} from the give {@code uri} in the 
+     * background and returns a future completed with the StringGraph.
+     */
+    default CompletableFuture<StringGraph> readStringGraphAsync(URI uri) {
+        return readStringGraphAsync(uri, new ReadOptions() {
+        });
+    }
+
+    /**
+     * Reads the {@code stringGraph} from the give {@code uri}, using the
+     * given {@code options}, in the background and returns a future 
+     * completed with the StringGraph.
+     * <p>
+     * The StringGraph is read by a task of the 
+     * {@link ReadOptions#getLoadPool()}. Before the future is completed the 
+     * {@link ReadOptions#getWarmUp()} is run on the StringGraph.
+     * <p>
+     * When reading or the warm-up fails the future is completed 
+     * exceptionally. A StringGraph read before the warm-up failed is closed
+     * (see {@link StringGraph#close()}).
+     */
+    CompletableFuture<StringGraph> readStringGraphAsync(URI uri, ReadOptions options);
 
     /**
      * Reads ({@link StringGraph}-defining) data from the given {@code uri} and
@@ -54,6 +372,11 @@ public interface StringGraphs {
      * <p>
      * The same StringGraphConstructing object may be used with different
      * URIs, e.g. to create a "merged" StringGraph.
+     * <p>
+     * The data is passed to the StringGraphConstructing object while reading
+     * it, i.e. the nodes, edges and properties read are not collected in 
+     * memory first. The order of the calls to the StringGraphConstructing 
+     * object is not specified.
      *
      * @param uri          The {@link URI} to read from, formerly used with a
      *                     {@link #writeStringGraph(StringGraph, URI)} call to write a StringGraph
@@ -62,6 +385,12 @@ public interface StringGraphs {
      */
     void constructStringGraph(URI uri, StringGraphConstructing constructing);
 
+    /**
+     * Creates a {@link StringGraphHolder} initially holding the given 
+     * {@code graph}.
+     */
+    StringGraphHolder createStringGraphHolder(StringGraph graph);
+
     /**
      * Creates a {@link StringGraphDump} for the given {@code graph}, using the
      * {@code idOrLabelToText} function to translate the ids of {@link Node}s 
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static org.abego.stringgraph.internal.StringCacheStatisticsImpl.createStringCacheStatistics;
+
+/**
+ * A {@link StringCache} holding a limited number of Strings.
+ * <p>
+ * The cache is "set-associative": an id can only be cached in one of
+ * {@link #WAYS} slots of the set selected by the hash of the id. When all 
+ * slots of the set are used the entry to replace is selected using the 
+ * CLOCK ("second chance") algorithm, i.e. entries accessed since the hand
+ * last passed them are skipped once.
+ * <p>
+ * The cache uses no locks. Concurrent accesses may overwrite each other's
+ * entries or reference bits, but this only affects the hit rate, not the 
+ * correctness: entries are immutable and always hold the String for their id.
+ */
+final class BoundedStringCache implements StringCache {
+    private static final int WAYS = 4;
+    /**
+     * The estimated number of bytes an entry uses, i.e. the {@link Entry},
+     * the {@link String} and its content (assuming about 32 characters), 
+     * and the slot in {@link #entries}.
+     */
+    private static final int ESTIMATED_BYTES_PER_ENTRY = 128;
+    private static final int MAX_SETS = 1 << 26;
+
+    private static final class Entry {
+        private final int id;
+        private final String string;
+
+        private Entry(int id, String string) {
+            this.id = id;
+            this.string = string;
+        }
+    }
+
+    private final IntFunction<String> decoder;
+    private final @Nullable Entry[] entries;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final int setMask;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    private BoundedStringCache(IntFunction<String> decoder, long memoryLimit) {
+        this.decoder = decoder;
+        int setCount = setCountForMemoryLimit(memoryLimit);
+        this.entries = new Entry[setCount * WAYS];
+        this.referenced = new boolean[setCount * WAYS];
+        this.hands = new byte[setCount];
+        this.setMask = setCount - 1;
+    }
+
+    static BoundedStringCache createBoundedStringCache(
+            IntFunction<String> decoder, long memoryLimit) {
+        return new BoundedStringCache(decoder, memoryLimit);
+    }
+
+    /**
+     * Returns the largest power of 2 (at least 1, and at most
+     * {@link #MAX_SETS}) of sets that fit into the given memory limit.
+     */
+    private static int setCountForMemoryLimit(long memoryLimit) {
+        long sets = memoryLimit / ((long) ESTIMATED_BYTES_PER_ENTRY * WAYS);
+        if (sets <= 1) {
+            return 1;
+        }
+        return (int) Math.min(MAX_SETS, Long.highestOneBit(sets));
+    }
+
+    /**
+     * Returns the number of Strings this cache can hold.
+     */
+    int getCapacity() {
+        return entries.length;
+    }
+
+    @Override
+    public String getString(int id) {
+        int set = setOfId(id);
+        int base = set * WAYS;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry entry = entries[i];
+            if (entry != null && entry.id == id) {
+                referenced[i] = true;
+                hitCount.increment();
+                return entry.string;
+            }
+        }
+        missCount.increment();
+        String result = decoder.apply(id);
+        int i = base + victimWay(set, base);
+        entries[i] = new Entry(id, result);
+        referenced[i] = false;
+        return result;
+    }
+
+    @Override
+    public StringCacheStatistics getStatistics() {
+        return createStringCacheStatistics(hitCount.sum(), missCount.sum());
+    }
+
+    private int setOfId(int id) {
+        // spread the bits, as ids may be (e.g.) offsets with regular gaps
+        int h = id * 0x9E3779B1;
+        return (h ^ (h >>> 16)) & setMask;
+    }
+
+    /**
+     * Returns the way (index within the set) of the slot to use for a new
+     * entry, and advances the hand of the set accordingly.
+     */
+    private int victimWay(int set, int base) {
+        int hand = hands[set];
+        // after at most WAYS steps all reference bits of the set are cleared,
+        // so we find a slot in at most two rounds
+        for (int n = 0; n < 2 * WAYS; n++) {
+            int way = hand;
+            hand = (hand + 1) % WAYS;
+            int i = base + way;
+            if (entries[i] == null || !referenced[i]) {
+                hands[set] = (byte) hand;
+                return way;
+            }
+            referenced[i] = false;
+        }
+        // only reached when other threads keep setting the reference bits
+        hands[set] = (byte) hand;
+        return hand;
+    }
+}
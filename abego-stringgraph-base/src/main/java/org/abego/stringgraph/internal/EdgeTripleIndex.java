@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+/**
+ * A hash index over all edges of a {@link StringGraphState}, keyed on the
+ * (from, label, to) string ids of the edges.
+ * <p>
+ * The index uses open addressing with linear probing over a single 
+ * {@code int[]} table, so a lookup neither boxes values nor allocates
+ * objects. The table stores {@code edgeId + 1} ({@code 0} marks an empty 
+ * slot), the key parts are read from the state when comparing.
+ */
+class EdgeTripleIndex implements EdgeTripleLookup {
+    private final StringGraphState state;
+    private final int[] table;
+    private final int mask;
+
+    private EdgeTripleIndex(StringGraphState state, int[] table) {
+        this.state = state;
+        this.table = table;
+        this.mask = table.length - 1;
+    }
+
+    static EdgeTripleIndex createEdgeTripleIndex(StringGraphState state) {
+        int edgesCount = state.getEdgesCount();
+        // keep the load factor at or below 0.5 to keep the probe sequences short
+        int[] table = new int[tableSizeFor(edgesCount * 2)];
+        int mask = table.length - 1;
+        for (int i = 0; i < edgesCount; i++) {
+            int edgeId = StringGraphState.edgeIdOfOrdinal(i);
+            int slot = hash(state.getFromId(edgeId),
+                    state.getLabelId(edgeId),
+                    state.getToId(edgeId)) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = edgeId + 1;
+        }
+        return new EdgeTripleIndex(state, table);
+    }
+
+    /**
+     * Returns an EdgeTripleIndex for the {@code state}, using the given 
+     * (prebuilt) {@code table} (see class comment).
+     * <p>
+     * The caller is responsible for the table to match the state. 
+     */
+    static EdgeTripleIndex createEdgeTripleIndex(StringGraphState state, int[] table) {
+        return new EdgeTripleIndex(state, table);
+    }
+
+    /**
+     * Returns the table of this index (see class comment).
+     */
+    int[] table() {
+        return table;
+    }
+
+    @Override
+    public int edgeIdOf(int fromId, int labelId, int toId) {
+        if (fromId == 0 || labelId == 0 || toId == 0) {
+            return -1;
+        }
+        int slot = hash(fromId, labelId, toId) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int edgeId = entry - 1;
+            if (state.getFromId(edgeId) == fromId &&
+                    state.getLabelId(edgeId) == labelId &&
+                    state.getToId(edgeId) == toId) {
+                return edgeId;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(String fromNode, String label, String toNode) {
+        return contains(
+                state.getStringIdOrZero(fromNode),
+                state.getStringIdOrZero(label),
+                state.getStringIdOrZero(toNode));
+    }
+
+    /**
+     * Returns the hash code of the (from, label, to) string ids, as used for
+     * the slots of the table.
+     */
+    static int hash(int fromId, int labelId, int toId) {
+        int h = fromId * 0x9E3779B1;
+        h = (h ^ labelId) * 0x85EBCA6B;
+        h = (h ^ toId) * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int minSize) {
+        int n = 2;
+        while (n < minSize) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+/**
+ * Links the (from, label, to) string ids of the edges of a 
+ * {@link StringGraphState} to the edges.
+ * <p>
+ * See {@link EdgeTripleIndex} for an implementation holding the index in 
+ * memory, and {@link PagedEdgeTripleIndex} for one reading the index from 
+ * disk.
+ */
+interface EdgeTripleLookup {
+
+    /**
+     * Returns the id of the edge with the given (from, label, to) string ids, 
+     * or {@code -1} when no such edge exists.
+     */
+    int edgeIdOf(int fromId, int labelId, int toId);
+
+    default boolean contains(int fromId, int labelId, int toId) {
+        return edgeIdOf(fromId, labelId, toId) >= 0;
+    }
+
+    boolean contains(String fromNode, String label, String toNode);
+}
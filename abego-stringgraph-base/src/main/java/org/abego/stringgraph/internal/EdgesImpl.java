@@ -27,23 +27,48 @@ package org.abego.stringgraph.internal;
 import org.abego.stringgraph.core.Edge;
 import org.abego.stringgraph.core.Edges;
 import org.abego.stringgraph.internal.commons.EdgeUtil;
+import org.abego.stringgraph.internal.commons.SortedIntArrayUtil;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.abego.stringgraph.internal.EdgeImpl.asEdgeImpl;
+import static org.abego.stringgraph.internal.EmptyEdges.EMPTY_EDGES;
 import static org.abego.stringgraph.internal.commons.ClassUtil.className;
 
 class EdgesImpl implements Edges {
+    /**
+     * The ids of the edges are stored in {@code edgesIds[start]} (inclusive)
+     * to {@code edgesIds[end]} (exclusive), allowing to share a larger array
+     * (e.g. of an {@link EdgesIndex}) without copying.
+     */
     private final int[] edgesIds;
+    private final int start;
+    private final int end;
     private final StringGraphState state;
+    /**
+     * When not {@code null} this object contains all edges of the
+     * {@code state} and {@code allEdgesIndex} can be used for fast lookups.
+     */
+    @Nullable
+    private final EdgeTripleLookup allEdgesIndex;
+    /**
+     * Lazily created by {@link #sortedEdges()}.
+     * <p>
+     * Concurrent readers may create more than one copy, but all are equal.
+     */
+    @Nullable
+    private volatile EdgesImpl sortedEdges;
+    /**
+     * Lazily calculated by {@link #hashCode()}, {@code 0} when not yet 
+     * calculated (like {@link String#hashCode()}).
+     */
+    private volatile int hash;
 
     static EdgesImpl asEdgesImpl(@Nullable Edges edges) {
         if (!(edges instanceof EdgesImpl)) {
@@ -53,21 +78,50 @@ class EdgesImpl implements Edges {
     }
 
     EdgesImpl(int[] edgesIds, StringGraphState state) {
+        this(edgesIds, 0, edgesIds.length, state);
+    }
+
+    EdgesImpl(int[] edgesIds, int start, int end, StringGraphState state) {
+        this(edgesIds, start, end, state, null);
+    }
+
+    private EdgesImpl(int[] edgesIds, int start, int end,
+                      StringGraphState state,
+                      @Nullable EdgeTripleLookup allEdgesIndex) {
         this.edgesIds = edgesIds;
+        this.start = start;
+        this.end = end;
         this.state = state;
+        this.allEdgesIndex = allEdgesIndex;
+    }
+
+    /**
+     * Returns the Edges object for all edges of the {@code state}, with the
+     * given {@code edgeTripleIndex} for the edges of the state.
+     */
+    static EdgesImpl createAllEdges(
+            int[] allEdgesIds, StringGraphState state, EdgeTripleLookup edgeTripleIndex) {
+        return new EdgesImpl(allEdgesIds, 0, allEdgesIds.length, state, edgeTripleIndex);
     }
 
     @Override
     public int getSize() {
-        return edgesIds.length;
+        return end - start;
     }
 
     @Override
     public boolean contains(Edge edge) {
         int id = asEdgeImpl(edge).idAsInt();
+        if (allEdgesIndex != null) {
+            return id >= 0 && StringGraphState.ordinalOfEdgeId(id) < state.getEdgesCount() &&
+                    allEdgesIndex.edgeIdOf(
+                            state.getFromId(id),
+                            state.getLabelId(id),
+                            state.getToId(id)) == id;
+        }
         //TODO: more efficient implementation?
-        for (int edgesOffset : edgesIds) {
-            if (edgesOffset == id) {
+        for (int i = start; i < end; i++) {
+            if (edgesIds[i] == id) {
                 return true;
             }
         }
@@ -76,6 +130,9 @@ class EdgesImpl implements Edges {
 
     @Override
     public boolean contains(String fromNode, String label, String toNode) {
+        if (allEdgesIndex != null) {
+            return allEdgesIndex.contains(fromNode, label, toNode);
+        }
         int fromId = state.getStringIdOrZero(fromNode);
         if (fromId == 0) {
             return false;
@@ -89,7 +146,8 @@ class EdgesImpl implements Edges {
             return false;
         }
         //TODO: more efficient implementation?
-        for (int edgesOffset : edgesIds) {
+        for (int i = start; i < end; i++) {
+            int edgesOffset = edgesIds[i];
             if (fromId == state.getFromId(edgesOffset) &&
                     toId == state.getToId(edgesOffset) &&
                     labelId == state.getLabelId(edgesOffset)) {
@@ -101,50 +159,107 @@ class EdgesImpl implements Edges {
 
     @Override
     public Stream<Edge> stream() {
-        return Arrays.stream(edgesIds)
+        return Arrays.stream(edgesIds, start, end)
                 .mapToObj(edgesOffset -> new EdgeImpl(edgesOffset, state));
     }
 
     @Override
     public Edges filtered(Predicate<Edge> edgePredicate) {
-        return createEdges(stream().filter(edgePredicate)
-                .collect(Collectors.toSet()));
+        int[] buffer = new int[getSize()];
+        int iBuffer = 0;
+        for (int i = start; i < end; i++) {
+            int id = edgesIds[i];
+            if (edgePredicate.test(new EdgeImpl(id, state))) {
+                buffer[iBuffer++] = id;
+            }
+        }
+        if (iBuffer == getSize()) {
+            // nothing was excluded
+            return this;
+        }
+        return new EdgesImpl(Arrays.copyOf(buffer, iBuffer), state);
     }
 
-    private Edges createEdges(Set<Edge> edges) {
-        int n = edges.size();
-        int[] resultIds = new int[n];
-        int i = 0;
-        for (Edge edge : edges) {
-            resultIds[i++] = asEdgeImpl(edge).idAsInt();
+    @Override
+    public Edges intersected(Edges otherEdges) {
+        if (otherEdges == this || otherEdges.getSize() == 0) {
+            return otherEdges;
+        }
+        if (getSize() == 0) {
+            return this;
+        }
+        EdgesImpl other = asEdgesImpl(otherEdges);
+        if (allEdgesIndex != null) {
+            return other;
         }
-        return new EdgesImpl(resultIds, state);
+        if (other.allEdgesIndex != null) {
+            return this;
+        }
+
+        EdgesImpl a = sortedEdges();
+        EdgesImpl b = other.sortedEdges();
+        return new EdgesImpl(SortedIntArrayUtil.intersection(
+                a.edgesIds, a.start, a.end, b.edgesIds, b.start, b.end), state);
     }
 
     @Override
-    public Edges intersected(Edges otherEdges) {
-        //TODO copy/paste code from EdgesImpl
-
-        // find the Edges object with fewer items, to iterate over that object
-        Edges fewerEdges;
-        Edges moreEdges;
-        if (getSize() < otherEdges.getSize()) {
-            fewerEdges = this;
-            moreEdges = otherEdges;
-        } else {
-            fewerEdges = otherEdges;
-            moreEdges = this;
-        }
-
-        // All items in the fewerEdges also contains in moreEdges are included
-        HashSet<Edge> result = new HashSet<>();
-        for (Edge e : fewerEdges) {
-            if (moreEdges.contains(e)) {
-                result.add(e);
-            }
+    public Edges union(Edges otherEdges) {
+        if (otherEdges == this || otherEdges.getSize() == 0) {
+            return this;
+        }
+        if (getSize() == 0) {
+            return otherEdges;
         }
+        EdgesImpl other = asEdgesImpl(otherEdges);
+        if (allEdgesIndex != null) {
+            return this;
+        }
+        if (other.allEdgesIndex != null) {
+            return other;
+        }
+
+        EdgesImpl a = sortedEdges();
+        EdgesImpl b = other.sortedEdges();
+        return new EdgesImpl(SortedIntArrayUtil.union(
+                a.edgesIds, a.start, a.end, b.edgesIds, b.start, b.end), state);
+    }
+
+    @Override
+    public Edges minus(Edges otherEdges) {
+        if (otherEdges.getSize() == 0 || getSize() == 0) {
+            return this;
+        }
+        if (otherEdges == this) {
+            return EMPTY_EDGES;
+        }
+
+        EdgesImpl a = sortedEdges();
+        EdgesImpl b = asEdgesImpl(otherEdges).sortedEdges();
+        return new EdgesImpl(SortedIntArrayUtil.difference(
+                a.edgesIds, a.start, a.end, b.edgesIds, b.start, b.end), state);
+    }
 
-        return createEdges(result);
+    /**
+     * Returns an EdgesImpl with the same edges as this object, but with the
+     * edge ids in ascending order.
+     * <p>
+     * Returns this object when its ids are already sorted. Otherwise, returns
+     * a sorted copy, as the array of this object may be shared with others.
+     * The result is cached, so the ids are sorted at most once.
+     */
+    private EdgesImpl sortedEdges() {
+        EdgesImpl result = sortedEdges;
+        if (result == null) {
+            if (SortedIntArrayUtil.isStrictlyAscending(edgesIds, start, end)) {
+                result = this;
+            } else {
+                int[] ids = Arrays.copyOfRange(edgesIds, start, end);
+                Arrays.sort(ids);
+                result = new EdgesImpl(ids, state);
+            }
+            sortedEdges = result;
+        }
+        return result;
     }
 
     @Override
@@ -167,15 +282,45 @@ class EdgesImpl implements Edges {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         EdgesImpl edges = (EdgesImpl) o;
-        return Arrays.equals(edgesIds, edges.edgesIds);
+        if (getSize() != edges.getSize()) {
+            return false;
+        }
+        int h = hash;
+        int otherHash = edges.hash;
+        if (h != 0 && otherHash != 0 && h != otherHash) {
+            return false;
+        }
+        // the order of the edges does not matter
+        EdgesImpl a = sortedEdges();
+        EdgesImpl b = edges.sortedEdges();
+        for (int i = a.start, j = b.start; i < a.end; i++, j++) {
+            if (a.edgesIds[i] != b.edgesIds[j]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(edgesIds);
+        int result = hash;
+        if (result == 0) {
+            // same as Arrays.hashCode(int[]) for the sorted ids
+            EdgesImpl sorted = sortedEdges();
+            result = 1;
+            for (int i = sorted.start; i < sorted.end; i++) {
+                result = 31 * result + sorted.edgesIds[i];
+            }
+            hash = result;
+        }
+        return result;
     }
 
-    int[] edgesIds() {
-        return edgesIds;
+    /**
+     * Returns the id of the edge at the given {@code index}, with
+     * {@code 0 <= index < getSize()}.
+     */
+    int edgeIdAt(int index) {
+        return edgesIds[start + index];
     }
 }
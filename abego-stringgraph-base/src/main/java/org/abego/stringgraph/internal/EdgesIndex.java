@@ -26,51 +26,399 @@ package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.Edges;
 import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Nodes;
+import org.abego.stringgraph.internal.commons.ForkJoinUtil;
+import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
-import static org.abego.stringgraph.internal.commons.ArrayUtil.intArray;
 import static org.abego.stringgraph.internal.EmptyEdges.EMPTY_EDGES;
 
-class EdgesIndex {
+/**
+ * Links a key (e.g. the id of a fromNode, toNode or label) to the Edges it 
+ * belongs to.
+ * <p>
+ * The index is stored in "compressed sparse row" (CSR) form: {@code keys} 
+ * holds all distinct keys in ascending order, and the edges of the key at 
+ * {@code keys[i]} are found in {@code edgeIds[offsets[i]]} (inclusive) to
+ * {@code edgeIds[offsets[i+1]]} (exclusive).
+ * <p>
+ * Within a key's range the edge ids are in ascending order, unless the index
+ * has a "secondary key" (e.g. the label for an index on fromNodes). Then the
+ * edges of a key's range are ordered by their secondary key (and by their 
+ * edge id for the same secondary key). This way the index also works as a
+ * composite index on (key, secondaryKey), with the edges of such a pair 
+ * found by binary search in the key's range.
+ * <p>
+ * The {@link Edges} returned are slices of the {@code edgeIds} array, i.e.
+ * no edge ids are copied and no boxed values are involved.
+ */
+class EdgesIndex implements EdgesLookup {
     private final StringGraphState state;
-    private final Map<Integer, List<Integer>> map = new HashMap<>();
-    private final Map<Integer, Edges> edgesMap = new HashMap<>();
+    private final int[] keys;
+    private final int[] offsets;
+    private final int[] edgeIds;
+    private final IntUnaryOperator keyOfEdge;
+    @Nullable
+    private final IntUnaryOperator secondaryKeyOfEdge;
 
-    EdgesIndex(StringGraphState state) {
+    private EdgesIndex(
+            StringGraphState state, int[] keys, int[] offsets, int[] edgeIds,
+            IntUnaryOperator keyOfEdge,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge) {
         this.state = state;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.edgeIds = edgeIds;
+        this.keyOfEdge = keyOfEdge;
+        this.secondaryKeyOfEdge = secondaryKeyOfEdge;
+    }
+
+    /**
+     * Returns an EdgesIndex over all edges of the {@code state}, using 
+     * {@code keyOfEdge} to get the key of an edge (given by its edge id).
+     */
+    static EdgesIndex createEdgesIndex(
+            StringGraphState state, IntUnaryOperator keyOfEdge) {
+        return createEdgesIndex(state, keyOfEdge, (ForkJoinPool) null);
+    }
+
+    /**
+     * Returns an EdgesIndex over all edges of the {@code state}, like
+     * {@link #createEdgesIndex(StringGraphState, IntUnaryOperator)}, built 
+     * by tasks of the {@code pool} over ranges of the edges (or in the 
+     * calling thread when {@code pool} is {@code null}).
+     */
+    static EdgesIndex createEdgesIndex(
+            StringGraphState state, IntUnaryOperator keyOfEdge,
+            @Nullable ForkJoinPool pool) {
+        int edgesCount = state.getEdgesCount();
+        int[] allEdgeIds = new int[edgesCount];
+        for (int i = 0; i < edgesCount; i++) {
+            allEdgeIds[i] = StringGraphState.edgeIdOfOrdinal(i);
+        }
+        return createEdgesIndex(state, keyOfEdge, allEdgeIds, null, pool);
+    }
+
+    /**
+     * Returns an EdgesIndex over all edges of the {@code state}, using 
+     * {@code keyOfEdge} to get the key of an edge (given by its edge id), 
+     * and using the key of the {@code secondaryIndex} as the secondary key.
+     * <p>
+     * The {@code secondaryIndex} must not have a secondary key itself.
+     */
+    static EdgesIndex createEdgesIndex(
+            StringGraphState state, IntUnaryOperator keyOfEdge,
+            EdgesIndex secondaryIndex) {
+        return createEdgesIndex(state, keyOfEdge, secondaryIndex, null);
+    }
+
+    /**
+     * Returns an EdgesIndex over all edges of the {@code state}, like
+     * {@link #createEdgesIndex(StringGraphState, IntUnaryOperator, EdgesIndex)},
+     * built by tasks of the {@code pool} over ranges of the edges (or in the 
+     * calling thread when {@code pool} is {@code null}).
+     */
+    static EdgesIndex createEdgesIndex(
+            StringGraphState state, IntUnaryOperator keyOfEdge,
+            EdgesIndex secondaryIndex, @Nullable ForkJoinPool pool) {
+        if (secondaryIndex.secondaryKeyOfEdge != null) {
+            throw new IllegalArgumentException(
+                    "Index with secondary key cannot be used as secondary index"); //NON-NLS
+        }
+        // The edgeIds of the secondaryIndex are ordered by (secondary key, 
+        // edge id). Filling the new index in that order gives us the required
+        // order in every key range.
+        return createEdgesIndex(state, keyOfEdge,
+                secondaryIndex.edgeIds, secondaryIndex.keyOfEdge, pool);
     }
 
-    public void add(int key, int edgeId) {
-        map.computeIfAbsent(key, k -> new ArrayList<>()).add(edgeId);
+    /**
+     * Returns an EdgesIndex over all edges of the {@code state}, like 
+     * {@link #createEdgesIndex(StringGraphState, IntUnaryOperator, EdgesIndex)},
+     * when the edges of the state are already ordered by (key, secondary 
+     * key), or {@code null} otherwise.
+     * <p>
+     * For ordered edges the index is built by a linear scan, without 
+     * sorting, e.g. for the edges read from a store that writes the edges 
+     * sorted by (from, label, to).
+     */
+    static @Nullable EdgesIndex createEdgesIndexOfOrderedEdges(
+            StringGraphState state, IntUnaryOperator keyOfEdge,
+            IntUnaryOperator secondaryKeyOfEdge) {
+        int edgesCount = state.getEdgesCount();
+
+        // check the order and count the keys
+        int keysCount = 0;
+        int prevKey = 0;
+        int prevSecondaryKey = 0;
+        for (int i = 0; i < edgesCount; i++) {
+            int edgeId = StringGraphState.edgeIdOfOrdinal(i);
+            int key = keyOfEdge.applyAsInt(edgeId);
+            int secondaryKey = secondaryKeyOfEdge.applyAsInt(edgeId);
+            if (i == 0 || key > prevKey) {
+                keysCount++;
+            } else if (key < prevKey || secondaryKey < prevSecondaryKey) {
+                return null;
+            }
+            prevKey = key;
+            prevSecondaryKey = secondaryKey;
+        }
+
+        int[] keys = new int[keysCount];
+        int[] offsets = new int[keysCount + 1];
+        int[] edgeIds = new int[edgesCount];
+        int slot = -1;
+        for (int i = 0; i < edgesCount; i++) {
+            int edgeId = StringGraphState.edgeIdOfOrdinal(i);
+            int key = keyOfEdge.applyAsInt(edgeId);
+            if (slot < 0 || keys[slot] != key) {
+                slot++;
+                keys[slot] = key;
+                offsets[slot] = i;
+            }
+            edgeIds[i] = edgeId;
+        }
+        offsets[keysCount] = edgesCount;
+
+        return new EdgesIndex(
+                state, keys, offsets, edgeIds, keyOfEdge, secondaryKeyOfEdge);
     }
 
+    /**
+     * Returns an EdgesIndex over all edges of the {@code state} using the 
+     * given (prebuilt) {@code keys}, {@code offsets} and {@code edgeIds} 
+     * (see class comment).
+     * <p>
+     * The caller is responsible for the data to match the state and the 
+     * key functions. 
+     */
+    static EdgesIndex createEdgesIndex(
+            StringGraphState state, IntUnaryOperator keyOfEdge,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge,
+            int[] keys, int[] offsets, int[] edgeIds) {
+        return new EdgesIndex(
+                state, keys, offsets, edgeIds, keyOfEdge, secondaryKeyOfEdge);
+    }
+
+    private static EdgesIndex createEdgesIndex(
+            StringGraphState state, IntUnaryOperator keyOfEdge,
+            int[] edgeIdsInFillOrder,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge,
+            @Nullable ForkJoinPool pool) {
+        int edgesCount = edgeIdsInFillOrder.length;
+
+        // collect the keys of all edges
+        int[] keyOfEdgeAtIndex = new int[edgesCount];
+        ForkJoinUtil.forEachRange(pool, edgesCount, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                keyOfEdgeAtIndex[i] = keyOfEdge.applyAsInt(edgeIdsInFillOrder[i]);
+            }
+        });
+        int[] keys = ForkJoinUtil.sortedDistinct(pool, keyOfEdgeAtIndex);
+
+        // Reuse the keyOfEdgeAtIndex array to remember the slot of each 
+        // edge's key.
+        ForkJoinUtil.forEachRange(pool, edgesCount, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                keyOfEdgeAtIndex[i] = Arrays.binarySearch(keys, keyOfEdgeAtIndex[i]);
+            }
+        });
+
+        // count the edges per key.
+        int[] offsets = new int[keys.length + 1];
+        for (int i = 0; i < edgesCount; i++) {
+            offsets[keyOfEdgeAtIndex[i] + 1]++;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        // fill the edge ids into the ranges of their keys, keeping the
+        // fill order within every range.
+        int[] nextPos = Arrays.copyOf(offsets, keys.length);
+        int[] edgeIds = new int[edgesCount];
+        for (int i = 0; i < edgesCount; i++) {
+            edgeIds[nextPos[keyOfEdgeAtIndex[i]]++] = edgeIdsInFillOrder[i];
+        }
+
+        return new EdgesIndex(
+                state, keys, offsets, edgeIds, keyOfEdge, secondaryKeyOfEdge);
+    }
+
+    @Override
     public Edges edges(int key) {
-        return key != 0
-                ? edgesMap.computeIfAbsent(key, k -> new EdgesImpl(intArray(map.get(k)), state))
+        int slot = slotOfKey(key);
+        return slot >= 0
+                ? new EdgesImpl(edgeIds, offsets[slot], offsets[slot + 1], state)
                 : EMPTY_EDGES;
     }
 
+    @Override
     public Edges edges(Node node) {
         return edges(NodeImpl.asNodeImpl(node).idAsInt());
     }
 
+    @Override
     public Edges edges(String string) {
         return edges(state.getStringIdOrZero(string));
     }
 
+    @Override
+    public Edges edges(int key, int secondaryKey) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return EMPTY_EDGES;
+        }
+        int start = lowerBoundOfSecondaryKey(
+                offsets[slot], offsets[slot + 1], secondaryKey);
+        int end = lowerBoundOfSecondaryKey(
+                start, offsets[slot + 1], secondaryKey + 1);
+        return start < end
+                ? new EdgesImpl(edgeIds, start, end, state)
+                : EMPTY_EDGES;
+    }
+
+    @Override
+    public int edgesCount(int key) {
+        int slot = slotOfKey(key);
+        return slot >= 0 ? offsets[slot + 1] - offsets[slot] : 0;
+    }
+
+    @Override
+    public int[] secondaryKeys(int key) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return new int[0];
+        }
+        IntUnaryOperator secondaryKeyOf = secondaryKeyOfEdge();
+        int start = offsets[slot];
+        int end = offsets[slot + 1];
+        int[] buffer = new int[end - start];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            int k = secondaryKeyOf.applyAsInt(edgeIds[i]);
+            if (n == 0 || buffer[n - 1] != k) {
+                buffer[n++] = k;
+            }
+        }
+        return Arrays.copyOf(buffer, n);
+    }
+
+    @Override
+    public void forEachEdgeId(int key, IntConsumer action) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return;
+        }
+        int end = offsets[slot + 1];
+        for (int i = offsets[slot]; i < end; i++) {
+            action.accept(edgeIds[i]);
+        }
+    }
+
+    @Override
+    public void forEachEdgeId(int key, int secondaryKey, IntConsumer action) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return;
+        }
+        int start = lowerBoundOfSecondaryKey(
+                offsets[slot], offsets[slot + 1], secondaryKey);
+        int end = lowerBoundOfSecondaryKey(
+                start, offsets[slot + 1], secondaryKey + 1);
+        for (int i = start; i < end; i++) {
+            action.accept(edgeIds[i]);
+        }
+    }
+
+    @Override
+    public void forEachSecondaryKey(int key, IntConsumer action) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return;
+        }
+        IntUnaryOperator secondaryKeyOf = secondaryKeyOfEdge();
+        int end = offsets[slot + 1];
+        int previous = 0;
+        for (int i = offsets[slot]; i < end; i++) {
+            int k = secondaryKeyOf.applyAsInt(edgeIds[i]);
+            if (k != previous) {
+                action.accept(k);
+                previous = k;
+            }
+        }
+    }
+
+    @Override
     public int[] keys() {
-        return intArray(map.keySet());
+        return keys.clone();
     }
 
+    /**
+     * Returns the offsets of the key ranges in {@link #edgeIds()} (see class
+     * comment).
+     * <p>
+     * The array is not copied and must not be modified.
+     */
+    int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the edge ids of all key ranges (see class comment).
+     * <p>
+     * The array is not copied and must not be modified.
+     */
+    int[] edgeIds() {
+        return edgeIds;
+    }
+
+    @Override
+    public Nodes keysAsNodes() {
+        return new NodesImpl(keys, state);
+    }
+
+    @Override
     public Set<String> keyStrings() {
-        return map.keySet().stream()
-                .map(state::getString)
+        return Arrays.stream(keys)
+                .mapToObj(state::getString)
                 .collect(Collectors.toSet());
     }
+
+    private int slotOfKey(int key) {
+        return key != 0 ? Arrays.binarySearch(keys, key) : -1;
+    }
+
+    /**
+     * Returns the index of the first edge in {@code edgeIds[start..end)} with 
+     * a secondary key greater than or equal to {@code secondaryKey}, or 
+     * {@code end} when there is no such edge.
+     */
+    private int lowerBoundOfSecondaryKey(int start, int end, int secondaryKey) {
+        IntUnaryOperator secondaryKeyOf = secondaryKeyOfEdge();
+        int lo = start;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (secondaryKeyOf.applyAsInt(edgeIds[mid]) < secondaryKey) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private IntUnaryOperator secondaryKeyOfEdge() {
+        if (secondaryKeyOfEdge == null) {
+            throw new IllegalStateException("Index has no secondary key"); //NON-NLS
+        }
+        return secondaryKeyOfEdge;
+    }
 }
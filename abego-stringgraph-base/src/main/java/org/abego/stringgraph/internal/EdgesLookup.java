@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Edges;
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Nodes;
+
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Links a key (e.g. the id of a fromNode, toNode or label) to the Edges it 
+ * belongs to, optionally ordered by a "secondary key" (e.g. the label for 
+ * an index on fromNodes).
+ * <p>
+ * See {@link EdgesIndex} for an implementation holding the index in memory,
+ * and {@link PagedEdgesIndex} for one reading the index from disk.
+ */
+interface EdgesLookup {
+
+    Edges edges(int key);
+
+    Edges edges(Node node);
+
+    Edges edges(String string);
+
+    /**
+     * Returns the edges with the given {@code key} and {@code secondaryKey}.
+     * <p>
+     * The index must have a secondary key.
+     */
+    Edges edges(int key, int secondaryKey);
+
+    /**
+     * Returns the number of edges with the given {@code key}.
+     */
+    int edgesCount(int key);
+
+    /**
+     * Returns the distinct secondary keys of the edges with the given 
+     * {@code key}, in ascending order.
+     * <p>
+     * The index must have a secondary key.
+     */
+    int[] secondaryKeys(int key);
+
+    /**
+     * Calls the {@code action} with the edge id of every edge with the given
+     * {@code key}, in index order.
+     */
+    void forEachEdgeId(int key, IntConsumer action);
+
+    /**
+     * Calls the {@code action} with the edge id of every edge with the given
+     * {@code key} and {@code secondaryKey}, in index order.
+     * <p>
+     * The index must have a secondary key.
+     */
+    void forEachEdgeId(int key, int secondaryKey, IntConsumer action);
+
+    /**
+     * Calls the {@code action} with every distinct secondary key of the 
+     * edges with the given {@code key}, in ascending order.
+     * <p>
+     * The index must have a secondary key.
+     */
+    void forEachSecondaryKey(int key, IntConsumer action);
+
+    /**
+     * Returns the keys of this index, in ascending order.
+     * <p>
+     * The array returned is not shared with the index, i.e. the caller may
+     * modify it.
+     */
+    int[] keys();
+
+    /**
+     * Returns the keys of this index as {@link Nodes}, in ascending order, 
+     * without copying them.
+     * <p>
+     * The keys must be node ids, e.g. for an index on fromNodes.
+     */
+    Nodes keysAsNodes();
+
+    Set<String> keyStrings();
+}
@@ -68,6 +68,16 @@ class EmptyEdges implements Edges {
         return this;
     }
 
+    @Override
+    public Edges union(Edges otherEdges) {
+        return otherEdges;
+    }
+
+    @Override
+    public Edges minus(Edges otherEdges) {
+        return this;
+    }
+
     @Override
     public Iterable<Edge> sorted(Comparator<? super Edge> comparator) {
         return emptyList();
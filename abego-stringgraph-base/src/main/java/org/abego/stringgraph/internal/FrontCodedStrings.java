@@ -0,0 +1,270 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.internal.commons.VLQUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An immutable, compact sequence of sorted Strings, each identified by its 
+ * 1-based position ("id") in the sequence.
+ * <p>
+ * The Strings are sorted by their UTF-8 bytes (see 
+ * {@link #compareUTF8(byte[], byte[])}) and "front coded" in buckets of 
+ * {@link #BUCKET_SIZE} Strings: the first String of a bucket is stored with
+ * all its bytes, every other String as the number of leading bytes it shares
+ * with its predecessor, followed by its remaining bytes. All numbers are VLQ
+ * encoded. For Strings with common prefixes, like hierarchical names, this 
+ * needs only a fraction of the bytes of the Strings.
+ * <p>
+ * The start of every bucket is found in a "bucket directory". A String is 
+ * decoded from the start of its bucket. The id of a String is found by a 
+ * binary search over the first Strings of the buckets followed by a scan 
+ * of a single bucket.
+ * <p>
+ * A FrontCodedStrings is safe for concurrent use.
+ */
+final class FrontCodedStrings {
+    static final int BUCKET_SIZE = 16;
+
+    private final int size;
+    /**
+     * The offset of the i-th bucket in {@link #data}.
+     */
+    private final int[] bucketOffsets;
+    private final byte[] data;
+
+    private FrontCodedStrings(int size, int[] bucketOffsets, byte[] data) {
+        if (bucketOffsets.length != bucketCount(size)) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d buckets, got %d", //NON-NLS
+                    bucketCount(size), bucketOffsets.length));
+        }
+        this.size = size;
+        this.bucketOffsets = bucketOffsets;
+        this.data = data;
+    }
+
+    /**
+     * Returns the FrontCodedStrings as defined by the given encoded data 
+     * (see {@link #bucketOffsets()} and {@link #data()}).
+     */
+    static FrontCodedStrings createFrontCodedStrings(
+            int size, int[] bucketOffsets, byte[] data) {
+        return new FrontCodedStrings(size, bucketOffsets, data);
+    }
+
+    /**
+     * Returns the FrontCodedStrings for the Strings given by their UTF-8 bytes,
+     * sorted by {@link #compareUTF8(byte[], byte[])} and without duplicates.
+     */
+    static FrontCodedStrings createFrontCodedStrings(byte[][] sortedUTF8Strings) {
+        int size = sortedUTF8Strings.length;
+        int[] bucketOffsets = new int[bucketCount(size)];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VLQUtil.ByteConsumer byteConsumer = bytes::write;
+        for (int i = 0; i < size; i++) {
+            byte[] s = sortedUTF8Strings[i];
+            int prefixLength = 0;
+            if (i % BUCKET_SIZE == 0) {
+                bucketOffsets[i / BUCKET_SIZE] = bytes.size();
+            } else {
+                prefixLength = commonPrefixLength(sortedUTF8Strings[i - 1], s);
+                VLQUtil.encodeUnsignedIntAsVLQ(prefixLength, byteConsumer);
+            }
+            VLQUtil.encodeUnsignedIntAsVLQ(s.length - prefixLength, byteConsumer);
+            bytes.write(s, prefixLength, s.length - prefixLength);
+            if (bytes.size() < 0) {
+                throw new IllegalArgumentException("Strings too large (> 2 GB)"); //NON-NLS
+            }
+        }
+        return new FrontCodedStrings(size, bucketOffsets, bytes.toByteArray());
+    }
+
+    /**
+     * Compares the UTF-8 bytes {@code a} and {@code b} lexicographically, 
+     * as unsigned bytes.
+     * <p>
+     * This order is the order of the Unicode code points of the Strings.
+     */
+    static int compareUTF8(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int c = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Returns the number of Strings, i.e. the largest id.
+     */
+    int size() {
+        return size;
+    }
+
+    int[] bucketOffsets() {
+        return bucketOffsets;
+    }
+
+    byte[] data() {
+        return data;
+    }
+
+    /**
+     * Returns the String with the given {@code id}.
+     */
+    String getString(int id) {
+        if (id < 1 || id > size) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid String id: %d", id)); //NON-NLS
+        }
+        int ordinal = id - 1;
+        BucketReader reader = new BucketReader(ordinal / BUCKET_SIZE);
+        for (int i = ordinal % BUCKET_SIZE; i >= 0; i--) {
+            reader.next();
+        }
+        return reader.string();
+    }
+
+    /**
+     * Returns the id of the String {@code s}, or {@code 0} when {@code s} is
+     * not contained.
+     */
+    int idOrZero(String s) {
+        byte[] key = s.getBytes(StandardCharsets.UTF_8);
+
+        // find the last bucket starting with a String less or equal to key
+        int bucket = -1;
+        int lo = 0;
+        int hi = bucketOffsets.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            BucketReader reader = new BucketReader(mid);
+            reader.next();
+            int c = reader.compareTo(key);
+            if (c == 0) {
+                return mid * BUCKET_SIZE + 1;
+            }
+            if (c < 0) {
+                bucket = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        if (bucket < 0) {
+            return 0;
+        }
+
+        BucketReader reader = new BucketReader(bucket);
+        int ordinal = bucket * BUCKET_SIZE;
+        while (reader.next()) {
+            int c = reader.compareTo(key);
+            if (c == 0) {
+                return ordinal + 1;
+            }
+            if (c > 0) {
+                return 0;
+            }
+            ordinal++;
+        }
+        return 0;
+    }
+
+    private static int bucketCount(int size) {
+        return (size + BUCKET_SIZE - 1) / BUCKET_SIZE;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        int i = 0;
+        while (i < n && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Decodes the Strings of a bucket, one after the other, as UTF-8 bytes.
+     */
+    private final class BucketReader {
+        private int pos;
+        private int remaining;
+        private boolean first = true;
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        private BucketReader(int bucket) {
+            this.pos = bucketOffsets[bucket];
+            this.remaining = Math.min(BUCKET_SIZE, size - bucket * BUCKET_SIZE);
+        }
+
+        /**
+         * Decodes the next String of the bucket and returns {@code true}, or
+         * returns {@code false} when all Strings of the bucket are decoded.
+         */
+        private boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            int prefixLength = first ? 0 : readInt();
+            int suffixLength = readInt();
+            int n = prefixLength + suffixLength;
+            if (n > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(n, bytes.length * 2));
+            }
+            System.arraycopy(data, pos, bytes, prefixLength, suffixLength);
+            pos += suffixLength;
+            length = n;
+            first = false;
+            remaining--;
+            return true;
+        }
+
+        private int readInt() {
+            return VLQUtil.decodeUnsignedIntFromVLQ(() -> data[pos++]);
+        }
+
+        private int compareTo(byte[] key) {
+            int n = Math.min(length, key.length);
+            for (int i = 0; i < n; i++) {
+                int c = Integer.compare(bytes[i] & 0xFF, key[i] & 0xFF);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(length, key.length);
+        }
+
+        private String string() {
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.internal.commons.BloomFilter;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link StringGraphState} working "in place" on the (memory mapped) 
+ * sections of a file written by {@link StringGraphStoreMapped}.
+ * <p>
+ * Edges, properties and Strings are read from the buffers when needed, i.e.
+ * they stay off the Java heap. Only the node ids are copied into an array, 
+ * on the first call of {@link #getNodesIds()}.
+ * <p>
+ * The buffers are only accessed with absolute "get" operations, so a 
+ * MappedStringGraphState is safe for concurrent readers.
+ */
+class MappedStringGraphState implements StringGraphState {
+    private final IntBuffer nodes;
+    private final IntBuffer edges;
+    private final IntBuffer propertyNodes;
+    private final IntBuffer propertyOffsets;
+    private final IntBuffer propertyData;
+    private final IntBuffer stringOffsets;
+    private final ByteBuffer stringBytes;
+    private final IntBuffer stringHashTable;
+    private final int stringHashMask;
+    private final StringCache stringCache;
+    @Nullable
+    private final BloomFilter nodeBloomFilter;
+    @Nullable
+    private final BloomFilter edgeBloomFilter;
+    /**
+     * Lazily created by {@link #getNodesIds()}.
+     * <p>
+     * Concurrent readers may create more than one array, but all are equal.
+     */
+    private volatile int @Nullable [] nodesIds;
+
+    private MappedStringGraphState(IntBuffer nodes,
+                                   IntBuffer edges,
+                                   IntBuffer propertyNodes,
+                                   IntBuffer propertyOffsets,
+                                   IntBuffer propertyData,
+                                   IntBuffer stringOffsets,
+                                   ByteBuffer stringBytes,
+                                   IntBuffer stringHashTable,
+                                   @Nullable BloomFilter nodeBloomFilter,
+                                   @Nullable BloomFilter edgeBloomFilter,
+                                   StringGraphs.ReadOptions options) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.propertyNodes = propertyNodes;
+        this.propertyOffsets = propertyOffsets;
+        this.propertyData = propertyData;
+        this.stringOffsets = stringOffsets;
+        this.stringBytes = stringBytes;
+        this.stringHashTable = stringHashTable;
+        this.stringHashMask = stringHashTable.limit() - 1;
+        this.nodeBloomFilter = nodeBloomFilter;
+        this.edgeBloomFilter = edgeBloomFilter;
+        this.stringCache = StringCache.createStringCache(
+                options.getStringCacheMode(),
+                options.getStringCacheMemoryLimit(),
+                this::decodeString,
+                stringOffsets.limit() - 1);
+    }
+
+    static MappedStringGraphState createMappedStringGraphState(
+            IntBuffer nodes,
+            IntBuffer edges,
+            IntBuffer propertyNodes,
+            IntBuffer propertyOffsets,
+            IntBuffer propertyData,
+            IntBuffer stringOffsets,
+            ByteBuffer stringBytes,
+            IntBuffer stringHashTable,
+            @Nullable BloomFilter nodeBloomFilter,
+            @Nullable BloomFilter edgeBloomFilter,
+            StringGraphs.ReadOptions options) {
+        return new MappedStringGraphState(nodes, edges,
+                propertyNodes, propertyOffsets, propertyData,
+                stringOffsets, stringBytes, stringHashTable,
+                nodeBloomFilter, edgeBloomFilter, options);
+    }
+
+    @Override
+    public int[] getNodesIds() {
+        int[] result = nodesIds;
+        if (result == null) {
+            result = new int[nodes.limit()];
+            // get via a duplicate, as the relative get changes the position
+            nodes.duplicate().get(result);
+            nodesIds = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int getFromId(int edgeId) {
+        return edges.get(edgeId);
+    }
+
+    @Override
+    public int getToId(int edgeId) {
+        return edges.get(edgeId + 1);
+    }
+
+    @Override
+    public int getLabelId(int edgeId) {
+        return edges.get(edgeId + 2);
+    }
+
+    @Override
+    public int getEdgesCount() {
+        return edges.limit() / 3;
+    }
+
+    @Override
+    public int @Nullable [] getPropertyDataForNode(int nodeId) {
+        int i = binarySearch(propertyNodes, nodeId);
+        if (i < 0) {
+            return null;
+        }
+        int start = propertyOffsets.get(i);
+        int end = propertyOffsets.get(i + 1);
+        int[] result = new int[end - start];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = propertyData.get(start + k);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getNodesWithProperties() {
+        int[] result = new int[propertyNodes.limit()];
+        propertyNodes.duplicate().get(result);
+        return result;
+    }
+
+    @Override
+    public String getString(int id) {
+        return stringCache.getString(id);
+    }
+
+    @Override
+    public int getStringId(String string) {
+        int id = getStringIdOrZero(string);
+        if (id == 0) {
+            throw new NoSuchElementException();
+        }
+        return id;
+    }
+
+    @Override
+    public int getStringIdOrZero(String string) {
+        byte @Nullable [] utf8 = null;
+        int slot = StringGraphStoreMapped.spreadHash(string.hashCode()) & stringHashMask;
+        int id;
+        while ((id = stringHashTable.get(slot)) != 0) {
+            if (utf8 == null) {
+                utf8 = string.getBytes(StandardCharsets.UTF_8);
+            }
+            if (hasBytes(id, utf8)) {
+                return id;
+            }
+            slot = (slot + 1) & stringHashMask;
+        }
+        return 0;
+    }
+
+    @Override
+    public StringCacheStatistics getStringCacheStatistics() {
+        return stringCache.getStatistics();
+    }
+
+    @Override
+    public @Nullable BloomFilter getNodeBloomFilter() {
+        return nodeBloomFilter;
+    }
+
+    @Override
+    public @Nullable BloomFilter getEdgeBloomFilter() {
+        return edgeBloomFilter;
+    }
+
+    private String decodeString(int id) {
+        if (id <= 0 || id >= stringOffsets.limit()) {
+            throw new IllegalArgumentException("Invalid String id: " + id); //NON-NLS
+        }
+        int start = stringOffsets.get(id - 1);
+        byte[] bytes = new byte[stringOffsets.get(id) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = stringBytes.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns {@code true} when the String with the given {@code id} is 
+     * encoded by the {@code utf8} bytes, {@code false} otherwise.
+     */
+    private boolean hasBytes(int id, byte[] utf8) {
+        int start = stringOffsets.get(id - 1);
+        if (stringOffsets.get(id) - start != utf8.length) {
+            return false;
+        }
+        for (int i = 0; i < utf8.length; i++) {
+            if (stringBytes.get(start + i) != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int binarySearch(IntBuffer sortedValues, int value) {
+        int lo = 0;
+        int hi = sortedValues.limit() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = sortedValues.get(mid);
+            if (v < value) {
+                lo = mid + 1;
+            } else if (v > value) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
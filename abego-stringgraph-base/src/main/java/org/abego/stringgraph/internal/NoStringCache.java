@@ -0,0 +1,60 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheStatistics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import static org.abego.stringgraph.internal.StringCacheStatisticsImpl.createStringCacheStatistics;
+
+/**
+ * A {@link StringCache} that does not cache, i.e. decodes the String on every
+ * access (and counts every access as a miss).
+ */
+final class NoStringCache implements StringCache {
+    private final IntFunction<String> decoder;
+    private final LongAdder missCount = new LongAdder();
+
+    private NoStringCache(IntFunction<String> decoder) {
+        this.decoder = decoder;
+    }
+
+    static NoStringCache createNoStringCache(IntFunction<String> decoder) {
+        return new NoStringCache(decoder);
+    }
+
+    @Override
+    public String getString(int id) {
+        missCount.increment();
+        return decoder.apply(id);
+    }
+
+    @Override
+    public StringCacheStatistics getStatistics() {
+        return createStringCacheStatistics(0, missCount.sum());
+    }
+}
@@ -26,6 +26,7 @@ package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.Node;
 import org.abego.stringgraph.core.Nodes;
+import org.abego.stringgraph.internal.commons.SortedIntArrayUtil;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Arrays;
@@ -36,11 +37,24 @@ import java.util.stream.Stream;
 import static org.abego.stringgraph.internal.commons.ClassUtil.className;
 
 class NodesImpl implements Nodes {
+    /**
+     * The ids of the nodes.
+     * <p>
+     * The array may be shared with other objects (e.g. the 
+     * {@link StringGraphState}) and must not be modified.
+     */
     private final int[] nodesIDs;
     private final StringGraphState state;
-    private boolean isSorted = false;
+    /**
+     * The {@code nodesIDs} in ascending order, lazily created by 
+     * {@link #sortedIds()}.
+     */
+    private volatile int @Nullable [] sortedNodesIDs;
 
     static NodesImpl asNodesImpl(@Nullable Nodes nodes) {
+        if (nodes instanceof PagedNodes) {
+            return ((PagedNodes) nodes).toNodesImpl();
+        }
         if (!(nodes instanceof NodesImpl)) {
             throw new IllegalArgumentException("NodesImpl expected, got " + className(nodes));
         }
@@ -69,39 +83,12 @@ class NodesImpl implements Nodes {
             return this;
         }
 
-        // sort both id arrays
+        // sort both id arrays and merge them
         int[] a = sortedIds();
         int[] b = asNodesImpl(otherNodes).sortedIds();
-        // compare the items of both id arrays and add all ids that are
-        // in both array to the buffer array
-        int nA = a.length;
-        int nB = b.length;
-        int maxResultSize = Math.min(nA, nB);
-        int[] buffer = new int[maxResultSize];
-        int iBuffer = 0;
-        int iA = 0;
-        int iB = 0;
-        while (iA < nA && iB < nB) {
-            int vA = a[iA];
-            int vB = b[iB];
-            if (vA == vB) {
-                buffer[iBuffer++] = vA;
-                iA++;
-                iB++;
-            } else if (vA > vB) {
-                //noinspection StatementWithEmptyBody
-                while (++iB < nB && vA > b[iB]) {
-                    // empty by intend
-                }
-            } else {
-                // vB > vA
-                //noinspection StatementWithEmptyBody
-                while (++iA < nA && vB > a[iA]) {
-                    // empty by intend
-                }
-            }
-        }
-        return new NodesImpl(Arrays.copyOf(buffer, iBuffer), state);
+        return new NodesImpl(
+                SortedIntArrayUtil.intersection(a, 0, a.length, b, 0, b.length),
+                state);
     }
 
     @Override
@@ -114,42 +101,12 @@ class NodesImpl implements Nodes {
             return otherNodes;
         }
         
-        // sort both id arrays
+        // sort both id arrays and merge them
         int[] a = sortedIds();
         int[] b = asNodesImpl(otherNodes).sortedIds();
-        // compare the items of both id arrays and add all ids that are
-        // in either array to the buffer array, but avoid duplicate insertion
-        int nA = a.length;
-        int nB = b.length;
-        int maxResultSize = nA+ nB;
-        int[] buffer = new int[maxResultSize];
-        int iBuffer = 0;
-        int iA = 0;
-        int iB = 0;
-        while (iA < nA && iB < nB) {
-            int vA = a[iA];
-            int vB = b[iB];
-            if (vA == vB) {
-                buffer[iBuffer++] = vA;
-                iA++;
-                iB++;
-            } else if (vA > vB) {
-                buffer[iBuffer++] = vB;
-                iB++;
-            } else {
-                // vB > vA
-                buffer[iBuffer++] = vA;
-                iA++;
-            }
-        }
-        while (iA < nA) {
-            buffer[iBuffer++] = a[iA++];
-        }
-        while (iB < nB) {
-            buffer[iBuffer++] = b[iB++];
-        }
-
-        return new NodesImpl(Arrays.copyOf(buffer, iBuffer), state);
+        return new NodesImpl(
+                SortedIntArrayUtil.union(a, 0, a.length, b, 0, b.length),
+                state);
     }
 
     @Override
@@ -168,12 +125,25 @@ class NodesImpl implements Nodes {
         return new NodesImpl(Arrays.copyOf(buffer, iBuffer), state);
     }
 
+    /**
+     * Returns the ids of the nodes in ascending order.
+     * <p>
+     * Does not modify the {@code nodesIDs} (that may be shared) but sorts a 
+     * copy, when needed. Concurrent callers may sort more than one copy, 
+     * but this does no harm.
+     */
     private int[] sortedIds() {
-        if (!isSorted) {
-            Arrays.sort(nodesIDs);
-            isSorted = true;
+        int[] result = sortedNodesIDs;
+        if (result == null) {
+            if (SortedIntArrayUtil.isStrictlyAscending(nodesIDs, 0, nodesIDs.length)) {
+                result = nodesIDs;
+            } else {
+                result = nodesIDs.clone();
+                Arrays.sort(result);
+            }
+            sortedNodesIDs = result;
         }
-        return nodesIDs;
+        return result;
     }
 
     @Override
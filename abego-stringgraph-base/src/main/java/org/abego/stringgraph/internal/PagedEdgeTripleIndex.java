@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.internal.commons.IntArray;
+import org.abego.stringgraph.internal.commons.PagedIntArray;
+
+/**
+ * An {@link EdgeTripleLookup} reading the hash table of an 
+ * {@link EdgeTripleIndex} from a file, through an {@link IntArray}, either 
+ * paged ({@link PagedIntArray}) or memory mapped.
+ * <p>
+ * The table holds {@code edgeOrdinal + 1} ({@code 0} marks an empty slot, 
+ * see {@link StringGraphIndexData}).
+ */
+class PagedEdgeTripleIndex implements EdgeTripleLookup {
+    private final StringGraphState state;
+    private final IntArray table;
+    private final int mask;
+
+    private PagedEdgeTripleIndex(StringGraphState state, IntArray table) {
+        this.state = state;
+        this.table = table;
+        this.mask = table.length() - 1;
+    }
+
+    /**
+     * Returns a PagedEdgeTripleIndex for the {@code state}, using the given 
+     * {@code table} (see class comment).
+     * <p>
+     * The caller is responsible for the table to match the state. 
+     */
+    static PagedEdgeTripleIndex createPagedEdgeTripleIndex(
+            StringGraphState state, IntArray table) {
+        if (Integer.bitCount(table.length()) != 1) {
+            throw new IllegalArgumentException(
+                    "Table length must be a power of 2, got " + table.length()); //NON-NLS
+        }
+        return new PagedEdgeTripleIndex(state, table);
+    }
+
+    @Override
+    public int edgeIdOf(int fromId, int labelId, int toId) {
+        if (fromId == 0 || labelId == 0 || toId == 0) {
+            return -1;
+        }
+        int slot = EdgeTripleIndex.hash(fromId, labelId, toId) & mask;
+        int entry;
+        while ((entry = table.get(slot)) != 0) {
+            int edgeId = StringGraphState.edgeIdOfOrdinal(entry - 1);
+            if (state.getFromId(edgeId) == fromId &&
+                    state.getLabelId(edgeId) == labelId &&
+                    state.getToId(edgeId) == toId) {
+                return edgeId;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(String fromNode, String label, String toNode) {
+        return contains(
+                state.getStringIdOrZero(fromNode),
+                state.getStringIdOrZero(label),
+                state.getStringIdOrZero(toNode));
+    }
+}
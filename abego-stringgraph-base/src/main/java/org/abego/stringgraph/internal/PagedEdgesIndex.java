@@ -0,0 +1,255 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Edges;
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Nodes;
+import org.abego.stringgraph.internal.commons.IntArray;
+import org.abego.stringgraph.internal.commons.PagedIntArray;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.abego.stringgraph.internal.EmptyEdges.EMPTY_EDGES;
+
+/**
+ * An {@link EdgesLookup} reading the index from a file, through 
+ * {@link IntArray}s, either paged ({@link PagedIntArray}) or memory mapped.
+ * <p>
+ * The index has the same "CSR" layout as an {@link EdgesIndex}, but holds 
+ * edge ordinals (see {@link StringGraphState#ordinalOfEdgeId(int)}) instead of edge ids (see 
+ * {@link StringGraphIndexData}).
+ * <p>
+ * Only the parts of the keys looked up are read, and the {@link Edges} 
+ * returned hold a copy of their edge ids, so the memory used depends on the 
+ * edges queried, not on the size of the index.
+ */
+class PagedEdgesIndex implements EdgesLookup {
+    private final StringGraphState state;
+    private final IntArray keys;
+    private final IntArray offsets;
+    private final IntArray edgeOrdinals;
+    @Nullable
+    private final IntUnaryOperator secondaryKeyOfEdge;
+
+    private PagedEdgesIndex(StringGraphState state,
+                            IntArray keys,
+                            IntArray offsets,
+                            IntArray edgeOrdinals,
+                            @Nullable IntUnaryOperator secondaryKeyOfEdge) {
+        this.state = state;
+        this.keys = keys;
+        this.offsets = offsets;
+        this.edgeOrdinals = edgeOrdinals;
+        this.secondaryKeyOfEdge = secondaryKeyOfEdge;
+    }
+
+    /**
+     * Returns a PagedEdgesIndex over the given data (see class comment), 
+     * using {@code secondaryKeyOfEdge} to get the secondary key of an edge
+     * (given by its edge id), or {@code null} when the index has no 
+     * secondary key.
+     * <p>
+     * The caller is responsible for the data to match the state and the 
+     * key function. 
+     */
+    static PagedEdgesIndex createPagedEdgesIndex(
+            StringGraphState state,
+            IntArray keys,
+            IntArray offsets,
+            IntArray edgeOrdinals,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge) {
+        return new PagedEdgesIndex(
+                state, keys, offsets, edgeOrdinals, secondaryKeyOfEdge);
+    }
+
+    @Override
+    public Edges edges(int key) {
+        int slot = slotOfKey(key);
+        return slot >= 0
+                ? edgesInRange(offsets.get(slot), offsets.get(slot + 1))
+                : EMPTY_EDGES;
+    }
+
+    @Override
+    public Edges edges(Node node) {
+        return edges(NodeImpl.asNodeImpl(node).idAsInt());
+    }
+
+    @Override
+    public Edges edges(String string) {
+        return edges(state.getStringIdOrZero(string));
+    }
+
+    @Override
+    public Edges edges(int key, int secondaryKey) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return EMPTY_EDGES;
+        }
+        int end = offsets.get(slot + 1);
+        int start = lowerBoundOfSecondaryKey(offsets.get(slot), end, secondaryKey);
+        return edgesInRange(start,
+                lowerBoundOfSecondaryKey(start, end, secondaryKey + 1));
+    }
+
+    @Override
+    public int edgesCount(int key) {
+        int slot = slotOfKey(key);
+        return slot >= 0 ? offsets.get(slot + 1) - offsets.get(slot) : 0;
+    }
+
+    @Override
+    public int[] secondaryKeys(int key) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return new int[0];
+        }
+        IntUnaryOperator secondaryKeyOf = secondaryKeyOfEdge();
+        int start = offsets.get(slot);
+        int end = offsets.get(slot + 1);
+        int[] buffer = new int[end - start];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            int k = secondaryKeyOf.applyAsInt(edgeIdAt(i));
+            if (n == 0 || buffer[n - 1] != k) {
+                buffer[n++] = k;
+            }
+        }
+        return Arrays.copyOf(buffer, n);
+    }
+
+    @Override
+    public void forEachEdgeId(int key, IntConsumer action) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return;
+        }
+        int end = offsets.get(slot + 1);
+        for (int i = offsets.get(slot); i < end; i++) {
+            action.accept(edgeIdAt(i));
+        }
+    }
+
+    @Override
+    public void forEachEdgeId(int key, int secondaryKey, IntConsumer action) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return;
+        }
+        int slotEnd = offsets.get(slot + 1);
+        int start = lowerBoundOfSecondaryKey(offsets.get(slot), slotEnd, secondaryKey);
+        int end = lowerBoundOfSecondaryKey(start, slotEnd, secondaryKey + 1);
+        for (int i = start; i < end; i++) {
+            action.accept(edgeIdAt(i));
+        }
+    }
+
+    @Override
+    public void forEachSecondaryKey(int key, IntConsumer action) {
+        int slot = slotOfKey(key);
+        if (slot < 0) {
+            return;
+        }
+        IntUnaryOperator secondaryKeyOf = secondaryKeyOfEdge();
+        int end = offsets.get(slot + 1);
+        int previous = 0;
+        for (int i = offsets.get(slot); i < end; i++) {
+            int k = secondaryKeyOf.applyAsInt(edgeIdAt(i));
+            if (k != previous) {
+                action.accept(k);
+                previous = k;
+            }
+        }
+    }
+
+    @Override
+    public int[] keys() {
+        return keys.toArray();
+    }
+
+    @Override
+    public Nodes keysAsNodes() {
+        return PagedNodes.createPagedNodes(keys, state);
+    }
+
+    @Override
+    public Set<String> keyStrings() {
+        return Arrays.stream(keys())
+                .mapToObj(state::getString)
+                .collect(Collectors.toSet());
+    }
+
+    private Edges edgesInRange(int start, int end) {
+        if (start >= end) {
+            return EMPTY_EDGES;
+        }
+        int[] edgeIds = edgeOrdinals.toArray(start, end);
+        for (int i = 0; i < edgeIds.length; i++) {
+            edgeIds[i] = StringGraphState.edgeIdOfOrdinal(edgeIds[i]);
+        }
+        return new EdgesImpl(edgeIds, state);
+    }
+
+    private int edgeIdAt(int index) {
+        return StringGraphState.edgeIdOfOrdinal(edgeOrdinals.get(index));
+    }
+
+    private int slotOfKey(int key) {
+        return key != 0 ? keys.binarySearch(key) : -1;
+    }
+
+    /**
+     * Returns the index of the first edge in {@code [start..end)} with a 
+     * secondary key greater than or equal to {@code secondaryKey}, or 
+     * {@code end} when there is no such edge.
+     */
+    private int lowerBoundOfSecondaryKey(int start, int end, int secondaryKey) {
+        IntUnaryOperator secondaryKeyOf = secondaryKeyOfEdge();
+        int lo = start;
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (secondaryKeyOf.applyAsInt(edgeIdAt(mid)) < secondaryKey) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private IntUnaryOperator secondaryKeyOfEdge() {
+        if (secondaryKeyOfEdge == null) {
+            throw new IllegalStateException("Index has no secondary key"); //NON-NLS
+        }
+        return secondaryKeyOfEdge;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Nodes;
+import org.abego.stringgraph.internal.commons.IntArray;
+import org.abego.stringgraph.internal.commons.PagedIntArray;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link Nodes} with ids read from a file, through an {@link IntArray}, 
+ * either paged ({@link PagedIntArray}) or memory mapped, e.g. the keys of a
+ * {@link PagedEdgesIndex}.
+ * <p>
+ * The ids are not copied to the heap unless the nodes are combined with
+ * other nodes (see {@link #toNodesImpl()}).
+ * <p>
+ * The array must hold distinct node ids, sorted in ascending order.
+ */
+class PagedNodes implements Nodes {
+    private final IntArray nodesIDs;
+    private final StringGraphState state;
+
+    private PagedNodes(IntArray nodesIDs, StringGraphState state) {
+        this.nodesIDs = nodesIDs;
+        this.state = state;
+    }
+
+    static PagedNodes createPagedNodes(IntArray nodesIDs, StringGraphState state) {
+        return new PagedNodes(nodesIDs, state);
+    }
+
+    @Override
+    public int getSize() {
+        return nodesIDs.length();
+    }
+
+    @Override
+    public Stream<Node> stream() {
+        return IntStream.range(0, nodesIDs.length())
+                .mapToObj(i -> new NodeImpl(nodesIDs.get(i), state));
+    }
+
+    @Override
+    public Nodes intersected(Nodes otherNodes) {
+        if (otherNodes == this) {
+            return this;
+        }
+        return toNodesImpl().intersected(otherNodes);
+    }
+
+    @Override
+    public Nodes union(Nodes otherNodes) {
+        if (otherNodes == this || otherNodes.getSize() == 0) {
+            return this;
+        }
+        return toNodesImpl().union(otherNodes);
+    }
+
+    @Override
+    public Nodes filter(Predicate<Node> predicate) {
+        Nodes result = toNodesImpl().filter(predicate);
+        // nothing was excluded?
+        return result.getSize() == getSize() ? this : result;
+    }
+
+    /**
+     * Returns the nodes as {@link NodesImpl}, with the ids copied to the 
+     * heap.
+     */
+    NodesImpl toNodesImpl() {
+        return new NodesImpl(nodesIDs.toArray(), state);
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return stream().iterator();
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PagedNodes nodes = (PagedNodes) o;
+        return Arrays.equals(nodesIDs.toArray(), nodes.nodesIDs.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(nodesIDs.toArray());
+    }
+}
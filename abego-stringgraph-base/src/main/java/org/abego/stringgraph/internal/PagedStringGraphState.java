@@ -0,0 +1,267 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheMode;
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.internal.commons.BloomFilter;
+import org.abego.stringgraph.internal.commons.PageCache;
+import org.abego.stringgraph.internal.commons.PagedIntArray;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link StringGraphState} reading the sections of a file written by 
+ * {@link StringGraphStoreMapped} on demand, through a bounded 
+ * {@link PageCache}, i.e. a "disk-resident" state.
+ * <p>
+ * Like {@link MappedStringGraphState} it locates a node's properties and 
+ * the Strings through the offset tables of the file, but in contrast to 
+ * the mapped state it also reads the indexes of the graph from the file 
+ * (see {@link PagedEdgesIndex} and {@link PagedEdgeTripleIndex}) and never
+ * keeps the node ids in memory. So the memory used depends on the parts of 
+ * the graph queried ("working set"), not on the size of the graph.
+ * <p>
+ * For the same reason the Strings are cached in a bounded cache, also when
+ * the read options ask for a {@link StringCacheMode#UNBOUNDED} cache, as 
+ * that cache would eventually hold all Strings of the graph.
+ * <p>
+ * A PagedStringGraphState is safe for concurrent readers.
+ */
+class PagedStringGraphState implements StringGraphState {
+    private final Closeable file;
+    private final PageCache pageCache;
+    private final PagedIntArray nodes;
+    private final PagedIntArray edges;
+    private final PagedIntArray propertyNodes;
+    private final PagedIntArray propertyOffsets;
+    private final PagedIntArray propertyData;
+    private final PagedIntArray stringOffsets;
+    private final long stringBytesPosition;
+    private final PagedIntArray stringHashTable;
+    private final int stringHashMask;
+    private final StringCache stringCache;
+    @Nullable
+    private final BloomFilter nodeBloomFilter;
+    @Nullable
+    private final BloomFilter edgeBloomFilter;
+
+    private PagedStringGraphState(Closeable file,
+                                  PageCache pageCache,
+                                  PagedIntArray nodes,
+                                  PagedIntArray edges,
+                                  PagedIntArray propertyNodes,
+                                  PagedIntArray propertyOffsets,
+                                  PagedIntArray propertyData,
+                                  PagedIntArray stringOffsets,
+                                  long stringBytesPosition,
+                                  PagedIntArray stringHashTable,
+                                  @Nullable BloomFilter nodeBloomFilter,
+                                  @Nullable BloomFilter edgeBloomFilter,
+                                  StringGraphs.ReadOptions options) {
+        this.file = file;
+        this.pageCache = pageCache;
+        this.nodes = nodes;
+        this.edges = edges;
+        this.propertyNodes = propertyNodes;
+        this.propertyOffsets = propertyOffsets;
+        this.propertyData = propertyData;
+        this.stringOffsets = stringOffsets;
+        this.stringBytesPosition = stringBytesPosition;
+        this.stringHashTable = stringHashTable;
+        this.stringHashMask = stringHashTable.length() - 1;
+        this.nodeBloomFilter = nodeBloomFilter;
+        this.edgeBloomFilter = edgeBloomFilter;
+        this.stringCache = options.getStringCacheMode() == StringCacheMode.OFF
+                ? NoStringCache.createNoStringCache(this::decodeString)
+                : BoundedStringCache.createBoundedStringCache(
+                this::decodeString, options.getStringCacheMemoryLimit());
+    }
+
+    /**
+     * Returns a PagedStringGraphState reading the sections of the 
+     * {@code file} through the {@code pageCache}, with the UTF-8 bytes of the Strings starting at 
+     * the file position {@code stringBytesPosition} (see 
+     * {@link StringGraphStoreMapped} for the sections).
+     * <p>
+     * The Bloom filters (if any) are held in memory, so testing a filter 
+     * needs no page reads.
+     * <p>
+     * The state closes the {@code file} when it is closed (see 
+     * {@link #close()}).
+     */
+    static PagedStringGraphState createPagedStringGraphState(
+            Closeable file,
+            PageCache pageCache,
+            PagedIntArray nodes,
+            PagedIntArray edges,
+            PagedIntArray propertyNodes,
+            PagedIntArray propertyOffsets,
+            PagedIntArray propertyData,
+            PagedIntArray stringOffsets,
+            long stringBytesPosition,
+            PagedIntArray stringHashTable,
+            @Nullable BloomFilter nodeBloomFilter,
+            @Nullable BloomFilter edgeBloomFilter,
+            StringGraphs.ReadOptions options) {
+        return new PagedStringGraphState(file, pageCache, nodes, edges,
+                propertyNodes, propertyOffsets, propertyData,
+                stringOffsets, stringBytesPosition, stringHashTable,
+                nodeBloomFilter, edgeBloomFilter, options);
+    }
+
+    /**
+     * Returns the page cache used to read the file.
+     */
+    PageCache getPageCache() {
+        return pageCache;
+    }
+
+    @Override
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when closing file: %s", //NON-NLS
+                            e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public int[] getNodesIds() {
+        return nodes.toArray();
+    }
+
+    @Override
+    public int getFromId(int edgeId) {
+        return edges.get(edgeId);
+    }
+
+    @Override
+    public int getToId(int edgeId) {
+        return edges.get(edgeId + 1);
+    }
+
+    @Override
+    public int getLabelId(int edgeId) {
+        return edges.get(edgeId + 2);
+    }
+
+    @Override
+    public int getEdgesCount() {
+        return edges.length() / 3;
+    }
+
+    @Override
+    public int @Nullable [] getPropertyDataForNode(int nodeId) {
+        int i = propertyNodes.binarySearch(nodeId);
+        if (i < 0) {
+            return null;
+        }
+        return propertyData.toArray(propertyOffsets.get(i), propertyOffsets.get(i + 1));
+    }
+
+    @Override
+    public int[] getNodesWithProperties() {
+        return propertyNodes.toArray();
+    }
+
+    @Override
+    public String getString(int id) {
+        return stringCache.getString(id);
+    }
+
+    @Override
+    public int getStringId(String string) {
+        int id = getStringIdOrZero(string);
+        if (id == 0) {
+            throw new NoSuchElementException();
+        }
+        return id;
+    }
+
+    @Override
+    public int getStringIdOrZero(String string) {
+        byte @Nullable [] utf8 = null;
+        int slot = StringGraphStoreMapped.spreadHash(string.hashCode()) & stringHashMask;
+        int id;
+        while ((id = stringHashTable.get(slot)) != 0) {
+            if (utf8 == null) {
+                utf8 = string.getBytes(StandardCharsets.UTF_8);
+            }
+            if (hasBytes(id, utf8)) {
+                return id;
+            }
+            slot = (slot + 1) & stringHashMask;
+        }
+        return 0;
+    }
+
+    @Override
+    public StringCacheStatistics getStringCacheStatistics() {
+        return stringCache.getStatistics();
+    }
+
+    @Override
+    public @Nullable BloomFilter getNodeBloomFilter() {
+        return nodeBloomFilter;
+    }
+
+    @Override
+    public @Nullable BloomFilter getEdgeBloomFilter() {
+        return edgeBloomFilter;
+    }
+
+    private String decodeString(int id) {
+        if (id <= 0 || id >= stringOffsets.length()) {
+            throw new IllegalArgumentException("Invalid String id: " + id); //NON-NLS
+        }
+        return new String(bytesOfString(id), StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytesOfString(int id) {
+        int start = stringOffsets.get(id - 1);
+        return pageCache.getBytes(stringBytesPosition + start,
+                stringOffsets.get(id) - start);
+    }
+
+    /**
+     * Returns {@code true} when the String with the given {@code id} is 
+     * encoded by the {@code utf8} bytes, {@code false} otherwise.
+     */
+    private boolean hasBytes(int id, byte[] utf8) {
+        int start = stringOffsets.get(id - 1);
+        return stringOffsets.get(id) - start == utf8.length &&
+                Arrays.equals(utf8, pageCache.getBytes(
+                        stringBytesPosition + start, utf8.length));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheMode;
+import org.abego.stringgraph.core.StringCacheStatistics;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Caches the Strings decoded by an {@code IntFunction<String>} ("decoder"),
+ * by their (String) id.
+ * <p>
+ * A StringCache is safe for concurrent use.
+ */
+interface StringCache {
+
+    /**
+     * Creates a StringCache for the given {@code mode}.
+     *
+     * @param memoryLimit     the approximate number of bytes the cache may use
+     *                        when mode is {@link StringCacheMode#BOUNDED}
+     * @param decoder         decodes the String for a given id
+     * @param allIdsSupplier  supplies the ids of all Strings the decoder knows,
+     *                        sorted ascending. Only called (once) by an 
+     *                        {@link StringCacheMode#UNBOUNDED} cache.
+     */
+    static StringCache createStringCache(StringCacheMode mode,
+                                         long memoryLimit,
+                                         IntFunction<String> decoder,
+                                         Supplier<int[]> allIdsSupplier) {
+        switch (mode) {
+            case OFF:
+                return NoStringCache.createNoStringCache(decoder);
+            case BOUNDED:
+                return BoundedStringCache.createBoundedStringCache(decoder, memoryLimit);
+            case UNBOUNDED:
+            default:
+                return UnboundedStringCache.createUnboundedStringCache(decoder, allIdsSupplier);
+        }
+    }
+
+    /**
+     * Creates a StringCache for the given {@code mode}, for Strings with the 
+     * ids {@code 1} to {@code stringCount}.
+     * <p>
+     * With {@link StringCacheMode#UNBOUNDED} the cache is indexed directly by 
+     * the id, i.e. is faster than the one created by 
+     * {@link #createStringCache(StringCacheMode, long, IntFunction, Supplier)}.
+     *
+     * @param memoryLimit the approximate number of bytes the cache may use
+     *                    when mode is {@link StringCacheMode#BOUNDED}
+     * @param decoder     decodes the String for a given id
+     * @param stringCount the number of Strings the decoder knows
+     */
+    static StringCache createStringCache(StringCacheMode mode,
+                                         long memoryLimit,
+                                         IntFunction<String> decoder,
+                                         int stringCount) {
+        switch (mode) {
+            case OFF:
+                return NoStringCache.createNoStringCache(decoder);
+            case BOUNDED:
+                return BoundedStringCache.createBoundedStringCache(decoder, memoryLimit);
+            case UNBOUNDED:
+            default:
+                return UnboundedStringCache.createUnboundedStringCache(decoder, stringCount);
+        }
+    }
+
+    /**
+     * Returns the String with the given {@code id}, either from the cache or
+     * as decoded by the decoder.
+     */
+    String getString(int id);
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     */
+    StringCacheStatistics getStatistics();
+}
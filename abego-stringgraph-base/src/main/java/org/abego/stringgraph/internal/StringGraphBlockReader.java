@@ -0,0 +1,271 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheMode;
+import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.internal.StringGraphIndexData.EdgesIndexData;
+import org.abego.stringgraph.internal.commons.VLQReader;
+import org.abego.stringpool.StringPool;
+import org.abego.stringpool.StringPools;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Reads the data ("payload") of the blocks of a StringGraph store, as written
+ * by the {@link StringGraphBlockWriter}.
+ */
+final class StringGraphBlockReader {
+
+    StringGraphBlockReader() {
+        throw new UnsupportedOperationException();
+    }
+
+    static int[] readNodesBlock(VLQReader reader) {
+        int n = readInt(reader);
+        return readInts(reader, n);
+    }
+
+    static int[] readEdgesBlock(VLQReader reader) {
+        int n = readInt(reader);
+        return readInts(reader, n * 3);
+    }
+
+    /**
+     * Reads an edges block written by 
+     * {@link StringGraphBlockWriter#writeSortedEdgesBlock}, returning the 
+     * (from, to, label) ids of the edges, sorted by (from, label, to).
+     */
+    static int[] readSortedEdgesBlock(VLQReader reader) {
+        int[] result = new int[readInt(reader) * 3];
+        int[] i = {0};
+        forEachSortedEdge(reader, (from, to, label) -> {
+            result[i[0]++] = from;
+            result[i[0]++] = to;
+            result[i[0]++] = label;
+        });
+        return result;
+    }
+
+    private interface EdgeIdsConsumer {
+        void accept(int fromId, int toId, int labelId);
+    }
+
+    /**
+     * Reads the runs of a sorted edges block, after the edges count.
+     */
+    private static void forEachSortedEdge(VLQReader reader, EdgeIdsConsumer consumer) {
+        int runsCount = readInt(reader);
+        int from = 0;
+        for (int iRun = 0; iRun < runsCount; iRun++) {
+            from += readInt(reader);
+            int n = readInt(reader);
+            int label = 0;
+            int to = 0;
+            for (int i = 0; i < n; i++) {
+                int labelDelta = readInt(reader);
+                label += labelDelta;
+                to = labelDelta == 0 ? to + readInt(reader) : readInt(reader);
+                consumer.accept(from, to, label);
+            }
+        }
+    }
+
+    static Map<Integer, int[]> readNodePropertiesBlock(VLQReader reader) {
+        Map<Integer, int[]> props = new HashMap<>();
+        int countOfNodesWithProps = readInt(reader);
+        for (int iNode = 0; iNode < countOfNodesWithProps; iNode++) {
+            int nodeID = readInt(reader);
+            int nProps = readInt(reader);
+            int[] propsIDs = readInts(reader, nProps * 2);
+            props.put(nodeID, propsIDs);
+        }
+        return props;
+    }
+
+    static StringPool readStringsBlock(VLQReader reader) {
+        int len = readInt(reader);
+        byte[] bytes = readBytes(reader, len);
+        return StringPools.newStringPool(bytes);
+    }
+
+    /**
+     * Reads a strings block written with front coded Strings (see
+     * {@link StringGraphBlockWriter#writesFrontCodedStrings()}).
+     */
+    static FrontCodedStrings readFrontCodedStringsBlock(VLQReader reader) {
+        int size = readInt(reader);
+        int dataLength = readInt(reader);
+        byte[] data = readBytes(reader, dataLength);
+        // the bucket offsets are written as deltas
+        int[] bucketOffsets = readInts(reader,
+                (size + FrontCodedStrings.BUCKET_SIZE - 1) / FrontCodedStrings.BUCKET_SIZE);
+        for (int i = 1; i < bucketOffsets.length; i++) {
+            bucketOffsets[i] += bucketOffsets[i - 1];
+        }
+        try {
+            return FrontCodedStrings.createFrontCodedStrings(size, bucketOffsets, data);
+        } catch (IllegalArgumentException e) {
+            throw new StringGraphStoreException("Invalid strings block", e); //NON-NLS
+        }
+    }
+
+    static StringGraphIndexData readIndexesBlock(VLQReader reader) {
+        EdgesIndexData labelIndex = readEdgesIndexData(reader);
+        EdgesIndexData fromNodeIndex = readEdgesIndexData(reader);
+        EdgesIndexData toNodeIndex = readEdgesIndexData(reader);
+        int tableLength = readInt(reader);
+        int[] edgeTripleTable = readInts(reader, tableLength);
+        return new StringGraphIndexData(
+                labelIndex, fromNodeIndex, toNodeIndex, edgeTripleTable);
+    }
+
+    private static EdgesIndexData readEdgesIndexData(VLQReader reader) {
+        int keysCount = readInt(reader);
+        // keys are written as deltas, the offsets as sizes of the key ranges
+        int[] keys = readInts(reader, keysCount);
+        for (int i = 1; i < keysCount; i++) {
+            keys[i] += keys[i - 1];
+        }
+        int[] offsets = new int[keysCount + 1];
+        int[] sizes = readInts(reader, keysCount);
+        for (int i = 0; i < keysCount; i++) {
+            offsets[i + 1] = offsets[i] + sizes[i];
+        }
+        int edgesCount = readInt(reader);
+        int[] edgeOrdinals = readInts(reader, edgesCount);
+        return new EdgesIndexData(keys, offsets, edgeOrdinals);
+    }
+
+    //region Construct
+    // Pass the data of a block to a StringGraphConstructing while decoding 
+    // the block, i.e. without keeping the decoded data in memory.
+
+    static void constructNodesBlock(VLQReader reader,
+                                    IntFunction<String> stringOfId,
+                                    StringGraphConstructing graphConstructing) {
+        int n = readInt(reader);
+        for (int i = 0; i < n; i++) {
+            graphConstructing.addNode(stringOfId.apply(readInt(reader)));
+        }
+    }
+
+    static void constructEdgesBlock(VLQReader reader,
+                                    IntFunction<String> stringOfId,
+                                    StringGraphConstructing graphConstructing) {
+        int n = readInt(reader);
+        for (int i = 0; i < n; i++) {
+            String from = stringOfId.apply(readInt(reader));
+            String to = stringOfId.apply(readInt(reader));
+            String label = stringOfId.apply(readInt(reader));
+            graphConstructing.addEdge(from, label, to);
+        }
+    }
+
+    static void constructSortedEdgesBlock(VLQReader reader,
+                                          IntFunction<String> stringOfId,
+                                          StringGraphConstructing graphConstructing) {
+        readInt(reader); // the edges count is not needed
+        forEachSortedEdge(reader, (from, to, label) -> graphConstructing.addEdge(
+                stringOfId.apply(from), stringOfId.apply(label), stringOfId.apply(to)));
+    }
+
+    static void constructNodePropertiesBlock(VLQReader reader,
+                                             IntFunction<String> stringOfId,
+                                             StringGraphConstructing graphConstructing) {
+        int countOfNodesWithProps = readInt(reader);
+        for (int iNode = 0; iNode < countOfNodesWithProps; iNode++) {
+            String node = stringOfId.apply(readInt(reader));
+            int nProps = readInt(reader);
+            for (int i = 0; i < nProps; i++) {
+                String name = stringOfId.apply(readInt(reader));
+                String value = stringOfId.apply(readInt(reader));
+                graphConstructing.setNodeProperty(node, name, value);
+            }
+        }
+    }
+
+    /**
+     * Returns a function returning the String with a given id, as decoded 
+     * by the {@code decoder}, to be used with the {@code constructXXXBlock} 
+     * methods.
+     * <p>
+     * Strings repeat (e.g. a node's id is used in many edges), so the function 
+     * caches the recently used Strings, in a cache of bounded size.
+     */
+    static IntFunction<String> stringOfIdForConstruct(IntFunction<String> decoder) {
+        StringCache cache = StringCache.createStringCache(
+                StringCacheMode.BOUNDED,
+                new StringGraphs.ReadOptions() {
+                }.getStringCacheMemoryLimit(),
+                decoder,
+                () -> new int[0]);
+        return cache::getString;
+    }
+    //endregion
+
+    static int readInt(VLQReader reader) {
+        try {
+            return reader.readUnsignedInt();
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    "Error when reading VLQ 'int'", e);
+        }
+    }
+
+    static int[] readInts(VLQReader reader, int count) {
+        try {
+            int[] result = new int[count];
+            reader.readUnsignedInts(result, 0, count);
+            return result;
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    "Error when reading VLQ 'int'", e);
+        }
+    }
+
+    static byte[] readBytes(VLQReader reader, int len) {
+        try {
+            byte[] bytes = new byte[len];
+            reader.readFully(bytes);
+            return bytes;
+        } catch (Exception e) {
+            throw new StringGraphStoreException("Error when reading bytes", e);
+        }
+    }
+
+    /**
+     * Skips the remaining data of the current block.
+     */
+    static void skipBlock(VLQReader reader) {
+        try {
+            reader.skipRemaining();
+        } catch (Exception e) {
+            throw new StringGraphStoreException("Error when skipping block", e);
+        }
+    }
+}
@@ -0,0 +1,610 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Edge;
+import org.abego.stringgraph.core.Edges;
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Nodes;
+import org.abego.stringgraph.core.Properties;
+import org.abego.stringgraph.core.Property;
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.internal.StringGraphIndexData.EdgesIndexData;
+import org.abego.stringgraph.internal.commons.IntSortUtil;
+import org.abego.stringgraph.internal.commons.VLQWriter;
+import org.abego.stringpool.StringPool;
+import org.abego.stringpool.StringPoolBuilder;
+import org.abego.stringpool.StringPools;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writes the data ("payload") of the blocks of a StringGraph store, as 
+ * VLQ-encoded unsigned ints.
+ * <p>
+ * Strings are written as ids. {@link #writeStringsBlock(VLQWriter)} writes 
+ * all Strings referenced by the other blocks, also when called before these
+ * blocks are written.
+ * <p>
+ * The data is either taken from a {@link StringGraph} or, without turning 
+ * ids into Strings and back, from a {@link StringGraphState}, e.g. the state
+ * of a {@link StringGraphImpl}.
+ * <p>
+ * See {@link StringGraphBlockReader} for the corresponding reader.
+ */
+abstract class StringGraphBlockWriter {
+    /**
+     * The (from, to, label) ids of the edges, as written by
+     * {@link #writeEdgesBlock(VLQWriter)} or 
+     * {@link #writeSortedEdgesBlock(VLQWriter)}.
+     */
+    int[] edgesIDs = new int[0];
+
+    /**
+     * Returns a StringGraphBlockWriter writing the data of the 
+     * {@code stringGraph}.
+     * <p>
+     * The data of a {@link StringGraphImpl} is taken from its state, 
+     * i.e. at the level of ids.
+     */
+    static StringGraphBlockWriter createStringGraphBlockWriter(StringGraph stringGraph) {
+        return stringGraph instanceof StringGraphImpl
+                ? createStringGraphBlockWriter(((StringGraphImpl) stringGraph).getState())
+                : new GraphBlockWriter(stringGraph);
+    }
+
+    /**
+     * Returns a StringGraphBlockWriter writing the data of the {@code state}.
+     */
+    static StringGraphBlockWriter createStringGraphBlockWriter(StringGraphState state) {
+        return new PoolBlockWriter(state);
+    }
+
+    /**
+     * Returns a StringGraphBlockWriter writing the data of the 
+     * {@code stringGraph}, with front coded Strings (see 
+     * {@link FrontCodedStrings}).
+     */
+    static StringGraphBlockWriter createFrontCodingBlockWriter(StringGraph stringGraph) {
+        return createFrontCodingBlockWriter(stateOf(stringGraph));
+    }
+
+    /**
+     * Returns a StringGraphBlockWriter writing the data of the {@code state},
+     * with front coded Strings (see {@link FrontCodedStrings}).
+     */
+    static StringGraphBlockWriter createFrontCodingBlockWriter(StringGraphState state) {
+        return new FrontCodingBlockWriter(state);
+    }
+
+    /**
+     * Returns {@code true} when the writer writes the Strings front coded
+     * (see {@link FrontCodedStrings}), {@code false} when it writes a 
+     * {@link StringPool}.
+     */
+    boolean writesFrontCodedStrings() {
+        return false;
+    }
+
+    /**
+     * Returns the (from, to, label) ids of all edges, as written to the 
+     * store.
+     */
+    abstract int[] collectEdgesIDs();
+
+    void writeEdgesBlock(VLQWriter writer) {
+        edgesIDs = collectEdgesIDs();
+        writeInt(writer, edgesIDs.length / 3);
+        for (int id : edgesIDs) {
+            writeInt(writer, id);
+        }
+    }
+
+    /**
+     * Writes the edges sorted by (from, label, to), grouped in "runs" of 
+     * edges with the same fromNode.
+     * <p>
+     * Layout: the number of edges, the number of runs, and per run: the 
+     * fromNode (as the difference to the fromNode of the previous run), the 
+     * number of edges in the run, and per edge: the label (as the difference
+     * to the label of the previous edge in the run) and the toNode (as the 
+     * difference to the toNode of the previous edge when the label is the 
+     * same, or as is otherwise).
+     * <p>
+     * All values written are small, non-negative numbers, i.e. need only few 
+     * VLQ bytes. See {@link StringGraphBlockReader#readSortedEdgesBlock}.
+     */
+    void writeSortedEdgesBlock(VLQWriter writer) {
+        edgesIDs = IntSortUtil.sortedTriples(collectEdgesIDs(), 0, 2, 1);
+        int edgesCount = edgesIDs.length / 3;
+        writeInt(writer, edgesCount);
+        writeInt(writer, countOfRuns(edgesIDs));
+        int prevFrom = 0;
+        int runStart = 0;
+        while (runStart < edgesIDs.length) {
+            int from = edgesIDs[runStart];
+            int runEnd = runStart + 3;
+            while (runEnd < edgesIDs.length && edgesIDs[runEnd] == from) {
+                runEnd += 3;
+            }
+            writeInt(writer, from - prevFrom);
+            writeInt(writer, (runEnd - runStart) / 3);
+            int prevLabel = 0;
+            int prevTo = 0;
+            for (int i = runStart; i < runEnd; i += 3) {
+                int to = edgesIDs[i + 1];
+                int label = edgesIDs[i + 2];
+                writeInt(writer, label - prevLabel);
+                writeInt(writer, label == prevLabel ? to - prevTo : to);
+                prevLabel = label;
+                prevTo = to;
+            }
+            prevFrom = from;
+            runStart = runEnd;
+        }
+    }
+
+    private static int countOfRuns(int[] sortedEdgesIDs) {
+        int result = 0;
+        for (int i = 0; i < sortedEdgesIDs.length; i += 3) {
+            if (i == 0 || sortedEdgesIDs[i] != sortedEdgesIDs[i - 3]) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    abstract void writeNodesBlock(VLQWriter writer);
+
+    abstract void writeNodePropertiesBlock(VLQWriter writer);
+
+    /**
+     * Writes all Strings referenced by the blocks.
+     */
+    abstract void writeStringsBlock(VLQWriter writer);
+
+    /**
+     * Writes the edge indexes (see {@link StringGraphIndexData}) of the edges
+     * written by {@link #writeEdgesBlock(VLQWriter)} or
+     * {@link #writeSortedEdgesBlock(VLQWriter)}.
+     */
+    void writeIndexesBlock(VLQWriter writer) {
+        StringGraphIndexData data = StringGraphIndexes.createIndexData(edgesIDs);
+        writeEdgesIndexData(writer, data.labelIndex);
+        writeEdgesIndexData(writer, data.fromNodeIndex);
+        writeEdgesIndexData(writer, data.toNodeIndex);
+        writeInt(writer, data.edgeTripleTable.length);
+        for (int v : data.edgeTripleTable) {
+            writeInt(writer, v);
+        }
+    }
+
+    private static void writeEdgesIndexData(VLQWriter writer, EdgesIndexData data) {
+        int keysCount = data.keys.length;
+        writeInt(writer, keysCount);
+        // write the keys as deltas and the offsets as sizes of the key 
+        // ranges, as these are smaller (i.e. need less VLQ bytes)
+        for (int i = 0; i < keysCount; i++) {
+            writeInt(writer, i == 0 ? data.keys[0] : data.keys[i] - data.keys[i - 1]);
+        }
+        for (int i = 0; i < keysCount; i++) {
+            writeInt(writer, data.offsets[i + 1] - data.offsets[i]);
+        }
+        writeInt(writer, data.edgeOrdinals.length);
+        for (int v : data.edgeOrdinals) {
+            writeInt(writer, v);
+        }
+    }
+
+    private static StringGraphState stateOf(StringGraph stringGraph) {
+        if (stringGraph instanceof StringGraphImpl) {
+            return ((StringGraphImpl) stringGraph).getState();
+        }
+        StringGraphBuilderImpl builder = (StringGraphBuilderImpl)
+                StringGraphBuilderImpl.createStringGraphBuilder();
+        for (Node node : stringGraph.nodes()) {
+            builder.addNode(node.id());
+            for (Property p : stringGraph.getNodeProperties(node.id())) {
+                builder.setNodeProperty(node.id(), p.getName(), p.getValue());
+            }
+        }
+        for (Edge edge : stringGraph.edges()) {
+            builder.addEdge(edge.getFromNode().id(), edge.getLabel(), edge.getToNode().id());
+        }
+        return builder.buildStringGraphState();
+    }
+
+    static void writeStringPool(VLQWriter writer, StringPool strings) {
+        byte[] bytes = strings.getBytes();
+        writeInt(writer, bytes.length);
+        try {
+            writer.write(bytes);
+        } catch (Exception e) {
+            throw new StringGraphStoreException("Error when writing strings block", e);
+        }
+    }
+
+    static void writeInt(VLQWriter writer, int i) {
+        try {
+            writer.writeUnsignedInt(i);
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    "Error when writing VLQ 'int'", e);
+        }
+    }
+
+    /**
+     * Writes the data of a {@link StringGraph}, collecting its Strings in a 
+     * new StringPool.
+     */
+    private static final class GraphBlockWriter extends StringGraphBlockWriter {
+        /**
+         * Collects all Strings used in the StringGraph, to later reference them by
+         * their ids in the data written to the store
+         */
+        private final StringPoolBuilder builder = StringPools.builder();
+        private final StringGraph stringGraph;
+
+        private GraphBlockWriter(StringGraph stringGraph) {
+            this.stringGraph = stringGraph;
+        }
+
+        @Override
+        int[] collectEdgesIDs() {
+            Edges allEdges = stringGraph.edges();
+            int[] result = new int[allEdges.getSize() * 3];
+            int i = 0;
+            for (Edge e : allEdges) {
+                result[i++] = builder.add(e.getFromNode().id());
+                result[i++] = builder.add(e.getToNode().id());
+                result[i++] = builder.add(e.getLabel());
+            }
+            return result;
+        }
+
+        @Override
+        void writeNodesBlock(VLQWriter writer) {
+            Nodes allNodes = stringGraph.nodes();
+            writeInt(writer, allNodes.getSize());
+
+            Iterable<Node> nodesToWrite =
+                    writeSortedNodes() ? nodesSortedById(allNodes) : allNodes;
+
+            for (Node s : nodesToWrite) {
+                writeString(writer, s.id());
+            }
+        }
+
+        @Override
+        void writeNodePropertiesBlock(VLQWriter writer) {
+            writeInt(writer, calcCountOfNodesWithProps());
+            Nodes allNodes = stringGraph.nodes();
+            for (Node node : allNodes) {
+                Properties properties = stringGraph.getNodeProperties(node.id());
+                int n = properties.getSize();
+                if (n > 0) {
+                    writeString(writer, node.id());
+                    writeInt(writer, n);
+                    for (Property p : properties) {
+                        writeString(writer, p.getName());
+                        writeString(writer, p.getValue());
+                    }
+                }
+            }
+        }
+
+        @Override
+        void writeStringsBlock(VLQWriter writer) {
+            collectStrings();
+            writeStringPool(writer, builder.build());
+        }
+
+        private void collectStrings() {
+            collectEdgesIDs();
+            for (Node node : stringGraph.nodes()) {
+                builder.add(node.id());
+                for (Property p : stringGraph.getNodeProperties(node.id())) {
+                    builder.add(p.getName());
+                    builder.add(p.getValue());
+                }
+            }
+        }
+
+        private boolean writeSortedNodes() {
+            return true;
+        }
+
+        private List<Node> nodesSortedById(Nodes nodes) {
+            return nodes.stream().parallel()
+                    .sorted(Comparator.comparing(Node::id))
+                    .collect(Collectors.toList());
+        }
+
+        private int calcCountOfNodesWithProps() {
+            int result = 0;
+            for (Node node : stringGraph.nodes()) {
+                if (stringGraph.getNodeProperties(node.id()).getSize() > 0) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Writes the id of the String {@code s}.
+         */
+        private void writeString(VLQWriter writer, String s) {
+            writeInt(writer, builder.add(s));
+        }
+    }
+
+    /**
+     * Writes the data of a {@link StringGraphState}, with the ids of the 
+     * state mapped by {@link #storeId(int)}.
+     */
+    private abstract static class StateBlockWriter extends StringGraphBlockWriter {
+        final StringGraphState state;
+
+        StateBlockWriter(StringGraphState state) {
+            this.state = state;
+        }
+
+        /**
+         * Returns the id written for the String with the {@code id} in the 
+         * state.
+         */
+        abstract int storeId(int id);
+
+        /**
+         * Passes the ids of all Strings referenced by the blocks to the
+         * {@code consumer}, possibly more than once.
+         */
+        void forEachReferencedId(IntConsumer consumer) {
+            for (int id : state.getNodesIds()) {
+                consumer.accept(id);
+            }
+            int edgesCount = state.getEdgesCount();
+            for (int i = 0; i < edgesCount; i++) {
+                int edgeId = StringGraphState.edgeIdOfOrdinal(i);
+                consumer.accept(state.getFromId(edgeId));
+                consumer.accept(state.getToId(edgeId));
+                consumer.accept(state.getLabelId(edgeId));
+            }
+            for (int nodeId : state.getNodesWithProperties()) {
+                consumer.accept(nodeId);
+                int[] propsIDs = state.getPropertyDataForNode(nodeId);
+                if (propsIDs != null) {
+                    for (int id : propsIDs) {
+                        consumer.accept(id);
+                    }
+                }
+            }
+        }
+
+        @Override
+        int[] collectEdgesIDs() {
+            int edgesCount = state.getEdgesCount();
+            int[] result = new int[edgesCount * 3];
+            for (int i = 0; i < edgesCount; i++) {
+                int edgeId = StringGraphState.edgeIdOfOrdinal(i);
+                result[i * 3] = storeId(state.getFromId(edgeId));
+                result[i * 3 + 1] = storeId(state.getToId(edgeId));
+                result[i * 3 + 2] = storeId(state.getLabelId(edgeId));
+            }
+            return result;
+        }
+
+        @Override
+        void writeNodesBlock(VLQWriter writer) {
+            int[] ids = state.getNodesIds();
+            int[] nodesIds = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                nodesIds[i] = storeId(ids[i]);
+            }
+            // sort to make the output independent of the order of the state
+            Arrays.sort(nodesIds);
+            writeInt(writer, nodesIds.length);
+            for (int id : nodesIds) {
+                writeInt(writer, id);
+            }
+        }
+
+        @Override
+        void writeNodePropertiesBlock(VLQWriter writer) {
+            int[] nodesWithProperties = state.getNodesWithProperties();
+            writeInt(writer, nodesWithProperties.length);
+            for (int nodeId : nodesWithProperties) {
+                int[] propsIDs = state.getPropertyDataForNode(nodeId);
+                int[] pairs = propsIDs != null ? propsIDs : new int[0];
+                writeInt(writer, storeId(nodeId));
+                writeInt(writer, pairs.length / 2);
+                for (int id : pairs) {
+                    writeInt(writer, storeId(id));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the data of a {@link StringGraphState} with a StringPool.
+     * <p>
+     * When the state holds its Strings in a {@link StringPool} the ids of the 
+     * state and its StringPool are written "as is". Otherwise the Strings are
+     * collected in a new StringPool and the ids are mapped to the ids of that
+     * StringPool, decoding every String only once.
+     */
+    private static final class PoolBlockWriter extends StateBlockWriter {
+        private final @Nullable StringPool strings;
+        private final StringPoolBuilder builder = StringPools.builder();
+        /**
+         * Maps the id of a String in the state to its id in the 
+         * {@link #builder}, {@code 0} when not yet mapped. Only used when the
+         * state has no StringPool.
+         */
+        private int[] storeIds = new int[0];
+
+        private PoolBlockWriter(StringGraphState state) {
+            super(state);
+            this.strings = state.getStringPool();
+        }
+
+        @Override
+        int storeId(int id) {
+            if (strings != null) {
+                return id;
+            }
+            if (id >= storeIds.length) {
+                storeIds = Arrays.copyOf(storeIds, Math.max(id + 1, storeIds.length * 2));
+            }
+            int result = storeIds[id];
+            if (result == 0) {
+                result = builder.add(state.getString(id));
+                storeIds[id] = result;
+            }
+            return result;
+        }
+
+        @Override
+        void writeStringsBlock(VLQWriter writer) {
+            if (strings != null) {
+                writeStringPool(writer, strings);
+            } else {
+                forEachReferencedId(this::storeId);
+                writeStringPool(writer, builder.build());
+            }
+        }
+    }
+
+    /**
+     * Writes the data of a {@link StringGraphState} with front coded Strings
+     * (see {@link FrontCodedStrings}), i.e. with the ids of the sorted 
+     * Strings.
+     */
+    private static final class FrontCodingBlockWriter extends StateBlockWriter {
+        /**
+         * {@code true} when the ids of the state are ordinals (i.e. small), 
+         * {@code false} when they may be large, e.g. the byte offsets of a
+         * {@link StringPool}.
+         */
+        private final boolean ordinalIds;
+        /**
+         * The ids of all Strings of the state referenced by the blocks, 
+         * ascending.
+         */
+        private final int[] stateIds;
+        /**
+         * Maps a String of the state to the id written for it, {@code 0} for
+         * Strings not referenced by the blocks.
+         * <p>
+         * With {@code ordinalIds} the table is indexed by the id of the 
+         * String in the state, otherwise by the index of that id in 
+         * {@code stateIds}, so the table does not grow with the ids.
+         */
+        private final int[] storeIds;
+        private final FrontCodedStrings frontCodedStrings;
+
+        private FrontCodingBlockWriter(StringGraphState state) {
+            super(state);
+            ordinalIds = state.getStringPool() == null;
+            stateIds = referencedIds();
+            int n = stateIds.length;
+            byte[][] utf8Strings = new byte[n][];
+            int[] order = new int[n];
+            for (int i = 0; i < n; i++) {
+                utf8Strings[i] = state.getString(stateIds[i]).getBytes(StandardCharsets.UTF_8);
+                order[i] = i;
+            }
+            IntSortUtil.sort(order, (a, b) -> FrontCodedStrings.compareUTF8(
+                    utf8Strings[a], utf8Strings[b]));
+            storeIds = new int[ordinalIds && n > 0 ? stateIds[n - 1] + 1 : n];
+            byte[][] sortedUTF8Strings = new byte[n][];
+            for (int i = 0; i < n; i++) {
+                storeIds[ordinalIds ? stateIds[order[i]] : order[i]] = i + 1;
+                sortedUTF8Strings[i] = utf8Strings[order[i]];
+            }
+            frontCodedStrings = FrontCodedStrings.createFrontCodedStrings(sortedUTF8Strings);
+        }
+
+        /**
+         * Returns the ids of all Strings of the state referenced by the 
+         * blocks, ascending.
+         */
+        private int[] referencedIds() {
+            if (ordinalIds) {
+                BitSet ids = new BitSet();
+                forEachReferencedId(ids::set);
+                return ids.stream().toArray();
+            }
+
+            // A BitSet would grow with the (large) ids, so sort the ids 
+            // instead and drop the duplicates.
+            IntStream.Builder builder = IntStream.builder();
+            forEachReferencedId(builder::add);
+            int[] ids = builder.build().toArray();
+            Arrays.sort(ids);
+            int n = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (n == 0 || ids[i] != ids[n - 1]) {
+                    ids[n++] = ids[i];
+                }
+            }
+            return Arrays.copyOf(ids, n);
+        }
+
+        @Override
+        boolean writesFrontCodedStrings() {
+            return true;
+        }
+
+        @Override
+        int storeId(int id) {
+            return storeIds[ordinalIds ? id : Arrays.binarySearch(stateIds, id)];
+        }
+
+        @Override
+        void writeStringsBlock(VLQWriter writer) {
+            byte[] data = frontCodedStrings.data();
+            int[] bucketOffsets = frontCodedStrings.bucketOffsets();
+            writeInt(writer, frontCodedStrings.size());
+            writeInt(writer, data.length);
+            try {
+                writer.write(data);
+            } catch (Exception e) {
+                throw new StringGraphStoreException("Error when writing strings block", e);
+            }
+            // write the bucket offsets as deltas, as these are smaller 
+            for (int i = 0; i < bucketOffsets.length; i++) {
+                writeInt(writer, i == 0 ? bucketOffsets[0] : bucketOffsets[i] - bucketOffsets[i - 1]);
+            }
+        }
+    }
+}
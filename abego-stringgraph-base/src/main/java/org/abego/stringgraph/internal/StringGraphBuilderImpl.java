@@ -26,6 +26,7 @@ package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.StringGraph;
 import org.abego.stringgraph.core.StringGraphBuilder;
+import org.abego.stringgraph.core.StringGraphs;
 import org.abego.stringgraph.core.exception.StringGraphException;
 import org.abego.stringpool.StringPool;
 import org.abego.stringpool.StringPoolBuilder;
@@ -111,11 +112,20 @@ final class StringGraphBuilderImpl implements StringGraphBuilder {
     }
 
     public StringGraphState buildStringGraphState() {
+        return buildStringGraphState(new StringGraphs.ReadOptions() {
+        });
+    }
+
+    /**
+     * Returns the state of the StringGraph built, caching its Strings as 
+     * defined by the {@code options}. 
+     */
+    StringGraphState buildStringGraphState(StringGraphs.ReadOptions options) {
         int[] nodesIds = toIntArray(nodes);
         int[] edgesIds = toFlatIntArray(edges);
         Map<Integer, int[]> props = toIntegerIntArrayMap(nodeProperties);
         StringPool strings = stringPoolBuilder.build();
-        return new StringGraphStateImpl(props, nodesIds, edgesIds, strings);
+        return new StringGraphStateImpl(props, nodesIds, edgesIds, strings, options);
     }
 
     private static int[] toFlatIntArray(Collection<EdgeData> edgeDataCollection) {
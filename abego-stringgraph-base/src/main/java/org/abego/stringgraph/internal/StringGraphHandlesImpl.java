@@ -0,0 +1,143 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringGraphHandles;
+import org.abego.stringgraph.internal.commons.IntSet;
+
+import java.util.function.IntConsumer;
+
+/**
+ * The {@link StringGraphHandles} of a {@link StringGraphImpl}.
+ * <p>
+ * The handles are the String ids of the {@link StringGraphState}. 
+ */
+final class StringGraphHandlesImpl implements StringGraphHandles {
+    private final StringGraphState state;
+    private final IntSet nodeIds;
+    private final EdgesLookup edgesIndexForFromNode;
+    private final EdgesLookup edgesIndexForToNode;
+    private final EdgesLookup edgesIndexForLabel;
+    private final EdgeTripleLookup edgeTripleIndex;
+
+    private StringGraphHandlesImpl(StringGraphState state,
+                                   IntSet nodeIds,
+                                   EdgesLookup edgesIndexForFromNode,
+                                   EdgesLookup edgesIndexForToNode,
+                                   EdgesLookup edgesIndexForLabel,
+                                   EdgeTripleLookup edgeTripleIndex) {
+        this.state = state;
+        this.nodeIds = nodeIds;
+        this.edgesIndexForFromNode = edgesIndexForFromNode;
+        this.edgesIndexForToNode = edgesIndexForToNode;
+        this.edgesIndexForLabel = edgesIndexForLabel;
+        this.edgeTripleIndex = edgeTripleIndex;
+    }
+
+    static StringGraphHandlesImpl createStringGraphHandles(
+            StringGraphState state,
+            IntSet nodeIds,
+            EdgesLookup edgesIndexForFromNode,
+            EdgesLookup edgesIndexForToNode,
+            EdgesLookup edgesIndexForLabel,
+            EdgeTripleLookup edgeTripleIndex) {
+        return new StringGraphHandlesImpl(state, nodeIds,
+                edgesIndexForFromNode, edgesIndexForToNode, edgesIndexForLabel,
+                edgeTripleIndex);
+    }
+
+    @Override
+    public int nodeHandle(String id) {
+        int stringId = state.getStringIdOrZero(id);
+        return stringId != 0 && nodeIds.contains(stringId) ? stringId : NO_HANDLE;
+    }
+
+    @Override
+    public int labelHandle(String label) {
+        int stringId = state.getStringIdOrZero(label);
+        return edgesIndexForLabel.edgesCount(stringId) > 0 ? stringId : NO_HANDLE;
+    }
+
+    @Override
+    public String stringOf(int handle) {
+        return state.getString(handle);
+    }
+
+    @Override
+    public void forEachNode(IntConsumer action) {
+        for (int id : state.getNodesIds()) {
+            action.accept(id);
+        }
+    }
+
+    @Override
+    public int outDegree(int nodeHandle) {
+        return edgesIndexForFromNode.edgesCount(nodeHandle);
+    }
+
+    @Override
+    public int inDegree(int nodeHandle) {
+        return edgesIndexForToNode.edgesCount(nodeHandle);
+    }
+
+    @Override
+    public void forEachOutEdge(int nodeHandle, EdgeConsumer action) {
+        edgesIndexForFromNode.forEachEdgeId(nodeHandle, edgeId ->
+                action.accept(state.getLabelId(edgeId), state.getToId(edgeId)));
+    }
+
+    @Override
+    public void forEachInEdge(int nodeHandle, EdgeConsumer action) {
+        edgesIndexForToNode.forEachEdgeId(nodeHandle, edgeId ->
+                action.accept(state.getLabelId(edgeId), state.getFromId(edgeId)));
+    }
+
+    @Override
+    public void forEachOutNeighbor(int nodeHandle, int labelHandle, IntConsumer action) {
+        edgesIndexForFromNode.forEachEdgeId(nodeHandle, labelHandle, edgeId ->
+                action.accept(state.getToId(edgeId)));
+    }
+
+    @Override
+    public void forEachInNeighbor(int nodeHandle, int labelHandle, IntConsumer action) {
+        edgesIndexForToNode.forEachEdgeId(nodeHandle, labelHandle, edgeId ->
+                action.accept(state.getFromId(edgeId)));
+    }
+
+    @Override
+    public void forEachOutLabel(int nodeHandle, IntConsumer action) {
+        edgesIndexForFromNode.forEachSecondaryKey(nodeHandle, action);
+    }
+
+    @Override
+    public void forEachInLabel(int nodeHandle, IntConsumer action) {
+        edgesIndexForToNode.forEachSecondaryKey(nodeHandle, action);
+    }
+
+    @Override
+    public boolean hasEdge(int fromHandle, int labelHandle, int toHandle) {
+        return edgeTripleIndex.contains(fromHandle, labelHandle, toHandle);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphHandles;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * {@link StringGraphHandles} of any {@link StringGraph}, implemented on top
+ * of the String based API of the StringGraph.
+ * <p>
+ * On creation every node id and edge label gets a handle (the same String 
+ * gets the same handle). The queries map the handles to the Strings, query 
+ * the StringGraph and map the Strings of the result back to handles. So 
+ * the handles work for every StringGraph, but are slower than the handles 
+ * of a StringGraph implementing them itself (like a {@link StringGraphImpl}).
+ */
+public final class StringGraphHandlesViaStrings implements StringGraphHandles {
+    private final StringGraph graph;
+    /**
+     * The Strings of the handles, with the handle as index.
+     * <p>
+     * The element at index {@link #NO_HANDLE} is unused.
+     */
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final BitSet nodeHandles = new BitSet();
+    private final BitSet labelHandles = new BitSet();
+
+    private StringGraphHandlesViaStrings(StringGraph graph) {
+        this.graph = graph;
+        strings.add("");
+        for (Node node : graph.nodes()) {
+            nodeHandles.set(intern(node.id()));
+        }
+        for (String label : graph.edgeLabels()) {
+            labelHandles.set(intern(label));
+        }
+    }
+
+    public static StringGraphHandles createStringGraphHandlesViaStrings(StringGraph graph) {
+        return new StringGraphHandlesViaStrings(graph);
+    }
+
+    private int intern(String string) {
+        Integer handle = handles.get(string);
+        if (handle != null) {
+            return handle;
+        }
+        int result = strings.size();
+        strings.add(string);
+        handles.put(string, result);
+        return result;
+    }
+
+    /**
+     * Returns the handle of the {@code string}, that must be a node id or an
+     * edge label of the graph.
+     */
+    private int handleOf(String string) {
+        Integer handle = handles.get(string);
+        if (handle == null) {
+            throw new IllegalStateException(
+                    "No handle for String, the StringGraph has changed: " + string); //NON-NLS
+        }
+        return handle;
+    }
+
+    @Override
+    public int nodeHandle(String id) {
+        Integer handle = handles.get(id);
+        return handle != null && nodeHandles.get(handle) ? handle : NO_HANDLE;
+    }
+
+    @Override
+    public int labelHandle(String label) {
+        Integer handle = handles.get(label);
+        return handle != null && labelHandles.get(handle) ? handle : NO_HANDLE;
+    }
+
+    @Override
+    public String stringOf(int handle) {
+        if (!isHandle(handle)) {
+            throw new IllegalArgumentException("Invalid handle: " + handle); //NON-NLS
+        }
+        return strings.get(handle);
+    }
+
+    /**
+     * Returns {@code true} when {@code handle} is a handle of this object, 
+     * {@code false} otherwise (e.g. for {@link #NO_HANDLE}).
+     * <p>
+     * Queries with handles that are not handles of this object find nothing.
+     */
+    private boolean isHandle(int handle) {
+        return handle > NO_HANDLE && handle < strings.size();
+    }
+
+    @Override
+    public void forEachNode(IntConsumer action) {
+        nodeHandles.stream().forEach(action);
+    }
+
+    @Override
+    public int outDegree(int nodeHandle) {
+        return isHandle(nodeHandle)
+                ? graph.edgesFromNode(stringOf(nodeHandle)).getSize()
+                : 0;
+    }
+
+    @Override
+    public int inDegree(int nodeHandle) {
+        return isHandle(nodeHandle)
+                ? graph.edgesToNode(stringOf(nodeHandle)).getSize()
+                : 0;
+    }
+
+    @Override
+    public void forEachOutEdge(int nodeHandle, EdgeConsumer action) {
+        forEachOutLabel(nodeHandle, labelHandle ->
+                forEachOutNeighbor(nodeHandle, labelHandle, toHandle ->
+                        action.accept(labelHandle, toHandle)));
+    }
+
+    @Override
+    public void forEachInEdge(int nodeHandle, EdgeConsumer action) {
+        forEachInLabel(nodeHandle, labelHandle ->
+                forEachInNeighbor(nodeHandle, labelHandle, fromHandle ->
+                        action.accept(labelHandle, fromHandle)));
+    }
+
+    @Override
+    public void forEachOutNeighbor(int nodeHandle, int labelHandle, IntConsumer action) {
+        if (!isHandle(nodeHandle) || !isHandle(labelHandle)) {
+            return;
+        }
+        for (Node node : graph.nodesFromNodeViaEdgeLabeled(
+                stringOf(nodeHandle), stringOf(labelHandle))) {
+            action.accept(handleOf(node.id()));
+        }
+    }
+
+    @Override
+    public void forEachInNeighbor(int nodeHandle, int labelHandle, IntConsumer action) {
+        if (!isHandle(nodeHandle) || !isHandle(labelHandle)) {
+            return;
+        }
+        for (Node node : graph.nodesViaEdgeLabeledToNode(
+                stringOf(labelHandle), stringOf(nodeHandle))) {
+            action.accept(handleOf(node.id()));
+        }
+    }
+
+    @Override
+    public void forEachOutLabel(int nodeHandle, IntConsumer action) {
+        if (!isHandle(nodeHandle)) {
+            return;
+        }
+        for (String label : graph.edgeLabelsFromNode(stringOf(nodeHandle))) {
+            action.accept(handleOf(label));
+        }
+    }
+
+    @Override
+    public void forEachInLabel(int nodeHandle, IntConsumer action) {
+        if (!isHandle(nodeHandle)) {
+            return;
+        }
+        for (String label : graph.edgeLabelsToNode(stringOf(nodeHandle))) {
+            action.accept(handleOf(label));
+        }
+    }
+
+    @Override
+    public boolean hasEdge(int fromHandle, int labelHandle, int toHandle) {
+        return isHandle(fromHandle) && isHandle(labelHandle) && isHandle(toHandle)
+                && graph.hasEdge(stringOf(fromHandle), stringOf(labelHandle), stringOf(toHandle));
+    }
+}
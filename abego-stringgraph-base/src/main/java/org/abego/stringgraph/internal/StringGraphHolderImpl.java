@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphHolder;
+import org.abego.stringgraph.core.StringGraphs;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class StringGraphHolderImpl implements StringGraphHolder {
+    /**
+     * A StringGraph with the "generation" of the {@link #set(StringGraph)} or 
+     * {@link #reload(URI, StringGraphs.ReadOptions)} call that provided it.
+     */
+    private static final class Generation {
+        private final StringGraph graph;
+        private final long number;
+
+        private Generation(StringGraph graph, long number) {
+            this.graph = graph;
+            this.number = number;
+        }
+    }
+
+    private final StringGraphs stringGraphs;
+    private final AtomicLong lastGenerationNumber = new AtomicLong();
+    private final AtomicReference<Generation> current;
+    /**
+     * The StringGraph replaced by the last reload, still open for readers
+     * that got it before the reload (see {@link #retire(StringGraph)}).
+     */
+    private final AtomicReference<@Nullable StringGraph> retired =
+            new AtomicReference<>();
+
+    private StringGraphHolderImpl(StringGraph graph, StringGraphs stringGraphs) {
+        this.stringGraphs = stringGraphs;
+        this.current = new AtomicReference<>(new Generation(graph, 0));
+    }
+
+    static StringGraphHolder createStringGraphHolder(
+            StringGraph graph, StringGraphs stringGraphs) {
+        return new StringGraphHolderImpl(graph, stringGraphs);
+    }
+
+    @Override
+    public StringGraph get() {
+        return current.get().graph;
+    }
+
+    @Override
+    public StringGraph set(StringGraph graph) {
+        return current.getAndSet(
+                new Generation(graph, lastGenerationNumber.incrementAndGet())).graph;
+    }
+
+    @Override
+    public CompletableFuture<StringGraph> reload(URI uri, StringGraphs.ReadOptions options) {
+        long number = lastGenerationNumber.incrementAndGet();
+        return stringGraphs.readStringGraphAsync(uri, options)
+                .thenApply(graph -> {
+                    Generation generation = new Generation(graph, number);
+                    Generation c;
+                    do {
+                        c = current.get();
+                        if (c.number >= number) {
+                            // a newer graph is held already, and nobody
+                            // else knows the graph read
+                            graph.close();
+                            return c.graph;
+                        }
+                    } while (!current.compareAndSet(c, generation));
+                    retire(c.graph);
+                    return graph;
+                });
+    }
+
+    /**
+     * Closes the StringGraph retired before, and keeps the {@code graph} 
+     * replaced by a reload open until the next reload replaces a 
+     * StringGraph.
+     * <p>
+     * Readers may still use the {@code graph} (in a "unit of work" started
+     * before the reload), so closing it right away could fail their queries.
+     */
+    private void retire(StringGraph graph) {
+        @Nullable StringGraph previous = retired.getAndSet(graph);
+        if (previous != null && previous != graph) {
+            previous.close();
+        }
+    }
+}
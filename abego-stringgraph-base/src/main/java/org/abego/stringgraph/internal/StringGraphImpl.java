@@ -31,18 +31,24 @@ import org.abego.stringgraph.core.Node;
 import org.abego.stringgraph.core.Nodes;
 import org.abego.stringgraph.core.Properties;
 import org.abego.stringgraph.core.Property;
+import org.abego.stringgraph.core.StringCacheStatistics;
 import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphHandles;
+import org.abego.stringgraph.core.StringGraphs;
 import org.abego.stringgraph.core.exception.StringGraphException;
+import org.abego.stringgraph.internal.commons.BloomFilter;
+import org.abego.stringgraph.internal.commons.IntArray;
+import org.abego.stringgraph.internal.commons.IntSet;
 import org.abego.stringgraph.internal.commons.StringUtil;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -68,60 +74,142 @@ class StringGraphImpl implements StringGraph {
     private final Properties emptyProperties;
     private final StringGraphState state;
 
-    private final Set<Integer> nodeIds;
+    private final IntSet nodeIds;
+    private final Nodes nodes;
     /**
-     * Links every fromNode to the Edges it belongs to.
+     * Links every fromNode to the Edges it belongs to, and every 
+     * (fromNode, label) pair.
      */
-    private final EdgesIndex edgesIndexForFromNode;
+    private final EdgesLookup edgesIndexForFromNode;
     /**
-     * Links every toNode to the Edges it belongs to.
+     * Links every toNode to the Edges it belongs to, and every 
+     * (toNode, label) pair.
      */
-    private final EdgesIndex edgesIndexForToNode;
+    private final EdgesLookup edgesIndexForToNode;
     /**
      * Links every label to the Edges it belongs to.
      */
-    private final EdgesIndex edgesIndexForLabel;
+    private final EdgesLookup edgesIndexForLabel;
+    /**
+     * Links the (from, label, to) triple of every edge to the edge.
+     */
+    private final EdgeTripleLookup edgeTripleIndex;
+    private final Nodes fromNodes;
+    private final Nodes toNodes;
+    /**
+     * When not {@code null}, consulted before looking up a node, to quickly
+     * reject (most) missing nodes.
+     */
     @Nullable
-    private Nodes fromNodes;
+    private final BloomFilter nodeBloomFilter;
+    /**
+     * When not {@code null}, consulted before looking up an edge, to quickly
+     * reject (most) missing edges.
+     */
     @Nullable
-    private Nodes toNodes;
-
-    private StringGraphImpl(StringGraphState state) {
+    private final BloomFilter edgeBloomFilter;
+    private final StringGraphHandles handles;
+    /**
+     * Lazily created, see {@link #edges()}.
+     * <p>
+     * Concurrent readers may create more than one instance, but all are equal
+     * and immutable, so the last one written wins without harm.
+     */
+    @Nullable
+    private volatile Edges allEdges;
+
+    private StringGraphImpl(StringGraphState state,
+                            IntSet nodeIds,
+                            Nodes nodes,
+                            EdgesLookup edgesIndexForLabel,
+                            EdgesLookup edgesIndexForFromNode,
+                            EdgesLookup edgesIndexForToNode,
+                            EdgeTripleLookup edgeTripleIndex) {
         this.state = state;
         this.emptyProperties = new PropertiesImpl(new int[0], state);
-        this.nodeIds = new HashSet<>();
-        for (int i : state.getNodesIds()) {
-            nodeIds.add(i);
-        }
+        this.nodeIds = nodeIds;
+        this.nodes = nodes;
+        this.edgesIndexForLabel = edgesIndexForLabel;
+        this.edgesIndexForFromNode = edgesIndexForFromNode;
+        this.edgesIndexForToNode = edgesIndexForToNode;
+        this.edgeTripleIndex = edgeTripleIndex;
+        this.fromNodes = edgesIndexForFromNode.keysAsNodes();
+        this.toNodes = edgesIndexForToNode.keysAsNodes();
+        this.nodeBloomFilter = state.getNodeBloomFilter();
+        this.edgeBloomFilter = state.getEdgeBloomFilter();
+        handles = StringGraphHandlesImpl.createStringGraphHandles(
+                state, nodeIds, edgesIndexForFromNode, edgesIndexForToNode,
+                edgesIndexForLabel, edgeTripleIndex);
+    }
+
+    private static StringGraphImpl createStringGraphImpl(
+            StringGraphState state, @Nullable ForkJoinPool pool) {
+        StringGraphIndexes indexes = StringGraphIndexes.createStringGraphIndexes(state, pool);
+        return new StringGraphImpl(state,
+                IntSet.createIntSet(state.getNodesIds()),
+                new NodesImpl(state.getNodesIds(), state),
+                indexes.edgesIndexForLabel,
+                indexes.edgesIndexForFromNode,
+                indexes.edgesIndexForToNode,
+                indexes.edgeTripleIndex);
+    }
 
-        edgesIndexForFromNode = new EdgesIndex(state);
-        edgesIndexForToNode = new EdgesIndex(state);
-        edgesIndexForLabel = new EdgesIndex(state);
+    public static StringGraph createStringGraph(StringGraphState data) {
+        return createStringGraphImpl(data, null);
+    }
 
-        int edgesCount = state.getEdgesCount();
-        for (int i = 0; i < edgesCount; i++) {
-            int edgeId = i * 3;//TODO: internal know how. Avoid this.
-            edgesIndexForFromNode.add(state.getFromId(edgeId), edgeId);
-            edgesIndexForToNode.add(state.getToId(edgeId), edgeId);
-            edgesIndexForLabel.add(state.getLabelId(edgeId), edgeId);
-        }
+    /**
+     * Returns a StringGraph for the {@code data}, read with the given 
+     * {@code options}, i.e. building the indexes concurrently when 
+     * {@link StringGraphs.ReadOptions#getParallelLoad()} is {@code true}.
+     */
+    public static StringGraph createStringGraph(
+            StringGraphState data, StringGraphs.ReadOptions options) {
+        return createStringGraphImpl(data,
+                options.getParallelLoad() ? options.getLoadPool() : null);
     }
 
-    public static StringGraph createStringGraph(StringGraphState data) {
-        return new StringGraphImpl(data);
+    /**
+     * Returns a StringGraph for the {@code data}, using the given 
+     * {@code nodeIds} (distinct, in ascending order) and indexes instead of
+     * building them, e.g. to keep them on disk (see 
+     * {@link PagedStringGraphState}) or in memory mapped buffers.
+     * <p>
+     * The caller is responsible for the node ids and indexes to match the 
+     * data.
+     */
+    static StringGraph createStringGraph(StringGraphState data,
+                                         IntArray nodeIds,
+                                         EdgesLookup edgesIndexForLabel,
+                                         EdgesLookup edgesIndexForFromNode,
+                                         EdgesLookup edgesIndexForToNode,
+                                         EdgeTripleLookup edgeTripleIndex) {
+        return new StringGraphImpl(data, nodeIds.asIntSet(),
+                PagedNodes.createPagedNodes(nodeIds, data), edgesIndexForLabel,
+                edgesIndexForFromNode, edgesIndexForToNode, edgeTripleIndex);
+    }
+
+    /**
+     * Returns the state of this StringGraph, e.g. to write the StringGraph 
+     * at the level of ids.
+     */
+    StringGraphState getState() {
+        return state;
+    }
+
+    @Override
+    public void close() {
+        state.close();
     }
 
     @Override
     public Nodes fromNodes() {
-        if (fromNodes == null) {
-            fromNodes = new NodesImpl(edgesIndexForFromNode.keys(), state);
-        }
         return fromNodes;
     }
 
     @Override
     public Nodes nodes() {
-        return new NodesImpl(state.getNodesIds(), state);
+        return nodes;
     }
 
     @Override
@@ -185,44 +273,126 @@ class StringGraphImpl implements StringGraph {
 
     @Override
     public Edges edges() {
-        //TODO: no nice code
-        int[] result = new int[state.getEdgesCount()];
-        for (int i = 0; i < result.length; i++) {
-            result[i] = i * 3;
+        Edges result = allEdges;
+        if (result == null) {
+            int[] ids = new int[state.getEdgesCount()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = StringGraphState.edgeIdOfOrdinal(i);
+            }
+            result = EdgesImpl.createAllEdges(ids, state, edgeTripleIndex);
+            allEdges = result;
         }
-        return new EdgesImpl(result, state);
+        return result;
     }
 
     @Override
     public Edges edges(@Nullable String from, @Nullable String label, @Nullable String to) {
-        List<Edges> edgesByPart = new ArrayList<>();
+        int fromId = 0;
         if (from != null) {
-            if (!hasNode(from)) {
+            fromId = nodeIdOrZero(from);
+            if (fromId == 0) {
                 return EMPTY_EDGES;
             }
-            edgesByPart.add(edgesFromNode(from));
         }
+        int labelId = 0;
         if (label != null) {
-            edgesByPart.add(edgesLabeled(label));
+            labelId = state.getStringIdOrZero(label);
+            if (labelId == 0) {
+                return EMPTY_EDGES;
+            }
         }
+        int toId = 0;
         if (to != null) {
-            if (!hasNode(to)) {
+            toId = nodeIdOrZero(to);
+            if (toId == 0) {
                 return EMPTY_EDGES;
             }
-            edgesByPart.add(edgesToNode(to));
+        }
+        return edgesWithIds(fromId, labelId, toId);
+    }
+
+    /**
+     * Returns the edges with the given from, label and to ids, with an id of 
+     * {@code 0} not restricting the selection for that part.
+     * <p>
+     * Only the edges of the most selective part (the one with the fewest 
+     * edges in its index) are scanned, the other parts are checked for each
+     * of these edges. So the costs depend on the size of the smallest index
+     * slice, not on the largest one.
+     */
+    private Edges edgesWithIds(int fromId, int labelId, int toId) {
+        if (fromId != 0 && labelId != 0 && toId != 0) {
+            int edgeId = edgeTripleIndex.edgeIdOf(fromId, labelId, toId);
+            return edgeId >= 0
+                    ? new EdgesImpl(new int[]{edgeId}, state)
+                    : EMPTY_EDGES;
+        }
+
+        // use the composite indexes when exactly two parts are bound and
+        // the label is one of them
+        if (labelId != 0 && (fromId == 0) != (toId == 0)) {
+            return fromId != 0
+                    ? edgesIndexForFromNode.edges(fromId, labelId)
+                    : edgesIndexForToNode.edges(toId, labelId);
+        }
+
+        // find the most selective part
+        @Nullable EdgesLookup bestIndex = null;
+        int bestKey = 0;
+        int bestCount = Integer.MAX_VALUE;
+        int boundPartsCount = 0;
+        if (fromId != 0) {
+            boundPartsCount++;
+            bestIndex = edgesIndexForFromNode;
+            bestKey = fromId;
+            bestCount = edgesIndexForFromNode.edgesCount(fromId);
+        }
+        if (labelId != 0) {
+            boundPartsCount++;
+            int count = edgesIndexForLabel.edgesCount(labelId);
+            if (count < bestCount) {
+                bestIndex = edgesIndexForLabel;
+                bestKey = labelId;
+                bestCount = count;
+            }
+        }
+        if (toId != 0) {
+            boundPartsCount++;
+            int count = edgesIndexForToNode.edgesCount(toId);
+            if (count < bestCount) {
+                bestIndex = edgesIndexForToNode;
+                bestKey = toId;
+                bestCount = count;
+            }
         }
 
-        if (edgesByPart.isEmpty()) {
+        if (bestIndex == null) {
             // no restriction -> all edges
             return edges();
         }
-
-        Edges result = edgesByPart.get(0);
-        for (int i = 1; i < edgesByPart.size(); i++) {
-            result = result.intersected(edgesByPart.get(i));
+        if (bestCount == 0) {
+            return EMPTY_EDGES;
+        }
+        Edges slice = bestIndex.edges(bestKey);
+        if (boundPartsCount == 1) {
+            return slice;
         }
 
-        return result;
+        // check the other bound parts for every edge of the slice
+        EdgesImpl sliceImpl = EdgesImpl.asEdgesImpl(slice);
+        int[] buffer = new int[bestCount];
+        int n = 0;
+        for (int i = 0; i < bestCount; i++) {
+            int edgeId = sliceImpl.edgeIdAt(i);
+            if ((fromId == 0 || state.getFromId(edgeId) == fromId) &&
+                    (labelId == 0 || state.getLabelId(edgeId) == labelId) &&
+                    (toId == 0 || state.getToId(edgeId) == toId)) {
+                buffer[n++] = edgeId;
+            }
+        }
+        return n > 0
+                ? new EdgesImpl(Arrays.copyOf(buffer, n), state)
+                : EMPTY_EDGES;
     }
 
     @Override
@@ -254,9 +424,6 @@ class StringGraphImpl implements StringGraph {
 
     @Override
     public Nodes toNodes() {
-        if (toNodes == null) {
-            toNodes = new NodesImpl(edgesIndexForToNode.keys(), state);
-        }
         return toNodes;
     }
 
@@ -275,23 +442,14 @@ class StringGraphImpl implements StringGraph {
 
     @Override
     public EdgeLabels edgeLabelsFromNode(String fromNode) {
-        return valueWithNodeOrElse(
-                fromNode,
-                n -> EdgeLabelsImpl.createEdgeLabels(
-                        edgesIndexForFromNode.edges(n).stream()
-                                .map(Edge::getLabel)
-                                .collect(Collectors.toSet())),
-                EdgeLabelsImpl.EMPTY_EDGE_LABELS);
-
+        return edgeLabelsOfNode(edgesIndexForFromNode, fromNode);
     }
 
     @Override
     public Nodes nodesFromNodeViaEdgeLabeled(
             String fromNode, String edgeLabel) {
-        return selectNodes(fromNode,
-                edgesIndexForFromNode::edges,
-                e -> e.getLabel().equals(edgeLabel),
-                Edge::getToNode);
+        return nodesOfEdgesLabeled(
+                edgesIndexForFromNode, fromNode, edgeLabel, state::getToId);
     }
 
     @Override
@@ -304,24 +462,13 @@ class StringGraphImpl implements StringGraph {
 
     @Override
     public EdgeLabels edgeLabelsToNode(String toNode) {
-        return valueWithNodeOrElse(
-                toNode,
-                n -> EdgeLabelsImpl.createEdgeLabels(
-                        edgesIndexForToNode.edges(n).stream()
-                                .map(Edge::getLabel)
-                                .collect(Collectors.toSet())),
-                EdgeLabelsImpl.EMPTY_EDGE_LABELS);
-
+        return edgeLabelsOfNode(edgesIndexForToNode, toNode);
     }
 
     @Override
     public Nodes nodesViaEdgeLabeledToNode(String edgeLabel, String toNode) {
-        try {
-            Edges edges = edgesIndexForToNode.edges(toNode);
-            return fromNodeOfEdgesWithLabel(edges, edgeLabel);
-        } catch (NoSuchElementException e) {
-            return EmptyNodes.EMPTY_NODES;
-        }
+        return nodesOfEdgesLabeled(
+                edgesIndexForToNode, toNode, edgeLabel, state::getFromId);
     }
 
     @Override
@@ -348,7 +495,21 @@ class StringGraphImpl implements StringGraph {
 
     @Override
     public boolean hasEdge(String fromNode, String edgeLabel, String toNode) {
-        return edges().contains(fromNode, edgeLabel, toNode);
+        if (edgeBloomFilter != null && !edgeBloomFilter.mightContain(
+                BloomFilter.hashOf(fromNode, edgeLabel, toNode))) {
+            return false;
+        }
+        return edgeTripleIndex.contains(fromNode, edgeLabel, toNode);
+    }
+
+    @Override
+    public StringGraphHandles handles() {
+        return handles;
+    }
+
+    @Override
+    public StringCacheStatistics getStringCacheStatistics() {
+        return state.getStringCacheStatistics();
     }
 
     @Override
@@ -375,20 +536,49 @@ class StringGraphImpl implements StringGraph {
         return new NodeImpl(stringId, state);
     }
 
-    public Nodes fromNodeOfEdgesWithLabel(Edges edges, String edgeLabel) {
-        int edgesSize = edges.getSize();
+    /**
+     * Returns the labels of the edges of the {@code node} in the {@code index}
+     * (with the label as the index's secondary key), or no labels, when 
+     * {@code node} does not identify a node.
+     */
+    private EdgeLabels edgeLabelsOfNode(EdgesLookup index, String node) {
+        int nodeId = nodeIdOrZero(node);
+        if (nodeId == 0) {
+            return EdgeLabelsImpl.EMPTY_EDGE_LABELS;
+        }
+        return EdgeLabelsImpl.createEdgeLabels(
+                Arrays.stream(index.secondaryKeys(nodeId))
+                        .mapToObj(state::getString)
+                        .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Returns the nodes selected through {@code nodeIdOfEdge} from the edges 
+     * with the {@code node} and the {@code edgeLabel} in the {@code index} 
+     * (with the label as the index's secondary key), or no nodes, when 
+     * {@code node} does not identify a node.
+     * <p>
+     * As edges are unique the nodes selected are unique, too.
+     */
+    private Nodes nodesOfEdgesLabeled(
+            EdgesLookup index, String node, String edgeLabel,
+            IntUnaryOperator nodeIdOfEdge) {
+        int nodeId = nodeIdOrZero(node);
         int labelId = state.getStringIdOrZero(edgeLabel);
-        if (labelId == 0 || edgesSize == 0) {
+        if (nodeId == 0 || labelId == 0) {
             return EMPTY_NODES;
         }
-        int[] buffer = new int[edgesSize];
-        int i = 0;
-        for (int id : EdgesImpl.asEdgesImpl(edges).edgesIds()) {
-            if (state.getLabelId(id) == labelId) {
-                buffer[i++] = state.getFromId(id);
-            }
+        Edges edges = index.edges(nodeId, labelId);
+        int n = edges.getSize();
+        if (n == 0) {
+            return EMPTY_NODES;
         }
-        return new NodesImpl(Arrays.copyOf(buffer, i), state);
+        EdgesImpl edgesImpl = EdgesImpl.asEdgesImpl(edges);
+        int[] nodesIDs = new int[n];
+        for (int i = 0; i < n; i++) {
+            nodesIDs[i] = nodeIdOfEdge.applyAsInt(edgesImpl.edgeIdAt(i));
+        }
+        return new NodesImpl(nodesIDs, state);
     }
 
     private Nodes asNodes(Set<Node> nodes) {
@@ -403,8 +593,20 @@ class StringGraphImpl implements StringGraph {
     }
 
     public boolean hasNode(String id) {
+        return nodeIdOrZero(id) != 0;
+    }
+
+    /**
+     * Returns the (numeric) id of the node identified by {@code id}, or
+     * {@code 0} when there is no such node.
+     */
+    private int nodeIdOrZero(String id) {
+        if (nodeBloomFilter != null &&
+                !nodeBloomFilter.mightContain(BloomFilter.hashOf(id))) {
+            return 0;
+        }
         int stringId = state.getStringIdOrZero(id);
-        return stringId != 0 && nodeIds.contains(stringId);
+        return stringId != 0 && nodeIds.contains(stringId) ? stringId : 0;
     }
 
     /**
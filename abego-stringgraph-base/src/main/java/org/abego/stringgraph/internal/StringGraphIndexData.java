@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+/**
+ * The "raw" data of the indexes of a StringGraph (see 
+ * {@link StringGraphIndexes}), e.g. to persist the indexes in a store and 
+ * to adopt them when reading the StringGraph, instead of rebuilding them.
+ * <p>
+ * Edges are identified by their ordinal (see 
+ * {@link StringGraphState#ordinalOfEdgeId(int)}), not by their edge id. 
+ */
+final class StringGraphIndexData {
+    /**
+     * The data of an {@link EdgesIndex}, in the same "CSR" layout, but with
+     * edge ordinals instead of edge ids.
+     */
+    static final class EdgesIndexData {
+        final int[] keys;
+        final int[] offsets;
+        final int[] edgeOrdinals;
+
+        EdgesIndexData(int[] keys, int[] offsets, int[] edgeOrdinals) {
+            this.keys = keys;
+            this.offsets = offsets;
+            this.edgeOrdinals = edgeOrdinals;
+        }
+
+        /**
+         * Returns {@code true} when the data is consistent with an index
+         * over {@code edgesCount} edges, {@code false} otherwise.
+         * <p>
+         * Only checks the structure (e.g. array lengths), not every entry.
+         */
+        boolean isValidForEdgesCount(int edgesCount) {
+            return offsets.length == keys.length + 1 &&
+                    offsets[0] == 0 &&
+                    offsets[keys.length] == edgesCount &&
+                    edgeOrdinals.length == edgesCount;
+        }
+    }
+
+    final EdgesIndexData labelIndex;
+    final EdgesIndexData fromNodeIndex;
+    final EdgesIndexData toNodeIndex;
+    /**
+     * The table of the {@link EdgeTripleIndex}, holding 
+     * {@code edgeOrdinal + 1} ({@code 0} marks an empty slot).
+     */
+    final int[] edgeTripleTable;
+
+    StringGraphIndexData(EdgesIndexData labelIndex,
+                         EdgesIndexData fromNodeIndex,
+                         EdgesIndexData toNodeIndex,
+                         int[] edgeTripleTable) {
+        this.labelIndex = labelIndex;
+        this.fromNodeIndex = fromNodeIndex;
+        this.toNodeIndex = toNodeIndex;
+        this.edgeTripleTable = edgeTripleTable;
+    }
+
+    /**
+     * Returns {@code true} when the data is consistent with indexes over 
+     * {@code edgesCount} edges, {@code false} otherwise.
+     * <p>
+     * Only checks the structure (e.g. array lengths), not every entry.
+     */
+    boolean isValidForEdgesCount(int edgesCount) {
+        int tableLength = edgeTripleTable.length;
+        return labelIndex.isValidForEdgesCount(edgesCount) &&
+                fromNodeIndex.isValidForEdgesCount(edgesCount) &&
+                toNodeIndex.isValidForEdgesCount(edgesCount) &&
+                Integer.bitCount(tableLength) == 1 &&
+                tableLength > edgesCount;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.abego.stringgraph.internal.StringGraphIndexData.EdgesIndexData;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The edge indexes of a StringGraph, over the edges of a 
+ * {@link StringGraphState}.
+ */
+final class StringGraphIndexes {
+    /**
+     * Links every label to the Edges it belongs to.
+     */
+    final EdgesIndex edgesIndexForLabel;
+    /**
+     * Links every fromNode to the Edges it belongs to, and every 
+     * (fromNode, label) pair.
+     */
+    final EdgesIndex edgesIndexForFromNode;
+    /**
+     * Links every toNode to the Edges it belongs to, and every 
+     * (toNode, label) pair.
+     */
+    final EdgesIndex edgesIndexForToNode;
+    /**
+     * Links the (from, label, to) triple of every edge to the edge.
+     */
+    final EdgeTripleIndex edgeTripleIndex;
+
+    private StringGraphIndexes(EdgesIndex edgesIndexForLabel,
+                               EdgesIndex edgesIndexForFromNode,
+                               EdgesIndex edgesIndexForToNode,
+                               EdgeTripleIndex edgeTripleIndex) {
+        this.edgesIndexForLabel = edgesIndexForLabel;
+        this.edgesIndexForFromNode = edgesIndexForFromNode;
+        this.edgesIndexForToNode = edgesIndexForToNode;
+        this.edgeTripleIndex = edgeTripleIndex;
+    }
+
+    /**
+     * Returns the indexes for the {@code state}, adopting the 
+     * {@link StringGraphState#getIndexData()} of the state when available
+     * and valid, or building the indexes otherwise.
+     */
+    static StringGraphIndexes createStringGraphIndexes(StringGraphState state) {
+        return createStringGraphIndexes(state, null);
+    }
+
+    /**
+     * Returns the indexes for the {@code state}, like 
+     * {@link #createStringGraphIndexes(StringGraphState)}.
+     * <p>
+     * When the indexes must be built and a {@code pool} is given the indexes
+     * are built concurrently, by tasks of the {@code pool}. 
+     */
+    static StringGraphIndexes createStringGraphIndexes(
+            StringGraphState state, @Nullable ForkJoinPool pool) {
+        StringGraphIndexData data = state.getIndexData();
+        if (data != null && data.isValidForEdgesCount(state.getEdgesCount())) {
+            return adoptIndexes(state, data);
+        }
+        return pool != null ? buildIndexes(state, pool) : buildIndexes(state);
+    }
+
+    /**
+     * Returns the data of the indexes over the edges given by their 
+     * (from, to, label) {@code edgesIDs}, e.g. to write the indexes of the 
+     * edges as written to a store, i.e. with the string ids of the store.
+     */
+    static StringGraphIndexData createIndexData(int[] edgesIDs) {
+        return buildIndexes(new EdgesOnlyState(edgesIDs)).toIndexData();
+    }
+
+    private static StringGraphIndexes buildIndexes(StringGraphState state) {
+        EdgesIndex labelIndex = EdgesIndex.createEdgesIndex(state, state::getLabelId);
+        return new StringGraphIndexes(
+                labelIndex,
+                buildFromNodeIndex(state, labelIndex, null),
+                EdgesIndex.createEdgesIndex(state, state::getToId, labelIndex),
+                EdgeTripleIndex.createEdgeTripleIndex(state));
+    }
+
+    private static StringGraphIndexes buildIndexes(
+            StringGraphState state, ForkJoinPool pool) {
+        // The triple index is independent of the other indexes, and the 
+        // fromNode and toNode indexes only depend on the label index.
+        ForkJoinTask<EdgeTripleIndex> tripleIndex =
+                pool.submit(() -> EdgeTripleIndex.createEdgeTripleIndex(state));
+        EdgesIndex labelIndex = EdgesIndex.createEdgesIndex(state, state::getLabelId, pool);
+        ForkJoinTask<EdgesIndex> fromNodeIndex =
+                pool.submit(() -> buildFromNodeIndex(state, labelIndex, pool));
+        EdgesIndex toNodeIndex =
+                EdgesIndex.createEdgesIndex(state, state::getToId, labelIndex, pool);
+        return new StringGraphIndexes(
+                labelIndex, fromNodeIndex.join(), toNodeIndex, tripleIndex.join());
+    }
+
+    private static EdgesIndex buildFromNodeIndex(
+            StringGraphState state, EdgesIndex labelIndex, @Nullable ForkJoinPool pool) {
+        // use the label as the secondary key to also support "composite"
+        // (from, label) and (label, to) lookups.
+        @Nullable EdgesIndex fromNodeIndex = EdgesIndex.createEdgesIndexOfOrderedEdges(
+                state, state::getFromId, state::getLabelId);
+        return fromNodeIndex != null
+                ? fromNodeIndex
+                : EdgesIndex.createEdgesIndex(state, state::getFromId, labelIndex, pool);
+    }
+
+    private static StringGraphIndexes adoptIndexes(
+            StringGraphState state, StringGraphIndexData data) {
+        return new StringGraphIndexes(
+                adoptEdgesIndex(state, data.labelIndex, state::getLabelId, null),
+                adoptEdgesIndex(state, data.fromNodeIndex, state::getFromId, state::getLabelId),
+                adoptEdgesIndex(state, data.toNodeIndex, state::getToId, state::getLabelId),
+                EdgeTripleIndex.createEdgeTripleIndex(
+                        state, ordinalsToEdgeIds(data.edgeTripleTable, 1)));
+    }
+
+    private static EdgesIndex adoptEdgesIndex(
+            StringGraphState state, EdgesIndexData data,
+            IntUnaryOperator keyOfEdge,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge) {
+        return EdgesIndex.createEdgesIndex(state, keyOfEdge, secondaryKeyOfEdge,
+                data.keys, data.offsets, ordinalsToEdgeIds(data.edgeOrdinals, 0));
+    }
+
+    /**
+     * Returns the data of these indexes.
+     */
+    StringGraphIndexData toIndexData() {
+        return new StringGraphIndexData(
+                toEdgesIndexData(edgesIndexForLabel),
+                toEdgesIndexData(edgesIndexForFromNode),
+                toEdgesIndexData(edgesIndexForToNode),
+                edgeIdsToOrdinals(edgeTripleIndex.table(), 1));
+    }
+
+    private static EdgesIndexData toEdgesIndexData(EdgesIndex index) {
+        return new EdgesIndexData(index.keys(), index.offsets(),
+                edgeIdsToOrdinals(index.edgeIds(), 0));
+    }
+
+    /**
+     * Converts values holding {@code edgeOrdinal + bias} into values holding
+     * {@code edgeId + bias}, keeping values less than {@code bias}.
+     */
+    private static int[] ordinalsToEdgeIds(int[] values, int bias) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int v = values[i];
+            result[i] = v < bias ? v : StringGraphState.edgeIdOfOrdinal(v - bias) + bias;
+        }
+        return result;
+    }
+
+    /**
+     * Converts values holding {@code edgeId + bias} into values holding
+     * {@code edgeOrdinal + bias}, keeping values less than {@code bias}.
+     */
+    private static int[] edgeIdsToOrdinals(int[] values, int bias) {
+        int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            int v = values[i];
+            result[i] = v < bias ? v : StringGraphState.ordinalOfEdgeId(v - bias) + bias;
+        }
+        return result;
+    }
+
+    /**
+     * A {@link StringGraphState} with only edges, as needed to build the 
+     * edge indexes.
+     * <p>
+     * The methods not related to edges throw an 
+     * {@link UnsupportedOperationException}.
+     */
+    private static final class EdgesOnlyState implements StringGraphState {
+        private final int[] edgesIDs;
+
+        private EdgesOnlyState(int[] edgesIDs) {
+            this.edgesIDs = edgesIDs;
+        }
+
+        @Override
+        public int getFromId(int edgeId) {
+            return edgesIDs[edgeId];
+        }
+
+        @Override
+        public int getToId(int edgeId) {
+            return edgesIDs[edgeId + 1];
+        }
+
+        @Override
+        public int getLabelId(int edgeId) {
+            return edgesIDs[edgeId + 2];
+        }
+
+        @Override
+        public int getEdgesCount() {
+            return edgesIDs.length / 3;
+        }
+
+        @Override
+        public int[] getNodesIds() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int @Nullable [] getPropertyDataForNode(int nodeId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int[] getNodesWithProperties() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getString(int id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getStringId(String string) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getStringIdOrZero(String string) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StringCacheStatistics getStringCacheStatistics() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
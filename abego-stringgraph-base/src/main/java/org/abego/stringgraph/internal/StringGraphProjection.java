@@ -0,0 +1,104 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphs;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Set;
+
+/**
+ * A {@link StringGraphConstructing} passing on only the edges with selected 
+ * labels and the properties with selected names (a "projection"), as 
+ * defined by {@link StringGraphs.ReadOptions#getEdgeLabels()} and 
+ * {@link StringGraphs.ReadOptions#getPropertyNames()}.
+ * <p>
+ * Used while decoding a store (see 
+ * {@link StringGraphStore#constructStringGraph(StringGraphConstructing)}), 
+ * so the data not selected is never held in memory.
+ */
+final class StringGraphProjection implements StringGraphConstructing {
+    @Nullable
+    private final Set<String> edgeLabels;
+    @Nullable
+    private final Set<String> propertyNames;
+    private final StringGraphBuilderImpl builder = (StringGraphBuilderImpl)
+            StringGraphBuilderImpl.createStringGraphBuilder();
+
+    private StringGraphProjection(@Nullable Set<String> edgeLabels,
+                                  @Nullable Set<String> propertyNames) {
+        this.edgeLabels = edgeLabels;
+        this.propertyNames = propertyNames;
+    }
+
+    /**
+     * Returns {@code true} when the {@code options} define a projection, 
+     * {@code false} when all data should be read.
+     */
+    static boolean isProjection(StringGraphs.ReadOptions options) {
+        return options.getEdgeLabels() != null || options.getPropertyNames() != null;
+    }
+
+    /**
+     * Returns the StringGraph of the {@code store}, with only the data 
+     * selected by the projection of the {@code options}.
+     */
+    static StringGraph readStringGraph(
+            StringGraphStore store, StringGraphs.ReadOptions options) {
+        StringGraphProjection projection = new StringGraphProjection(
+                options.getEdgeLabels(), options.getPropertyNames());
+        store.constructStringGraph(projection);
+        return StringGraphImpl.createStringGraph(
+                projection.builder.buildStringGraphState(options), options);
+    }
+
+    @Override
+    public void addNode(String node) {
+        // With an edge label projection only the nodes of the edges and 
+        // properties selected are added, together with these edges and 
+        // properties. Otherwise all nodes are kept, including the ones 
+        // without edges.
+        if (edgeLabels == null) {
+            builder.addNode(node);
+        }
+    }
+
+    @Override
+    public void addEdge(String fromNode, String edgeLabel, String toNode) {
+        if (edgeLabels == null || edgeLabels.contains(edgeLabel)) {
+            builder.addEdge(fromNode, edgeLabel, toNode);
+        }
+    }
+
+    @Override
+    public void setNodeProperty(String node, String name, String value) {
+        if (propertyNames == null || propertyNames.contains(name)) {
+            builder.addNode(node);
+            builder.setNodeProperty(node, name, value);
+        }
+    }
+}
@@ -24,7 +24,10 @@
 
 package org.abego.stringgraph.internal;
 
+import org.abego.stringgraph.core.StringCacheStatistics;
 import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.internal.commons.BloomFilter;
+import org.abego.stringpool.StringPool;
 import org.eclipse.jdt.annotation.Nullable;
 
 /**
@@ -39,6 +42,26 @@ import org.eclipse.jdt.annotation.Nullable;
  * id.
  */
 interface StringGraphState {
+    /**
+     * Returns the edge id of the edge at the given {@code edgeOrdinal}, i.e. 
+     * at the given position in the sequence of all edges of a state 
+     * ({@code 0 <= edgeOrdinal < getEdgesCount()}).
+     * <p>
+     * Edge ids are the offsets of the edges in an array of 
+     * (from, to, label) triples.
+     */
+    static int edgeIdOfOrdinal(int edgeOrdinal) {
+        return edgeOrdinal * 3;
+    }
+
+    /**
+     * Returns the edge ordinal of the edge with the given {@code edgeId} 
+     * (see {@link #edgeIdOfOrdinal(int)}).
+     */
+    static int ordinalOfEdgeId(int edgeId) {
+        return edgeId / 3;
+    }
+
     /**
      * Returns the (numeric) ids of all nodes. 
      */
@@ -99,6 +122,56 @@ interface StringGraphState {
      */
     int getStringIdOrZero(String string);
 
+    /**
+     * Returns the current statistics of the cache used by 
+     * {@link #getString(int)}.
+     */
+    StringCacheStatistics getStringCacheStatistics();
+
+    /**
+     * Returns the prebuilt data of the indexes over this state (e.g. as read
+     * from a store), or {@code null} when no such data is available and the
+     * indexes must be built.
+     */
+    default @Nullable StringGraphIndexData getIndexData() {
+        return null;
+    }
+
+    /**
+     * Returns a Bloom filter over the {@link BloomFilter#hashOf(String)} of 
+     * the ids of all nodes of this state, or {@code null} when no such 
+     * filter is available.
+     */
+    default @Nullable BloomFilter getNodeBloomFilter() {
+        return null;
+    }
+
+    /**
+     * Returns a Bloom filter over the 
+     * {@link BloomFilter#hashOf(String, String, String)} of the (from, 
+     * label, to) Strings of all edges of this state, or {@code null} when 
+     * no such filter is available.
+     */
+    default @Nullable BloomFilter getEdgeBloomFilter() {
+        return null;
+    }
+
+    /**
+     * Returns the {@link StringPool} holding the Strings of this state, with
+     * the ids used by this state, or {@code null} when the Strings are not 
+     * held in a StringPool.
+     */
+    default @Nullable StringPool getStringPool() {
+        return null;
+    }
+
+    /**
+     * Releases the resources this state holds, e.g. closes the file it reads
+     * from.
+     */
+    default void close() {
+    }
+
      default void constructGraph(
             StringGraphConstructing graphConstructing) {
 
@@ -108,7 +181,7 @@ interface StringGraphState {
 
         int edgesCount = getEdgesCount();
         for (int i = 0; i < edgesCount; i++) {
-            int edgeId = i*3;
+            int edgeId = edgeIdOfOrdinal(i);
             graphConstructing.addEdge(
                     getString(getFromId(edgeId)),
                     getString(getLabelId(edgeId)),
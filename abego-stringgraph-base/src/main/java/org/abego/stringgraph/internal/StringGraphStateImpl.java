@@ -24,11 +24,13 @@
 
 package org.abego.stringgraph.internal;
 
+import org.abego.stringgraph.core.StringCacheMode;
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.abego.stringgraph.core.StringGraphs;
 import org.abego.stringpool.StringPool;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -39,20 +41,63 @@ class StringGraphStateImpl implements StringGraphState {
     private final Map<Integer, int[]> props;
     private final int[] nodesIDs;
     private final int[] edgesIDs;
+    /**
+     * The Strings of the state, either in a StringPool ({@link #strings}) or
+     * front coded ({@link #frontCodedStrings}).
+     */
+    @Nullable
     private final StringPool strings;
+    @Nullable
+    private final FrontCodedStrings frontCodedStrings;
     /**
-     * Reading Strings from the StringPool is "slow" as the strings are encoded
+     * Reading Strings from the StringPool is "slow" as the strings are decoded
      * every time. So cache the previously retrieved strings by their ID.
      */
-    private final Map<Integer, String> cachedStrings = new HashMap<>();
+    private final StringCache stringCache;
     @Nullable
-    private Map<String, Integer> stringIds;
+    private final StringGraphIndexData indexData;
+    /**
+     * Lazily created by {@link #getStringIdIndex()} and never modified after 
+     * it was published.
+     */
+    @Nullable
+    private volatile StringIdIndex stringIdIndex;
 
     public StringGraphStateImpl(Map<Integer, int[]> props, int[] nodesIDs, int[] edgesIDs, StringPool strings) {
+        this(props, nodesIDs, edgesIDs, strings, new StringGraphs.ReadOptions() {
+        });
+    }
+
+    public StringGraphStateImpl(Map<Integer, int[]> props, int[] nodesIDs, int[] edgesIDs, StringPool strings, StringGraphs.ReadOptions options) {
+        this(props, nodesIDs, edgesIDs, strings, options, null);
+    }
+
+    public StringGraphStateImpl(Map<Integer, int[]> props, int[] nodesIDs, int[] edgesIDs, StringPool strings, StringGraphs.ReadOptions options, @Nullable StringGraphIndexData indexData) {
+        this(props, nodesIDs, edgesIDs, strings, null, options, indexData);
+    }
+
+    public StringGraphStateImpl(Map<Integer, int[]> props, int[] nodesIDs, int[] edgesIDs, FrontCodedStrings strings, StringGraphs.ReadOptions options, @Nullable StringGraphIndexData indexData) {
+        this(props, nodesIDs, edgesIDs, null, strings, options, indexData);
+    }
+
+    private StringGraphStateImpl(Map<Integer, int[]> props, int[] nodesIDs, int[] edgesIDs, @Nullable StringPool strings, @Nullable FrontCodedStrings frontCodedStrings, StringGraphs.ReadOptions options, @Nullable StringGraphIndexData indexData) {
         this.props = props;
+        this.indexData = indexData;
         this.nodesIDs = nodesIDs;
         this.edgesIDs = edgesIDs;
         this.strings = strings;
+        this.frontCodedStrings = frontCodedStrings;
+        this.stringCache = frontCodedStrings != null
+                ? StringCache.createStringCache(
+                options.getStringCacheMode(),
+                options.getStringCacheMemoryLimit(),
+                frontCodedStrings::getString,
+                frontCodedStrings.size())
+                : StringCache.createStringCache(
+                options.getStringCacheMode(),
+                options.getStringCacheMemoryLimit(),
+                id -> stringPool().getString(id),
+                () -> StringIdIndex.allIdsOfPool(stringPool()));
     }
 
     @Override
@@ -93,7 +138,22 @@ class StringGraphStateImpl implements StringGraphState {
 
     @Override
     public String getString(int id) {
-        return cachedStrings.computeIfAbsent(id, strings::getString);
+        return stringCache.getString(id);
+    }
+
+    @Override
+    public StringCacheStatistics getStringCacheStatistics() {
+        return stringCache.getStatistics();
+    }
+
+    @Override
+    public @Nullable StringGraphIndexData getIndexData() {
+        return indexData;
+    }
+
+    @Override
+    public @Nullable StringPool getStringPool() {
+        return strings;
     }
 
     @Override
@@ -107,8 +167,12 @@ class StringGraphStateImpl implements StringGraphState {
 
     @Override
     public int getStringIdOrZero(String stringText) {
-        Integer result = getStringIds().get(stringText);
-        return result != null ? result : 0;
+        // Front coded Strings are sorted, so need no extra index to find 
+        // the id of a String
+        FrontCodedStrings fcs = frontCodedStrings;
+        return fcs != null
+                ? fcs.idOrZero(stringText)
+                : getStringIdIndex().idOrZero(stringText);
     }
 
     @Override
@@ -116,24 +180,39 @@ class StringGraphStateImpl implements StringGraphState {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         StringGraphStateImpl that = (StringGraphStateImpl) o;
-        return props.equals(that.props) && Arrays.equals(nodesIDs, that.nodesIDs) && Arrays.equals(edgesIDs, that.edgesIDs) && strings.equals(that.strings);
+        return props.equals(that.props) && Arrays.equals(nodesIDs, that.nodesIDs) && Arrays.equals(edgesIDs, that.edgesIDs) && Objects.equals(strings, that.strings) && Objects.equals(frontCodedStrings, that.frontCodedStrings);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(props, strings);
+        int result = Objects.hash(props, strings, frontCodedStrings);
         result = 31 * result + Arrays.hashCode(nodesIDs);
         result = 31 * result + Arrays.hashCode(edgesIDs);
         return result;
     }
 
-    private Map<String, Integer> getStringIds() {
-        if (stringIds == null) {
-            stringIds = new HashMap<>();
-            for (StringPool.StringAndID e : strings.allStringAndIDs()) {
-                stringIds.put(e.getString(), e.getID());
+    private StringIdIndex getStringIdIndex() {
+        // Double-checked locking (with volatile field): building the index 
+        // requires to decode all Strings of the pool, so make sure to do it 
+        // only once.
+        StringIdIndex result = stringIdIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = stringIdIndex;
+                if (result == null) {
+                    result = StringIdIndex.createStringIdIndex(stringPool(), this::getString);
+                    stringIdIndex = result;
+                }
             }
         }
-        return stringIds;
+        return result;
+    }
+
+    private StringPool stringPool() {
+        StringPool result = strings;
+        if (result == null) {
+            throw new IllegalStateException("No StringPool"); //NON-NLS
+        }
+        return result;
     }
 }
@@ -26,6 +26,7 @@ package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.StringGraph;
 import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphs;
 
 /**
  *  A store that holds a StringGraph.
@@ -35,7 +36,32 @@ interface StringGraphStore {
     /**
      * Writes the {@code stringGraph} to the store.
      */
-    void writeStringGraph(StringGraph stringGraph);
+    default void writeStringGraph(StringGraph stringGraph) {
+        writeStringGraph(stringGraph, new StringGraphs.WriteOptions() {
+        });
+    }
+
+    /**
+     * Writes the {@code stringGraph} to the store, using the given 
+     * {@code options}.
+     * <p>
+     * The {@link StringGraphs.WriteOptions#getStoreFormat()} is ignored, as
+     * the format is defined by the store.
+     */
+    void writeStringGraph(StringGraph stringGraph, StringGraphs.WriteOptions options);
+
+    /**
+     * Writes the StringGraph defined by the {@code state} to the store, using
+     * the given {@code options}, without creating the StringGraph (when 
+     * possible).
+     * <p>
+     * The {@link StringGraphs.WriteOptions#getStoreFormat()} is ignored, as
+     * the format is defined by the store.
+     */
+    default void writeStringGraphState(
+            StringGraphState state, StringGraphs.WriteOptions options) {
+        writeStringGraph(StringGraphImpl.createStringGraph(state), options);
+    }
 
     /**
      * Reads the {@link StringGraph} from the store and returns it.
@@ -44,7 +70,16 @@ interface StringGraphStore {
      * For more control over the StringGraph construction use the method
      * {@link #constructStringGraph(StringGraphConstructing)}.
      */
-    StringGraph readStringGraph();
+    default StringGraph readStringGraph() {
+        return readStringGraph(new StringGraphs.ReadOptions() {
+        });
+    }
+
+    /**
+     * Reads the {@link StringGraph} from the store, using the given 
+     * {@code options}, and returns it.
+     */
+    StringGraph readStringGraph(StringGraphs.ReadOptions options);
 
     /**
      * Reads the {@link StringGraph} from the store and calls the corresponding
@@ -0,0 +1,645 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.internal.commons.FileChannelRegionInputStream;
+import org.abego.stringgraph.internal.commons.FileUtil;
+import org.abego.stringgraph.internal.commons.VLQReader;
+import org.abego.stringgraph.internal.commons.VLQWriter;
+import org.abego.stringpool.StringPool;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A {@link StringGraphStore} using a file format made of length-prefixed 
+ * blocks and a block directory.
+ * <p>
+ * File layout:
+ * <pre>
+ * header:    magic (8 bytes: "SGBLOCKS"), major version (int), 
+ *            minor version (int)
+ * blocks:    per block: tag (int), codec (int), 
+ *            length of the payload in bytes (long), payload
+ * directory: block count (int), per block: tag (int), codec (int), 
+ *            offset of the payload (long), length of the payload (long)
+ * trailer:   offset of the directory (long), magic (8 bytes: "SGBLOCKS")
+ * </pre>
+ * The fixed-width values are little-endian. The payloads of the blocks hold 
+ * VLQ-encoded data, as written by the {@link StringGraphBlockWriter}, 
+ * stored as defined by the codec of the block: "as is" 
+ * ({@link #CODEC_NONE}) or compressed ({@link #CODEC_DEFLATE}, see 
+ * {@link StringGraphs.WriteOptions#getCompressBlocks()}). As the codec is 
+ * stored with every block, the file is self-describing.
+ * <p>
+ * The Strings are either stored in a {@link #STRINGS_BLOCK} (as the bytes of
+ * a {@link StringPool}) or in a {@link #FRONT_CODED_STRINGS_BLOCK} (see
+ * {@link FrontCodedStrings}).
+ * <p>
+ * The edges are stored in a {@link #SORTED_EDGES_BLOCK}, sorted by 
+ * (from, label, to) and delta encoded (see 
+ * {@link StringGraphBlockWriter#writeSortedEdgesBlock}). Files of version
+ * 1.0 store the edges unsorted in an {@link #EDGES_BLOCK}.
+ * <p>
+ * Readers use the directory to locate the blocks they need and decode (and
+ * decompress) these blocks, concurrently when loading in parallel (see 
+ * {@link StringGraphs.ReadOptions#getParallelLoad()}). Blocks with unknown 
+ * tags are ignored. As every block is prefixed by its length also a 
+ * sequential reader can skip a block without decoding it.
+ * <p>
+ * The block with the Strings is the first block of the file, so a 
+ * sequential reader can resolve the String ids of all following blocks.
+ */
+class StringGraphStoreBlocks implements StringGraphStore {
+    //region FieldsState
+    private final URI uri;
+    //endregion
+
+    //region Construction
+    private StringGraphStoreBlocks(URI uri) {
+        this.uri = uri;
+    }
+
+    static StringGraphStoreBlocks createStringGraphStoreBlocks(URI uri) {
+        return new StringGraphStoreBlocks(uri);
+    }
+    //endregion
+
+    //region StringGraphStore API
+    @Override
+    public void writeStringGraph(StringGraph stringGraph, StringGraphs.WriteOptions options) {
+        write(options.getFrontCodeStrings()
+                        ? StringGraphBlockWriter.createFrontCodingBlockWriter(stringGraph)
+                        : StringGraphBlockWriter.createStringGraphBlockWriter(stringGraph),
+                options);
+    }
+
+    @Override
+    public void writeStringGraphState(StringGraphState state, StringGraphs.WriteOptions options) {
+        write(options.getFrontCodeStrings()
+                        ? StringGraphBlockWriter.createFrontCodingBlockWriter(state)
+                        : StringGraphBlockWriter.createStringGraphBlockWriter(state),
+                options);
+    }
+
+    private void write(StringGraphBlockWriter blockWriter, StringGraphs.WriteOptions options) {
+        File file = new File(uri);
+        FileUtil.ensureDirectoryExists(file.getParentFile());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            writeBlocks(new BlocksWriter(channel), blockWriter, options);
+
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when writing graph to %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public StringGraph readStringGraph(StringGraphs.ReadOptions options) {
+        return StringGraphImpl.createStringGraph(readStringGraphState(options), options);
+    }
+
+    @Override
+    public void constructStringGraph(StringGraphConstructing graphConstructing) {
+        try (FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+
+            constructStringGraphFromChannel(channel, graphConstructing);
+
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when reading graph from %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+
+    private StringGraphState readStringGraphState(StringGraphs.ReadOptions options) {
+        try (FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+
+            return readStringGraphStateFromChannel(channel, options);
+
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when reading graph from %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+    //endregion
+
+    //region DataFormat API
+    private static final byte[] MAGIC =
+            "SGBLOCKS".getBytes(StandardCharsets.US_ASCII); //NON-NLS
+    private static final DataFormatVersion DATA_FORMAT_VERSION =
+            DataFormatVersion.createDataFormatVersion(1, 1);
+
+    public static DataFormatVersion getDataFormatVersion() {
+        return DATA_FORMAT_VERSION;
+    }
+
+    /**
+     * Returns {@code true} when the {@code uri} references a file in the 
+     * format of this store, {@code false} otherwise.
+     */
+    static boolean isBlocksStore(URI uri) {
+        return StringGraphStoreUtil.startsWithMagic(uri, MAGIC);
+    }
+    //endregion
+
+    //region Blocks
+    static final int STRINGS_BLOCK = 1;
+    static final int NODES_BLOCK = 2;
+    static final int EDGES_BLOCK = 3;
+    static final int NODE_PROPERTIES_BLOCK = 4;
+    static final int INDEXES_BLOCK = 5;
+    static final int FRONT_CODED_STRINGS_BLOCK = 6;
+    static final int SORTED_EDGES_BLOCK = 7;
+
+    /**
+     * The payload of the block is stored "as is".
+     */
+    static final int CODEC_NONE = 0;
+    /**
+     * The payload of the block is compressed with a {@link Deflater}, in 
+     * the ZLIB format.
+     */
+    static final int CODEC_DEFLATE = 1;
+
+    private static final int CODEC_BUFFER_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = 16;
+    private static final int BLOCK_HEADER_SIZE = 16;
+    private static final int DIRECTORY_ENTRY_SIZE = 24;
+    private static final int TRAILER_SIZE = 16;
+
+    /**
+     * A block of the file, as listed in the directory.
+     */
+    private static final class BlockEntry {
+        private final int tag;
+        private final int codec;
+        private final long offset;
+        private final long length;
+
+        private BlockEntry(int tag, int codec, long offset, long length) {
+            this.tag = tag;
+            this.codec = codec;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    // package-private, not private, for white-box tests
+    static StringGraphState readStringGraphStateFromChannel(
+            FileChannel channel, StringGraphs.ReadOptions options) throws IOException {
+        Map<Integer, BlockEntry> blocks = readDirectory(channel);
+        @Nullable BlockEntry frontCodedStringsBlock = blocks.get(FRONT_CODED_STRINGS_BLOCK);
+        BlockEntry stringsBlock = frontCodedStringsBlock != null
+                ? frontCodedStringsBlock
+                : requiredBlock(blocks, STRINGS_BLOCK);
+        BlockEntry nodesBlock = requiredBlock(blocks, NODES_BLOCK);
+        BlockEntry edgesBlock = edgesBlock(blocks);
+        BlockEntry nodePropertiesBlock = requiredBlock(blocks, NODE_PROPERTIES_BLOCK);
+        @Nullable BlockEntry indexesBlock = blocks.get(INDEXES_BLOCK);
+
+        // The blocks are independent of each other, so decode them 
+        // concurrently when loading in parallel, in this thread otherwise
+        Executor executor = options.getParallelLoad()
+                ? options.getLoadPool()
+                : Runnable::run;
+        CompletableFuture<int[]> nodes = decodeAsync(
+                channel, nodesBlock, StringGraphBlockReader::readNodesBlock, executor);
+        CompletableFuture<int[]> edges = decodeAsync(
+                channel, edgesBlock, edgesBlock.tag == SORTED_EDGES_BLOCK
+                        ? StringGraphBlockReader::readSortedEdgesBlock
+                        : StringGraphBlockReader::readEdgesBlock,
+                executor);
+        CompletableFuture<Map<Integer, int[]>> props = decodeAsync(
+                channel, nodePropertiesBlock, StringGraphBlockReader::readNodePropertiesBlock,
+                executor);
+        CompletableFuture<@Nullable StringGraphIndexData> indexData = indexesBlock != null
+                ? decodeAsync(channel, indexesBlock, StringGraphBlockReader::readIndexesBlock,
+                executor)
+                : CompletableFuture.completedFuture(null);
+
+        if (stringsBlock.tag == FRONT_CODED_STRINGS_BLOCK) {
+            CompletableFuture<FrontCodedStrings> strings = decodeAsync(
+                    channel, stringsBlock, StringGraphBlockReader::readFrontCodedStringsBlock,
+                    executor);
+            return new StringGraphStateImpl(join(props), join(nodes), join(edges),
+                    join(strings), options, join(indexData));
+        } else {
+            CompletableFuture<StringPool> strings = decodeAsync(
+                    channel, stringsBlock, StringGraphBlockReader::readStringsBlock, executor);
+            return new StringGraphStateImpl(join(props), join(nodes), join(edges),
+                    join(strings), options, join(indexData));
+        }
+    }
+
+    /**
+     * Reads the StringGraph from the {@code channel}, passing its data to the
+     * {@code graphConstructing} while decoding the blocks.
+     * <p>
+     * Only the Strings are kept in memory, the nodes, edges and properties 
+     * are not, i.e. the memory needed is independent of the size of the 
+     * graph's structure.
+     */
+    private static void constructStringGraphFromChannel(
+            FileChannel channel, StringGraphConstructing graphConstructing) throws IOException {
+        Map<Integer, BlockEntry> blocks = readDirectory(channel);
+        @Nullable BlockEntry frontCodedStringsBlock = blocks.get(FRONT_CODED_STRINGS_BLOCK);
+        IntFunction<String> decoder = frontCodedStringsBlock != null
+                ? decode(channel, frontCodedStringsBlock,
+                StringGraphBlockReader::readFrontCodedStringsBlock)::getString
+                : decode(channel, requiredBlock(blocks, STRINGS_BLOCK),
+                StringGraphBlockReader::readStringsBlock)::getString;
+        IntFunction<String> stringOfId = StringGraphBlockReader.stringOfIdForConstruct(decoder);
+
+        decode(channel, requiredBlock(blocks, NODES_BLOCK), (VLQReader reader) ->
+                StringGraphBlockReader.constructNodesBlock(
+                        reader, stringOfId, graphConstructing));
+        BlockEntry edgesBlock = edgesBlock(blocks);
+        if (edgesBlock.tag == SORTED_EDGES_BLOCK) {
+            decode(channel, edgesBlock, (VLQReader reader) ->
+                    StringGraphBlockReader.constructSortedEdgesBlock(
+                            reader, stringOfId, graphConstructing));
+        } else {
+            decode(channel, edgesBlock, (VLQReader reader) ->
+                    StringGraphBlockReader.constructEdgesBlock(
+                            reader, stringOfId, graphConstructing));
+        }
+        decode(channel, requiredBlock(blocks, NODE_PROPERTIES_BLOCK), (VLQReader reader) ->
+                StringGraphBlockReader.constructNodePropertiesBlock(
+                        reader, stringOfId, graphConstructing));
+    }
+
+    private static BlockEntry edgesBlock(Map<Integer, BlockEntry> blocks) {
+        @Nullable BlockEntry sortedEdgesBlock = blocks.get(SORTED_EDGES_BLOCK);
+        return sortedEdgesBlock != null
+                ? sortedEdgesBlock
+                : requiredBlock(blocks, EDGES_BLOCK);
+    }
+
+    private static Map<Integer, BlockEntry> readDirectory(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < HEADER_SIZE + TRAILER_SIZE) {
+            throw new StringGraphStoreException(
+                    "Invalid file format. Expected StringGraph blocks store"); //NON-NLS
+        }
+        ByteBuffer header = StringGraphStoreUtil.readFully(channel, 0, HEADER_SIZE);
+        checkMagic(header);
+        int major = header.getInt();
+        header.getInt(); // minor
+        if (major != DATA_FORMAT_VERSION.majorNumber) {
+            throw new StringGraphStoreException(
+                    String.format("Incompatible data format version. Expected '%d', got '%d'", //NON-NLS
+                            DATA_FORMAT_VERSION.majorNumber, major));
+        }
+
+        ByteBuffer trailer = StringGraphStoreUtil.readFully(
+                channel, fileSize - TRAILER_SIZE, TRAILER_SIZE);
+        long directoryOffset = trailer.getLong();
+        checkMagic(trailer);
+
+        int blockCount = StringGraphStoreUtil.readFully(channel, directoryOffset, 4).getInt();
+        ByteBuffer directory = StringGraphStoreUtil.readFully(
+                channel, directoryOffset + 4, (long) blockCount * DIRECTORY_ENTRY_SIZE);
+        Map<Integer, BlockEntry> result = new HashMap<>();
+        for (int i = 0; i < blockCount; i++) {
+            BlockEntry entry = new BlockEntry(directory.getInt(), directory.getInt(),
+                    directory.getLong(), directory.getLong());
+            result.put(entry.tag, entry);
+        }
+        return result;
+    }
+
+    private static void checkMagic(ByteBuffer buffer) {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new StringGraphStoreException(
+                    "Invalid file format. Expected StringGraph blocks store"); //NON-NLS
+        }
+    }
+
+    private static BlockEntry requiredBlock(Map<Integer, BlockEntry> blocks, int tag) {
+        BlockEntry result = blocks.get(tag);
+        if (result == null) {
+            throw new StringGraphStoreException(
+                    String.format("Missing block %d", tag)); //NON-NLS
+        }
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> decodeAsync(
+            FileChannel channel, BlockEntry block, Function<VLQReader, T> decoder,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> decode(channel, block, decoder), executor);
+    }
+
+    private static void decode(
+            FileChannel channel, BlockEntry block, Consumer<VLQReader> decoder) {
+        decode(channel, block, reader -> {
+            decoder.accept(reader);
+            return null;
+        });
+    }
+
+    /**
+     * Returns the result of the {@code decoder} reading the payload of the 
+     * {@code block}.
+     * <p>
+     * A compressed payload is decompressed while decoding, so neither the 
+     * compressed nor the decompressed payload is held in memory.
+     */
+    private static <T> T decode(
+            FileChannel channel, BlockEntry block, Function<VLQReader, T> decoder) {
+        InputStream payload = FileChannelRegionInputStream.createFileChannelRegionInputStream(
+                channel, block.offset, block.length);
+        switch (block.codec) {
+            case CODEC_NONE:
+                return decoder.apply(VLQReader.createVLQReader(payload));
+            case CODEC_DEFLATE:
+                BlockInflaterInputStream inflating = new BlockInflaterInputStream(payload);
+                try {
+                    return decoder.apply(VLQReader.createVLQReader(inflating));
+                } catch (RuntimeException e) {
+                    @Nullable IOException failure = inflating.failure;
+                    if (failure == null) {
+                        throw e;
+                    }
+                    throw new StringGraphStoreException(
+                            String.format("Error when decompressing block %d: %s", //NON-NLS
+                                    block.tag, failure.getMessage()), failure);
+                } finally {
+                    inflating.end();
+                }
+            default:
+                throw new StringGraphStoreException(
+                        String.format("Unsupported codec %d of block %d", //NON-NLS
+                                block.codec, block.tag));
+        }
+    }
+
+    /**
+     * An {@link InflaterInputStream} remembering the error that made it fail
+     * (if any), so the failure can be reported as an error of the 
+     * decompression, not of the decoding.
+     */
+    private static final class BlockInflaterInputStream extends InflaterInputStream {
+        @Nullable
+        private IOException failure;
+
+        private BlockInflaterInputStream(InputStream in) {
+            super(in, new Inflater(), CODEC_BUFFER_SIZE);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return super.read(b, off, len);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+
+        /**
+         * Releases the resources of the {@link Inflater}.
+         */
+        private void end() {
+            inf.end();
+        }
+    }
+
+    /**
+     * Returns the result of the {@code future}, when completed, throwing the 
+     * exception that made the future fail (if any).
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+    //endregion
+
+    //region Writing
+    /**
+     * The compression level to pass to 
+     * {@link BlocksWriter#writeBlock(int, Consumer, int)} to store the 
+     * payload "as is".
+     */
+    static final int NO_COMPRESSION = -2;
+
+    // package-private, not private, for white-box tests
+    static void writeBlocks(
+            BlocksWriter writer,
+            StringGraphBlockWriter blockWriter,
+            StringGraphs.WriteOptions options) throws IOException {
+        int level = options.getCompressBlocks()
+                ? options.getCompressionLevel()
+                : NO_COMPRESSION;
+        writer.writeBlock(
+                blockWriter.writesFrontCodedStrings() ? FRONT_CODED_STRINGS_BLOCK : STRINGS_BLOCK,
+                blockWriter::writeStringsBlock, level);
+        writer.writeBlock(NODES_BLOCK, blockWriter::writeNodesBlock, level);
+        writer.writeBlock(SORTED_EDGES_BLOCK, blockWriter::writeSortedEdgesBlock, level);
+        writer.writeBlock(NODE_PROPERTIES_BLOCK, blockWriter::writeNodePropertiesBlock, level);
+        if (options.getWriteIndexes()) {
+            writer.writeBlock(INDEXES_BLOCK, blockWriter::writeIndexesBlock, level);
+        }
+        writer.finish();
+    }
+
+    /**
+     * Writes the payload of a block to an {@link OutputStream}.
+     */
+    private interface PayloadWriting {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Writes a file of this store to a {@link FileChannel}, block by block.
+     * <p>
+     * The payload of a block is streamed to the file while it is encoded 
+     * (and compressed), i.e. no block is held in memory. The block header
+     * is written when the length of the payload is known.
+     */
+    // package-private, not private, for white-box tests
+    static final class BlocksWriter {
+        private final FileChannel channel;
+        private final List<BlockEntry> blocks = new ArrayList<>();
+        private long pos;
+
+        BlocksWriter(FileChannel channel) throws IOException {
+            this.channel = channel;
+            ByteBuffer header = newBuffer(HEADER_SIZE);
+            header.put(MAGIC);
+            header.putInt(DATA_FORMAT_VERSION.majorNumber);
+            header.putInt(DATA_FORMAT_VERSION.minorNumber);
+            writeFully(header, 0);
+            pos = HEADER_SIZE;
+        }
+
+        /**
+         * Writes a block with the payload written by {@code writing}, 
+         * compressed with the given {@link Deflater} {@code level}, or 
+         * "as is" when the {@code level} is {@link #NO_COMPRESSION} or 
+         * compression does not make the payload smaller.
+         * <p>
+         * In the latter case {@code writing} is called a second time.
+         */
+        void writeBlock(int tag, Consumer<VLQWriter> writing, int level) throws IOException {
+            if (level != NO_COMPRESSION) {
+                Deflater deflater = new Deflater(level);
+                try {
+                    long length = writePayload(out -> {
+                        DeflaterOutputStream deflated =
+                                new DeflaterOutputStream(out, deflater, CODEC_BUFFER_SIZE);
+                        writeVLQ(deflated, writing);
+                        deflated.finish();
+                    });
+                    if (length < deflater.getBytesRead()) {
+                        addBlock(tag, CODEC_DEFLATE, length);
+                        return;
+                    }
+                } finally {
+                    deflater.end();
+                }
+            }
+            addBlock(tag, CODEC_NONE, writePayload(out -> writeVLQ(out, writing)));
+        }
+
+        /**
+         * Writes a block with the {@code payload}, stored as defined by the 
+         * {@code codec}.
+         */
+        void writeBlock(int tag, int codec, byte[] payload) throws IOException {
+            addBlock(tag, codec, writePayload(out -> out.write(payload)));
+        }
+
+        /**
+         * Writes the directory and the trailer, completing the file.
+         */
+        void finish() throws IOException {
+            ByteBuffer directory = newBuffer(4 + blocks.size() * DIRECTORY_ENTRY_SIZE);
+            directory.putInt(blocks.size());
+            for (BlockEntry block : blocks) {
+                directory.putInt(block.tag);
+                directory.putInt(block.codec);
+                directory.putLong(block.offset);
+                directory.putLong(block.length);
+            }
+            writeFully(directory, pos);
+
+            ByteBuffer trailer = newBuffer(TRAILER_SIZE);
+            trailer.putLong(pos);
+            trailer.put(MAGIC);
+            long trailerPos = pos + directory.capacity();
+            writeFully(trailer, trailerPos);
+            // drop the bytes of a payload that was written compressed first
+            // and then "as is"
+            channel.truncate(trailerPos + TRAILER_SIZE);
+        }
+
+        /**
+         * Writes the payload of the next block, behind the (not yet written)
+         * block header, and returns its length.
+         */
+        private long writePayload(PayloadWriting writing) throws IOException {
+            long offset = pos + BLOCK_HEADER_SIZE;
+            channel.position(offset);
+            // not closed, as this would close the channel
+            OutputStream out = Channels.newOutputStream(channel);
+            writing.write(out);
+            return channel.position() - offset;
+        }
+
+        private void addBlock(int tag, int codec, long length) throws IOException {
+            ByteBuffer blockHeader = newBuffer(BLOCK_HEADER_SIZE);
+            blockHeader.putInt(tag);
+            blockHeader.putInt(codec);
+            blockHeader.putLong(length);
+            writeFully(blockHeader, pos);
+            blocks.add(new BlockEntry(tag, codec, pos + BLOCK_HEADER_SIZE, length));
+            pos += BLOCK_HEADER_SIZE + length;
+        }
+
+        private void writeFully(ByteBuffer buffer, long position) throws IOException {
+            buffer.flip();
+            long p = position;
+            while (buffer.hasRemaining()) {
+                p += channel.write(buffer, p);
+            }
+        }
+
+        private static void writeVLQ(OutputStream out, Consumer<VLQWriter> writing)
+                throws IOException {
+            VLQWriter writer = VLQWriter.createVLQWriter(out);
+            writing.accept(writer);
+            writer.flush();
+        }
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    //endregion
+}
@@ -25,29 +25,25 @@
 package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.internal.commons.FileUtil;
-import org.abego.stringgraph.internal.commons.VLQUtil;
+import org.abego.stringgraph.internal.commons.VLQReader;
+import org.abego.stringgraph.internal.commons.VLQWriter;
 import org.abego.stringpool.StringPool;
-import org.abego.stringpool.StringPoolBuilder;
-import org.abego.stringpool.StringPools;
-import org.abego.stringgraph.core.Edge;
-import org.abego.stringgraph.core.Edges;
-import org.abego.stringgraph.core.Node;
-import org.abego.stringgraph.core.Nodes;
-import org.abego.stringgraph.core.Properties;
-import org.abego.stringgraph.core.Property;
 import org.abego.stringgraph.core.StringGraph;
 import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphs;
+import org.eclipse.jdt.annotation.Nullable;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URI;
 import java.nio.file.Files;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 class StringGraphStoreDefault implements StringGraphStore {
     //region FieldsState
@@ -66,13 +62,23 @@ class StringGraphStoreDefault implements StringGraphStore {
 
     //region StringGraphStore API
     @Override
-    public void writeStringGraph(StringGraph stringGraph) {
+    public void writeStringGraph(StringGraph stringGraph, StringGraphs.WriteOptions options) {
+        write(StringGraphBlockWriter.createStringGraphBlockWriter(stringGraph), options);
+    }
+
+    @Override
+    public void writeStringGraphState(StringGraphState state, StringGraphs.WriteOptions options) {
+        write(StringGraphBlockWriter.createStringGraphBlockWriter(state), options);
+    }
+
+    private void write(StringGraphBlockWriter blockWriter, StringGraphs.WriteOptions options) {
         File file = new File(uri);
         FileUtil.ensureDirectoryExists(file.getParentFile());
         try (ObjectOutputStream objectOutputStream =
-                     new ObjectOutputStream(Files.newOutputStream(file.toPath()))) {
+                     new ObjectOutputStream(new BufferedOutputStream(
+                             Files.newOutputStream(file.toPath()), IO_BUFFER_SIZE))) {
 
-            writeGraphToStream(objectOutputStream, stringGraph);
+            new GraphWriter(objectOutputStream, blockWriter, options).write();
 
         } catch (Exception e) {
             throw new StringGraphStoreException(
@@ -83,21 +89,30 @@ class StringGraphStoreDefault implements StringGraphStore {
 
     @Override
     public void constructStringGraph(StringGraphConstructing graphConstructing) {
-        StringGraphState state = readStringGraphState();
-        state.constructGraph(graphConstructing);
+        // The Strings are stored at the end of the file. To not keep the 
+        // nodes, edges and properties in memory first only read the Strings 
+        // and then read the file again, passing its data to the 
+        // graphConstructing while decoding.
+        StringPool strings = readFromStream(this::readStringsFromStream);
+        readFromStream(objectInputStream -> {
+            constructGraphFromStream(objectInputStream, strings, graphConstructing);
+            return null;
+        });
     }
 
     @Override
-    public StringGraph readStringGraph() {
-        StringGraphState state = readStringGraphState();
-        return StringGraphImpl.createStringGraph(state);
+    public StringGraph readStringGraph(StringGraphs.ReadOptions options) {
+        StringGraphState state = readFromStream(
+                objectInputStream -> readStringGraphStateFromStream(objectInputStream, options));
+        return StringGraphImpl.createStringGraph(state, options);
     }
 
-    private StringGraphState readStringGraphState() {
+    private <T> T readFromStream(Function<ObjectInputStream, T> reading) {
         try (ObjectInputStream objectInputStream =
-                     new ObjectInputStream(uri.toURL().openStream())) {
+                     new ObjectInputStream(new BufferedInputStream(
+                             uri.toURL().openStream(), IO_BUFFER_SIZE))) {
 
-            return readStringGraphStateFromStream(objectInputStream);
+            return reading.apply(objectInputStream);
 
         } catch (Exception e) {
             throw new StringGraphStoreException(
@@ -112,7 +127,7 @@ class StringGraphStoreDefault implements StringGraphStore {
     private static final String DATA_FORMAT_NAME =
             "org.abego.stringgraph.store.StringGraphStoreDefault";
     private static final DataFormatVersion DATA_FORMAT_VERSION =
-            DataFormatVersion.createDataFormatVersion(1, 0);
+            DataFormatVersion.createDataFormatVersion(1, 1);
 
     public static String getDataFormatName() {
         return DATA_FORMAT_NAME;
@@ -124,22 +139,51 @@ class StringGraphStoreDefault implements StringGraphStore {
     //endregion
 
     //region Read/Write Graph
+    private static final int IO_BUFFER_SIZE = 1024 * 1024;
     private static final String NODES_TAG = "nodes"; //NON-NLS
     private static final String EDGES_TAG = "edges"; //NON-NLS
     private static final String NODE_PROPERTIES_TAG = "node-properties"; //NON-NLS
     private static final String END_TAG = "end"; //NON-NLS
+    /**
+     * Since version 1.1 "extension" blocks follow the block tagged 
+     * {@link #END_TAG}, up to a block tagged {@link #EXTENSIONS_END_TAG}.
+     * <p>
+     * Readers of version 1.0 stop reading at the {@link #END_TAG} block, i.e.
+     * extension blocks do not break them.
+     */
+    private static final String INDEXES_TAG = "indexes"; //NON-NLS
+    private static final String EXTENSIONS_END_TAG = "end-extensions"; //NON-NLS
 
     // package-private, not private, for white-box tests
     void writeGraphToStream(ObjectOutputStream objectOutputStream, StringGraph stringGraph) {
-        GraphWriter graphWriter = new GraphWriter(objectOutputStream, stringGraph);
+        writeGraphToStream(objectOutputStream, stringGraph, new StringGraphs.WriteOptions() {
+        });
+    }
+
+    private void writeGraphToStream(ObjectOutputStream objectOutputStream,
+                                    StringGraph stringGraph,
+                                    StringGraphs.WriteOptions options) {
+        GraphWriter graphWriter = new GraphWriter(objectOutputStream,
+                StringGraphBlockWriter.createStringGraphBlockWriter(stringGraph), options);
         graphWriter.write();
     }
 
     // package-private, not private, for white-box tests
     StringGraphState readStringGraphStateFromStream(ObjectInputStream objectInputStream) {
-        StringGraphStoreUtil.readAndCheckDataFormat(
+        return readStringGraphStateFromStream(objectInputStream, new StringGraphs.ReadOptions() {
+        });
+    }
+
+    private StringGraphState readStringGraphStateFromStream(
+            ObjectInputStream objectInputStream, StringGraphs.ReadOptions options) {
+        DataFormatVersion version = StringGraphStoreUtil.readAndCheckDataFormat(
                 objectInputStream, getDataFormatName(), DATA_FORMAT_VERSION);
 
+        // The data of a block is read through a VLQReader. As the
+        // ObjectInputStream does not return bytes beyond the block data, i.e.
+        // beyond the next tag, the VLQReader cannot read ahead into the next
+        // tag.
+        VLQReader reader = VLQReader.createVLQReader(objectInputStream);
         Map<Integer, int[]> props = new HashMap<>();
         int[] nodesIDs = new int[0];
         int[] edgesIDs = new int[0];
@@ -147,173 +191,145 @@ class StringGraphStoreDefault implements StringGraphStore {
             String tag = readTag(objectInputStream);
             switch (tag) {
                 case NODES_TAG:
-                    nodesIDs = readNodesBlock(objectInputStream);
+                    nodesIDs = StringGraphBlockReader.readNodesBlock(reader);
                     break;
                 case EDGES_TAG:
-                    edgesIDs = readEdgesBlock(objectInputStream);
+                    edgesIDs = StringGraphBlockReader.readEdgesBlock(reader);
                     break;
                 case NODE_PROPERTIES_TAG:
-                    props = readNodePropertiesBlock(objectInputStream);
+                    props = StringGraphBlockReader.readNodePropertiesBlock(reader);
                     break;
                 case END_TAG:
-                    StringPool strings = readEndBlock(objectInputStream);
+                    StringPool strings = StringGraphBlockReader.readStringsBlock(reader);
+                    StringGraphIndexData indexData = version.minorNumber >= 1
+                            ? readExtensionBlocks(objectInputStream, reader)
+                            : null;
                     return new StringGraphStateImpl(
-                            props, nodesIDs, edgesIDs, strings);
+                            props, nodesIDs, edgesIDs, strings, options, indexData);
                 default:
                     // to be able to read future file formats
                     // we ignore any tag we don't know.
                     // Future versions of this class will ensure to increase the
                     // major version number when the file format changes in a
                     // way that are incompatible to this approach.
+                    StringGraphBlockReader.skipBlock(reader);
                     break;
             }
         } while (true);
     }
 
-    private int[] readNodesBlock(ObjectInputStream objectInputStream) {
-        int n = readInt(objectInputStream);
-        int[] nodesIDs = new int[n];
-        for (int i = 0; i < n; i++) {
-            nodesIDs[i] = readInt(objectInputStream);
-        }
-        return nodesIDs;
-    }
-
-    private int[] readEdgesBlock(ObjectInputStream objectInputStream) {
-        int n = readInt(objectInputStream);
-        int size = n * 3;
-        int[] edgesIDs = new int[size];
-        for (int i = 0; i < size; i += 3) {
-            edgesIDs[i] = readInt(objectInputStream);
-            edgesIDs[i + 1] = readInt(objectInputStream);
-            edgesIDs[i + 2] = readInt(objectInputStream);
-        }
-        return edgesIDs;
+    private StringPool readStringsFromStream(ObjectInputStream objectInputStream) {
+        StringGraphStoreUtil.readAndCheckDataFormat(
+                objectInputStream, getDataFormatName(), DATA_FORMAT_VERSION);
+        VLQReader reader = VLQReader.createVLQReader(objectInputStream);
+        do {
+            String tag = readTag(objectInputStream);
+            if (tag.equals(END_TAG)) {
+                return StringGraphBlockReader.readStringsBlock(reader);
+            }
+            StringGraphBlockReader.skipBlock(reader);
+        } while (true);
     }
 
-    private Map<Integer, int[]> readNodePropertiesBlock(ObjectInputStream objectInputStream) {
-        Map<Integer, int[]> props = new HashMap<>();
-        int countOfNodesWithProps = readInt(objectInputStream);
-        for (int iNode = 0; iNode < countOfNodesWithProps; iNode++) {
-            int nodeID = readInt(objectInputStream);
-            int nProps = readInt(objectInputStream);
-            int[] propsIDs = new int[nProps * 2];
-            for (int i = 0; i < nProps; i++) {
-                propsIDs[2 * i] = readInt(objectInputStream);
-                propsIDs[2 * i + 1] = readInt(objectInputStream);
+    private void constructGraphFromStream(ObjectInputStream objectInputStream,
+                                          StringPool strings,
+                                          StringGraphConstructing graphConstructing) {
+        StringGraphStoreUtil.readAndCheckDataFormat(
+                objectInputStream, getDataFormatName(), DATA_FORMAT_VERSION);
+        VLQReader reader = VLQReader.createVLQReader(objectInputStream);
+        IntFunction<String> stringOfId =
+                StringGraphBlockReader.stringOfIdForConstruct(strings::getString);
+        do {
+            String tag = readTag(objectInputStream);
+            switch (tag) {
+                case NODES_TAG:
+                    StringGraphBlockReader.constructNodesBlock(
+                            reader, stringOfId, graphConstructing);
+                    break;
+                case EDGES_TAG:
+                    StringGraphBlockReader.constructEdgesBlock(
+                            reader, stringOfId, graphConstructing);
+                    break;
+                case NODE_PROPERTIES_TAG:
+                    StringGraphBlockReader.constructNodePropertiesBlock(
+                            reader, stringOfId, graphConstructing);
+                    break;
+                case END_TAG:
+                    return;
+                default:
+                    StringGraphBlockReader.skipBlock(reader);
+                    break;
             }
-            props.put(nodeID, propsIDs);
-        }
-        return props;
+        } while (true);
     }
 
-    // package-private, not private, for white-box tests
-    private StringPool readEndBlock(ObjectInputStream objectInputStream) {
-        // read the strings
-        int len = readInt(objectInputStream);
-        byte[] bytes = readBytes(objectInputStream, len);
-        return StringPools.newStringPool(bytes);
+    /**
+     * Reads the extension blocks (see {@link #INDEXES_TAG}) and returns the 
+     * index data, or {@code null} when the extension blocks contain no index 
+     * data.
+     */
+    private @Nullable StringGraphIndexData readExtensionBlocks(
+            ObjectInputStream objectInputStream, VLQReader reader) {
+        StringGraphIndexData result = null;
+        do {
+            String tag = readTag(objectInputStream);
+            switch (tag) {
+                case INDEXES_TAG:
+                    result = StringGraphBlockReader.readIndexesBlock(reader);
+                    break;
+                case EXTENSIONS_END_TAG:
+                    return result;
+                default:
+                    StringGraphBlockReader.skipBlock(reader);
+                    break;
+            }
+        } while (true);
     }
 
     //endregion
 
     //region Writing Blocks
     private class GraphWriter {
+        private final ObjectOutputStream objectOutputStream;
         /**
-         * Collects all Strings used in the StringGraph, to later reference them by
-         * their ids in the data written to the store
+         * Writes the data of the blocks, in large chunks. Must be flushed 
+         * before writing a tag.
          */
-        private final StringPoolBuilder builder = StringPools.builder();
-        private final ObjectOutputStream objectOutputStream;
-        private final StringGraph stringGraph;
+        private final VLQWriter vlqWriter;
+        private final StringGraphBlockWriter blockWriter;
+        private final StringGraphs.WriteOptions options;
 
-        private GraphWriter(ObjectOutputStream objectOutputStream, StringGraph stringGraph) {
+        private GraphWriter(ObjectOutputStream objectOutputStream,
+                            StringGraphBlockWriter blockWriter,
+                            StringGraphs.WriteOptions options) {
             this.objectOutputStream = objectOutputStream;
-            this.stringGraph = stringGraph;
+            this.vlqWriter = VLQWriter.createVLQWriter(objectOutputStream);
+            this.blockWriter = blockWriter;
+            this.options = options;
         }
 
         public void write() {
             StringGraphStoreUtil.writeDataFormat(
                     objectOutputStream, getDataFormatName(), DATA_FORMAT_VERSION);
             writeTag(EDGES_TAG);
-            writeEdgesBlock();
+            blockWriter.writeEdgesBlock(vlqWriter);
             writeTag(NODES_TAG);
-            writeNodesBlock();
+            blockWriter.writeNodesBlock(vlqWriter);
             writeTag(NODE_PROPERTIES_TAG);
-            writeNodePropertiesBlock();
+            blockWriter.writeNodePropertiesBlock(vlqWriter);
             writeTag(END_TAG);
-            writeEndBlock();
-        }
-
-        private void writeEdgesBlock() {
-            Edges allEdges = stringGraph.edges();
-            writeInt(allEdges.getSize());
-            for (Edge e : allEdges) {
-                writeString(e.getFromNode().id());
-                writeString(e.getToNode().id());
-                writeString(e.getLabel());
-            }
-        }
-
-        private boolean writeSortedNodes() {
-            return true;
-        }
-
-        private List<Node> nodesSortedById(Nodes nodes) {
-            return nodes.stream().parallel()
-                    .sorted(Comparator.comparing(Node::id))
-                    .collect(Collectors.toList());
-        }
-
-        private void writeNodesBlock() {
-            Nodes allNodes = stringGraph.nodes();
-            writeInt(allNodes.getSize());
-
-            Iterable<Node> nodesToWrite =
-                    writeSortedNodes() ? nodesSortedById(allNodes) : allNodes;
-
-            for (Node s : nodesToWrite) {
-                writeString(s.id());
-            }
-        }
-
-        private void writeNodePropertiesBlock() {
-            writeInt(calcCountOfNodesWithProps(stringGraph));
-            Nodes allNodes = stringGraph.nodes();
-            for (Node node : allNodes) {
-                Properties properties = stringGraph.getNodeProperties(node.id());
-                int n = properties.getSize();
-                if (n > 0) {
-                    writeString(node.id());
-                    writeInt(n);
-                    for (Property p : properties) {
-                        writeString(p.getName());
-                        writeString(p.getValue());
-                    }
-                }
-            }
-        }
-
-        // package-private, not private, for white-box tests
-        void writeEndBlock() {
-            StringPool allStrings = builder.build();
-            byte[] bytes = allStrings.getBytes();
-            writeVLQInt(bytes.length);
-            try {
-                for (byte b : bytes) {
-                    objectOutputStream.writeByte(b);
-                }
-            } catch (Exception e) {
-                throw new StringGraphStoreException("Error when writing end block", e);
+            blockWriter.writeStringsBlock(vlqWriter);
+            if (options.getWriteIndexes()) {
+                writeTag(INDEXES_TAG);
+                blockWriter.writeIndexesBlock(vlqWriter);
             }
-        }
-
-        private void writeInt(int i) {
-            writeVLQInt(i);
+            writeTag(EXTENSIONS_END_TAG);
+            flushBlockData();
         }
 
         // package-private, not private, for white-box tests
         void writeTag(String tag) {
+            flushBlockData();
             try {
                 objectOutputStream.writeObject(tag);
             } catch (Exception e) {
@@ -322,19 +338,13 @@ class StringGraphStoreDefault implements StringGraphStore {
             }
         }
 
-        private void writeString(String s) {
-            writeVLQInt(builder.add(s));
-        }
-
-        private void writeVLQInt(int i) {
-            VLQUtil.encodeUnsignedIntAsVLQ(i, val -> {
-                try {
-                    objectOutputStream.writeByte(val);
-                } catch (Exception e) {
-                    throw new StringGraphStoreException(
-                            "Error when writing VLQ 'int'", e);
-                }
-            });
+        private void flushBlockData() {
+            try {
+                vlqWriter.flush();
+            } catch (Exception e) {
+                throw new StringGraphStoreException(
+                        "Error when writing block data", e);
+            }
         }
     }
     //endregion
@@ -354,42 +364,9 @@ class StringGraphStoreDefault implements StringGraphStore {
     }
 
     // package-private, not private, for white-box tests
-    int readInt(ObjectInputStream objectInputStream) {
-        return readVLQInt(objectInputStream);
-    }
-
-    private static byte[] readBytes(ObjectInputStream objectInputStream, int len) {
-        try {
-            byte[] bytes = new byte[len];
-            objectInputStream.readFully(bytes);
-            return bytes;
-        } catch (Exception e) {
-            throw new StringGraphStoreException("Error when reading bytes", e);
-        }
+    int readInt(VLQReader reader) {
+        return StringGraphBlockReader.readInt(reader);
     }
 
-    private static int readVLQInt(ObjectInputStream objectInputStream) {
-        return VLQUtil.decodeUnsignedIntFromVLQ(() -> {
-            try {
-                return objectInputStream.readByte();
-            } catch (Exception e) {
-                throw new StringGraphStoreException(
-                        "Error when reading VLQ 'int'", e);
-            }
-        });
-    }
-
-    //endregion
-
-    //region Helpers
-    private int calcCountOfNodesWithProps(StringGraph stringGraph) {
-        int result = 0;
-        for (Node node : stringGraph.nodes()) {
-            if (stringGraph.getNodeProperties(node.id()).getSize() > 0) {
-                result++;
-            }
-        }
-        return result;
-    }
     //endregion
 }
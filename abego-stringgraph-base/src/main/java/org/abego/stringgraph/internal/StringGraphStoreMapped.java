@@ -0,0 +1,807 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Edge;
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Property;
+import org.abego.stringgraph.core.StringCacheMode;
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.internal.StringGraphIndexData.EdgesIndexData;
+import org.abego.stringgraph.internal.commons.BloomFilter;
+import org.abego.stringgraph.internal.commons.BufferIntArray;
+import org.abego.stringgraph.internal.commons.FileUtil;
+import org.abego.stringgraph.internal.commons.IntSortUtil;
+import org.abego.stringgraph.internal.commons.PageCache;
+import org.abego.stringgraph.internal.commons.IntArray;
+import org.abego.stringgraph.internal.commons.PagedIntArray;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A {@link StringGraphStore} using a file format made of fixed-width, 
+ * little-endian arrays ("sections") that are memory mapped and used 
+ * "in place" when reading the StringGraph (see 
+ * {@link MappedStringGraphState}).
+ * <p>
+ * File layout:
+ * <pre>
+ * header:    magic (8 bytes: "SGMAPPED"), major version (int), 
+ *            minor version (int), section count (int), reserved (int)
+ * directory: per section: tag (int), reserved (int), 
+ *            offset (long), length in bytes (long)
+ * sections:  each starting at an offset that is a multiple of 8
+ * </pre>
+ * The Strings of the graph are sorted and identified by their 1-based 
+ * position ("ordinal") in that order. The sections are:
+ * <ul>
+ *     <li>{@link #NODES_SECTION}: the ids of all nodes, ascending</li>
+ *     <li>{@link #EDGES_SECTION}: (from, to, label) triples of all edges, 
+ *     sorted by (from, label, to)</li>
+ *     <li>{@link #PROPERTY_NODES_SECTION}: the ids of all nodes with 
+ *     properties, ascending</li>
+ *     <li>{@link #PROPERTY_OFFSETS_SECTION}: for the i-th node with 
+ *     properties its (name, value) pairs are found in 
+ *     {@link #PROPERTY_DATA_SECTION}, from offset[i] (inclusive) to 
+ *     offset[i+1] (exclusive)</li>
+ *     <li>{@link #PROPERTY_DATA_SECTION}: (name, value) pairs</li>
+ *     <li>{@link #STRING_OFFSETS_SECTION}: the UTF-8 bytes of the String with
+ *     id i are found in {@link #STRING_BYTES_SECTION} from offset[i-1] 
+ *     (inclusive) to offset[i] (exclusive)</li>
+ *     <li>{@link #STRING_BYTES_SECTION}: the UTF-8 bytes of all Strings</li>
+ *     <li>{@link #STRING_HASH_TABLE_SECTION}: an open addressing hash table 
+ *     (linear probing) of the String ids, hashed by 
+ *     {@link #spreadHash(int)} of the {@link String#hashCode()}, 
+ *     {@code 0} marking an empty slot</li>
+ * </ul>
+ * When written with indexes (see 
+ * {@link StringGraphs.WriteOptions#getWriteIndexes()}) the file also 
+ * contains the edge indexes of the graph (see {@link StringGraphIndexData}),
+ * with the edges identified by their position in {@link #EDGES_SECTION}:
+ * <ul>
+ *     <li>{@link #LABEL_INDEX_KEYS_SECTION}, 
+ *     {@link #LABEL_INDEX_OFFSETS_SECTION}, 
+ *     {@link #LABEL_INDEX_EDGES_SECTION}: the keys, offsets and edge 
+ *     ordinals of the index on labels</li>
+ *     <li>{@link #FROM_NODE_INDEX_KEYS_SECTION}, ... : dito, for the index 
+ *     on fromNodes</li>
+ *     <li>{@link #TO_NODE_INDEX_KEYS_SECTION}, ... : dito, for the index 
+ *     on toNodes</li>
+ *     <li>{@link #EDGE_TRIPLE_TABLE_SECTION}: the table of the index on 
+ *     (from, label, to) triples</li>
+ * </ul>
+ * When reading the StringGraph its indexes work "in place" on these 
+ * (memory mapped) sections, i.e. they are not built when loading. For a 
+ * "disk-resident" StringGraph (see 
+ * {@link StringGraphs.ReadOptions#getDiskResident()}) the sections are 
+ * read on demand through a {@link PageCache} (see 
+ * {@link PagedStringGraphState}).
+ * <p>
+ * When written with Bloom filters (see 
+ * {@link StringGraphs.WriteOptions#getWriteBloomFilters()}) the file also 
+ * contains the sections {@link #NODE_BLOOM_FILTER_SECTION} and 
+ * {@link #EDGE_BLOOM_FILTER_SECTION}, holding the data of a 
+ * {@link BloomFilter} over the node ids, or the (from, label, to) Strings of
+ * the edges, respectively.
+ * <p>
+ * Readers ignore sections with unknown tags.
+ */
+class StringGraphStoreMapped implements StringGraphStore {
+    //region FieldsState
+    private final URI uri;
+    //endregion
+
+    //region Construction
+    private StringGraphStoreMapped(URI uri) {
+        this.uri = uri;
+    }
+
+    static StringGraphStoreMapped createStringGraphStoreMapped(URI uri) {
+        return new StringGraphStoreMapped(uri);
+    }
+    //endregion
+
+    //region StringGraphStore API
+    @Override
+    public void writeStringGraph(StringGraph stringGraph, StringGraphs.WriteOptions options) {
+        File file = new File(uri);
+        FileUtil.ensureDirectoryExists(file.getParentFile());
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+
+            new GraphWriter(stringGraph, options).write(channel);
+
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when writing graph to %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public StringGraph readStringGraph(StringGraphs.ReadOptions options) {
+        if (options.getDiskResident()) {
+            @Nullable StringGraph graph = readDiskResidentStringGraph(options);
+            if (graph != null) {
+                return graph;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+
+            // the mappings stay valid when the channel is closed
+            return readStringGraphFromChannel(channel, options);
+
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when reading graph from %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public void constructStringGraph(StringGraphConstructing graphConstructing) {
+        // The state is dropped after construction, so there is no need to
+        // cache all its Strings. But Strings repeat (e.g. a node's id is used 
+        // in many edges), so still cache the recent ones.
+        StringGraphState state = readStringGraphState(new StringGraphs.ReadOptions() {
+            @Override
+            public StringCacheMode getStringCacheMode() {
+                return StringCacheMode.BOUNDED;
+            }
+        });
+        state.constructGraph(graphConstructing);
+    }
+
+    private StringGraphState readStringGraphState(StringGraphs.ReadOptions options) {
+        try (FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+
+            // the mappings stay valid when the channel is closed
+            return readStringGraphStateFromChannel(channel, options);
+
+        } catch (Exception e) {
+            throw new StringGraphStoreException(
+                    String.format("Error when reading graph from %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Returns the "disk-resident" StringGraph of the file, or {@code null}
+     * when the file has no indexes.
+     */
+    private @Nullable StringGraph readDiskResidentStringGraph(
+            StringGraphs.ReadOptions options) {
+        @Nullable FileChannel channel = null;
+        try {
+            channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+            // the channel stays open until the StringGraph is closed
+            @Nullable StringGraph result =
+                    readDiskResidentStringGraphFromChannel(channel, options);
+            if (result == null) {
+                channel.close();
+            }
+            return result;
+
+        } catch (Exception e) {
+            closeQuietly(channel);
+            throw new StringGraphStoreException(
+                    String.format("Error when reading graph from %s: %s", //NON-NLS
+                            uri, e.getMessage()), e);
+        }
+    }
+
+    private static void closeQuietly(@Nullable FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // we are already handling an exception
+            }
+        }
+    }
+    //endregion
+
+    //region DataFormat API
+    private static final byte[] MAGIC =
+            "SGMAPPED".getBytes(StandardCharsets.US_ASCII); //NON-NLS
+    private static final DataFormatVersion DATA_FORMAT_VERSION =
+            DataFormatVersion.createDataFormatVersion(2, 1);
+
+    public static DataFormatVersion getDataFormatVersion() {
+        return DATA_FORMAT_VERSION;
+    }
+
+    /**
+     * Returns {@code true} when the {@code uri} references a file in the 
+     * format of this store, {@code false} otherwise.
+     */
+    static boolean isMappedStore(URI uri) {
+        return StringGraphStoreUtil.startsWithMagic(uri, MAGIC);
+    }
+    //endregion
+
+    //region Sections
+    static final int NODES_SECTION = 1;
+    static final int EDGES_SECTION = 2;
+    static final int PROPERTY_NODES_SECTION = 3;
+    static final int PROPERTY_OFFSETS_SECTION = 4;
+    static final int PROPERTY_DATA_SECTION = 5;
+    static final int STRING_OFFSETS_SECTION = 6;
+    static final int STRING_BYTES_SECTION = 7;
+    static final int STRING_HASH_TABLE_SECTION = 8;
+    static final int LABEL_INDEX_KEYS_SECTION = 9;
+    static final int LABEL_INDEX_OFFSETS_SECTION = 10;
+    static final int LABEL_INDEX_EDGES_SECTION = 11;
+    static final int FROM_NODE_INDEX_KEYS_SECTION = 12;
+    static final int FROM_NODE_INDEX_OFFSETS_SECTION = 13;
+    static final int FROM_NODE_INDEX_EDGES_SECTION = 14;
+    static final int TO_NODE_INDEX_KEYS_SECTION = 15;
+    static final int TO_NODE_INDEX_OFFSETS_SECTION = 16;
+    static final int TO_NODE_INDEX_EDGES_SECTION = 17;
+    static final int EDGE_TRIPLE_TABLE_SECTION = 18;
+    static final int NODE_BLOOM_FILTER_SECTION = 19;
+    static final int EDGE_BLOOM_FILTER_SECTION = 20;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int DIRECTORY_ENTRY_SIZE = 24;
+    private static final int SECTION_ALIGNMENT = 8;
+    private static final int PAGE_SIZE = 16 * 1024;
+
+    /**
+     * Returns the hash code used for the String hash table, given the 
+     * {@link String#hashCode()}.
+     */
+    static int spreadHash(int stringHashCode) {
+        int h = stringHashCode * 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The location of a section in the file.
+     */
+    private static final class SectionEntry {
+        private final long offset;
+        private final long length;
+
+        private SectionEntry(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    // package-private, not private, for white-box tests
+    static StringGraphState readStringGraphStateFromChannel(
+            FileChannel channel, StringGraphs.ReadOptions options) throws IOException {
+        return mappedStringGraphState(mapSections(channel), options);
+    }
+
+    /**
+     * Returns the StringGraph working "in place" on the memory mapped 
+     * sections of the {@code channel}'s file.
+     * <p>
+     * When the file has indexes the StringGraph uses them as they are, 
+     * otherwise it builds the indexes in memory.
+     */
+    // package-private, not private, for white-box tests
+    static StringGraph readStringGraphFromChannel(
+            FileChannel channel, StringGraphs.ReadOptions options) throws IOException {
+        Map<Integer, ByteBuffer> sections = mapSections(channel);
+        StringGraphState state = mappedStringGraphState(sections, options);
+        if (!sections.containsKey(EDGE_TRIPLE_TABLE_SECTION)) {
+            return StringGraphImpl.createStringGraph(state, options);
+        }
+        return StringGraphImpl.createStringGraph(state,
+                intArraySection(sections, NODES_SECTION),
+                mappedEdgesIndex(state, sections, LABEL_INDEX_KEYS_SECTION, null),
+                mappedEdgesIndex(state, sections,
+                        FROM_NODE_INDEX_KEYS_SECTION, state::getLabelId),
+                mappedEdgesIndex(state, sections,
+                        TO_NODE_INDEX_KEYS_SECTION, state::getLabelId),
+                PagedEdgeTripleIndex.createPagedEdgeTripleIndex(state,
+                        intArraySection(sections, EDGE_TRIPLE_TABLE_SECTION)));
+    }
+
+    private static Map<Integer, ByteBuffer> mapSections(FileChannel channel)
+            throws IOException {
+        Map<Integer, ByteBuffer> sections = new HashMap<>();
+        for (Map.Entry<Integer, SectionEntry> e : readDirectory(channel).entrySet()) {
+            int tag = e.getKey();
+            SectionEntry entry = e.getValue();
+            if (entry.length > Integer.MAX_VALUE) {
+                throw new StringGraphStoreException(
+                        String.format("Section %d too large to map: %d bytes", //NON-NLS
+                                tag, entry.length));
+            }
+            sections.put(tag, channel
+                    .map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length)
+                    .order(ByteOrder.LITTLE_ENDIAN));
+        }
+        return sections;
+    }
+
+    private static StringGraphState mappedStringGraphState(
+            Map<Integer, ByteBuffer> sections, StringGraphs.ReadOptions options) {
+        return MappedStringGraphState.createMappedStringGraphState(
+                intSection(sections, NODES_SECTION),
+                intSection(sections, EDGES_SECTION),
+                intSection(sections, PROPERTY_NODES_SECTION),
+                intSection(sections, PROPERTY_OFFSETS_SECTION),
+                intSection(sections, PROPERTY_DATA_SECTION),
+                intSection(sections, STRING_OFFSETS_SECTION),
+                section(sections, STRING_BYTES_SECTION),
+                intSection(sections, STRING_HASH_TABLE_SECTION),
+                bloomFilter(sections, NODE_BLOOM_FILTER_SECTION),
+                bloomFilter(sections, EDGE_BLOOM_FILTER_SECTION),
+                options);
+    }
+
+    /**
+     * Returns the "disk-resident" StringGraph reading its data from the 
+     * {@code channel}, or {@code null} when the file has no indexes.
+     * <p>
+     * Closing the StringGraph closes the {@code channel}.
+     */
+    // package-private, not private, for white-box tests
+    static @Nullable StringGraph readDiskResidentStringGraphFromChannel(
+            FileChannel channel, StringGraphs.ReadOptions options) throws IOException {
+        Map<Integer, SectionEntry> directory = readDirectory(channel);
+        if (!directory.containsKey(EDGE_TRIPLE_TABLE_SECTION)) {
+            return null;
+        }
+        PageCache pageCache = PageCache.createPageCache(
+                channel, PAGE_SIZE, options.getPageCacheMemoryLimit());
+        PagedIntArray nodes = pagedIntSection(pageCache, directory, NODES_SECTION);
+        PagedStringGraphState state = PagedStringGraphState.createPagedStringGraphState(
+                channel,
+                pageCache,
+                nodes,
+                pagedIntSection(pageCache, directory, EDGES_SECTION),
+                pagedIntSection(pageCache, directory, PROPERTY_NODES_SECTION),
+                pagedIntSection(pageCache, directory, PROPERTY_OFFSETS_SECTION),
+                pagedIntSection(pageCache, directory, PROPERTY_DATA_SECTION),
+                pagedIntSection(pageCache, directory, STRING_OFFSETS_SECTION),
+                sectionEntry(directory, STRING_BYTES_SECTION).offset,
+                pagedIntSection(pageCache, directory, STRING_HASH_TABLE_SECTION),
+                pagedBloomFilter(pageCache, directory, NODE_BLOOM_FILTER_SECTION),
+                pagedBloomFilter(pageCache, directory, EDGE_BLOOM_FILTER_SECTION),
+                options);
+        return StringGraphImpl.createStringGraph(state,
+                nodes,
+                pagedEdgesIndex(state, pageCache, directory,
+                        LABEL_INDEX_KEYS_SECTION, null),
+                pagedEdgesIndex(state, pageCache, directory,
+                        FROM_NODE_INDEX_KEYS_SECTION, state::getLabelId),
+                pagedEdgesIndex(state, pageCache, directory,
+                        TO_NODE_INDEX_KEYS_SECTION, state::getLabelId),
+                PagedEdgeTripleIndex.createPagedEdgeTripleIndex(state,
+                        pagedIntSection(pageCache, directory, EDGE_TRIPLE_TABLE_SECTION)));
+    }
+
+    private static Map<Integer, SectionEntry> readDirectory(FileChannel channel)
+            throws IOException {
+        ByteBuffer header = StringGraphStoreUtil.readFully(channel, 0, HEADER_SIZE);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new StringGraphStoreException(
+                    "Invalid file format. Expected mapped StringGraph store"); //NON-NLS
+        }
+        int major = header.getInt();
+        header.getInt(); // minor
+        if (major != DATA_FORMAT_VERSION.majorNumber) {
+            throw new StringGraphStoreException(
+                    String.format("Incompatible data format version. Expected '%d', got '%d'", //NON-NLS
+                            DATA_FORMAT_VERSION.majorNumber, major));
+        }
+        int sectionCount = header.getInt();
+
+        ByteBuffer directory = StringGraphStoreUtil.readFully(
+                channel, HEADER_SIZE, (long) sectionCount * DIRECTORY_ENTRY_SIZE);
+        Map<Integer, SectionEntry> result = new HashMap<>();
+        for (int i = 0; i < sectionCount; i++) {
+            int tag = directory.getInt();
+            directory.getInt(); // reserved
+            long offset = directory.getLong();
+            long length = directory.getLong();
+            result.put(tag, new SectionEntry(offset, length));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index with its keys, offsets and edge ordinals in the 
+     * sections {@code keysTag}, {@code keysTag + 1} and {@code keysTag + 2}.
+     */
+    private static PagedEdgesIndex pagedEdgesIndex(
+            StringGraphState state, PageCache pageCache,
+            Map<Integer, SectionEntry> directory, int keysTag,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge) {
+        return PagedEdgesIndex.createPagedEdgesIndex(state,
+                pagedIntSection(pageCache, directory, keysTag),
+                pagedIntSection(pageCache, directory, keysTag + 1),
+                pagedIntSection(pageCache, directory, keysTag + 2),
+                secondaryKeyOfEdge);
+    }
+
+    /**
+     * Returns the Bloom filter in the section {@code tag}, read into memory,
+     * or {@code null} when the file has no such section.
+     */
+    private static @Nullable BloomFilter pagedBloomFilter(
+            PageCache pageCache, Map<Integer, SectionEntry> directory, int tag) {
+        return directory.containsKey(tag)
+                ? BloomFilter.createBloomFilter(IntBuffer.wrap(
+                pagedIntSection(pageCache, directory, tag).toArray()))
+                : null;
+    }
+
+    private static SectionEntry sectionEntry(Map<Integer, SectionEntry> directory, int tag) {
+        SectionEntry result = directory.get(tag);
+        if (result == null) {
+            throw new StringGraphStoreException(
+                    String.format("Missing section %d", tag)); //NON-NLS
+        }
+        return result;
+    }
+
+    private static PagedIntArray pagedIntSection(
+            PageCache pageCache, Map<Integer, SectionEntry> directory, int tag) {
+        SectionEntry entry = sectionEntry(directory, tag);
+        return PagedIntArray.createPagedIntArray(
+                pageCache, entry.offset, (int) (entry.length / 4));
+    }
+
+    private static ByteBuffer section(Map<Integer, ByteBuffer> sections, int tag) {
+        ByteBuffer result = sections.get(tag);
+        if (result == null) {
+            throw new StringGraphStoreException(
+                    String.format("Missing section %d", tag)); //NON-NLS
+        }
+        return result;
+    }
+
+    private static IntBuffer intSection(Map<Integer, ByteBuffer> sections, int tag) {
+        return section(sections, tag).asIntBuffer();
+    }
+
+    private static IntArray intArraySection(Map<Integer, ByteBuffer> sections, int tag) {
+        return BufferIntArray.createBufferIntArray(intSection(sections, tag));
+    }
+
+    /**
+     * Returns the index with its keys, offsets and edge ordinals in the 
+     * sections {@code keysTag}, {@code keysTag + 1} and {@code keysTag + 2},
+     * working "in place" on the sections.
+     */
+    private static PagedEdgesIndex mappedEdgesIndex(
+            StringGraphState state, Map<Integer, ByteBuffer> sections, int keysTag,
+            @Nullable IntUnaryOperator secondaryKeyOfEdge) {
+        return PagedEdgesIndex.createPagedEdgesIndex(state,
+                intArraySection(sections, keysTag),
+                intArraySection(sections, keysTag + 1),
+                intArraySection(sections, keysTag + 2),
+                secondaryKeyOfEdge);
+    }
+
+    /**
+     * Returns the Bloom filter working "in place" on the section {@code tag},
+     * or {@code null} when the file has no such section.
+     */
+    private static @Nullable BloomFilter bloomFilter(
+            Map<Integer, ByteBuffer> sections, int tag) {
+        return sections.containsKey(tag)
+                ? BloomFilter.createBloomFilter(intSection(sections, tag))
+                : null;
+    }
+    //endregion
+
+    //region Writing
+    private static final class Section {
+        private final int tag;
+        private final int @Nullable [] ints;
+        private final byte @Nullable [] bytes;
+
+        private Section(int tag, int[] ints) {
+            this.tag = tag;
+            this.ints = ints;
+            this.bytes = null;
+        }
+
+        private Section(int tag, byte[] bytes) {
+            this.tag = tag;
+            this.ints = null;
+            this.bytes = bytes;
+        }
+
+        private long length() {
+            return ints != null ? ints.length * 4L : bytes != null ? bytes.length : 0;
+        }
+    }
+
+    private static class GraphWriter {
+        private final StringGraph stringGraph;
+        private final StringGraphs.WriteOptions options;
+        /**
+         * All Strings of the graph, sorted. The String {@code strings[i]} has
+         * the id {@code i+1}.
+         */
+        private String[] strings = new String[0];
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        private GraphWriter(StringGraph stringGraph, StringGraphs.WriteOptions options) {
+            this.stringGraph = stringGraph;
+            this.options = options;
+        }
+
+        void write(FileChannel channel) throws IOException {
+            collectStrings();
+
+            int[] nodes = nodesSection();
+            int[] edges = edgesSection();
+            List<Section> sections = new ArrayList<>();
+            sections.add(new Section(NODES_SECTION, nodes));
+            sections.add(new Section(EDGES_SECTION, edges));
+            addPropertySections(sections, nodes);
+            addStringSections(sections);
+            if (options.getWriteIndexes()) {
+                addIndexSections(sections, edges);
+            }
+            if (options.getWriteBloomFilters()) {
+                addBloomFilterSections(sections, nodes, edges);
+            }
+
+            writeSections(channel, sections);
+        }
+
+        private void collectStrings() {
+            TreeSet<String> allStrings = new TreeSet<>();
+            for (Node node : stringGraph.nodes()) {
+                allStrings.add(node.id());
+                for (Property p : stringGraph.getNodeProperties(node.id())) {
+                    allStrings.add(p.getName());
+                    allStrings.add(p.getValue());
+                }
+            }
+            for (Edge edge : stringGraph.edges()) {
+                allStrings.add(edge.getLabel());
+            }
+            strings = allStrings.toArray(new String[0]);
+            for (int i = 0; i < strings.length; i++) {
+                stringIds.put(strings[i], i + 1);
+            }
+        }
+
+        private int id(String s) {
+            return stringIds.get(s);
+        }
+
+        private int[] nodesSection() {
+            int[] result = stringGraph.nodes().stream()
+                    .mapToInt(n -> id(n.id()))
+                    .toArray();
+            Arrays.sort(result);
+            return result;
+        }
+
+        private int[] edgesSection() {
+            int[] triples = new int[stringGraph.edges().getSize() * 3];
+            int i = 0;
+            for (Edge edge : stringGraph.edges()) {
+                triples[i++] = id(edge.getFromNode().id());
+                triples[i++] = id(edge.getToNode().id());
+                triples[i++] = id(edge.getLabel());
+            }
+            // order by (from, label, to)
+            return IntSortUtil.sortedTriples(triples, 0, 2, 1);
+        }
+
+        private void addPropertySections(List<Section> sections, int[] nodes) {
+            int[] propertyNodes = new int[nodes.length];
+            int[] offsets = new int[nodes.length + 1];
+            List<int[]> pairsOfNodes = new ArrayList<>();
+            int nodeCount = 0;
+            int dataLength = 0;
+            for (int nodeId : nodes) {
+                String node = strings[nodeId - 1];
+                int[] pairs = stringGraph.getNodeProperties(node).stream()
+                        .flatMapToInt(p -> Arrays.stream(
+                                new int[]{id(p.getName()), id(p.getValue())}))
+                        .toArray();
+                if (pairs.length > 0) {
+                    propertyNodes[nodeCount++] = nodeId;
+                    dataLength += pairs.length;
+                    offsets[nodeCount] = dataLength;
+                    pairsOfNodes.add(pairs);
+                }
+            }
+            int[] data = new int[dataLength];
+            int pos = 0;
+            for (int[] pairs : pairsOfNodes) {
+                System.arraycopy(pairs, 0, data, pos, pairs.length);
+                pos += pairs.length;
+            }
+            sections.add(new Section(PROPERTY_NODES_SECTION,
+                    Arrays.copyOf(propertyNodes, nodeCount)));
+            sections.add(new Section(PROPERTY_OFFSETS_SECTION,
+                    Arrays.copyOf(offsets, nodeCount + 1)));
+            sections.add(new Section(PROPERTY_DATA_SECTION, data));
+        }
+
+        private void addStringSections(List<Section> sections) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            int[] offsets = new int[strings.length + 1];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] utf8 = strings[i].getBytes(StandardCharsets.UTF_8);
+                bytes.write(utf8, 0, utf8.length);
+                if (bytes.size() < 0) {
+                    throw new StringGraphStoreException(
+                            "Strings too large (> 2 GB)"); //NON-NLS
+                }
+                offsets[i + 1] = bytes.size();
+            }
+
+            // keep the load factor at or below 0.5 to keep the probe sequences short
+            int[] hashTable = new int[tableSizeFor(strings.length * 2)];
+            int mask = hashTable.length - 1;
+            for (int i = 0; i < strings.length; i++) {
+                int slot = spreadHash(strings[i].hashCode()) & mask;
+                while (hashTable[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashTable[slot] = i + 1;
+            }
+
+            sections.add(new Section(STRING_OFFSETS_SECTION, offsets));
+            sections.add(new Section(STRING_BYTES_SECTION, bytes.toByteArray()));
+            sections.add(new Section(STRING_HASH_TABLE_SECTION, hashTable));
+        }
+
+        private static void addIndexSections(List<Section> sections, int[] edges) {
+            StringGraphIndexData data = StringGraphIndexes.createIndexData(edges);
+            addEdgesIndexSections(sections, LABEL_INDEX_KEYS_SECTION, data.labelIndex);
+            addEdgesIndexSections(sections, FROM_NODE_INDEX_KEYS_SECTION, data.fromNodeIndex);
+            addEdgesIndexSections(sections, TO_NODE_INDEX_KEYS_SECTION, data.toNodeIndex);
+            sections.add(new Section(EDGE_TRIPLE_TABLE_SECTION, data.edgeTripleTable));
+        }
+
+        private void addBloomFilterSections(
+                List<Section> sections, int[] nodes, int[] edges) {
+            BloomFilter nodeFilter = BloomFilter.createBloomFilter(nodes.length);
+            for (int nodeId : nodes) {
+                nodeFilter.add(BloomFilter.hashOf(strings[nodeId - 1]));
+            }
+            BloomFilter edgeFilter = BloomFilter.createBloomFilter(edges.length / 3);
+            for (int i = 0; i < edges.length; i += 3) {
+                // the triples are (from, to, label)
+                edgeFilter.add(BloomFilter.hashOf(
+                        strings[edges[i] - 1],
+                        strings[edges[i + 2] - 1],
+                        strings[edges[i + 1] - 1]));
+            }
+            sections.add(new Section(NODE_BLOOM_FILTER_SECTION, nodeFilter.toArray()));
+            sections.add(new Section(EDGE_BLOOM_FILTER_SECTION, edgeFilter.toArray()));
+        }
+
+        private static void addEdgesIndexSections(
+                List<Section> sections, int keysTag, EdgesIndexData data) {
+            sections.add(new Section(keysTag, data.keys));
+            sections.add(new Section(keysTag + 1, data.offsets));
+            sections.add(new Section(keysTag + 2, data.edgeOrdinals));
+        }
+
+        private static void writeSections(FileChannel channel, List<Section> sections)
+                throws IOException {
+            long[] offsets = new long[sections.size()];
+            long pos = HEADER_SIZE + (long) sections.size() * DIRECTORY_ENTRY_SIZE;
+            for (int i = 0; i < sections.size(); i++) {
+                pos = align(pos);
+                offsets[i] = pos;
+                pos += sections.get(i).length();
+            }
+
+            ByteBuffer header = ByteBuffer
+                    .allocate(HEADER_SIZE + sections.size() * DIRECTORY_ENTRY_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC);
+            header.putInt(DATA_FORMAT_VERSION.majorNumber);
+            header.putInt(DATA_FORMAT_VERSION.minorNumber);
+            header.putInt(sections.size());
+            header.putInt(0);
+            for (int i = 0; i < sections.size(); i++) {
+                header.putInt(sections.get(i).tag);
+                header.putInt(0);
+                header.putLong(offsets[i]);
+                header.putLong(sections.get(i).length());
+            }
+            header.flip();
+            writeFully(channel, header, 0);
+
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < sections.size(); i++) {
+                Section section = sections.get(i);
+                long position = offsets[i];
+                if (section.bytes != null) {
+                    writeFully(channel, ByteBuffer.wrap(section.bytes), position);
+                } else if (section.ints != null) {
+                    int[] ints = section.ints;
+                    int k = 0;
+                    while (k < ints.length) {
+                        buffer.clear();
+                        while (k < ints.length && buffer.remaining() >= 4) {
+                            buffer.putInt(ints[k++]);
+                        }
+                        buffer.flip();
+                        position = writeFully(channel, buffer, position);
+                    }
+                }
+            }
+        }
+
+        private static long writeFully(FileChannel channel, ByteBuffer buffer, long position)
+                throws IOException {
+            long pos = position;
+            while (buffer.hasRemaining()) {
+                pos += channel.write(buffer, pos);
+            }
+            return pos;
+        }
+
+        private static long align(long pos) {
+            return (pos + SECTION_ALIGNMENT - 1) & -SECTION_ALIGNMENT;
+        }
+
+        private static int tableSizeFor(int minSize) {
+            int n = 2;
+            while (n < minSize) {
+                n <<= 1;
+            }
+            return n;
+        }
+    }
+    //endregion
+}
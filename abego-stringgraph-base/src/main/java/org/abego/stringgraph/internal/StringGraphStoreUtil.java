@@ -27,10 +27,21 @@ package org.abego.stringgraph.internal;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 class StringGraphStoreUtil {
 
-    static void readAndCheckDataFormat(
+    /**
+     * Reads the data format from the {@code objectInputStream}, checks it is
+     * compatible to the {@code supportedVersion} and returns the version read.
+     */
+    static DataFormatVersion readAndCheckDataFormat(
             ObjectInputStream objectInputStream,
             String dataFormatName,
             DataFormatVersion supportedVersion) {
@@ -42,6 +53,7 @@ class StringGraphStoreUtil {
                     String.format("Incompatible data format version. Expected '%d', got '%d'", //NON-NLS
                             supportedVersion.majorNumber, version.majorNumber));
         }
+        return version;
     }
 
     public static void writeDataFormat(ObjectOutputStream objectOutputStream,
@@ -84,4 +96,42 @@ class StringGraphStoreUtil {
             throw new StringGraphStoreException("Error when reading data format name", e);
         }
     }
+
+    /**
+     * Returns {@code true} when the {@code uri} references a file starting
+     * with the bytes {@code magic}, {@code false} otherwise.
+     */
+    static boolean startsWithMagic(URI uri, byte[] magic) {
+        try (FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+            ByteBuffer bytes = ByteBuffer.allocate(magic.length);
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // read until buffer full or end of file
+            }
+            return !bytes.hasRemaining() && Arrays.equals(bytes.array(), magic);
+        } catch (Exception e) {
+            // e.g. a missing file or a URI not referencing a file
+            return false;
+        }
+    }
+
+    /**
+     * Reads {@code length} bytes of the {@code channel}, starting at 
+     * {@code position}, and returns them in a little-endian ByteBuffer, 
+     * ready for reading.
+     */
+    static ByteBuffer readFully(FileChannel channel, long position, long length)
+            throws IOException {
+        ByteBuffer result = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        long pos = position;
+        while (result.hasRemaining()) {
+            int n = channel.read(result, pos);
+            if (n < 0) {
+                throw new StringGraphStoreException(
+                        "Unexpected end of file"); //NON-NLS
+            }
+            pos += n;
+        }
+        result.flip();
+        return result;
+    }
 }
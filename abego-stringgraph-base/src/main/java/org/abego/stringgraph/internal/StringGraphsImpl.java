@@ -28,12 +28,17 @@ import org.abego.stringgraph.core.StringGraph;
 import org.abego.stringgraph.core.StringGraphBuilder;
 import org.abego.stringgraph.core.StringGraphConstructing;
 import org.abego.stringgraph.core.StringGraphDump;
+import org.abego.stringgraph.core.StringGraphHolder;
+import org.abego.stringgraph.core.StringGraphStoreFormat;
 import org.abego.stringgraph.core.StringGraphs;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
+import static org.abego.stringgraph.internal.StringGraphStoreBlocks.createStringGraphStoreBlocks;
 import static org.abego.stringgraph.internal.StringGraphStoreDefault.createStringGraphStoreDefault;
+import static org.abego.stringgraph.internal.StringGraphStoreMapped.createStringGraphStoreMapped;
 
 public class StringGraphsImpl implements StringGraphs {
     private static final StringGraphs INSTANCE = new StringGraphsImpl();
@@ -48,21 +53,77 @@ public class StringGraphsImpl implements StringGraphs {
     }
 
     @Override
-    public void writeStringGraph(StringGraph stringGraph, URI uri) {
-        StringGraphStoreDefault store = createStringGraphStoreDefault(uri);
-        store.writeStringGraph(stringGraph);
+    public void writeStringGraph(StringGraph stringGraph, URI uri, WriteOptions options) {
+        storeForWriting(uri, options.getStoreFormat()).writeStringGraph(stringGraph, options);
     }
 
     @Override
-    public StringGraph readStringGraph(URI uri) {
-        StringGraphStoreDefault store = createStringGraphStoreDefault(uri);
-        return store.readStringGraph();
+    public void writeStringGraph(StringGraphBuilder builder, URI uri, WriteOptions options) {
+        StringGraphStore store = storeForWriting(uri, options.getStoreFormat());
+        if (builder instanceof StringGraphBuilderImpl) {
+            store.writeStringGraphState(
+                    ((StringGraphBuilderImpl) builder).buildStringGraphState(), options);
+        } else {
+            store.writeStringGraph(builder.build(), options);
+        }
+    }
+
+    @Override
+    public StringGraph readStringGraph(URI uri, ReadOptions options) {
+        StringGraphStore store = storeForReading(uri);
+        return StringGraphProjection.isProjection(options)
+                ? StringGraphProjection.readStringGraph(store, options)
+                : store.readStringGraph(options);
+    }
+
+    @Override
+    public CompletableFuture<StringGraph> readStringGraphAsync(URI uri, ReadOptions options) {
+        return CompletableFuture.supplyAsync(() -> {
+            StringGraph graph = readStringGraph(uri, options);
+            try {
+                options.getWarmUp().accept(graph);
+            } catch (RuntimeException | Error e) {
+                // the caller will never get the graph
+                graph.close();
+                throw e;
+            }
+            return graph;
+        }, options.getLoadPool());
     }
 
     @Override
     public void constructStringGraph(URI uri, StringGraphConstructing constructing) {
-        StringGraphStoreDefault store = createStringGraphStoreDefault(uri);
-        store.constructStringGraph(constructing);
+        storeForReading(uri).constructStringGraph(constructing);
+    }
+
+    @Override
+    public StringGraphHolder createStringGraphHolder(StringGraph graph) {
+        return StringGraphHolderImpl.createStringGraphHolder(graph, this);
+    }
+
+    /**
+     * Returns the store to read the data at the {@code uri}, depending on the
+     * format of that data.
+     */
+    private static StringGraphStore storeForReading(URI uri) {
+        if (StringGraphStoreMapped.isMappedStore(uri)) {
+            return createStringGraphStoreMapped(uri);
+        }
+        if (StringGraphStoreBlocks.isBlocksStore(uri)) {
+            return createStringGraphStoreBlocks(uri);
+        }
+        return createStringGraphStoreDefault(uri);
+    }
+
+    private static StringGraphStore storeForWriting(URI uri, StringGraphStoreFormat format) {
+        switch (format) {
+            case MAPPED:
+                return createStringGraphStoreMapped(uri);
+            case BLOCKS:
+                return createStringGraphStoreBlocks(uri);
+            default:
+                return createStringGraphStoreDefault(uri);
+        }
     }
 
     @Override
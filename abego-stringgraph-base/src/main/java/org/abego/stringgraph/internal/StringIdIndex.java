@@ -0,0 +1,313 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.internal.commons.VLQUtil;
+import org.abego.stringpool.StringPool;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.IntFunction;
+
+/**
+ * A hash index mapping Strings to their (String) ids.
+ * <p>
+ * The index uses open addressing with linear probing over a single 
+ * {@code int[]} table, holding for every String its id and the hash code 
+ * of its UTF-8 bytes in adjacent slots. It keeps no String objects: to 
+ * compare a candidate with the String looked up the UTF-8 bytes of the 
+ * candidate are compared, but only when the hash codes are equal, i.e.
+ * typically only for the match.
+ * <p>
+ * The hash codes are calculated from the bytes of the {@link StringPool}
+ * (see {@link StringPool#getBytes()}), i.e. without encoding every String 
+ * of the pool to UTF-8. This relies on the byte layout of the pool (as 
+ * {@link org.abego.stringpool.StringPools#newStringPool(byte[])} does when
+ * reading a pool from a store): at the offset given by its id every String 
+ * is stored as the length of its UTF-8 bytes (VLQ encoded, see 
+ * {@link VLQUtil}), followed by these bytes. When the bytes of a pool do not
+ * match this layout the index falls back to calculating the hash codes from
+ * the Strings of the pool.
+ * <p>
+ * Compared to a {@code HashMap<String,Integer>} this saves the Strings, the
+ * boxed ids and the map entries, i.e. the index needs about 16 bytes per 
+ * String.
+ */
+class StringIdIndex {
+    private final IntFunction<String> stringOfId;
+    /**
+     * The bytes of the StringPool, or {@code null} when the index was built
+     * from the Strings of the pool (see class comment).
+     */
+    private final byte @Nullable [] poolBytes;
+    /**
+     * {@code table[2*i]} holds the id of slot i, or {@code 0} for an empty slot,
+     * {@code table[2*i+1]} holds the hash code of the UTF-8 bytes of the 
+     * String with that id. 
+     */
+    private final int[] table;
+    private final int mask;
+    private final int size;
+
+    private StringIdIndex(IntFunction<String> stringOfId,
+                          byte @Nullable [] poolBytes, int[] table, int size) {
+        this.stringOfId = stringOfId;
+        this.poolBytes = poolBytes;
+        this.table = table;
+        this.mask = table.length / 2 - 1;
+        this.size = size;
+    }
+
+    /**
+     * Creates a StringIdIndex for the Strings of the {@code pool}, using 
+     * {@code stringOfId} when comparing Strings on lookup and the bytes of 
+     * the pool do not match the expected layout (see class comment).
+     */
+    static StringIdIndex createStringIdIndex(
+            StringPool pool, IntFunction<String> stringOfId) {
+        byte[] bytes = pool.getBytes();
+        int @Nullable [] ids = idsInPoolBytes(pool, bytes);
+        if (ids != null) {
+            int[] hashes = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                int start = utf8Start(bytes, ids[i]);
+                hashes[i] = hashOfUTF8(bytes, start, utf8Length(bytes, ids[i]));
+            }
+            return new StringIdIndex(stringOfId, bytes,
+                    createTable(ids, hashes, ids.length), ids.length);
+        }
+
+        ids = new int[64];
+        int[] hashes = new int[64];
+        int n = 0;
+        for (StringPool.StringAndID e : pool.allStringAndIDs()) {
+            if (n == ids.length) {
+                ids = Arrays.copyOf(ids, n * 2);
+                hashes = Arrays.copyOf(hashes, n * 2);
+            }
+            ids[n] = e.getID();
+            byte[] utf8 = e.getString().getBytes(StandardCharsets.UTF_8);
+            hashes[n] = hashOfUTF8(utf8, 0, utf8.length);
+            n++;
+        }
+        return new StringIdIndex(stringOfId, null, createTable(ids, hashes, n), n);
+    }
+
+    /**
+     * Returns the ids of all Strings of the {@code pool}, sorted ascending.
+     * <p>
+     * This decodes every String of the pool once, but keeps none of them.
+     */
+    static int[] allIdsOfPool(StringPool pool) {
+        int[] ids = new int[64];
+        int n = 0;
+        for (StringPool.StringAndID e : pool.allStringAndIDs()) {
+            if (n == ids.length) {
+                ids = Arrays.copyOf(ids, n * 2);
+            }
+            ids[n++] = e.getID();
+        }
+        ids = Arrays.copyOf(ids, n);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int[] createTable(int[] ids, int[] hashes, int n) {
+        // keep the load factor at or below 0.5 to keep the probe sequences short
+        int slotCount = tableSizeFor(n * 2);
+        int[] table = new int[slotCount * 2];
+        int mask = slotCount - 1;
+        for (int i = 0; i < n; i++) {
+            int slot = spread(hashes[i]) & mask;
+            while (table[slot * 2] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot * 2] = ids[i];
+            table[slot * 2 + 1] = hashes[i];
+        }
+        return table;
+    }
+
+    /**
+     * Returns the ids of all Strings in the {@code bytes} of the 
+     * {@code pool}, or {@code null} when the bytes do not match the expected
+     * layout (see class comment).
+     * <p>
+     * The layout is checked by comparing the ids found in the bytes with the 
+     * ids of all entries of the pool, and the first and the last String with
+     * the Strings the pool returns for their ids. 
+     * <p>
+     * (The layout is also pinned by {@code StringIdIndexTest}, for the 
+     * abego-stringpool version this project depends on.)
+     */
+    private static int @Nullable [] idsInPoolBytes(StringPool pool, byte[] bytes) {
+        Iterator<StringPool.StringAndID> entries = pool.allStringAndIDs().iterator();
+        if (!entries.hasNext()) {
+            return new int[0];
+        }
+        StringPool.StringAndID first = entries.next();
+        try {
+            int[] ids = new int[64];
+            int n = 0;
+            int id = first.getID();
+            while (id > 0 && id < bytes.length) {
+                if (n == ids.length) {
+                    ids = Arrays.copyOf(ids, n * 2);
+                }
+                ids[n++] = id;
+                id = utf8Start(bytes, id) + utf8Length(bytes, id);
+            }
+            if (id != bytes.length ||
+                    !first.getString().equals(stringInPoolBytes(bytes, ids[0])) ||
+                    !pool.getString(ids[n - 1]).equals(stringInPoolBytes(bytes, ids[n - 1]))) {
+                return null;
+            }
+            // every entry of the pool must be found in the bytes, in order
+            int i = 1;
+            while (entries.hasNext()) {
+                if (i >= n || entries.next().getID() != ids[i]) {
+                    return null;
+                }
+                i++;
+            }
+            if (i != n) {
+                return null;
+            }
+            return Arrays.copyOf(ids, n);
+        } catch (RuntimeException e) {
+            // e.g. a VLQ overrun or an index out of bounds: the bytes have
+            // a different layout.
+            return null;
+        }
+    }
+
+    private static String stringInPoolBytes(byte[] bytes, int id) {
+        return new String(bytes, utf8Start(bytes, id), utf8Length(bytes, id),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the length of the UTF-8 bytes of the String with the given 
+     * {@code id} in the {@code bytes} of a StringPool.
+     */
+    private static int utf8Length(byte[] bytes, int id) {
+        int[] pos = {id};
+        return VLQUtil.decodeUnsignedIntFromVLQ(() -> bytes[pos[0]++]);
+    }
+
+    /**
+     * Returns the offset of the UTF-8 bytes of the String with the given 
+     * {@code id} in the {@code bytes} of a StringPool.
+     */
+    private static int utf8Start(byte[] bytes, int id) {
+        int pos = id;
+        // the last byte of a VLQ encoded value has the most significant bit set
+        while (bytes[pos] >= 0) {
+            pos++;
+        }
+        return pos + 1;
+    }
+
+    /**
+     * Returns the id of the given {@code string}, or {@code 0} when the 
+     * index does not contain the string.
+     */
+    int idOrZero(String string) {
+        byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+        int hash = hashOfUTF8(utf8, 0, utf8.length);
+        int slot = spread(hash) & mask;
+        int id;
+        while ((id = table[slot * 2]) != 0) {
+            if (table[slot * 2 + 1] == hash && hasString(id, string, utf8)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    private boolean hasString(int id, String string, byte[] utf8) {
+        byte[] bytes = poolBytes;
+        if (bytes == null) {
+            return stringOfId.apply(id).equals(string);
+        }
+        if (utf8Length(bytes, id) != utf8.length) {
+            return false;
+        }
+        int start = utf8Start(bytes, id);
+        for (int i = 0; i < utf8.length; i++) {
+            if (bytes[start + i] != utf8[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of Strings in this index.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the ids of all Strings in this index, sorted ascending.
+     */
+    int[] allIdsSorted() {
+        int[] result = new int[size];
+        int n = 0;
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != 0) {
+                result[n++] = table[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static int hashOfUTF8(byte[] bytes, int start, int length) {
+        // same as Arrays.hashCode(byte[]) for the range
+        int result = 1;
+        for (int i = start; i < start + length; i++) {
+            result = 31 * result + bytes[i];
+        }
+        return result;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int minSize) {
+        int n = 2;
+        while (n < minSize) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
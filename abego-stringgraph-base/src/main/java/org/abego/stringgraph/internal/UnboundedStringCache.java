@@ -0,0 +1,164 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.abego.stringgraph.internal.StringCacheStatisticsImpl.createStringCacheStatistics;
+
+/**
+ * A {@link StringCache} that keeps every String once it was decoded.
+ * <p>
+ * The Strings are stored in a dense array. When the ids are "ordinal", i.e.
+ * {@code 1} to the number of Strings, the array is indexed by the id. 
+ * Otherwise it is indexed by the position of the id in the sorted array of 
+ * all ids, what costs a binary search per access. In both cases the cache
+ * neither boxes the ids nor needs any per entry objects (as a 
+ * {@code Map<Integer,String>} would).
+ */
+final class UnboundedStringCache implements StringCache {
+    private static final class Table {
+        /**
+         * The ids of all Strings, sorted ascending, or {@code null} when the 
+         * ids are ordinal (see class comment).
+         */
+        private final int @Nullable [] sortedIds;
+        /**
+         * The String for the id at slot {@code i} (see {@link #slotOf(int)})
+         * is at {@code strings[i]}, or {@code null} when not yet decoded.
+         * <p>
+         * Concurrent readers may write the same slot, but always with equal 
+         * Strings. Publishing a String via this (non-volatile) array is safe
+         * as Strings are immutable.
+         */
+        private final @Nullable String[] strings;
+
+        private Table(int[] sortedIds) {
+            this.sortedIds = sortedIds;
+            this.strings = new String[sortedIds.length];
+        }
+
+        private Table(int stringCount) {
+            this.sortedIds = null;
+            // slot 0 is unused as ids start at 1
+            this.strings = new String[stringCount + 1];
+        }
+
+        /**
+         * Returns the slot of the String with the given {@code id} in 
+         * {@link #strings}, or a negative value when {@code id} is not 
+         * a known id.
+         */
+        private int slotOf(int id) {
+            int[] ids = sortedIds;
+            if (ids == null) {
+                return id > 0 && id < strings.length ? id : -1;
+            }
+            return Arrays.binarySearch(ids, id);
+        }
+    }
+
+    private final IntFunction<String> decoder;
+    private final Supplier<Table> tableSupplier;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    /**
+     * Lazily created by {@link #getTable()} and never replaced after it
+     * was published.
+     */
+    private volatile @Nullable Table table;
+
+    private UnboundedStringCache(IntFunction<String> decoder,
+                                 Supplier<Table> tableSupplier) {
+        this.decoder = decoder;
+        this.tableSupplier = tableSupplier;
+    }
+
+    /**
+     * Returns an UnboundedStringCache for Strings with the ids as supplied by 
+     * the {@code allIdsSupplier} (sorted ascending).
+     */
+    static UnboundedStringCache createUnboundedStringCache(
+            IntFunction<String> decoder, Supplier<int[]> allIdsSupplier) {
+        return new UnboundedStringCache(decoder,
+                () -> new Table(allIdsSupplier.get()));
+    }
+
+    /**
+     * Returns an UnboundedStringCache for Strings with the ids {@code 1} to
+     * {@code stringCount}.
+     */
+    static UnboundedStringCache createUnboundedStringCache(
+            IntFunction<String> decoder, int stringCount) {
+        return new UnboundedStringCache(decoder, () -> new Table(stringCount));
+    }
+
+    @Override
+    public String getString(int id) {
+        Table t = getTable();
+        int slot = t.slotOf(id);
+        if (slot < 0) {
+            // not a known id. Let the decoder handle this (e.g. by throwing)
+            missCount.increment();
+            return decoder.apply(id);
+        }
+        String result = t.strings[slot];
+        if (result != null) {
+            hitCount.increment();
+            return result;
+        }
+        missCount.increment();
+        result = decoder.apply(id);
+        t.strings[slot] = result;
+        return result;
+    }
+
+    @Override
+    public StringCacheStatistics getStatistics() {
+        return createStringCacheStatistics(hitCount.sum(), missCount.sum());
+    }
+
+    private Table getTable() {
+        // Double-checked locking (with volatile field): getting all ids may be
+        // expensive, so make sure to do it only once.
+        Table result = table;
+        if (result == null) {
+            synchronized (this) {
+                result = table;
+                if (result == null) {
+                    result = tableSupplier.get();
+                    table = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+/**
+ * An {@link IntSet} backed by a bitset, suitable for "dense" values.
+ */
+final class BitSetIntSet implements IntSet {
+    private final long[] words;
+    private final int size;
+
+    private BitSetIntSet(long[] words, int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    static BitSetIntSet createBitSetIntSet(int[] values, int maxValue) {
+        long[] words = new long[(maxValue >> 6) + 1];
+        int size = 0;
+        for (int v : values) {
+            long bit = 1L << v;
+            int i = v >> 6;
+            if ((words[i] & bit) == 0) {
+                words[i] |= bit;
+                size++;
+            }
+        }
+        return new BitSetIntSet(words, size);
+    }
+
+    @Override
+    public boolean contains(int value) {
+        int i = value >> 6;
+        return value >= 0 && i < words.length && (words[i] & (1L << value)) != 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import java.nio.IntBuffer;
+
+/**
+ * A Bloom filter, i.e. a set of (64-bit) hash values that may report false
+ * positives, but no false negatives.
+ * <p>
+ * The filter sets {@link #HASH_FUNCTIONS_COUNT} bits per value, derived from
+ * the value by "double hashing". With {@link #BITS_PER_VALUE} bits per value
+ * about 1% of the tests of values not added are false positives.
+ * <p>
+ * The data of the filter (see {@link #toArray()}) holds the number of hash 
+ * functions, followed by the bits, 32 per int. A filter may work "in place" 
+ * on such data (e.g. on a memory mapped file), see 
+ * {@link #createBloomFilter(IntBuffer)}.
+ * <p>
+ * Testing values is safe for concurrent readers, adding values is not.
+ */
+public final class BloomFilter {
+    public static final int BITS_PER_VALUE = 10;
+    public static final int HASH_FUNCTIONS_COUNT = 7;
+
+    private final IntBuffer words;
+    private final int hashFunctionsCount;
+    private final long bitsCount;
+
+    private BloomFilter(IntBuffer words, int hashFunctionsCount) {
+        this.words = words;
+        this.hashFunctionsCount = hashFunctionsCount;
+        this.bitsCount = words.limit() * 32L;
+    }
+
+    /**
+     * Returns an empty BloomFilter, sized for {@code valuesCount} values.
+     */
+    public static BloomFilter createBloomFilter(int valuesCount) {
+        int wordsCount = (int) Math.max(1,
+                ((long) valuesCount * BITS_PER_VALUE + 31) / 32);
+        return new BloomFilter(IntBuffer.allocate(wordsCount), HASH_FUNCTIONS_COUNT);
+    }
+
+    /**
+     * Returns a BloomFilter working on the {@code data} (see class comment).
+     */
+    public static BloomFilter createBloomFilter(IntBuffer data) {
+        if (data.limit() < 2 || data.get(0) <= 0) {
+            throw new IllegalArgumentException("Invalid Bloom filter data"); //NON-NLS
+        }
+        IntBuffer words = data.duplicate();
+        words.position(1);
+        return new BloomFilter(words.slice(), data.get(0));
+    }
+
+    /**
+     * Returns the 64-bit hash value of the {@code string}, to add to or to
+     * test in a BloomFilter.
+     */
+    public static long hashOf(String string) {
+        // use the (cached) hash code of the String, so hashing is cheap
+        return mix((long) string.length() << 32 | (string.hashCode() & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Returns the 64-bit hash value of the {@code strings}, to add to or to
+     * test in a BloomFilter.
+     */
+    public static long hashOf(String string1, String string2, String string3) {
+        long h = hashOf(string1);
+        h = mix(h * 0x9E3779B97F4A7C15L + hashOf(string2));
+        return mix(h * 0x9E3779B97F4A7C15L + hashOf(string3));
+    }
+
+    public void add(long hash) {
+        long h2 = hash >>> 32 | 1;
+        long h = hash;
+        for (int i = 0; i < hashFunctionsCount; i++) {
+            long bit = Math.floorMod(h, bitsCount);
+            int index = (int) (bit >>> 5);
+            words.put(index, words.get(index) | 1 << (bit & 31));
+            h += h2;
+        }
+    }
+
+    /**
+     * Returns {@code false} when the {@code hash} was not added to the 
+     * filter, {@code true} when it may have been added.
+     */
+    public boolean mightContain(long hash) {
+        long h2 = hash >>> 32 | 1;
+        long h = hash;
+        for (int i = 0; i < hashFunctionsCount; i++) {
+            long bit = Math.floorMod(h, bitsCount);
+            if ((words.get((int) (bit >>> 5)) & 1 << (bit & 31)) == 0) {
+                return false;
+            }
+            h += h2;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the data of this filter (see class comment).
+     */
+    public int[] toArray() {
+        int[] result = new int[words.limit() + 1];
+        result[0] = hashFunctionsCount;
+        for (int i = 1; i < result.length; i++) {
+            result[i] = words.get(i - 1);
+        }
+        return result;
+    }
+
+    /**
+     * The "finalizer" of MurmurHash3 (64 bit), spreading the bits of 
+     * {@code h}.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ h >>> 33;
+    }
+}
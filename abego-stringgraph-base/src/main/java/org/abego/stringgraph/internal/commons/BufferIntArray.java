@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.abego.stringgraph.internal.commons;
+
+import java.nio.IntBuffer;
+
+/**
+ * An {@link IntArray} working "in place" on an {@link IntBuffer}, e.g. 
+ * the memory mapped section of a file.
+ * <p>
+ * The buffer is only accessed with absolute "get" operations (or through a 
+ * duplicate), so a BufferIntArray is safe for concurrent readers.
+ */
+public final class BufferIntArray implements IntArray {
+    private final IntBuffer buffer;
+
+    private BufferIntArray(IntBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns an IntArray with the ints of the {@code buffer}, from index 
+     * {@code 0} to its limit.
+     */
+    public static BufferIntArray createBufferIntArray(IntBuffer buffer) {
+        return new BufferIntArray(buffer);
+    }
+
+    @Override
+    public int get(int index) {
+        return buffer.get(index);
+    }
+
+    @Override
+    public int length() {
+        return buffer.limit();
+    }
+
+    @Override
+    public int[] toArray(int start, int end) {
+        if (start < 0 || end > buffer.limit() || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "Range: " + start + ".." + end + ", length: " + buffer.limit()); //NON-NLS
+        }
+        int[] result = new int[end - start];
+        // get via a duplicate, as the relative get changes the position
+        IntBuffer source = buffer.duplicate();
+        source.position(start);
+        source.get(result);
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal.commons;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Fork-join operations over ranges of indices {@code 0..size-1}.
+ * <p>
+ * The operations split a range into halves until a range is not larger 
+ * than {@link #MIN_RANGE_SIZE} and process these ranges as tasks of the 
+ * given {@link ForkJoinPool}. Without a pool (i.e. {@code null}) or for 
+ * small sizes the operations run in the calling thread.
+ */
+public final class ForkJoinUtil {
+    /**
+     * Ranges of at most this size are not split any further.
+     */
+    static final int MIN_RANGE_SIZE = 16 * 1024;
+
+    ForkJoinUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Receives a range of indices, from {@code start} (inclusive) to 
+     * {@code end} (exclusive).
+     */
+    public interface RangeConsumer {
+        void accept(int start, int end);
+    }
+
+    /**
+     * Passes all indices {@code 0..size-1} to the {@code action}, in 
+     * disjoint ranges processed concurrently by tasks of the {@code pool}.
+     * <p>
+     * The {@code action} must be safe for concurrent use with disjoint ranges.
+     */
+    public static void forEachRange(
+            @Nullable ForkJoinPool pool, int size, RangeConsumer action) {
+        if (pool == null || size <= MIN_RANGE_SIZE) {
+            action.accept(0, size);
+        } else {
+            pool.invoke(new RangeAction(action, 0, size));
+        }
+    }
+
+    /**
+     * Returns the distinct {@code values} in ascending order.
+     * <p>
+     * The ranges of the {@code values} are sorted concurrently by tasks of the
+     * {@code pool} and the results are merged pairwise.
+     */
+    public static int[] sortedDistinct(@Nullable ForkJoinPool pool, int[] values) {
+        if (pool == null || values.length <= MIN_RANGE_SIZE) {
+            return sortedDistinct(values, 0, values.length);
+        }
+        return pool.invoke(new SortedDistinctTask(values, 0, values.length));
+    }
+
+    private static int[] sortedDistinct(int[] values, int start, int end) {
+        int[] result = Arrays.copyOfRange(values, start, end);
+        Arrays.sort(result);
+        int n = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[n - 1]) {
+                result[n++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 5165723049834781526L;
+        private final RangeConsumer action;
+        private final int start;
+        private final int end;
+
+        private RangeAction(RangeConsumer action, int start, int end) {
+            this.action = action;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= MIN_RANGE_SIZE) {
+                action.accept(start, end);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new RangeAction(action, start, mid),
+                    new RangeAction(action, mid, end));
+        }
+    }
+
+    private static final class SortedDistinctTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = -3032571784618960914L;
+        private final int[] values;
+        private final int start;
+        private final int end;
+
+        private SortedDistinctTask(int[] values, int start, int end) {
+            this.values = values;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (end - start <= MIN_RANGE_SIZE) {
+                return sortedDistinct(values, start, end);
+            }
+            int mid = (start + end) >>> 1;
+            SortedDistinctTask left = new SortedDistinctTask(values, start, mid);
+            left.fork();
+            int[] b = new SortedDistinctTask(values, mid, end).compute();
+            int[] a = left.join();
+            return SortedIntArrayUtil.union(a, 0, a.length, b, 0, b.length);
+        }
+    }
+}
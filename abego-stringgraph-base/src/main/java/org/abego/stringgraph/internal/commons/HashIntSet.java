@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import java.util.Arrays;
+
+/**
+ * An {@link IntSet} backed by an open-addressing hash table (with linear 
+ * probing), suitable for "sparse" values.
+ */
+final class HashIntSet implements IntSet {
+    /**
+     * Marks an empty slot in the {@code table}. As the set only contains
+     * non-negative values {@code -1} cannot be a value.
+     */
+    private static final int EMPTY = -1;
+    private final int[] table;
+    private final int mask;
+    private final int size;
+
+    private HashIntSet(int[] table, int size) {
+        this.table = table;
+        this.mask = table.length - 1;
+        this.size = size;
+    }
+
+    static HashIntSet createHashIntSet(int[] values) {
+        int tableSize = 2;
+        while (tableSize < values.length * 2) {
+            tableSize <<= 1;
+        }
+        int[] table = new int[tableSize];
+        Arrays.fill(table, EMPTY);
+        int mask = tableSize - 1;
+        int size = 0;
+        for (int v : values) {
+            int slot = hash(v) & mask;
+            int entry;
+            while ((entry = table[slot]) != EMPTY && entry != v) {
+                slot = (slot + 1) & mask;
+            }
+            if (entry == EMPTY) {
+                table[slot] = v;
+                size++;
+            }
+        }
+        return new HashIntSet(table, size);
+    }
+
+    @Override
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int slot = hash(value) & mask;
+        int entry;
+        while ((entry = table[slot]) != EMPTY) {
+            if (entry == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B1;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.abego.stringgraph.internal.commons;
+
+/**
+ * A read-only array of ints stored outside the Java heap, e.g. in a file
+ * read through a {@link PageCache} ({@link PagedIntArray}) or in a memory
+ * mapped buffer ({@link BufferIntArray}).
+ */
+public interface IntArray {
+
+    int get(int index);
+
+    int length();
+
+    /**
+     * Returns the ints from {@code start} (inclusive) to {@code end} 
+     * (exclusive) as an array.
+     */
+    int[] toArray(int start, int end);
+
+    default int[] toArray() {
+        return toArray(0, length());
+    }
+
+    /**
+     * Returns the index of the {@code value} in this array, or {@code -1} 
+     * when the array does not contain the {@code value}.
+     * <p>
+     * The array must be sorted in ascending order.
+     */
+    default int binarySearch(int value) {
+        int lo = 0;
+        int hi = length() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = get(mid);
+            if (v < value) {
+                lo = mid + 1;
+            } else if (v > value) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns an {@link IntSet} with the values of this array, without 
+     * copying them.
+     * <p>
+     * The array must hold distinct non-negative values, sorted in ascending
+     * order.
+     */
+    default IntSet asIntSet() {
+        return new IntSet() {
+            @Override
+            public boolean contains(int value) {
+                return binarySearch(value) >= 0;
+            }
+
+            @Override
+            public int getSize() {
+                return length();
+            }
+        };
+    }
+}
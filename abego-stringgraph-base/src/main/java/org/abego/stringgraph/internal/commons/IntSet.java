@@ -0,0 +1,68 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+/**
+ * An immutable set of non-negative {@code int} values, supporting 
+ * allocation-free membership tests.
+ */
+public interface IntSet {
+
+    /**
+     * Returns {@code true} when this set contains the {@code value}, 
+     * {@code false} otherwise.
+     */
+    boolean contains(int value);
+
+    /**
+     * Returns the number of values in this set.
+     */
+    int getSize();
+
+    /**
+     * Returns an {@link IntSet} containing the {@code values}. 
+     * <p>
+     * Depending on the density of the values the set is either backed by
+     * a bitset (over the range {@code 0..max(values)}) or by an 
+     * open-addressing hash table, whichever needs less memory.
+     * <p>
+     * All {@code values} must be non-negative. Duplicates are allowed.
+     */
+    static IntSet createIntSet(int[] values) {
+        int max = -1;
+        for (int v : values) {
+            if (v < 0) {
+                throw new IllegalArgumentException(
+                        "value must not be negative, got " + v); //NON-NLS
+            }
+            max = Math.max(max, v);
+        }
+        // A bitset needs (max + 1) / 8 bytes, a hash table (with a load factor
+        // of at most 0.5) at least 8 bytes per value.
+        return (long) max + 1 <= 64L * values.length
+                ? BitSetIntSet.createBitSetIntSet(values, max)
+                : HashIntSet.createHashIntSet(values);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+/**
+ * Sorting of {@code int} arrays in orders other than the natural one, 
+ * without boxing the values.
+ */
+public final class IntSortUtil {
+    /**
+     * Ranges up to this size are sorted with an insertion sort.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 7;
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX = 1 << RADIX_BITS;
+
+    /**
+     * Compares two {@code int} values, like a {@link java.util.Comparator}.
+     */
+    @FunctionalInterface
+    public interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    IntSortUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Sorts the {@code values} in the order defined by the 
+     * {@code comparator}.
+     * <p>
+     * The sort is stable, i.e. equal values keep their order. This makes it
+     * suitable to sort permutations, i.e. indices into other arrays.
+     */
+    public static void sort(int[] values, IntComparator comparator) {
+        if (values.length > 1) {
+            mergeSort(values.clone(), values, 0, values.length, comparator);
+        }
+    }
+
+    /**
+     * Sorts the range [{@code from}, {@code to}) of {@code src} into 
+     * {@code dest}, using the range of {@code dest} as the work space of the
+     * nested sorts. On entry both ranges must hold the same values.
+     */
+    private static void mergeSort(
+            int[] src, int[] dest, int from, int to, IntComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int v = dest[i];
+                int j = i;
+                while (j > from && comparator.compare(dest[j - 1], v) > 0) {
+                    dest[j] = dest[j - 1];
+                    j--;
+                }
+                dest[j] = v;
+            }
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        mergeSort(dest, src, from, mid, comparator);
+        mergeSort(dest, src, mid, to, comparator);
+
+        if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+            // already in order
+            System.arraycopy(src, from, dest, from, to - from);
+            return;
+        }
+        int p = from;
+        int q = mid;
+        for (int i = from; i < to; i++) {
+            if (q >= to || p < mid && comparator.compare(src[p], src[q]) <= 0) {
+                dest[i] = src[p++];
+            } else {
+                dest[i] = src[q++];
+            }
+        }
+    }
+
+    /**
+     * Returns the {@code triples}, i.e. the values {@code triples[3*i]}, 
+     * {@code triples[3*i+1]} and {@code triples[3*i+2]} for all {@code i}, 
+     * sorted by the values at the offsets {@code firstKey}, 
+     * {@code secondKey} and {@code thirdKey} of the triples.
+     * <p>
+     * All values must be non-negative. The {@code triples} are sorted with
+     * an LSD radix sort, i.e. a sequence of stable counting sorts on 16-bit 
+     * digits, and are not modified.
+     */
+    public static int[] sortedTriples(int[] triples, int firstKey, int secondKey, int thirdKey) {
+        int[] result = sortedTriplesByKey(triples, thirdKey);
+        result = sortedTriplesByKey(result, secondKey);
+        return sortedTriplesByKey(result, firstKey);
+    }
+
+    private static int[] sortedTriplesByKey(int[] triples, int keyOffset) {
+        int max = 0;
+        for (int i = keyOffset; i < triples.length; i += 3) {
+            max = Math.max(max, triples[i]);
+        }
+        int[] result = sortedTriplesByDigit(triples, keyOffset, 0);
+        return max >= RADIX
+                ? sortedTriplesByDigit(result, keyOffset, RADIX_BITS)
+                : result;
+    }
+
+    /**
+     * Returns the {@code triples} stably sorted by the 16-bit digit at 
+     * {@code shift} of the value at {@code keyOffset}, using a counting 
+     * sort.
+     */
+    private static int[] sortedTriplesByDigit(int[] triples, int keyOffset, int shift) {
+        int n = triples.length / 3;
+        int[] starts = new int[RADIX + 1];
+        for (int i = 0; i < n; i++) {
+            starts[((triples[i * 3 + keyOffset] >>> shift) & (RADIX - 1)) + 1]++;
+        }
+        for (int k = 0; k < RADIX; k++) {
+            starts[k + 1] += starts[k];
+        }
+        int[] result = new int[triples.length];
+        for (int i = 0; i < n; i++) {
+            int pos = starts[(triples[i * 3 + keyOffset] >>> shift) & (RADIX - 1)]++ * 3;
+            result[pos] = triples[i * 3];
+            result[pos + 1] = triples[i * 3 + 1];
+            result[pos + 2] = triples[i * 3 + 2];
+        }
+        return result;
+    }
+}
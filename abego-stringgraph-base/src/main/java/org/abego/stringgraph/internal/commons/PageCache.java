@@ -0,0 +1,261 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the fixed-size "pages" of a {@link FileChannel}, 
+ * evicting pages not recently used when full.
+ * <p>
+ * Pages are read on demand, with "positional" reads, so the position of the
+ * FileChannel is not changed. The ints of the file are read in little-endian
+ * byte order.
+ * <p>
+ * The cache is "set-associative": a page can only be cached in one of (at 
+ * most) {@link #WAYS} slots of the set selected by the hash of the page 
+ * number. When all slots of the set are used the page to replace is selected
+ * using the CLOCK ("second chance") algorithm, i.e. pages accessed since the
+ * hand last passed them are skipped once.
+ * <p>
+ * A PageCache is safe for concurrent readers and uses no locks. Concurrent 
+ * accesses may overwrite each other's entries or reference bits, but this 
+ * only affects the hit rate, not the correctness: entries are immutable and
+ * always hold the content of their page. A PageCache does not close the 
+ * FileChannel.
+ */
+public final class PageCache {
+    private static final int WAYS = 4;
+    private static final int MAX_SETS = 1 << 20;
+
+    private static final class Page {
+        private final long pageNumber;
+        /**
+         * Only accessed with absolute reads or through duplicates, i.e. the 
+         * buffer's state is never changed after construction.
+         */
+        private final ByteBuffer buffer;
+
+        private Page(long pageNumber, ByteBuffer buffer) {
+            this.pageNumber = pageNumber;
+            this.buffer = buffer;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int pageSize;
+    private final int ways;
+    private final int setMask;
+    private final @Nullable Page[] pages;
+    private final boolean[] referenced;
+    private final byte[] hands;
+    private final LongAdder pageReadsCount = new LongAdder();
+
+    private PageCache(FileChannel channel, int pageSize, int maxPagesCount) {
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.ways = Math.min(WAYS, maxPagesCount);
+        int setCount = Math.min(MAX_SETS, Integer.highestOneBit(maxPagesCount / ways));
+        this.setMask = setCount - 1;
+        this.pages = new Page[setCount * ways];
+        this.referenced = new boolean[setCount * ways];
+        this.hands = new byte[setCount];
+    }
+
+    /**
+     * Returns a PageCache for the {@code channel}, with pages of 
+     * {@code pageSize} bytes and caching at most as many pages as fit into 
+     * {@code memoryLimit} bytes (but at least one page). The number of pages
+     * cached is rounded down to a multiple of a power of 2, see 
+     * {@link #getMaxPagesCount()}.
+     * <p>
+     * {@code pageSize} must be a positive multiple of 4, so an int at a 
+     * position that is a multiple of 4 never spans two pages.
+     */
+    public static PageCache createPageCache(
+            FileChannel channel, int pageSize, long memoryLimit) {
+        if (pageSize <= 0 || pageSize % 4 != 0) {
+            throw new IllegalArgumentException(
+                    "pageSize must be a positive multiple of 4, got " + pageSize); //NON-NLS
+        }
+        int maxPagesCount = (int) Math.max(1,
+                Math.min(Integer.MAX_VALUE, memoryLimit / pageSize));
+        return new PageCache(channel, pageSize, maxPagesCount);
+    }
+
+    /**
+     * Returns the int at the {@code position} of the file, with 
+     * {@code position} being a multiple of 4.
+     */
+    public int getInt(long position) {
+        return page(position / pageSize).getInt((int) (position % pageSize));
+    }
+
+    /**
+     * Copies the {@code count} ints at the {@code position} of the file, 
+     * with {@code position} being a multiple of 4, to {@code dest}, 
+     * starting at {@code destStart}.
+     * <p>
+     * Every page is looked up only once, not once per int.
+     */
+    public void getInts(long position, int[] dest, int destStart, int count) {
+        int n = 0;
+        while (n < count) {
+            long pos = position + n * 4L;
+            ByteBuffer page = page(pos / pageSize).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            page.position((int) (pos % pageSize));
+            int c = Math.min(count - n, page.remaining() / 4);
+            if (c == 0) {
+                throw new IndexOutOfBoundsException(
+                        "Position beyond end of file: " + pos); //NON-NLS
+            }
+            page.asIntBuffer().get(dest, destStart + n, c);
+            n += c;
+        }
+    }
+
+    /**
+     * Returns the {@code length} bytes at the {@code position} of the file.
+     */
+    public byte[] getBytes(long position, int length) {
+        byte[] result = new byte[length];
+        int n = 0;
+        while (n < length) {
+            long pos = position + n;
+            ByteBuffer page = page(pos / pageSize).duplicate();
+            page.position((int) (pos % pageSize));
+            int count = Math.min(length - n, page.remaining());
+            if (count == 0) {
+                throw new IndexOutOfBoundsException(
+                        "Position beyond end of file: " + pos); //NON-NLS
+            }
+            page.get(result, n, count);
+            n += count;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of pages currently cached.
+     */
+    public int getCachedPagesCount() {
+        int result = 0;
+        for (Page page : pages) {
+            if (page != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the maximal number of pages cached.
+     */
+    public int getMaxPagesCount() {
+        return pages.length;
+    }
+
+    /**
+     * Returns the number of pages read from the file so far, i.e. the number
+     * of cache misses.
+     */
+    public long getPageReadsCount() {
+        return pageReadsCount.sum();
+    }
+
+    private ByteBuffer page(long pageNumber) {
+        int set = setOfPage(pageNumber);
+        int base = set * ways;
+        for (int i = base; i < base + ways; i++) {
+            Page page = pages[i];
+            if (page != null && page.pageNumber == pageNumber) {
+                referenced[i] = true;
+                return page.buffer;
+            }
+        }
+        ByteBuffer result = readPage(pageNumber);
+        pageReadsCount.increment();
+        int i = base + victimWay(set, base);
+        pages[i] = new Page(pageNumber, result);
+        referenced[i] = false;
+        return result;
+    }
+
+    private int setOfPage(long pageNumber) {
+        // spread the bits, as the pages of a section are often read in 
+        // a regular pattern
+        long h = pageNumber * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & setMask;
+    }
+
+    /**
+     * Returns the way (index within the set) of the slot to use for a new
+     * page, and advances the hand of the set accordingly.
+     */
+    private int victimWay(int set, int base) {
+        int hand = hands[set];
+        // after at most ways steps all reference bits of the set are cleared,
+        // so we find a slot in at most two rounds
+        for (int n = 0; n < 2 * ways; n++) {
+            int way = hand;
+            hand = (hand + 1) % ways;
+            int i = base + way;
+            if (pages[i] == null || !referenced[i]) {
+                hands[set] = (byte) hand;
+                return way;
+            }
+            referenced[i] = false;
+        }
+        // only reached when other threads keep setting the reference bits
+        hands[set] = (byte) hand;
+        return hand;
+    }
+
+    private ByteBuffer readPage(long pageNumber) {
+        ByteBuffer buffer = ByteBuffer.allocate(pageSize);
+        long position = pageNumber * pageSize;
+        try {
+            while (buffer.hasRemaining()) {
+                int n = channel.read(buffer, position + buffer.position());
+                if (n < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Error when reading page %d: %s", //NON-NLS
+                    pageNumber, e.getMessage()), e);
+        }
+        buffer.flip();
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+/**
+ * An {@link IntArray} stored in a file, read through a {@link PageCache}.
+ * <p>
+ * The ints are stored as a contiguous region of the file, starting at a 
+ * position that is a multiple of 4.
+ */
+public final class PagedIntArray implements IntArray {
+    private final PageCache pageCache;
+    private final long position;
+    private final int length;
+
+    private PagedIntArray(PageCache pageCache, long position, int length) {
+        this.pageCache = pageCache;
+        this.position = position;
+        this.length = length;
+    }
+
+    public static PagedIntArray createPagedIntArray(
+            PageCache pageCache, long position, int length) {
+        if (position % 4 != 0) {
+            throw new IllegalArgumentException(
+                    "position must be a multiple of 4, got " + position); //NON-NLS
+        }
+        return new PagedIntArray(pageCache, position, length);
+    }
+
+    @Override
+    public int get(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(
+                    "Index: " + index + ", length: " + length); //NON-NLS
+        }
+        return pageCache.getInt(position + index * 4L);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public int[] toArray(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(
+                    "Range: " + start + ".." + end + ", length: " + length); //NON-NLS
+        }
+        int[] result = new int[end - start];
+        pageCache.getInts(position + start * 4L, result, 0, result.length);
+        return result;
+    }
+}
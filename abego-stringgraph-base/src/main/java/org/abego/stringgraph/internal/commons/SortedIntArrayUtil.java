@@ -0,0 +1,201 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import java.util.Arrays;
+
+/**
+ * Set operations on ranges of {@code int} arrays that are sorted in ascending
+ * order and contain no duplicates.
+ * <p>
+ * A range is given by an array {@code a} and the indices {@code aStart}
+ * (inclusive) and {@code aEnd} (exclusive). The results are new arrays,
+ * sorted in ascending order, the input arrays are not modified.
+ */
+public final class SortedIntArrayUtil {
+    /**
+     * When one range is more than this factor larger than the other one the
+     * intersection uses galloping (exponential) search in the larger range
+     * instead of a linear merge.
+     */
+    private static final int GALLOP_FACTOR = 16;
+
+    SortedIntArrayUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns {@code true} when the range of {@code a} is sorted in strictly 
+     * ascending order, {@code false} otherwise.
+     */
+    public static boolean isStrictlyAscending(int[] a, int aStart, int aEnd) {
+        for (int i = aStart + 1; i < aEnd; i++) {
+            if (a[i - 1] >= a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the values contained in both ranges.
+     */
+    public static int[] intersection(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd) {
+        int nA = aEnd - aStart;
+        int nB = bEnd - bStart;
+        if (nA > nB) {
+            return intersection(b, bStart, bEnd, a, aStart, aEnd);
+        }
+        // nA <= nB
+        int[] buffer = new int[nA];
+        int iBuffer = 0;
+        int iA = aStart;
+        int iB = bStart;
+        if ((long) nA * GALLOP_FACTOR < nB) {
+            while (iA < aEnd && iB < bEnd) {
+                int vA = a[iA++];
+                iB = gallop(b, iB, bEnd, vA);
+                if (iB < bEnd && b[iB] == vA) {
+                    buffer[iBuffer++] = vA;
+                    iB++;
+                }
+            }
+        } else {
+            while (iA < aEnd && iB < bEnd) {
+                int vA = a[iA];
+                int vB = b[iB];
+                if (vA == vB) {
+                    buffer[iBuffer++] = vA;
+                    iA++;
+                    iB++;
+                } else if (vA > vB) {
+                    iB++;
+                } else {
+                    iA++;
+                }
+            }
+        }
+        return Arrays.copyOf(buffer, iBuffer);
+    }
+
+    /**
+     * Returns the values contained in either range or in both.
+     */
+    public static int[] union(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd) {
+        int[] buffer = new int[(aEnd - aStart) + (bEnd - bStart)];
+        int iBuffer = 0;
+        int iA = aStart;
+        int iB = bStart;
+        while (iA < aEnd && iB < bEnd) {
+            int vA = a[iA];
+            int vB = b[iB];
+            if (vA == vB) {
+                buffer[iBuffer++] = vA;
+                iA++;
+                iB++;
+            } else if (vA > vB) {
+                buffer[iBuffer++] = vB;
+                iB++;
+            } else {
+                buffer[iBuffer++] = vA;
+                iA++;
+            }
+        }
+        while (iA < aEnd) {
+            buffer[iBuffer++] = a[iA++];
+        }
+        while (iB < bEnd) {
+            buffer[iBuffer++] = b[iB++];
+        }
+        return Arrays.copyOf(buffer, iBuffer);
+    }
+
+    /**
+     * Returns the values contained in the range of {@code a} but not in the
+     * range of {@code b}.
+     */
+    public static int[] difference(
+            int[] a, int aStart, int aEnd, int[] b, int bStart, int bEnd) {
+        int nA = aEnd - aStart;
+        int nB = bEnd - bStart;
+        boolean useGallop = (long) nA * GALLOP_FACTOR < nB;
+        int[] buffer = new int[nA];
+        int iBuffer = 0;
+        int iB = bStart;
+        for (int iA = aStart; iA < aEnd; iA++) {
+            int vA = a[iA];
+            if (useGallop) {
+                iB = gallop(b, iB, bEnd, vA);
+            } else {
+                while (iB < bEnd && b[iB] < vA) {
+                    iB++;
+                }
+            }
+            if (iB >= bEnd || b[iB] != vA) {
+                buffer[iBuffer++] = vA;
+            }
+        }
+        return Arrays.copyOf(buffer, iBuffer);
+    }
+
+    /**
+     * Returns the index of the first value in {@code a[from..to)} that is
+     * greater than or equal to {@code value}, or {@code to} if there is no 
+     * such value.
+     * <p>
+     * Probes at exponentially growing distances from {@code from} and then 
+     * binary searches the last interval, so the costs depend on the distance 
+     * to the result, not on the size of the range.
+     */
+    static int gallop(int[] a, int from, int to, int value) {
+        if (from >= to || a[from] >= value) {
+            return from;
+        }
+        // a[lo] < value
+        int lo = from;
+        int step = 1;
+        int hi = from + step;
+        while (hi < to && a[hi] < value) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        if (hi > to) {
+            hi = to;
+        }
+        // a[lo] < value <= a[hi] (or hi == to)
+        while (lo + 1 < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < value) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return hi;
+    }
+}
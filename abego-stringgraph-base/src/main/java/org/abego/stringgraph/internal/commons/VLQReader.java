@@ -0,0 +1,157 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads VLQ encoded unsigned {@code int} values (as written by 
+ * {@link VLQUtil#encodeUnsignedIntAsVLQ(int, VLQUtil.ByteConsumer)} or 
+ * {@link VLQWriter}) from an {@link InputStream}.
+ * <p>
+ * The bytes are read from the InputStream in large chunks into a buffer and 
+ * decoded in a tight loop over that buffer. As a consequence the reader may
+ * read ahead, i.e. consume more bytes from the InputStream than needed for
+ * the values read so far. Bytes following the VLQ values must be read through
+ * this reader (see {@link #readFully(byte[])}).
+ */
+public final class VLQReader {
+    private static final String VLQ_ENCODED_NUMBER_TO_LARGE_FOR_UINT_MESSAGE = "VLQ encoded number too large to fit into an unsigned int. Try to read it in a long."; //NON-NLS
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    /**
+     * The maximal number of bytes of a VLQ encoded unsigned int.
+     */
+    private static final int MAX_VLQ_INT_SIZE = 5;
+    private final InputStream inputStream;
+    private final byte[] buffer;
+    private int pos;
+    private int end;
+
+    private VLQReader(InputStream inputStream, int bufferSize) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[Math.max(bufferSize, MAX_VLQ_INT_SIZE)];
+    }
+
+    public static VLQReader createVLQReader(InputStream inputStream) {
+        return createVLQReader(inputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static VLQReader createVLQReader(InputStream inputStream, int bufferSize) {
+        return new VLQReader(inputStream, bufferSize);
+    }
+
+    /**
+     * Reads the next VLQ encoded unsigned int and returns it.
+     */
+    public int readUnsignedInt() throws IOException {
+        if (end - pos < MAX_VLQ_INT_SIZE) {
+            fill(MAX_VLQ_INT_SIZE);
+        }
+        // decode in a tight loop. Bounds are checked by the array access only.
+        byte[] buf = buffer;
+        int p = pos;
+        int value = 0;
+        for (int shift = 0; shift <= 28; shift += 7) {
+            if (p == end) {
+                throw new EOFException();
+            }
+            byte b = buf[p++];
+            value |= (b & 0x7f) << shift;
+            if (b < 0) { // most significant bit set -> end reached
+                // only 31 bits fit into an unsigned (4 byte) int, i.e. the
+                // 5th byte may only use 3 bits (plus the "end" bit).
+                if (shift == 28 && (b & 0x78) != 0) {
+                    break;
+                }
+                pos = p;
+                return value;
+            }
+        }
+        throw new IllegalStateException(VLQ_ENCODED_NUMBER_TO_LARGE_FOR_UINT_MESSAGE);
+    }
+
+    /**
+     * Reads {@code count} VLQ encoded unsigned ints into {@code values},
+     * starting at {@code offset}.
+     */
+    public void readUnsignedInts(int[] values, int offset, int count) throws IOException {
+        int endIndex = offset + count;
+        for (int i = offset; i < endIndex; i++) {
+            values[i] = readUnsignedInt();
+        }
+    }
+
+    /**
+     * Reads {@code bytes.length} bytes into {@code bytes}.
+     */
+    public void readFully(byte[] bytes) throws IOException {
+        int n = Math.min(end - pos, bytes.length);
+        System.arraycopy(buffer, pos, bytes, 0, n);
+        pos += n;
+        while (n < bytes.length) {
+            int count = inputStream.read(bytes, n, bytes.length - n);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            n += count;
+        }
+    }
+
+    /**
+     * Skips all bytes up to the end of the input stream. 
+     * <p>
+     * For an {@link java.io.ObjectInputStream} this is the end of the 
+     * current block data, i.e. the start of the next object.
+     */
+    public void skipRemaining() throws IOException {
+        pos = 0;
+        end = 0;
+        //noinspection StatementWithEmptyBody
+        while (inputStream.read(buffer, 0, buffer.length) >= 0) {
+            // skip
+        }
+    }
+
+    /**
+     * Ensures the buffer holds at least {@code minCount} unread bytes, or 
+     * all bytes remaining in the input stream, if these are fewer.
+     */
+    private void fill(int minCount) throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, end - pos);
+            end -= pos;
+            pos = 0;
+        }
+        while (end < minCount) {
+            int count = inputStream.read(buffer, end, buffer.length - end);
+            if (count < 0) {
+                return;
+            }
+            end += count;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes unsigned {@code int} values VLQ encoded (compatible to 
+ * {@link VLQUtil#encodeUnsignedIntAsVLQ(int, VLQUtil.ByteConsumer)}) to an
+ * {@link OutputStream}.
+ * <p>
+ * The values are encoded into a buffer that is written to the OutputStream 
+ * in large chunks. Call {@link #flush()} before writing other data directly 
+ * to the OutputStream.
+ */
+public final class VLQWriter {
+    private static final String VALUE_MUST_NOT_BE_NEGATIVE_MESSAGE = "value must not be negative"; //NON-NLS
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_VLQ_INT_SIZE = 5;
+    private final OutputStream outputStream;
+    private final byte[] buffer;
+    private int pos;
+
+    private VLQWriter(OutputStream outputStream, int bufferSize) {
+        this.outputStream = outputStream;
+        this.buffer = new byte[Math.max(bufferSize, MAX_VLQ_INT_SIZE)];
+    }
+
+    public static VLQWriter createVLQWriter(OutputStream outputStream) {
+        return createVLQWriter(outputStream, DEFAULT_BUFFER_SIZE);
+    }
+
+    public static VLQWriter createVLQWriter(OutputStream outputStream, int bufferSize) {
+        return new VLQWriter(outputStream, bufferSize);
+    }
+
+    /**
+     * Writes the (non-negative) {@code value} VLQ encoded.
+     */
+    public void writeUnsignedInt(int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException(VALUE_MUST_NOT_BE_NEGATIVE_MESSAGE);
+        }
+        if (buffer.length - pos < MAX_VLQ_INT_SIZE) {
+            flush();
+        }
+        int v = value;
+        while (v > 0x7f) {
+            buffer[pos++] = (byte) (v & 0x7f);
+            v >>>= 7;
+        }
+        // the last byte has the most significant bit set
+        buffer[pos++] = (byte) (v | 0x80);
+    }
+
+    /**
+     * Writes the {@code bytes} "as is".
+     */
+    public void write(byte[] bytes) throws IOException {
+        if (buffer.length - pos < bytes.length) {
+            flush();
+            outputStream.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, buffer, pos, bytes.length);
+            pos += bytes.length;
+        }
+    }
+
+    /**
+     * Writes all buffered bytes to the OutputStream. 
+     * <p>
+     * Does not flush the OutputStream.
+     */
+    public void flush() throws IOException {
+        if (pos > 0) {
+            outputStream.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.core;
+
+import org.abego.stringgraph.internal.StringGraphHandlesViaStrings;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.abego.stringgraph.core.StringGraphHandles.NO_HANDLE;
+import static org.abego.stringgraph.core.StringGraphTest.assertStringsAsLinesEquals;
+import static org.abego.stringgraph.core.StringGraphTest.getSample1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringGraphHandlesTest {
+
+    /**
+     * Provides the handles of Sample1, implemented by the StringGraph, and
+     * implemented on top of its String based API (see 
+     * {@link StringGraph#handles()}).
+     */
+    static Stream<StringGraphHandles> handlesOfSample1Provider() {
+        return Stream.of(getSample1().handles(),
+                StringGraphHandlesViaStrings.createStringGraphHandlesViaStrings(getSample1()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("handlesOfSample1Provider")
+    void nodeAndLabelHandles(StringGraphHandles handles) {
+        int o = handles.nodeHandle("o");
+        int field = handles.labelHandle("field");
+
+        assertNotEquals(NO_HANDLE, o);
+        assertNotEquals(NO_HANDLE, field);
+        assertEquals("o", handles.stringOf(o));
+        assertEquals("field", handles.stringOf(field));
+        assertEquals(NO_HANDLE, handles.nodeHandle("missing"));
+        assertEquals(NO_HANDLE, handles.nodeHandle("field"));
+        assertEquals(NO_HANDLE, handles.labelHandle("o"));
+        assertEquals(NO_HANDLE, handles.labelHandle("missing"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("handlesOfSample1Provider")
+    void forEachNode(StringGraphHandles handles) {
+        List<String> nodes = new ArrayList<>();
+
+        handles.forEachNode(n -> nodes.add(handles.stringOf(n)));
+
+        assertStringsAsLinesEquals("12\n" +
+                "a\nb\nc\nd\ne\nf\ng\ni\nm1\nm2\nm3\no", nodes);
+    }
+
+    @ParameterizedTest
+    @MethodSource("handlesOfSample1Provider")
+    void outAndInEdges(StringGraphHandles handles) {
+        int o = handles.nodeHandle("o");
+        int m1 = handles.nodeHandle("m1");
+        int field = handles.labelHandle("field");
+        List<String> edges = new ArrayList<>();
+
+        handles.forEachOutEdge(o, (label, to) ->
+                edges.add("o -" + handles.stringOf(label) + "-> " + handles.stringOf(to)));
+        handles.forEachInEdge(m1, (label, from) ->
+                edges.add(handles.stringOf(from) + " -" + handles.stringOf(label) + "-> m1"));
+
+        assertStringsAsLinesEquals("4\n" +
+                "o --> m3\n" +
+                "o -field-> m1\n" +
+                "o -field-> m1\n" +
+                "o -field-> m2", edges);
+        assertEquals(3, handles.outDegree(o));
+        assertEquals(0, handles.inDegree(o));
+        assertEquals(1, handles.inDegree(m1));
+        assertEquals(0, handles.outDegree(NO_HANDLE));
+        assertTrue(handles.hasEdge(o, field, m1));
+        assertFalse(handles.hasEdge(m1, field, o));
+    }
+
+    @ParameterizedTest
+    @MethodSource("handlesOfSample1Provider")
+    void neighborsAndLabels(StringGraphHandles handles) {
+        int o = handles.nodeHandle("o");
+        int m2 = handles.nodeHandle("m2");
+        int field = handles.labelHandle("field");
+        List<String> strings = new ArrayList<>();
+
+        handles.forEachOutNeighbor(o, field, n -> strings.add(handles.stringOf(n)));
+        handles.forEachInNeighbor(m2, field, n -> strings.add("in:" + handles.stringOf(n)));
+        handles.forEachOutLabel(o, l -> strings.add("out-label:" + handles.stringOf(l)));
+        handles.forEachInLabel(m2, l -> strings.add("in-label:" + handles.stringOf(l)));
+        handles.forEachOutNeighbor(o, NO_HANDLE, n -> strings.add("none"));
+
+        assertStringsAsLinesEquals("6\n" +
+                "in-label:field\n" +
+                "in:o\n" +
+                "m1\n" +
+                "m2\n" +
+                "out-label:\n" +
+                "out-label:field", strings);
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.abego.stringgraph.core.StringGraphTest.assertEqualToSample1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StringGraphHolderTest {
+    private static final StringGraph EMPTY_GRAPH =
+            StringGraphs.getInstance().createStringGraphBuilder().build();
+
+    @Test
+    void getAndSet() {
+        StringGraph sample1 = StringGraphTest.getSample1();
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(EMPTY_GRAPH);
+
+        assertSame(EMPTY_GRAPH, holder.get());
+        assertSame(EMPTY_GRAPH, holder.set(sample1));
+        assertSame(sample1, holder.get());
+    }
+
+    @Test
+    void reload(@TempDir File tempDir) {
+        URI uri = new File(tempDir, "sample.graph").toURI();
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri);
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(EMPTY_GRAPH);
+
+        StringGraph graph = holder.reload(uri).join();
+
+        assertSame(graph, holder.get());
+        assertEqualToSample1(holder.get());
+    }
+
+    @Test
+    void reloadDoesNotReplaceNewerGraph(@TempDir File tempDir) throws InterruptedException {
+        URI uri = new File(tempDir, "sample.graph").toURI();
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri);
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(EMPTY_GRAPH);
+        CountDownLatch warmUpStarted = new CountDownLatch(1);
+        CountDownLatch finishWarmUp = new CountDownLatch(1);
+
+        CompletableFuture<StringGraph> future = holder.reload(uri, new StringGraphs.ReadOptions() {
+            @Override
+            public Consumer<StringGraph> getWarmUp() {
+                return graph -> {
+                    warmUpStarted.countDown();
+                    try {
+                        finishWarmUp.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        });
+        warmUpStarted.await();
+        // while the reload is warming up readers still get the old graph
+        assertSame(EMPTY_GRAPH, holder.get());
+        StringGraph newerGraph = StringGraphTest.getSample1();
+        holder.set(newerGraph);
+        finishWarmUp.countDown();
+        future.join();
+
+        assertSame(newerGraph, holder.get());
+    }
+
+    @Test
+    void reloadClosesGraphNotReplacingNewerGraph(@TempDir File tempDir)
+            throws InterruptedException {
+        URI uri = new File(tempDir, "sample.graph").toURI();
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri,
+                new StringGraphs.WriteOptions() {
+                    @Override
+                    public StringGraphStoreFormat getStoreFormat() {
+                        return StringGraphStoreFormat.MAPPED;
+                    }
+
+                    @Override
+                    public boolean getWriteIndexes() {
+                        return true;
+                    }
+                });
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(EMPTY_GRAPH);
+        StringGraph[] graphRead = new StringGraph[1];
+        CountDownLatch warmUpStarted = new CountDownLatch(1);
+        CountDownLatch finishWarmUp = new CountDownLatch(1);
+
+        CompletableFuture<StringGraph> future = holder.reload(uri, new StringGraphs.ReadOptions() {
+            @Override
+            public boolean getDiskResident() {
+                return true;
+            }
+
+            @Override
+            public Consumer<StringGraph> getWarmUp() {
+                return graph -> {
+                    graphRead[0] = graph;
+                    warmUpStarted.countDown();
+                    try {
+                        finishWarmUp.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        });
+        warmUpStarted.await();
+        StringGraph newerGraph = StringGraphTest.getSample1();
+        holder.set(newerGraph);
+        finishWarmUp.countDown();
+
+        assertSame(newerGraph, future.join());
+        // the file of the disk-resident graph read is closed
+        assertThrows(RuntimeException.class, () -> graphRead[0].hasEdge("o", "field", "m1"));
+    }
+
+    /**
+     * Returns an (otherwise unusable) StringGraph counting the calls to
+     * {@link StringGraph#close()} in {@code closeCount}.
+     */
+    private static StringGraph closeCountingGraph(AtomicInteger closeCount) {
+        return (StringGraph) Proxy.newProxyInstance(
+                StringGraph.class.getClassLoader(),
+                new Class<?>[]{StringGraph.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        closeCount.incrementAndGet();
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    void reloadClosesReplacedGraphOnNextReload(@TempDir File tempDir) {
+        URI uri = new File(tempDir, "sample.graph").toURI();
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri);
+        AtomicInteger closeCount = new AtomicInteger();
+        StringGraph graph = closeCountingGraph(closeCount);
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(graph);
+
+        holder.reload(uri).join();
+        // readers may still use the replaced graph
+        assertEquals(0, closeCount.get());
+        holder.reload(uri).join();
+
+        assertEquals(1, closeCount.get());
+    }
+
+    @Test
+    void setDoesNotCloseReplacedGraph() {
+        AtomicInteger closeCount = new AtomicInteger();
+        StringGraph graph = closeCountingGraph(closeCount);
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(graph);
+
+        holder.set(EMPTY_GRAPH);
+        holder.set(StringGraphTest.getSample1());
+
+        assertEquals(0, closeCount.get());
+    }
+
+    @Test
+    void failedReloadKeepsGraph(@TempDir File tempDir) {
+        URI uri = new File(tempDir, "missing.graph").toURI();
+        StringGraphHolder holder = StringGraphs.getInstance().createStringGraphHolder(EMPTY_GRAPH);
+
+        assertThrows(CompletionException.class, () -> holder.reload(uri).join());
+
+        assertSame(EMPTY_GRAPH, holder.get());
+    }
+}
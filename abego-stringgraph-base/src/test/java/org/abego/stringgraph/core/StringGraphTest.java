@@ -159,6 +159,22 @@ public class StringGraphTest {
     void hasEdge(StringGraph sample1) {
         assertTrue(sample1.hasEdge("o", "field", "m1"));
         assertFalse(sample1.hasEdge("x", "z", "y"));
+        // all parts exist, but not in this combination
+        assertFalse(sample1.hasEdge("o", "field", "m3"));
+        assertFalse(sample1.hasEdge("m1", "field", "o"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("stringGraphSample1Provider")
+    void containsOfAllEdges(StringGraph sample1) {
+        Edges allEdges = sample1.edges();
+        for (Edge edge : allEdges) {
+            assertTrue(allEdges.contains(edge));
+            assertTrue(allEdges.contains(
+                    edge.getFromNode().id(), edge.getLabel(), edge.getToNode().id()));
+        }
+        assertFalse(allEdges.contains("o", "", "m1"));
+        assertFalse(allEdges.contains("o", "missing", "m1"));
     }
 
     @ParameterizedTest
@@ -273,6 +289,32 @@ public class StringGraphTest {
 
         assertEdgesEqualsIgnoreOrder("0\n",
                 graph.edges("X", "e2", "D"));
+
+        assertEdgesEqualsIgnoreOrder("2\n" +
+                        "A --e1--> B\n" +
+                        "C --e3--> B",
+                graph.edges(null, null, "B"));
+
+        assertEdgesEqualsIgnoreOrder("1\n" +
+                        "C --e2--> D",
+                graph.edges("C", null, "D"));
+
+        assertEdgesEqualsIgnoreOrder("1\n" +
+                        "E --e1--> F",
+                graph.edges(null, "e1", "F"));
+
+        assertEdgesEqualsIgnoreOrder("0\n",
+                graph.edges("A", "e3", null));
+
+        assertEdgesEqualsIgnoreOrder("0\n",
+                graph.edges("A", "e1", "D"));
+
+        assertEdgesEqualsIgnoreOrder("0\n",
+                graph.edges("A", "missing", null));
+
+        // "e1" is a label, not a node
+        assertEdgesEqualsIgnoreOrder("0\n",
+                graph.edges("e1", null, null));
     }
 
 
@@ -868,6 +910,33 @@ public class StringGraphTest {
         assertEquals("A,B,D", asCommaSeparatedText(nodes.idStream()));
     }
     
+    @Test
+    void edgesIntersectedUnionMinus() {
+        StringGraph graph = getSampleABCDEF();
+        Edges allEdges = graph.edges();
+        Edges fromA = graph.edges("A", null, null);
+        Edges toD = graph.edges(null, null, "D");
+        Edges labeledE1 = graph.edges(null, "e1", null);
+
+        assertEdgesEqualsIgnoreOrder("1\nA --e2--> D", fromA.intersected(toD));
+        assertEdgesEqualsIgnoreOrder("1\nA --e2--> D", toD.intersected(fromA));
+        assertEdgesEqualsIgnoreOrder("2\nA --e1--> B\nA --e2--> D",
+                allEdges.intersected(fromA));
+        assertEdgesEqualsIgnoreOrder("0\n", fromA.intersected(graph.edges("C", null, null)));
+
+        assertEdgesEqualsIgnoreOrder("3\nA --e1--> B\nA --e2--> D\nC --e2--> D",
+                fromA.union(toD));
+        assertEdgesEqualsIgnoreOrder("3\nA --e1--> B\nA --e2--> D\nE --e1--> F",
+                labeledE1.union(fromA));
+        assertEquals(5, allEdges.union(fromA).getSize());
+
+        assertEdgesEqualsIgnoreOrder("1\nA --e1--> B", fromA.minus(toD));
+        assertEdgesEqualsIgnoreOrder("3\nA --e1--> B\nC --e3--> B\nE --e1--> F",
+                allEdges.minus(toD));
+        assertEdgesEqualsIgnoreOrder("0\n", fromA.minus(allEdges));
+        assertEdgesEqualsIgnoreOrder("0\n", fromA.minus(fromA));
+    }
+
     @Test
     void filter() {
         StringGraph graph = getSampleABCDEF();
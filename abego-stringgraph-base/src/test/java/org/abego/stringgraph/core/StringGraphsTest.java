@@ -24,14 +24,28 @@
 
 package org.abego.stringgraph.core;
 
+import org.abego.stringgraph.core.exception.StringGraphException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.abego.stringgraph.core.StringGraphTest.assertEqualToSample1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class StringGraphsTest {
 
@@ -67,4 +81,270 @@ class StringGraphsTest {
         assertEqualToSample1(constructedGraph);
     }
 
+    @Test
+    void readStringGraphWithStringCacheModes(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        URI uri = file.toURI();
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri);
+
+        for (StringCacheMode mode : StringCacheMode.values()) {
+            StringGraph readGraph = StringGraphs.getInstance().readStringGraph(
+                    uri, new StringGraphs.ReadOptions() {
+                        @Override
+                        public StringCacheMode getStringCacheMode() {
+                            return mode;
+                        }
+
+                        @Override
+                        public long getStringCacheMemoryLimit() {
+                            return 1024;
+                        }
+                    });
+
+            assertEqualToSample1(readGraph);
+            StringCacheStatistics stats = readGraph.getStringCacheStatistics();
+            assertTrue(stats.getMissCount() > 0);
+            assertEquals(mode == StringCacheMode.OFF, stats.getHitCount() == 0);
+        }
+    }
+
+    @Test
+    void writeReadMappedStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        URI uri = file.toURI();
+
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri,
+                new StringGraphs.WriteOptions() {
+                    @Override
+                    public StringGraphStoreFormat getStoreFormat() {
+                        return StringGraphStoreFormat.MAPPED;
+                    }
+                });
+
+        // the format is detected when reading
+        assertEqualToSample1(StringGraphs.getInstance().readStringGraph(uri));
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+        StringGraphs.getInstance().constructStringGraph(uri, builder);
+        assertEqualToSample1(builder.build());
+    }
+
+    @Test
+    void writeReadBlocksStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        URI uri = file.toURI();
+
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri,
+                new StringGraphs.WriteOptions() {
+                    @Override
+                    public StringGraphStoreFormat getStoreFormat() {
+                        return StringGraphStoreFormat.BLOCKS;
+                    }
+                });
+
+        // the format is detected when reading
+        assertEqualToSample1(StringGraphs.getInstance().readStringGraph(uri));
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+        StringGraphs.getInstance().constructStringGraph(uri, builder);
+        assertEqualToSample1(builder.build());
+    }
+
+    @Test
+    void writeStringGraphFromBuilder(@TempDir File tempDir) {
+        for (StringGraphStoreFormat format : StringGraphStoreFormat.values()) {
+            File file = new File(tempDir, format + ".graph");
+            URI uri = file.toURI();
+            StringGraphBuilder builder = StringGraphTest.constructSample1(
+                    StringGraphs.getInstance().createStringGraphBuilder());
+
+            StringGraphs.getInstance().writeStringGraph(builder, uri,
+                    new StringGraphs.WriteOptions() {
+                        @Override
+                        public StringGraphStoreFormat getStoreFormat() {
+                            return format;
+                        }
+                    });
+
+            assertEqualToSample1(StringGraphs.getInstance().readStringGraph(uri));
+            // the builder is still usable
+            assertEqualToSample1(builder.build());
+        }
+    }
+
+    @Test
+    void readStringGraphInParallel(@TempDir File tempDir) {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (StringGraphStoreFormat format : StringGraphStoreFormat.values()) {
+                File file = new File(tempDir, format + ".graph");
+                URI uri = file.toURI();
+                StringGraphs.getInstance().writeStringGraph(
+                        StringGraphTest.getSample1(), uri, new StringGraphs.WriteOptions() {
+                            @Override
+                            public StringGraphStoreFormat getStoreFormat() {
+                                return format;
+                            }
+
+                            @Override
+                            public boolean getWriteIndexes() {
+                                // make the reader build the indexes
+                                return false;
+                            }
+                        });
+
+                StringGraph graph = StringGraphs.getInstance().readStringGraph(
+                        uri, new StringGraphs.ReadOptions() {
+                            @Override
+                            public boolean getParallelLoad() {
+                                return true;
+                            }
+
+                            @Override
+                            public ForkJoinPool getLoadPool() {
+                                return pool;
+                            }
+                        });
+
+                assertEqualToSample1(graph);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void readStringGraphAsync(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        URI uri = file.toURI();
+        StringGraphs.getInstance().writeStringGraph(StringGraphTest.getSample1(), uri);
+        AtomicInteger warmUps = new AtomicInteger();
+
+        CompletableFuture<StringGraph> future = StringGraphs.getInstance()
+                .readStringGraphAsync(uri, new StringGraphs.ReadOptions() {
+                    @Override
+                    public Consumer<StringGraph> getWarmUp() {
+                        return graph -> {
+                            graph.edgeLabels().forEach(label -> {
+                            });
+                            warmUps.incrementAndGet();
+                        };
+                    }
+                });
+
+        assertEqualToSample1(future.join());
+        assertEquals(1, warmUps.get());
+        assertEqualToSample1(StringGraphs.getInstance().readStringGraphAsync(uri).join());
+    }
+
+    @Test
+    void readStringGraphAsyncClosesGraphWhenWarmUpFails(@TempDir File tempDir) {
+        URI uri = writeSample1(tempDir, StringGraphStoreFormat.MAPPED);
+        StringGraph[] warmedUp = new StringGraph[1];
+
+        CompletableFuture<StringGraph> future = StringGraphs.getInstance()
+                .readStringGraphAsync(uri, new StringGraphs.ReadOptions() {
+                    @Override
+                    public boolean getDiskResident() {
+                        return true;
+                    }
+
+                    @Override
+                    public Consumer<StringGraph> getWarmUp() {
+                        return graph -> {
+                            warmedUp[0] = graph;
+                            throw new IllegalStateException("warm-up failed");
+                        };
+                    }
+                });
+
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        assertEquals("warm-up failed", e.getCause().getMessage());
+        // the file of the disk-resident graph is closed
+        assertThrows(RuntimeException.class, () -> warmedUp[0].hasEdge("o", "field", "m1"));
+    }
+
+    @Test
+    void readStringGraphAsyncWithMissingFile(@TempDir File tempDir) {
+        URI uri = new File(tempDir, "missing.graph").toURI();
+
+        CompletableFuture<StringGraph> future =
+                StringGraphs.getInstance().readStringGraphAsync(uri);
+
+        CompletionException e = assertThrows(CompletionException.class, future::join);
+        assertTrue(e.getCause() instanceof StringGraphException);
+    }
+
+    @Test
+    void readStringGraphWithEdgeLabelsProjection(@TempDir File tempDir) {
+        for (StringGraphStoreFormat format : StringGraphStoreFormat.values()) {
+            URI uri = writeSample1(tempDir, format);
+
+            StringGraph graph = StringGraphs.getInstance().readStringGraph(
+                    uri, new StringGraphs.ReadOptions() {
+                        @Override
+                        public Set<String> getEdgeLabels() {
+                            return new HashSet<>(Arrays.asList("field", "cycle"));
+                        }
+
+                        @Override
+                        public Set<String> getPropertyNames() {
+                            return Collections.emptySet();
+                        }
+                    });
+
+            StringGraphTest.assertNodesEquals("5\n" +
+                    "c\n" +
+                    "i\n" +
+                    "m1\n" +
+                    "m2\n" +
+                    "o", graph.nodes());
+            assertEquals(4, graph.edges().getSize());
+            assertTrue(graph.hasEdge("o", "field", "m1"));
+            assertFalse(graph.hasEdge("o", "", "m3"));
+            assertFalse(graph.hasNode("a"));
+            assertEquals(2, graph.edgeLabels().getSize());
+        }
+    }
+
+    @Test
+    void readStringGraphWithPropertyNamesProjection(@TempDir File tempDir) {
+        for (StringGraphStoreFormat format : StringGraphStoreFormat.values()) {
+            URI uri = writeSample1(tempDir, format);
+
+            StringGraph graph = StringGraphs.getInstance().readStringGraph(
+                    uri, new StringGraphs.ReadOptions() {
+                        @Override
+                        public Set<String> getPropertyNames() {
+                            return Collections.singleton("prop2");
+                        }
+                    });
+
+            // all edges and nodes (incl. the isolated ones), but only the
+            // properties read
+            StringGraphTest.assertEqualsToAllEdgesOfSample1(graph.edges());
+            assertEquals(StringGraphTest.getSample1().nodes().getSize(),
+                    graph.nodes().getSize());
+            assertTrue(graph.hasNode("a"));
+            assertTrue(graph.hasNode("b"));
+            assertEquals(0, graph.getNodeProperties("b").getSize());
+            assertEquals(1, graph.getNodeProperties("a").getSize());
+            assertEquals("foo", graph.getNodePropertyValue("a", "prop2"));
+        }
+    }
+
+    private static URI writeSample1(File tempDir, StringGraphStoreFormat format) {
+        URI uri = new File(tempDir, format + ".graph").toURI();
+        StringGraphs.getInstance().writeStringGraph(
+                StringGraphTest.getSample1(), uri, new StringGraphs.WriteOptions() {
+                    @Override
+                    public StringGraphStoreFormat getStoreFormat() {
+                        return format;
+                    }
+
+                    @Override
+                    public boolean getWriteIndexes() {
+                        return true;
+                    }
+                });
+        return uri;
+    }
 }
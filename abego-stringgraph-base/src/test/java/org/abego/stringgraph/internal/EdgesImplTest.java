@@ -26,8 +26,11 @@ package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.Edges;
 import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringpool.StringPools;
 import org.junit.jupiter.api.Test;
 
+import java.util.HashMap;
+
 import static org.abego.stringgraph.core.StringGraphTest.getSampleABCDEF;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -56,4 +59,21 @@ class EdgesImplTest {
         // Assert may change when implementation changes
         assertEquals(964, twoEdges.hashCode());
     }
+
+    @Test
+    void equalsAndHashCodeIgnoreOrder() {
+        StringGraphState state = new StringGraphStateImpl(new HashMap<>(), new int[0],
+                new int[]{1, 2, 3, 1, 3, 3, 2, 3, 3},
+                StringPools.builder().build());
+        Edges unsorted = new EdgesImpl(new int[]{6, 0, 3}, state);
+        Edges sorted = new EdgesImpl(new int[]{0, 3, 6}, state);
+        Edges other = new EdgesImpl(new int[]{0, 3}, state);
+
+        assertEquals(sorted.hashCode(), unsorted.hashCode());
+        // the hash code is cached, so ask again
+        assertEquals(sorted.hashCode(), unsorted.hashCode());
+        assertEquals(sorted, unsorted);
+        assertEquals(unsorted, sorted);
+        assertNotEquals(unsorted, other);
+    }
 }
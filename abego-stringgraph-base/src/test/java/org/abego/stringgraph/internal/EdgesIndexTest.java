@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringpool.StringPools;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.abego.stringgraph.core.StringGraphTest.constructSample1;
+import static org.abego.stringgraph.internal.EdgeDefaultTest.assertEdgesEqualsIgnoreOrder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EdgesIndexTest {
+    private static StringGraphState sample1State() {
+        StringGraphBuilderImpl builder = (StringGraphBuilderImpl)
+                StringGraphs.getInstance().createStringGraphBuilder();
+        return constructSample1(builder).buildStringGraphState();
+    }
+
+    @Test
+    void edgesByFromNode() {
+        StringGraphState state = sample1State();
+        EdgesIndex index = EdgesIndex.createEdgesIndex(state, state::getFromId);
+
+        assertEdgesEqualsIgnoreOrder("3\n" +
+                        "o --> m3\n" +
+                        "o --field--> m1\n" +
+                        "o --field--> m2",
+                index.edges("o"));
+        assertEquals(3, index.edgesCount(state.getStringId("o")));
+        assertEquals(0, index.edgesCount(state.getStringId("a")));
+        assertSame(EmptyEdges.EMPTY_EDGES, index.edges("a"));
+        assertSame(EmptyEdges.EMPTY_EDGES, index.edges("missing"));
+    }
+
+    @Test
+    void keysAreSortedAndDistinct() {
+        StringGraphState state = sample1State();
+        EdgesIndex index = EdgesIndex.createEdgesIndex(state, state::getLabelId);
+
+        int[] keys = index.keys();
+        assertEquals(4, keys.length);
+        for (int i = 1; i < keys.length; i++) {
+            assertTrue(keys[i - 1] < keys[i]);
+        }
+        assertEquals(7, index.edges(state.getStringId("cycle")).getSize()
+                + index.edges(state.getStringId("field")).getSize()
+                + index.edges(state.getStringId("")).getSize()
+                + index.edges(state.getStringId("h")).getSize());
+    }
+
+    @Test
+    void keysAreNotShared() {
+        StringGraphState state = sample1State();
+        EdgesIndex index = EdgesIndex.createEdgesIndex(state, state::getLabelId);
+        int[] expected = index.keys();
+
+        index.keys()[0] = -1;
+
+        assertArrayEquals(expected, index.keys());
+    }
+
+    @Test
+    void compositeIndex() {
+        StringGraphState state = sample1State();
+        EdgesIndex labelIndex = EdgesIndex.createEdgesIndex(state, state::getLabelId);
+        EdgesIndex index = EdgesIndex.createEdgesIndex(state, state::getFromId, labelIndex);
+        int o = state.getStringId("o");
+
+        assertEdgesEqualsIgnoreOrder("2\n" +
+                        "o --field--> m1\n" +
+                        "o --field--> m2",
+                index.edges(o, state.getStringId("field")));
+        assertEdgesEqualsIgnoreOrder("1\n" +
+                        "o --> m3",
+                index.edges(o, state.getStringId("")));
+        assertSame(EmptyEdges.EMPTY_EDGES, index.edges(o, state.getStringId("cycle")));
+        assertSame(EmptyEdges.EMPTY_EDGES, index.edges(state.getStringId("a"), state.getStringId("field")));
+
+        int[] labels = index.secondaryKeys(o);
+        assertEquals(2, labels.length);
+        assertEquals(0, index.secondaryKeys(state.getStringId("a")).length);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> EdgesIndex.createEdgesIndex(state, state::getToId, index));
+        assertEquals("Index with secondary key cannot be used as secondary index", e.getMessage());
+        IllegalStateException e2 = assertThrows(IllegalStateException.class,
+                () -> labelIndex.edges(state.getStringId("field"), o));
+        assertEquals("Index has no secondary key", e2.getMessage());
+    }
+
+    @Test
+    void indexOfOrderedEdges() {
+        // (from, to, label), ordered by (from, label)
+        StringGraphState state = new StringGraphStateImpl(new HashMap<>(), new int[0],
+                new int[]{1, 5, 2, 1, 4, 3, 1, 3, 3, 2, 5, 2},
+                StringPools.builder().build());
+        EdgesIndex labelIndex = EdgesIndex.createEdgesIndex(state, state::getLabelId);
+        EdgesIndex expected = EdgesIndex.createEdgesIndex(state, state::getFromId, labelIndex);
+
+        EdgesIndex index = EdgesIndex.createEdgesIndexOfOrderedEdges(
+                state, state::getFromId, state::getLabelId);
+
+        assertNotNull(index);
+        assertArrayEquals(new int[]{1, 2}, index.keys());
+        assertArrayEquals(expected.keys(), index.keys());
+        assertArrayEquals(expected.offsets(), index.offsets());
+        assertArrayEquals(expected.edgeIds(), index.edgeIds());
+        assertEquals(2, index.edges(1, 3).getSize());
+    }
+
+    @Test
+    void indexOfOrderedEdgesWithUnorderedEdges() {
+        StringGraphState state = new StringGraphStateImpl(new HashMap<>(), new int[0],
+                new int[]{1, 4, 3, 1, 5, 2}, StringPools.builder().build());
+        StringGraphState state2 = new StringGraphStateImpl(new HashMap<>(), new int[0],
+                new int[]{2, 5, 2, 1, 4, 3}, StringPools.builder().build());
+
+        assertNull(EdgesIndex.createEdgesIndexOfOrderedEdges(
+                state, state::getFromId, state::getLabelId));
+        assertNull(EdgesIndex.createEdgesIndexOfOrderedEdges(
+                state2, state2::getFromId, state2::getLabelId));
+    }
+
+    @Test
+    void indexBuiltInParallel() {
+        // enough edges to split the work into several tasks
+        Random random = new Random(42);
+        int[] edges = new int[100_000 * 3];
+        for (int i = 0; i < edges.length; i++) {
+            edges[i] = 1 + random.nextInt(5000);
+        }
+        StringGraphState state = new StringGraphStateImpl(new HashMap<>(), new int[0],
+                edges, StringPools.builder().build());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EdgesIndex labelIndex = EdgesIndex.createEdgesIndex(state, state::getLabelId);
+            EdgesIndex expected = EdgesIndex.createEdgesIndex(state, state::getFromId, labelIndex);
+
+            EdgesIndex parallelLabelIndex =
+                    EdgesIndex.createEdgesIndex(state, state::getLabelId, pool);
+            EdgesIndex index = EdgesIndex.createEdgesIndex(
+                    state, state::getFromId, parallelLabelIndex, pool);
+
+            assertArrayEquals(labelIndex.keys(), parallelLabelIndex.keys());
+            assertArrayEquals(labelIndex.offsets(), parallelLabelIndex.offsets());
+            assertArrayEquals(labelIndex.edgeIds(), parallelLabelIndex.edgeIds());
+            assertArrayEquals(expected.keys(), index.keys());
+            assertArrayEquals(expected.offsets(), index.offsets());
+            assertArrayEquals(expected.edgeIds(), index.edgeIds());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
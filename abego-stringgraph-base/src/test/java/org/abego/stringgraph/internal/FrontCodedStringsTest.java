@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrontCodedStringsTest {
+
+    private static FrontCodedStrings frontCodedStrings(String... strings) {
+        byte[][] bytes = Arrays.stream(strings)
+                .map(s -> s.getBytes(StandardCharsets.UTF_8))
+                .sorted(FrontCodedStrings::compareUTF8)
+                .toArray(byte[][]::new);
+        return FrontCodedStrings.createFrontCodedStrings(bytes);
+    }
+
+    @Test
+    void getStringAndIdOrZero() {
+        String[] strings = new String[100];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = String.format("org.abego.stringgraph.Class%03d", i);
+        }
+        FrontCodedStrings fcs = frontCodedStrings(strings);
+
+        assertEquals(100, fcs.size());
+        for (int i = 0; i < strings.length; i++) {
+            // the Strings are sorted already, so the id is position + 1
+            assertEquals(strings[i], fcs.getString(i + 1));
+            assertEquals(i + 1, fcs.idOrZero(strings[i]));
+        }
+        // the common prefixes are not stored repeatedly
+        assertTrue(fcs.data().length < 100 * strings[0].length() / 2);
+    }
+
+    @Test
+    void idOrZeroForMissingStrings() {
+        FrontCodedStrings fcs = frontCodedStrings("b", "d", "f");
+
+        assertEquals(0, fcs.idOrZero(""));
+        assertEquals(0, fcs.idOrZero("a"));
+        assertEquals(0, fcs.idOrZero("c"));
+        assertEquals(0, fcs.idOrZero("dd"));
+        assertEquals(0, fcs.idOrZero("g"));
+        assertEquals(2, fcs.idOrZero("d"));
+    }
+
+    @Test
+    void bucketBoundaries() {
+        int n = FrontCodedStrings.BUCKET_SIZE * 2 + 1;
+        String[] strings = new String[n];
+        for (int i = 0; i < n; i++) {
+            strings[i] = "s" + (char) ('A' + i);
+        }
+        FrontCodedStrings fcs = frontCodedStrings(strings);
+
+        assertEquals(3, fcs.bucketOffsets().length);
+        for (int i = 0; i < n; i++) {
+            assertEquals(strings[i], fcs.getString(i + 1));
+            assertEquals(i + 1, fcs.idOrZero(strings[i]));
+        }
+    }
+
+    @Test
+    void nonASCIIStrings() {
+        // sorted by UTF-8 bytes, not by UTF-16 chars
+        FrontCodedStrings fcs = frontCodedStrings("ﬁ", "😀", "aä", "a");
+
+        assertEquals("a", fcs.getString(1));
+        assertEquals("aä", fcs.getString(2));
+        assertEquals("ﬁ", fcs.getString(3));
+        assertEquals("😀", fcs.getString(4));
+        assertEquals(4, fcs.idOrZero("😀"));
+        assertEquals(0, fcs.idOrZero("ä"));
+    }
+
+    @Test
+    void emptyStrings() {
+        FrontCodedStrings fcs = frontCodedStrings();
+
+        assertEquals(0, fcs.size());
+        assertEquals(0, fcs.idOrZero("a"));
+        assertThrows(IllegalArgumentException.class, () -> fcs.getString(1));
+    }
+
+    @Test
+    void createFromParts() {
+        FrontCodedStrings fcs = frontCodedStrings("ab", "abc", "b");
+
+        FrontCodedStrings copy = FrontCodedStrings.createFrontCodedStrings(
+                fcs.size(), fcs.bucketOffsets(), fcs.data());
+
+        assertEquals("abc", copy.getString(2));
+        assertEquals(3, copy.idOrZero("b"));
+        assertThrows(IllegalArgumentException.class, () -> copy.getString(0));
+        assertThrows(IllegalArgumentException.class, () -> copy.getString(4));
+    }
+}
@@ -26,6 +26,7 @@ package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.Nodes;
 import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphs;
 import org.junit.jupiter.api.Test;
 
 import static org.abego.stringgraph.core.StringGraphTest.getSampleABCDEF;
@@ -55,4 +56,26 @@ class NodesImplTest {
         // Assert may change when implementation changes
         assertEquals(1062,twoNodes.hashCode());
     }
+
+    @Test
+    void setOperationsDoNotModifyIdsArray() {
+        StringGraphBuilderImpl builder = (StringGraphBuilderImpl)
+                StringGraphs.getInstance().createStringGraphBuilder();
+        builder.addEdge("A", "e1", "B");
+        builder.addEdge("C", "e2", "D");
+        StringGraphState state = builder.buildStringGraphState();
+        StringGraph graph = StringGraphImpl.createStringGraph(state);
+        int[] nodesIds = state.getNodesIds();
+        int[] unsortedIds = new int[nodesIds.length];
+        for (int i = 0; i < nodesIds.length; i++) {
+            unsortedIds[i] = nodesIds[nodesIds.length - 1 - i];
+        }
+        int[] unsortedIdsCopy = unsortedIds.clone();
+
+        Nodes nodes = new NodesImpl(unsortedIds, state);
+        assertEquals(4, nodes.intersected(graph.nodes()).getSize());
+        assertEquals(4, nodes.union(graph.nodes("A", null, "?")).getSize());
+
+        assertArrayEquals(unsortedIdsCopy, unsortedIds);
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheMode;
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringCacheTest {
+    private static final int[] ALL_IDS = {3, 7, 20, 21, 100};
+
+    private final AtomicInteger decodeCount = new AtomicInteger();
+    private final IntFunction<String> decoder = id -> {
+        decodeCount.incrementAndGet();
+        return "s" + id;
+    };
+
+    @Test
+    void off() {
+        StringCache cache = StringCache.createStringCache(
+                StringCacheMode.OFF, 0, decoder, () -> ALL_IDS);
+
+        assertEquals("s7", cache.getString(7));
+        assertEquals("s7", cache.getString(7));
+
+        assertEquals(2, decodeCount.get());
+        StringCacheStatistics stats = cache.getStatistics();
+        assertEquals(0, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(0.0, stats.getHitRate());
+    }
+
+    @Test
+    void unbounded() {
+        StringCache cache = StringCache.createStringCache(
+                StringCacheMode.UNBOUNDED, 0, decoder, () -> ALL_IDS);
+
+        for (int i = 0; i < 3; i++) {
+            for (int id : ALL_IDS) {
+                assertEquals("s" + id, cache.getString(id));
+            }
+        }
+        String s = cache.getString(20);
+        assertSame(s, cache.getString(20));
+
+        assertEquals(ALL_IDS.length, decodeCount.get());
+        StringCacheStatistics stats = cache.getStatistics();
+        assertEquals(ALL_IDS.length, stats.getMissCount());
+        assertEquals(2 * ALL_IDS.length + 2, stats.getHitCount());
+    }
+
+    @Test
+    void unboundedUnknownId() {
+        StringCache cache = StringCache.createStringCache(
+                StringCacheMode.UNBOUNDED, 0, decoder, () -> ALL_IDS);
+
+        assertEquals("s8", cache.getString(8));
+        assertEquals("s8", cache.getString(8));
+
+        assertEquals(2, cache.getStatistics().getMissCount());
+    }
+
+    @Test
+    void unboundedOrdinalIds() {
+        StringCache cache = StringCache.createStringCache(
+                StringCacheMode.UNBOUNDED, 0, decoder, 5);
+
+        for (int i = 0; i < 3; i++) {
+            for (int id = 1; id <= 5; id++) {
+                assertEquals("s" + id, cache.getString(id));
+            }
+        }
+        // unknown ids are not cached
+        assertEquals("s0", cache.getString(0));
+        assertEquals("s6", cache.getString(6));
+        assertEquals("s6", cache.getString(6));
+
+        assertEquals(8, decodeCount.get());
+        StringCacheStatistics stats = cache.getStatistics();
+        assertEquals(8, stats.getMissCount());
+        assertEquals(10, stats.getHitCount());
+    }
+
+    @Test
+    void bounded() {
+        BoundedStringCache cache = BoundedStringCache.createBoundedStringCache(
+                decoder, 4096);
+        int capacity = cache.getCapacity();
+        assertTrue(capacity > 0 && capacity <= 4096);
+
+        // all fits into the cache when there are only a few strings
+        cache.getString(1);
+        cache.getString(1);
+        assertEquals(1, cache.getStatistics().getHitCount());
+
+        // when there are more strings than the capacity some are evicted, 
+        // but the cache still answers correctly
+        for (int i = 0; i < 2; i++) {
+            for (int id = 1; id <= 4 * capacity; id++) {
+                assertEquals("s" + id, cache.getString(id));
+            }
+        }
+        StringCacheStatistics stats = cache.getStatistics();
+        assertTrue(stats.getMissCount() > 4 * capacity);
+        assertEquals(decodeCount.get(), stats.getMissCount());
+    }
+
+    @Test
+    void boundedKeepsFrequentlyUsedStrings() {
+        BoundedStringCache cache = BoundedStringCache.createBoundedStringCache(
+                decoder, 0);
+        int capacity = cache.getCapacity();
+
+        // a "hot" string survives a scan over many other strings, as it
+        // gets a second chance on eviction
+        cache.getString(1);
+        for (int id = 2; id < 2 + 10 * capacity; id++) {
+            cache.getString(1);
+            cache.getString(id);
+        }
+
+        assertEquals(1, decodeCount.get() - 10 * capacity);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringCacheStatistics;
+import org.abego.stringgraph.core.StringGraphTest;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.internal.StringGraphIndexData.EdgesIndexData;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringGraphIndexesTest {
+
+    /**
+     * Delegates to another state, but provides the given index data.
+     */
+    private static class StateWithIndexData implements StringGraphState {
+        private final StringGraphState state;
+        private final StringGraphIndexData indexData;
+
+        StateWithIndexData(StringGraphState state, StringGraphIndexData indexData) {
+            this.state = state;
+            this.indexData = indexData;
+        }
+
+        @Override
+        public StringGraphIndexData getIndexData() {
+            return indexData;
+        }
+
+        @Override
+        public int[] getNodesIds() {
+            return state.getNodesIds();
+        }
+
+        @Override
+        public int getFromId(int edgeId) {
+            return state.getFromId(edgeId);
+        }
+
+        @Override
+        public int getToId(int edgeId) {
+            return state.getToId(edgeId);
+        }
+
+        @Override
+        public int getLabelId(int edgeId) {
+            return state.getLabelId(edgeId);
+        }
+
+        @Override
+        public int getEdgesCount() {
+            return state.getEdgesCount();
+        }
+
+        @Override
+        public int @Nullable [] getPropertyDataForNode(int nodeId) {
+            return state.getPropertyDataForNode(nodeId);
+        }
+
+        @Override
+        public int[] getNodesWithProperties() {
+            return state.getNodesWithProperties();
+        }
+
+        @Override
+        public String getString(int id) {
+            return state.getString(id);
+        }
+
+        @Override
+        public int getStringId(String string) {
+            return state.getStringId(string);
+        }
+
+        @Override
+        public int getStringIdOrZero(String string) {
+            return state.getStringIdOrZero(string);
+        }
+
+        @Override
+        public StringCacheStatistics getStringCacheStatistics() {
+            return state.getStringCacheStatistics();
+        }
+    }
+
+    private static StringGraphState sample1State() {
+        StringGraphBuilderImpl builder = (StringGraphBuilderImpl)
+                StringGraphs.getInstance().createStringGraphBuilder();
+        StringGraphTest.constructSample1(builder);
+        return builder.buildStringGraphState();
+    }
+
+    @Test
+    void indexDataRoundTrip() {
+        StringGraphState state = sample1State();
+        StringGraphIndexData data =
+                StringGraphIndexes.createStringGraphIndexes(state).toIndexData();
+        assertTrue(data.isValidForEdgesCount(state.getEdgesCount()));
+
+        // a state with the index data adopts the indexes
+        StringGraphState stateWithData = new StateWithIndexData(state, data);
+        StringGraphIndexes adopted = StringGraphIndexes.createStringGraphIndexes(stateWithData);
+
+        assertSameData(data, adopted.toIndexData());
+        StringGraphTest.assertEqualToSample1(StringGraphImpl.createStringGraph(stateWithData));
+    }
+
+    @Test
+    void invalidIndexDataIsIgnored() {
+        StringGraphState state = sample1State();
+        StringGraphIndexData data =
+                StringGraphIndexes.createStringGraphIndexes(state).toIndexData();
+        StringGraphIndexData invalidData = new StringGraphIndexData(
+                data.labelIndex, data.fromNodeIndex,
+                new EdgesIndexData(new int[0], new int[]{0}, new int[0]),
+                data.edgeTripleTable);
+        assertFalse(invalidData.isValidForEdgesCount(state.getEdgesCount()));
+
+        StringGraphState stateWithData = new StateWithIndexData(state, invalidData);
+
+        // the indexes are rebuilt
+        StringGraphIndexes indexes = StringGraphIndexes.createStringGraphIndexes(stateWithData);
+        assertSameData(data, indexes.toIndexData());
+    }
+
+    @Test
+    void createIndexData() {
+        StringGraphState state = sample1State();
+        int[] edgesIDs = new int[state.getEdgesCount() * 3];
+        for (int i = 0; i < edgesIDs.length; i += 3) {
+            edgesIDs[i] = state.getFromId(i);
+            edgesIDs[i + 1] = state.getToId(i);
+            edgesIDs[i + 2] = state.getLabelId(i);
+        }
+
+        StringGraphIndexData data = StringGraphIndexes.createIndexData(edgesIDs);
+
+        assertSameData(StringGraphIndexes.createStringGraphIndexes(state).toIndexData(), data);
+    }
+
+    private static void assertSameData(StringGraphIndexData expected, StringGraphIndexData actual) {
+        assertSameData(expected.labelIndex, actual.labelIndex);
+        assertSameData(expected.fromNodeIndex, actual.fromNodeIndex);
+        assertSameData(expected.toNodeIndex, actual.toNodeIndex);
+        assertArrayEquals(expected.edgeTripleTable, actual.edgeTripleTable);
+    }
+
+    private static void assertSameData(EdgesIndexData expected, EdgesIndexData actual) {
+        assertArrayEquals(expected.keys, actual.keys);
+        assertArrayEquals(expected.offsets, actual.offsets);
+        assertArrayEquals(expected.edgeOrdinals, actual.edgeOrdinals);
+        assertEquals(expected.edgeOrdinals.length, actual.edgeOrdinals.length);
+    }
+}
@@ -0,0 +1,567 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphBuilder;
+import org.abego.stringgraph.core.StringGraphConstructing;
+import org.abego.stringgraph.core.StringGraphTest;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.core.exception.StringGraphException;
+import org.abego.stringgraph.internal.StringGraphStoreBlocks.BlocksWriter;
+import org.abego.stringgraph.internal.commons.VLQWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringGraphStoreBlocksTest {
+    private static final StringGraphs.WriteOptions FRONT_CODED =
+            new StringGraphs.WriteOptions() {
+                @Override
+                public boolean getFrontCodeStrings() {
+                    return true;
+                }
+            };
+    private static final StringGraphs.WriteOptions COMPRESSED =
+            new StringGraphs.WriteOptions() {
+                @Override
+                public boolean getCompressBlocks() {
+                    return true;
+                }
+            };
+
+    @Test
+    void writeReadStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1());
+        StringGraph readGraph = stringGraphStore.readStringGraph();
+
+        StringGraphTest.assertEqualToSample1(readGraph);
+        assertTrue(StringGraphStoreBlocks.isBlocksStore(file.toURI()));
+        assertFalse(StringGraphStoreMapped.isMappedStore(file.toURI()));
+    }
+
+    @Test
+    void constructStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1());
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+
+        stringGraphStore.constructStringGraph(builder);
+
+        StringGraphTest.assertEqualToSample1(builder.build());
+    }
+
+    @Test
+    void constructStringGraphCallsConstructing(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1());
+        List<String> calls = new ArrayList<>();
+
+        stringGraphStore.constructStringGraph(new StringGraphConstructing() {
+            @Override
+            public void addNode(String node) {
+                calls.add("addNode " + node);
+            }
+
+            @Override
+            public void addEdge(String fromNode, String edgeLabel, String toNode) {
+                calls.add("addEdge " + fromNode + " " + edgeLabel + " " + toNode);
+            }
+
+            @Override
+            public void setNodeProperty(String node, String name, String value) {
+                calls.add("setNodeProperty " + node + " " + name + " " + value);
+            }
+        });
+
+        assertEquals(12 + 7 + 2, calls.size());
+        assertTrue(calls.contains("addNode m3"));
+        assertTrue(calls.contains("addEdge o field m2"));
+        assertTrue(calls.contains("addEdge o  m3"));
+        assertTrue(calls.contains("setNodeProperty a prop2 foo"));
+    }
+
+    @Test
+    void writeReadFrontCodedStringGraph(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1(), FRONT_CODED);
+        StringGraph readGraph = stringGraphStore.readStringGraph();
+
+        StringGraphTest.assertEqualToSample1(readGraph);
+        assertEquals(StringGraphStoreBlocks.FRONT_CODED_STRINGS_BLOCK,
+                ByteBuffer.wrap(Files.readAllBytes(file.toPath()))
+                        .order(ByteOrder.LITTLE_ENDIAN).getInt(16));
+    }
+
+    @Test
+    void constructFrontCodedStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1(), FRONT_CODED);
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+
+        stringGraphStore.constructStringGraph(builder);
+
+        StringGraphTest.assertEqualToSample1(builder.build());
+    }
+
+    @Test
+    void writeFrontCodedStringGraphState(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        StringGraphBuilderImpl builder = (StringGraphBuilderImpl) StringGraphTest
+                .constructSample1(StringGraphBuilderImpl.createStringGraphBuilder());
+
+        stringGraphStore.writeStringGraphState(builder.buildStringGraphState(), FRONT_CODED);
+
+        StringGraphTest.assertEqualToSample1(stringGraphStore.readStringGraph());
+    }
+
+    @Test
+    void writeFrontCodedStringGraphStateWithOrdinalIds(@TempDir File tempDir) {
+        // a front coded file is read into a state with ordinal ids, 
+        // a builder's state is backed by a StringPool (with byte offsets as
+        // ids), so both ways of mapping the ids are written
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1(), FRONT_CODED);
+        StringGraph readGraph = stringGraphStore.readStringGraph();
+        assertNull(((StringGraphImpl) readGraph).getState().getStringPool());
+        File file2 = new File(tempDir, "sample2.graph");
+        StringGraphStore stringGraphStore2 =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file2.toURI());
+
+        stringGraphStore2.writeStringGraph(readGraph, FRONT_CODED);
+
+        StringGraphTest.assertEqualToSample1(stringGraphStore2.readStringGraph());
+    }
+
+    @Test
+    void emptyGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "empty.graph");
+        StringGraphStore store =
+                StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        store.writeStringGraph(StringGraphs.getInstance().createStringGraphBuilder().build());
+
+        StringGraph graph = store.readStringGraph();
+
+        assertEquals(0, graph.nodes().getSize());
+        assertEquals(0, graph.edges().getSize());
+        assertFalse(graph.hasNode("a"));
+    }
+
+    @Test
+    void blocksAreLengthPrefixed(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI())
+                .writeStringGraph(StringGraphTest.getSample1());
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        long directoryOffset = bytes.getLong(bytes.limit() - 16);
+
+        // walk the blocks sequentially, skipping the payloads
+        StringBuilder tags = new StringBuilder();
+        int pos = 16;
+        while (pos < directoryOffset) {
+            tags.append(bytes.getInt(pos)).append(",");
+            assertEquals(StringGraphStoreBlocks.CODEC_NONE, bytes.getInt(pos + 4));
+            pos += 16 + (int) bytes.getLong(pos + 8);
+        }
+
+        assertEquals(directoryOffset, pos);
+        // the Strings come first
+        assertEquals("1,2,7,4,", tags.toString());
+        assertEquals(4, bytes.getInt(pos));
+    }
+
+    @Test
+    void decodeBlocksConcurrentlyOnlyWhenLoadingInParallel(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store = StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1());
+        AtomicInteger tasks = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(2) {
+            @Override
+            public void execute(Runnable task) {
+                tasks.incrementAndGet();
+                super.execute(task);
+            }
+        };
+        try {
+            StringGraph graph = store.readStringGraph(new StringGraphs.ReadOptions() {
+                @Override
+                public ForkJoinPool getLoadPool() {
+                    return pool;
+                }
+            });
+            int sequentialTasks = tasks.get();
+            StringGraph parallelGraph = store.readStringGraph(new StringGraphs.ReadOptions() {
+                @Override
+                public boolean getParallelLoad() {
+                    return true;
+                }
+
+                @Override
+                public ForkJoinPool getLoadPool() {
+                    return pool;
+                }
+            });
+
+            StringGraphTest.assertEqualToSample1(graph);
+            StringGraphTest.assertEqualToSample1(parallelGraph);
+            assertEquals(0, sequentialTasks);
+            assertEquals(4, tasks.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void readIgnoresUnknownBlocks(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphBlockWriter blockWriter =
+                StringGraphBlockWriter.createStringGraphBlockWriter(StringGraphTest.getSample1());
+        try (FileChannel channel = newFileChannel(file)) {
+            BlocksWriter writer = new BlocksWriter(channel);
+            writer.writeBlock(StringGraphStoreBlocks.STRINGS_BLOCK,
+                    blockWriter::writeStringsBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(99, 0, new byte[]{1, 2, 3});
+            writer.writeBlock(StringGraphStoreBlocks.NODES_BLOCK,
+                    blockWriter::writeNodesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.SORTED_EDGES_BLOCK,
+                    blockWriter::writeSortedEdgesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODE_PROPERTIES_BLOCK,
+                    blockWriter::writeNodePropertiesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(100, 42, new byte[0]);
+            writer.finish();
+        }
+
+        StringGraph graph = StringGraphStoreBlocks
+                .createStringGraphStoreBlocks(file.toURI()).readStringGraph();
+
+        StringGraphTest.assertEqualToSample1(graph);
+    }
+
+    @Test
+    void readFileWithoutIndexesBlock(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store = StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1(), new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteIndexes() {
+                return false;
+            }
+        });
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        StringGraph graph = store.readStringGraph();
+
+        assertEquals(4, bytes.getInt((int) bytes.getLong(bytes.limit() - 16)));
+        StringGraphTest.assertEqualToSample1(graph);
+    }
+
+    @Test
+    void readFileWithMissingBlock(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphBlockWriter blockWriter =
+                StringGraphBlockWriter.createStringGraphBlockWriter(StringGraphTest.getSample1());
+        try (FileChannel channel = newFileChannel(file)) {
+            BlocksWriter writer = new BlocksWriter(channel);
+            writer.writeBlock(StringGraphStoreBlocks.STRINGS_BLOCK,
+                    blockWriter::writeStringsBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODES_BLOCK,
+                    blockWriter::writeNodesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODE_PROPERTIES_BLOCK,
+                    blockWriter::writeNodePropertiesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.finish();
+        }
+
+        StringGraphException e = assertThrows(StringGraphException.class,
+                () -> StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI())
+                        .readStringGraph());
+        assertTrue(e.getMessage().startsWith("Error when reading graph from "));
+        assertTrue(e.getMessage().endsWith("Missing block 3"));
+    }
+
+    @Test
+    void readFileWithUnsortedEdgesBlock(@TempDir File tempDir) throws IOException {
+        // files of version 1.0 have the edges unsorted, in an EDGES_BLOCK
+        File file = new File(tempDir, "sample.graph");
+        StringGraphBlockWriter blockWriter =
+                StringGraphBlockWriter.createStringGraphBlockWriter(StringGraphTest.getSample1());
+        try (FileChannel channel = newFileChannel(file)) {
+            BlocksWriter writer = new BlocksWriter(channel);
+            writer.writeBlock(StringGraphStoreBlocks.STRINGS_BLOCK,
+                    blockWriter::writeStringsBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.EDGES_BLOCK,
+                    blockWriter::writeEdgesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODES_BLOCK,
+                    blockWriter::writeNodesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODE_PROPERTIES_BLOCK,
+                    blockWriter::writeNodePropertiesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.INDEXES_BLOCK,
+                    blockWriter::writeIndexesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.finish();
+        }
+        StringGraphStore store = StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+
+        StringGraph graph = store.readStringGraph();
+        store.constructStringGraph(builder);
+
+        StringGraphTest.assertEqualToSample1(graph);
+        StringGraphTest.assertEqualToSample1(builder.build());
+    }
+
+    private static FileChannel newFileChannel(File file) throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static byte[] payload(Consumer<VLQWriter> writing) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VLQWriter writer = VLQWriter.createVLQWriter(bytes);
+        writing.accept(writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static StringGraph largerGraph() {
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 10; j++) {
+                builder.addEdge("n" + (i * 7 % 100), "label" + (j % 3), "n" + ((i + j) % 100));
+            }
+            builder.setNodeProperty("n" + i, "name", "Node " + i);
+        }
+        return builder.build();
+    }
+
+    private static Set<String> edgeTexts(StringGraph graph) {
+        return graph.edges().stream()
+                .map(e -> e.getFromNode().id() + " " + e.getLabel() + " " + e.getToNode().id())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    void sortedEdgesBlockIsSmaller() {
+        StringGraph graph = largerGraph();
+
+        byte[] edges = payload(
+                StringGraphBlockWriter.createStringGraphBlockWriter(graph)::writeEdgesBlock);
+        byte[] sortedEdges = payload(
+                StringGraphBlockWriter.createStringGraphBlockWriter(graph)::writeSortedEdgesBlock);
+
+        assertTrue(sortedEdges.length < edges.length * 2 / 3);
+    }
+
+    @Test
+    void writeReadCompressedStringGraph(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        File uncompressedFile = new File(tempDir, "uncompressed.graph");
+        StringGraph graph = largerGraph();
+        StringGraphStore store = StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+
+        store.writeStringGraph(graph, COMPRESSED);
+        StringGraphStoreBlocks.createStringGraphStoreBlocks(uncompressedFile.toURI())
+                .writeStringGraph(graph);
+        StringGraph readGraph = store.readStringGraph();
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+        store.constructStringGraph(builder);
+
+        assertTrue(file.length() < uncompressedFile.length());
+        assertEquals(StringGraphStoreBlocks.CODEC_DEFLATE,
+                ByteBuffer.wrap(Files.readAllBytes(file.toPath()))
+                        .order(ByteOrder.LITTLE_ENDIAN).getInt(20));
+        assertEquals(edgeTexts(graph), edgeTexts(readGraph));
+        assertEquals(graph.nodes().getSize(), readGraph.nodes().getSize());
+        assertEquals("Node 42", readGraph.getNodePropertyValue("n42", "name"));
+        assertEquals(edgeTexts(graph), edgeTexts(builder.build()));
+    }
+
+    @Test
+    void writeReadCompressedSample1(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store = StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+
+        store.writeStringGraph(StringGraphTest.getSample1(), COMPRESSED);
+
+        StringGraphTest.assertEqualToSample1(store.readStringGraph());
+    }
+
+    @Test
+    void compressionKeepsBlocksThatDoNotGetSmaller(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "blocks");
+        try (FileChannel channel = newFileChannel(file)) {
+            BlocksWriter writer = new BlocksWriter(channel);
+            writer.writeBlock(1, w -> {
+                StringGraphBlockWriter.writeInt(w, 1);
+                StringGraphBlockWriter.writeInt(w, 2);
+            }, 1);
+            writer.writeBlock(2, w -> {
+                for (int i = 0; i < 1000; i++) {
+                    StringGraphBlockWriter.writeInt(w, 0);
+                }
+            }, 1);
+            writer.finish();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(StringGraphStoreBlocks.CODEC_NONE, bytes.getInt(20));
+        assertEquals(2, bytes.getLong(24));
+        assertEquals(StringGraphStoreBlocks.CODEC_DEFLATE, bytes.getInt(16 + 16 + 2 + 4));
+        assertTrue(bytes.getLong(16 + 16 + 2 + 8) < 1000);
+        // the directory follows the last block, i.e. no bytes of the 
+        // uncompressed payload remain
+        assertEquals(16 + 16 + 2 + 16 + bytes.getLong(16 + 16 + 2 + 8),
+                bytes.getLong(bytes.limit() - 16));
+    }
+
+    @Test
+    void readTruncatedCompressedBlock(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphBlockWriter blockWriter =
+                StringGraphBlockWriter.createStringGraphBlockWriter(StringGraphTest.getSample1());
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed)) {
+            out.write(payload(blockWriter::writeNodesBlock));
+        }
+        byte[] truncated = Arrays.copyOf(compressed.toByteArray(), compressed.size() / 2);
+        try (FileChannel channel = newFileChannel(file)) {
+            BlocksWriter writer = new BlocksWriter(channel);
+            writer.writeBlock(StringGraphStoreBlocks.STRINGS_BLOCK,
+                    blockWriter::writeStringsBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODES_BLOCK,
+                    StringGraphStoreBlocks.CODEC_DEFLATE, truncated);
+            writer.writeBlock(StringGraphStoreBlocks.SORTED_EDGES_BLOCK,
+                    blockWriter::writeSortedEdgesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODE_PROPERTIES_BLOCK,
+                    blockWriter::writeNodePropertiesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.finish();
+        }
+        StringGraphStore store = StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI());
+
+        StringGraphException e = assertThrows(StringGraphException.class,
+                store::readStringGraph);
+        assertTrue(e.getMessage().contains("Error when decompressing block 2"));
+        StringGraphException e2 = assertThrows(StringGraphException.class,
+                () -> store.constructStringGraph(
+                        StringGraphs.getInstance().createStringGraphBuilder()));
+        assertTrue(e2.getMessage().contains("Error when decompressing block 2"));
+    }
+
+    @Test
+    void readCorruptCompressedBlock(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphBlockWriter blockWriter =
+                StringGraphBlockWriter.createStringGraphBlockWriter(StringGraphTest.getSample1());
+        try (FileChannel channel = newFileChannel(file)) {
+            BlocksWriter writer = new BlocksWriter(channel);
+            writer.writeBlock(StringGraphStoreBlocks.STRINGS_BLOCK,
+                    blockWriter::writeStringsBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            // declared as compressed, but stored "as is"
+            writer.writeBlock(StringGraphStoreBlocks.NODES_BLOCK,
+                    StringGraphStoreBlocks.CODEC_DEFLATE, payload(blockWriter::writeNodesBlock));
+            writer.writeBlock(StringGraphStoreBlocks.SORTED_EDGES_BLOCK,
+                    blockWriter::writeSortedEdgesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.writeBlock(StringGraphStoreBlocks.NODE_PROPERTIES_BLOCK,
+                    blockWriter::writeNodePropertiesBlock, StringGraphStoreBlocks.NO_COMPRESSION);
+            writer.finish();
+        }
+
+        StringGraphException e = assertThrows(StringGraphException.class,
+                () -> StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI())
+                        .readStringGraph());
+        assertTrue(e.getMessage().contains("Error when decompressing block 2"));
+    }
+
+    @Test
+    void readFileInOtherFormat(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI())
+                .writeStringGraph(StringGraphTest.getSample1());
+
+        StringGraphException e = assertThrows(StringGraphException.class,
+                () -> StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI())
+                        .readStringGraph());
+        assertTrue(e.getMessage().endsWith("Invalid file format. Expected StringGraph blocks store"));
+        assertFalse(StringGraphStoreBlocks.isBlocksStore(file.toURI()));
+    }
+
+    @Test
+    void readTruncatedFile(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI())
+                .writeStringGraph(StringGraphTest.getSample1());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 20));
+
+        assertThrows(StringGraphException.class,
+                () -> StringGraphStoreBlocks.createStringGraphStoreBlocks(file.toURI())
+                        .readStringGraph());
+    }
+}
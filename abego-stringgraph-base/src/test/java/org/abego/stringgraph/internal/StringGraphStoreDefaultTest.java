@@ -25,9 +25,15 @@
 package org.abego.stringgraph.internal;
 
 import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphBuilder;
 import org.abego.stringgraph.core.exception.StringGraphException;
 import org.abego.stringgraph.core.StringGraphTest;
+import org.abego.stringgraph.core.StringGraphs;
 import org.abego.stringgraph.internal.commons.FileUtil;
+import org.abego.stringgraph.internal.commons.VLQReader;
+import org.abego.stringgraph.internal.commons.VLQUtil;
+import org.abego.stringpool.StringPoolBuilder;
+import org.abego.stringpool.StringPools;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.OS;
@@ -37,9 +43,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.lang.reflect.Proxy;
 import java.nio.file.Files;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -57,6 +67,27 @@ class StringGraphStoreDefaultTest {
         StringGraphTest.assertEqualToSample1(readGraph);
     }
 
+    @Test
+    void concurrentReads(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1());
+        // a freshly read graph has "cold" caches
+        StringGraph readGraph = stringGraphStore.readStringGraph();
+
+        long okCount = IntStream.range(0, 1000).parallel()
+                .filter(i -> readGraph.hasNode("o") &&
+                        readGraph.hasEdge("o", "field", "m1") &&
+                        readGraph.nodesFromNodeViaEdgeLabeled("o", "field").getSize() == 2 &&
+                        readGraph.nodes().intersected(readGraph.fromNodes()).getSize() == 5 &&
+                        readGraph.getNodePropertyValue("a", "prop2").equals("foo"))
+                .count();
+
+        assertEquals(1000, okCount);
+        StringGraphTest.assertEqualToSample1(readGraph);
+    }
+
     @Test
     void readExceptions() throws IOException {
         StringGraphStoreDefault store =
@@ -75,7 +106,7 @@ class StringGraphStoreDefaultTest {
         assertEquals("Error when reading block tag", ex.getMessage());
         ex =
                 assertThrows(StringGraphStoreException.class,
-                        () -> store.readInt(stream));
+                        () -> store.readInt(VLQReader.createVLQReader(stream)));
         assertEquals("Error when reading VLQ 'int'", ex.getMessage());
         //TODO add test chech for the "Error when reading VLQ 'int'" problem
         // this code no longer compiles, as the implementation is now hidden.
@@ -117,6 +148,186 @@ class StringGraphStoreDefaultTest {
     }
 
 
+    @Test
+    void readFileWrittenBytePerByte(@TempDir File tempDir) throws IOException {
+        // Write a file the way version 1.0 did, i.e. every VLQ byte with 
+        // a separate writeByte call and no extension blocks, to check the 
+        // format is still compatible.
+        File file = new File(tempDir, "bytewise.graph");
+        StringPoolBuilder builder = StringPools.builder();
+        int a = builder.add("a");
+        int b = builder.add("b");
+        int x = builder.add("x");
+        try (ObjectOutputStream out =
+                     new ObjectOutputStream(Files.newOutputStream(file.toPath()))) {
+            StringGraphStoreUtil.writeDataFormat(out,
+                    StringGraphStoreDefault.getDataFormatName(),
+                    DataFormatVersion.createDataFormatVersion(1, 0));
+            out.writeObject("edges");
+            writeIntsBytePerByte(out, 1, a, b, x);
+            out.writeObject("nodes");
+            writeIntsBytePerByte(out, 2, a, b);
+            out.writeObject("node-properties");
+            writeIntsBytePerByte(out, 1, a, 1, x, b);
+            out.writeObject("end");
+            byte[] bytes = builder.build().getBytes();
+            writeIntsBytePerByte(out, bytes.length);
+            for (byte by : bytes) {
+                out.writeByte(by);
+            }
+        }
+
+        StringGraph graph = StringGraphStoreDefault
+                .createStringGraphStoreDefault(file.toURI()).readStringGraph();
+
+        assertEquals(2, graph.nodes().getSize());
+        assertTrue(graph.hasEdge("a", "x", "b"));
+        assertEquals("b", graph.getNodePropertyValue("a", "x"));
+    }
+
+    @Test
+    void readSkipsUnknownBlocks(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "unknown-block.graph");
+        writeFileWithUnknownBlocks(file);
+
+        StringGraph graph = StringGraphStoreDefault
+                .createStringGraphStoreDefault(file.toURI()).readStringGraph();
+
+        assertEquals(1, graph.nodes().getSize());
+        assertTrue(graph.hasNode("a"));
+    }
+
+    @Test
+    void constructSkipsUnknownBlocks(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "unknown-block.graph");
+        writeFileWithUnknownBlocks(file);
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+
+        StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI())
+                .constructStringGraph(builder);
+
+        StringGraph graph = builder.build();
+        assertEquals(1, graph.nodes().getSize());
+        assertTrue(graph.hasNode("a"));
+    }
+
+    private static void writeFileWithUnknownBlocks(File file) throws IOException {
+        StringPoolBuilder builder = StringPools.builder();
+        int a = builder.add("a");
+        try (ObjectOutputStream out =
+                     new ObjectOutputStream(Files.newOutputStream(file.toPath()))) {
+            StringGraphStoreUtil.writeDataFormat(out,
+                    StringGraphStoreDefault.getDataFormatName(),
+                    StringGraphStoreDefault.getDataFormatVersion());
+            out.writeObject("some-future-block");
+            writeIntsBytePerByte(out, 3, 1, 2, 3);
+            out.writeObject("nodes");
+            writeIntsBytePerByte(out, 1, a);
+            out.writeObject("end");
+            byte[] bytes = builder.build().getBytes();
+            writeIntsBytePerByte(out, bytes.length);
+            out.write(bytes);
+            out.writeObject("some-future-extension-block");
+            writeIntsBytePerByte(out, 42);
+            out.writeObject("end-extensions");
+        }
+    }
+
+    @Test
+    void readAdoptsStoredIndexes(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreDefault store =
+                StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1(), new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteIndexes() {
+                return true;
+            }
+        });
+
+        StringGraphState state;
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(file.toPath()))) {
+            state = store.readStringGraphStateFromStream(in);
+        }
+
+        StringGraphIndexData indexData = state.getIndexData();
+        assertNotNull(indexData);
+        assertTrue(indexData.isValidForEdgesCount(state.getEdgesCount()));
+        StringGraph graph = StringGraphImpl.createStringGraph(state);
+        StringGraphTest.assertEqualToSample1(graph);
+        assertTrue(graph.hasEdge("o", "field", "m2"));
+        assertEquals(2, graph.edges("o", "field", null).getSize());
+    }
+
+    @Test
+    void writeStringGraphOfOtherImplementation(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraph sample = StringGraphTest.getSample1();
+        // a StringGraph that is no StringGraphImpl, i.e. is written through 
+        // the StringGraph API
+        StringGraph graph = (StringGraph) Proxy.newProxyInstance(
+                getClass().getClassLoader(),
+                new Class<?>[]{StringGraph.class},
+                (proxy, method, args) -> method.invoke(sample, args));
+        StringGraphStore store =
+                StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI());
+
+        store.writeStringGraph(graph);
+
+        StringGraphTest.assertEqualToSample1(store.readStringGraph());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)  // Windows cannot delete tempDir because files are mapped
+    void writeStringGraphReadFromMappedStore(@TempDir File tempDir) {
+        File mappedFile = new File(tempDir, "mapped.graph");
+        StringGraphStore mappedStore =
+                StringGraphStoreMapped.createStringGraphStoreMapped(mappedFile.toURI());
+        mappedStore.writeStringGraph(StringGraphTest.getSample1());
+        // the state of this StringGraph has no StringPool
+        StringGraph graph = mappedStore.readStringGraph();
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI());
+
+        store.writeStringGraph(graph);
+
+        StringGraphTest.assertEqualToSample1(store.readStringGraph());
+    }
+
+    @Test
+    void writeWithoutIndexes(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreDefault store =
+                StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1(), new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteIndexes() {
+                return false;
+            }
+        });
+
+        StringGraphState state;
+        try (ObjectInputStream in = new ObjectInputStream(Files.newInputStream(file.toPath()))) {
+            state = store.readStringGraphStateFromStream(in);
+        }
+
+        assertNull(state.getIndexData());
+        StringGraphTest.assertEqualToSample1(StringGraphImpl.createStringGraph(state));
+    }
+
+    private static void writeIntsBytePerByte(ObjectOutputStream out, int... values) {
+        for (int v : values) {
+            VLQUtil.encodeUnsignedIntAsVLQ(v, by -> {
+                try {
+                    out.writeByte(by);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+    }
+
     @Test
     void readMissingFile(@TempDir File tempDir) {
         File file = new File(tempDir, "missing.graph");
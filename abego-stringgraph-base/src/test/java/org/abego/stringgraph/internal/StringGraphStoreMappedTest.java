@@ -0,0 +1,498 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringgraph.core.Edges;
+import org.abego.stringgraph.core.Node;
+import org.abego.stringgraph.core.Nodes;
+import org.abego.stringgraph.core.StringGraph;
+import org.abego.stringgraph.core.StringGraphBuilder;
+import org.abego.stringgraph.core.StringGraphTest;
+import org.abego.stringgraph.core.StringGraphs;
+import org.abego.stringgraph.core.exception.StringGraphException;
+import org.abego.stringgraph.internal.commons.BloomFilter;
+import org.abego.stringgraph.internal.commons.PageCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisabledOnOs(OS.WINDOWS)  // Windows cannot delete tempDir because files are mapped
+class StringGraphStoreMappedTest {
+    private static final StringGraphs.ReadOptions DISK_RESIDENT =
+            new StringGraphs.ReadOptions() {
+                @Override
+                public boolean getDiskResident() {
+                    return true;
+                }
+            };
+    private static final StringGraphs.WriteOptions WITH_INDEXES =
+            new StringGraphs.WriteOptions() {
+                @Override
+                public boolean getWriteIndexes() {
+                    return true;
+                }
+            };
+
+    @Test
+    void writeReadStringGraph(@TempDir File tempDir) {
+        StringGraph graph = StringGraphTest.getSample1();
+        File file = new File(tempDir, "sample.graph");
+
+        StringGraphStore stringGraphStore =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        stringGraphStore.writeStringGraph(graph);
+        StringGraph readGraph = stringGraphStore.readStringGraph();
+
+        StringGraphTest.assertEqualToSample1(readGraph);
+        assertTrue(StringGraphStoreMapped.isMappedStore(file.toURI()));
+    }
+
+    @Test
+    void constructStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1());
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+
+        stringGraphStore.constructStringGraph(builder);
+
+        StringGraphTest.assertEqualToSample1(builder.build());
+    }
+
+    @Test
+    void nonAsciiStrings(@TempDir File tempDir) {
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+        builder.addEdge("Köln", "→", "東京");
+        builder.addEdge("", "", "Aa");
+        builder.addNode("BB"); // same hash code as "Aa"
+        builder.setNodeProperty("Köln", "größe", "😀");
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(builder.build());
+
+        StringGraph graph = store.readStringGraph();
+
+        assertTrue(graph.hasEdge("Köln", "→", "東京"));
+        assertTrue(graph.hasEdge("", "", "Aa"));
+        assertTrue(graph.hasNode("BB"));
+        assertFalse(graph.hasNode("C#")); // same hash code as "Aa"
+        assertFalse(graph.hasNode("Koln"));
+        assertEquals("😀", graph.getNodePropertyValue("Köln", "größe"));
+        assertEquals(5, graph.nodes().getSize());
+    }
+
+    @Test
+    void emptyGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "empty.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(StringGraphs.getInstance().createStringGraphBuilder().build());
+
+        StringGraph graph = store.readStringGraph();
+
+        assertEquals(0, graph.nodes().getSize());
+        assertEquals(0, graph.edges().getSize());
+        assertFalse(graph.hasNode("a"));
+    }
+
+    @Test
+    void concurrentReads(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore stringGraphStore =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        stringGraphStore.writeStringGraph(StringGraphTest.getSample1());
+        StringGraph readGraph = stringGraphStore.readStringGraph();
+
+        long okCount = IntStream.range(0, 1000).parallel()
+                .filter(i -> readGraph.hasEdge("o", "field", "m" + (1 + i % 2)) &&
+                        readGraph.getNodePropertyValue("a", "prop2").equals("foo"))
+                .count();
+
+        assertEquals(1000, okCount);
+    }
+
+    @Test
+    void isMappedStore(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreDefault.createStringGraphStoreDefault(file.toURI())
+                .writeStringGraph(StringGraphTest.getSample1());
+
+        assertFalse(StringGraphStoreMapped.isMappedStore(file.toURI()));
+        assertFalse(StringGraphStoreMapped.isMappedStore(
+                new File(tempDir, "missing.graph").toURI()));
+    }
+
+    @Test
+    void readFileWithWrongDataFormatVersion(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            ByteBuffer version = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            version.putInt(3).flip();
+            channel.write(version, 8);
+        }
+
+        StringGraphException e = assertThrows(StringGraphException.class,
+                store::readStringGraph);
+        assertTrue(e.getMessage().startsWith("Error when reading graph from "));
+        assertTrue(e.getMessage().endsWith("Incompatible data format version. Expected '2', got '3'"));
+    }
+
+    @Test
+    void writeReadDiskResidentStringGraph(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1(), WITH_INDEXES);
+
+        StringGraph graph = store.readStringGraph(DISK_RESIDENT);
+
+        assertTrue(((StringGraphImpl) graph).getState() instanceof PagedStringGraphState);
+        StringGraphTest.assertEqualToSample1(graph);
+    }
+
+    @Test
+    void closeDiskResidentStringGraph(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI())
+                .writeStringGraph(StringGraphTest.getSample1(), WITH_INDEXES);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        StringGraph graph = StringGraphStoreMapped
+                .readDiskResidentStringGraphFromChannel(channel, DISK_RESIDENT);
+        assertNotNull(graph);
+        StringGraphTest.assertEqualToSample1(graph);
+
+        graph.close();
+
+        assertFalse(channel.isOpen());
+    }
+
+    @Test
+    void diskResidentGraphCachesStringsBounded(@TempDir File tempDir) {
+        File file = new File(tempDir, "larger.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(largerGraph(), WITH_INDEXES);
+        // the default String cache mode is UNBOUNDED
+        StringGraph graph = store.readStringGraph(new StringGraphs.ReadOptions() {
+            @Override
+            public boolean getDiskResident() {
+                return true;
+            }
+
+            @Override
+            public long getStringCacheMemoryLimit() {
+                return 1;
+            }
+        });
+
+        for (int pass = 0; pass < 2; pass++) {
+            for (Node node : graph.nodes()) {
+                assertTrue(node.id().startsWith("n"));
+            }
+        }
+
+        // an unbounded cache would hit on every String of the second pass
+        assertTrue(graph.getStringCacheStatistics().getHitCount()
+                < graph.nodes().getSize());
+    }
+
+    @Test
+    void diskResidentGraphMatchesInMemoryGraph(@TempDir File tempDir) {
+        StringGraph graph = largerGraph();
+        File file = new File(tempDir, "larger.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(graph, WITH_INDEXES);
+
+        // a page cache of only 2 pages, to force evictions
+        StringGraph diskGraph = store.readStringGraph(new StringGraphs.ReadOptions() {
+            @Override
+            public boolean getDiskResident() {
+                return true;
+            }
+
+            @Override
+            public long getPageCacheMemoryLimit() {
+                return 32 * 1024;
+            }
+        });
+
+        assertSameGraph(graph, diskGraph);
+        PageCache pageCache = ((PagedStringGraphState)
+                ((StringGraphImpl) diskGraph).getState()).getPageCache();
+        assertEquals(2, pageCache.getMaxPagesCount());
+        assertTrue(pageCache.getCachedPagesCount() <= 2);
+    }
+
+    @Test
+    void diskResidentFromNodesAreAView(@TempDir File tempDir) {
+        StringGraph graph = largerGraph();
+        File file = new File(tempDir, "larger.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(graph, WITH_INDEXES);
+
+        StringGraph diskGraph = store.readStringGraph(DISK_RESIDENT);
+
+        Nodes fromNodes = diskGraph.fromNodes();
+        assertTrue(fromNodes instanceof PagedNodes);
+        assertSame(fromNodes, diskGraph.fromNodes());
+        assertSame(diskGraph.toNodes(), diskGraph.toNodes());
+        assertEquals(graph.fromNodes().getSize(), fromNodes.getSize());
+        assertEquals(nodeIds(graph.fromNodes().intersected(graph.toNodes())),
+                nodeIds(fromNodes.intersected(diskGraph.toNodes())));
+        assertEquals(nodeIds(graph.nodes().intersected(graph.fromNodes())),
+                nodeIds(diskGraph.nodes().intersected(fromNodes)));
+        assertEquals(nodeIds(graph.fromNodes().union(graph.toNodes())),
+                nodeIds(fromNodes.union(diskGraph.toNodes())));
+        assertSame(fromNodes, fromNodes.filter(n -> true));
+        assertEquals(0, fromNodes.filter(n -> false).getSize());
+        assertEquals(fromNodes, store.readStringGraph(DISK_RESIDENT).fromNodes());
+    }
+
+    @Test
+    void readUsesStoredIndexes(@TempDir File tempDir) {
+        StringGraph graph = largerGraph();
+        File file = new File(tempDir, "larger.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(graph, WITH_INDEXES);
+
+        StringGraph mappedGraph = store.readStringGraph();
+
+        // the nodes and indexes work on the mapped sections
+        assertTrue(mappedGraph.nodes() instanceof PagedNodes);
+        assertTrue(mappedGraph.fromNodes() instanceof PagedNodes);
+        assertSameGraph(graph, mappedGraph);
+    }
+
+    @Test
+    void readWithoutIndexesBuildsIndexes(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1(), new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteIndexes() {
+                return false;
+            }
+        });
+
+        StringGraph graph = store.readStringGraph();
+
+        assertTrue(graph.fromNodes() instanceof NodesImpl);
+        StringGraphTest.assertEqualToSample1(graph);
+    }
+
+    @Test
+    void diskResidentWithoutIndexesLoadsIntoMemory(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1(), new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteIndexes() {
+                return false;
+            }
+        });
+
+        StringGraph graph = store.readStringGraph(DISK_RESIDENT);
+
+        assertTrue(((StringGraphImpl) graph).getState() instanceof MappedStringGraphState);
+        StringGraphTest.assertEqualToSample1(graph);
+    }
+
+    private static StringGraph largerGraph() {
+        StringGraphBuilder builder = StringGraphs.getInstance().createStringGraphBuilder();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < 10; j++) {
+                builder.addEdge("n" + (i * 7 % 100), "label" + (j % 3), "n" + ((i + j) % 100));
+            }
+            if (i % 3 == 0) {
+                builder.setNodeProperty("n" + i, "name", "Node " + i);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Asserts {@code actual} answers the queries like {@code expected}, a 
+     * {@link #largerGraph()}.
+     */
+    private static void assertSameGraph(StringGraph expected, StringGraph actual) {
+        assertEquals(edgeTexts(expected.edges()), edgeTexts(actual.edges()));
+        assertEquals(nodeIds(expected.nodes()), nodeIds(actual.nodes()));
+        assertEquals(nodeIds(expected.fromNodes()), nodeIds(actual.fromNodes()));
+        assertEquals(nodeIds(expected.toNodes()), nodeIds(actual.toNodes()));
+        assertEquals(expected.edgeLabels().stream().collect(Collectors.toSet()),
+                actual.edgeLabels().stream().collect(Collectors.toSet()));
+        for (int i = 0; i < 110; i++) {
+            String node = "n" + i;
+            assertEquals(expected.hasNode(node), actual.hasNode(node));
+            assertEquals(edgeTexts(expected.edgesFromNode(node)),
+                    edgeTexts(actual.edgesFromNode(node)));
+            assertEquals(edgeTexts(expected.edgesToNode(node)),
+                    edgeTexts(actual.edgesToNode(node)));
+            assertEquals(nodeIds(expected.nodesFromNode(node)),
+                    nodeIds(actual.nodesFromNode(node)));
+            assertEquals(expected.edgeLabelsToNode(node).stream().collect(Collectors.toSet()),
+                    actual.edgeLabelsToNode(node).stream().collect(Collectors.toSet()));
+            assertEquals(expected.getNodePropertyValueOrElse(node, "name", "-"),
+                    actual.getNodePropertyValueOrElse(node, "name", "-"));
+            for (int j = 0; j < 4; j++) {
+                String label = "label" + j;
+                String toNode = "n" + (i + j) % 100;
+                assertEquals(expected.hasEdge(node, label, toNode),
+                        actual.hasEdge(node, label, toNode));
+                assertEquals(nodeIds(expected.nodesFromNodeViaEdgeLabeled(node, label)),
+                        nodeIds(actual.nodesFromNodeViaEdgeLabeled(node, label)));
+                assertEquals(edgeTexts(expected.edges(null, label, node)),
+                        edgeTexts(actual.edges(null, label, node)));
+            }
+            assertEquals(expected.handles().outDegree(expected.handles().nodeHandle(node)),
+                    actual.handles().outDegree(actual.handles().nodeHandle(node)));
+            assertEquals(expected.handles().inDegree(expected.handles().nodeHandle(node)),
+                    actual.handles().inDegree(actual.handles().nodeHandle(node)));
+        }
+    }
+
+    private static Set<String> edgeTexts(Edges edges) {
+        return edges.stream()
+                .map(e -> e.getFromNode().id() + " " + e.getLabel() + " " + e.getToNode().id())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> nodeIds(Nodes nodes) {
+        return nodes.stream().map(Node::id).collect(Collectors.toSet());
+    }
+
+    @Test
+    void writeReadWithBloomFilters(@TempDir File tempDir) {
+        StringGraph graph = largerGraph();
+        File file = new File(tempDir, "larger.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(graph, new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteBloomFilters() {
+                return true;
+            }
+
+            @Override
+            public boolean getWriteIndexes() {
+                return true;
+            }
+        });
+
+        StringGraph mappedGraph = store.readStringGraph();
+        StringGraph diskGraph = store.readStringGraph(DISK_RESIDENT);
+
+        for (StringGraph g : new StringGraph[]{mappedGraph, diskGraph}) {
+            StringGraphState state = ((StringGraphImpl) g).getState();
+            assertNotNull(state.getNodeBloomFilter());
+            assertNotNull(state.getEdgeBloomFilter());
+            for (int i = 0; i < 110; i++) {
+                String node = "n" + i;
+                assertEquals(graph.hasNode(node), g.hasNode(node));
+                for (int j = 0; j < 4; j++) {
+                    String label = "label" + j;
+                    String toNode = "n" + (i + j) % 100;
+                    assertEquals(graph.hasEdge(node, label, toNode),
+                            g.hasEdge(node, label, toNode));
+                }
+            }
+            assertEquals(nodeIds(graph.nodes()), nodeIds(g.nodes()));
+        }
+    }
+
+    @Test
+    void bloomFiltersRejectMostMissingNodesAndEdges(@TempDir File tempDir) {
+        File file = new File(tempDir, "larger.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(largerGraph(), new StringGraphs.WriteOptions() {
+            @Override
+            public boolean getWriteBloomFilters() {
+                return true;
+            }
+
+            @Override
+            public boolean getWriteIndexes() {
+                return true;
+            }
+        });
+        StringGraphState state =
+                ((StringGraphImpl) store.readStringGraph(DISK_RESIDENT)).getState();
+        BloomFilter nodeFilter = state.getNodeBloomFilter();
+        BloomFilter edgeFilter = state.getEdgeBloomFilter();
+        assertNotNull(nodeFilter);
+        assertNotNull(edgeFilter);
+
+        long passedCount = IntStream.range(0, 1000)
+                .filter(i -> nodeFilter.mightContain(BloomFilter.hashOf("m" + i)) ||
+                        edgeFilter.mightContain(BloomFilter.hashOf("n1", "label9", "n" + i)))
+                .count();
+
+        assertTrue(passedCount < 100, "got " + passedCount);
+        assertTrue(edgeFilter.mightContain(BloomFilter.hashOf("n0", "label0", "n0")));
+    }
+
+    @Test
+    void noBloomFiltersByDefault(@TempDir File tempDir) {
+        File file = new File(tempDir, "sample.graph");
+        StringGraphStore store =
+                StringGraphStoreMapped.createStringGraphStoreMapped(file.toURI());
+        store.writeStringGraph(StringGraphTest.getSample1());
+
+        StringGraphState state = ((StringGraphImpl) store.readStringGraph()).getState();
+
+        assertNull(state.getNodeBloomFilter());
+        assertNull(state.getEdgeBloomFilter());
+    }
+}
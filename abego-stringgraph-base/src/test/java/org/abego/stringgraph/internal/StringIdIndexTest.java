@@ -0,0 +1,187 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal;
+
+import org.abego.stringpool.StringPool;
+import org.abego.stringpool.StringPoolBuilder;
+import org.abego.stringpool.StringPools;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StringIdIndexTest {
+
+    @Test
+    void idOrZero() {
+        StringPoolBuilder builder = StringPools.builder();
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            String s = "s" + i;
+            expected.put(s, builder.add(s));
+        }
+        // "Aa" and "BB" have the same hash code
+        expected.put("Aa", builder.add("Aa"));
+        expected.put("BB", builder.add("BB"));
+        StringPool pool = builder.build();
+
+        StringIdIndex index = StringIdIndex.createStringIdIndex(pool, pool::getString);
+
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<String, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), index.idOrZero(e.getKey()));
+        }
+        assertEquals(0, index.idOrZero("s1000"));
+        // "C#" has the same hash code as "Aa"
+        assertEquals(0, index.idOrZero("C#"));
+        assertArrayEquals(
+                expected.values().stream().mapToInt(i -> i).sorted().toArray(),
+                index.allIdsSorted());
+    }
+
+    @Test
+    void nonAsciiAndLongStrings() {
+        StringPoolBuilder builder = StringPools.builder();
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longString.append('x');
+        }
+        int empty = builder.add("");
+        int umlauts = builder.add("\u00e4\u00f6\u00fc");
+        int emoji = builder.add("\ud83d\ude00");
+        int longId = builder.add(longString.toString());
+        StringPool pool = builder.build();
+
+        StringIdIndex index = StringIdIndex.createStringIdIndex(pool, pool::getString);
+
+        assertEquals(empty, index.idOrZero(""));
+        assertEquals(umlauts, index.idOrZero("\u00e4\u00f6\u00fc"));
+        assertEquals(emoji, index.idOrZero("\ud83d\ude00"));
+        assertEquals(longId, index.idOrZero(longString.toString()));
+        assertEquals(0, index.idOrZero("\u00e4\u00f6"));
+    }
+
+    @Test
+    void allIdsOfPool() {
+        StringPoolBuilder builder = StringPools.builder();
+        int[] expected = new int[100];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = builder.add("s" + i);
+        }
+        StringPool pool = builder.build();
+
+        assertArrayEquals(Arrays.stream(expected).sorted().toArray(),
+                StringIdIndex.allIdsOfPool(pool));
+        assertArrayEquals(new int[0],
+                StringIdIndex.allIdsOfPool(StringPools.builder().build()));
+    }
+
+    /**
+     * Pins the byte layout of a StringPool the index relies on (see 
+     * {@link StringIdIndex}), for the abego-stringpool version this project 
+     * depends on: at the offset given by its id every String is stored as 
+     * the VLQ encoded length of its UTF-8 bytes, with the most significant 
+     * bit set only in the last VLQ byte, followed by these bytes. The 
+     * Strings follow each other up to the end of the bytes.
+     */
+    @Test
+    void stringPoolBytesLayout() {
+        StringPoolBuilder builder = StringPools.builder();
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            longString.append('x');
+        }
+        int a = builder.add("a");
+        int longId = builder.add(longString.toString());
+        int umlauts = builder.add("\u00e4");
+        StringPool pool = builder.build();
+        byte[] bytes = pool.getBytes();
+
+        assertEquals((byte) (0x80 | 1), bytes[a]);
+        assertEquals('a', bytes[a + 1]);
+        assertEquals(a + 2, longId);
+        // 300 = 0b10_0101100, i.e. the lower 7 bits come first
+        assertEquals((byte) 0b0101100, bytes[longId]);
+        assertEquals((byte) (0x80 | 0b10), bytes[longId + 1]);
+        assertEquals(longId + 2 + 300, umlauts);
+        assertEquals((byte) (0x80 | 2), bytes[umlauts]);
+        assertArrayEquals("\u00e4".getBytes(StandardCharsets.UTF_8),
+                Arrays.copyOfRange(bytes, umlauts + 1, umlauts + 3));
+        assertEquals(umlauts + 3, bytes.length);
+
+        List<Integer> ids = new ArrayList<>();
+        pool.allStringAndIDs().forEach(e -> ids.add(e.getID()));
+        assertEquals(Arrays.asList(a, longId, umlauts), ids);
+    }
+
+    @Test
+    void poolBytesWithUnknownEntries() {
+        StringPoolBuilder builder = StringPools.builder();
+        int a = builder.add("a");
+        int b = builder.add("b");
+        int c = builder.add("c");
+        StringPool realPool = builder.build();
+        // the bytes contain a String ("b") that is not an entry of the pool,
+        // i.e. the bytes do not match the expected layout
+        List<StringPool.StringAndID> entries = new ArrayList<>();
+        for (StringPool.StringAndID e : realPool.allStringAndIDs()) {
+            if (e.getID() != b) {
+                entries.add(e);
+            }
+        }
+        // (a Proxy, to delegate all other methods to the realPool)
+        StringPool pool = (StringPool) Proxy.newProxyInstance(
+                StringPool.class.getClassLoader(),
+                new Class<?>[]{StringPool.class},
+                (proxy, method, args) -> method.getName().equals("allStringAndIDs")
+                        ? entries
+                        : method.invoke(realPool, args));
+
+        StringIdIndex index = StringIdIndex.createStringIdIndex(pool, pool::getString);
+
+        assertEquals(2, index.size());
+        assertEquals(a, index.idOrZero("a"));
+        assertEquals(0, index.idOrZero("b"));
+        assertEquals(c, index.idOrZero("c"));
+    }
+
+    @Test
+    void emptyPool() {
+        StringPool pool = StringPools.builder().build();
+
+        StringIdIndex index = StringIdIndex.createStringIdIndex(pool, pool::getString);
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.idOrZero("a"));
+    }
+}
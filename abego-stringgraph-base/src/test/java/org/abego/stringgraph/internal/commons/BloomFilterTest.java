@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void noFalseNegatives() {
+        BloomFilter filter = BloomFilter.createBloomFilter(1000);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(BloomFilter.hashOf("node" + i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain(BloomFilter.hashOf("node" + i)));
+        }
+    }
+
+    @Test
+    void fewFalsePositives() {
+        BloomFilter filter = BloomFilter.createBloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(BloomFilter.hashOf("node" + i));
+        }
+
+        long falsePositivesCount = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(BloomFilter.hashOf("other" + i))) {
+                falsePositivesCount++;
+            }
+        }
+
+        // about 1% expected
+        assertTrue(falsePositivesCount < 300, "got " + falsePositivesCount);
+    }
+
+    @Test
+    void triples() {
+        BloomFilter filter = BloomFilter.createBloomFilter(10);
+        filter.add(BloomFilter.hashOf("a", "b", "c"));
+
+        assertTrue(filter.mightContain(BloomFilter.hashOf("a", "b", "c")));
+        assertFalse(filter.mightContain(BloomFilter.hashOf("c", "b", "a")));
+        assertFalse(filter.mightContain(BloomFilter.hashOf("a", "bc", "")));
+    }
+
+    @Test
+    void emptyFilter() {
+        BloomFilter filter = BloomFilter.createBloomFilter(0);
+
+        assertFalse(filter.mightContain(BloomFilter.hashOf("")));
+        assertFalse(filter.mightContain(BloomFilter.hashOf("a")));
+    }
+
+    @Test
+    void filterFromData() {
+        BloomFilter filter = BloomFilter.createBloomFilter(100);
+        for (int i = 0; i < 100; i++) {
+            filter.add(BloomFilter.hashOf("node" + i));
+        }
+        int[] data = filter.toArray();
+
+        BloomFilter filter2 = BloomFilter.createBloomFilter(IntBuffer.wrap(data));
+
+        assertEquals(BloomFilter.HASH_FUNCTIONS_COUNT, data[0]);
+        assertArrayEquals(data, filter2.toArray());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(filter2.mightContain(BloomFilter.hashOf("node" + i)));
+        }
+    }
+
+    @Test
+    void invalidData() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> BloomFilter.createBloomFilter(IntBuffer.wrap(new int[]{0, 1})));
+        assertEquals("Invalid Bloom filter data", e.getMessage());
+    }
+}
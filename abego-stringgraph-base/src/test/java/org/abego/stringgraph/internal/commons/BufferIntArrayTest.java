@@ -0,0 +1,67 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferIntArrayTest {
+
+    @Test
+    void getAndToArray() {
+        IntBuffer buffer = IntBuffer.wrap(new int[]{2, 3, 5, 7, 11});
+        IntArray array = BufferIntArray.createBufferIntArray(buffer);
+
+        assertEquals(5, array.length());
+        assertEquals(2, array.get(0));
+        assertEquals(11, array.get(4));
+        assertArrayEquals(new int[]{3, 5, 7}, array.toArray(1, 4));
+        assertArrayEquals(new int[]{2, 3, 5, 7, 11}, array.toArray());
+        assertArrayEquals(new int[0], array.toArray(5, 5));
+        // the buffer's position is not changed
+        assertEquals(0, buffer.position());
+        assertThrows(IndexOutOfBoundsException.class, () -> array.toArray(3, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.toArray(3, 2));
+    }
+
+    @Test
+    void binarySearchAndAsIntSet() {
+        IntArray array = BufferIntArray.createBufferIntArray(
+                IntBuffer.wrap(new int[]{2, 3, 5, 7, 11}));
+
+        assertEquals(3, array.binarySearch(7));
+        assertEquals(-1, array.binarySearch(4));
+        assertEquals(-1, array.binarySearch(12));
+
+        IntSet set = array.asIntSet();
+        assertEquals(5, set.getSize());
+        assertTrue(set.contains(11));
+        assertFalse(set.contains(1));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ForkJoinUtilTest {
+
+    @Test
+    void constructor() {
+        assertThrows(UnsupportedOperationException.class, ForkJoinUtil::new);
+    }
+
+    @Test
+    void forEachRange() {
+        int size = ForkJoinUtil.MIN_RANGE_SIZE * 5 + 3;
+        AtomicIntegerArray visits = new AtomicIntegerArray(size);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ForkJoinUtil.forEachRange(pool, size, (start, end) -> {
+                for (int i = start; i < end; i++) {
+                    visits.incrementAndGet(i);
+                }
+            });
+            ForkJoinUtil.forEachRange(null, size, (start, end) -> {
+                for (int i = start; i < end; i++) {
+                    visits.incrementAndGet(i);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int i = 0; i < size; i++) {
+            assertEquals(2, visits.get(i));
+        }
+    }
+
+    @Test
+    void sortedDistinct() {
+        Random random = new Random(42);
+        int[] values = new int[ForkJoinUtil.MIN_RANGE_SIZE * 7];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextInt(50_000);
+        }
+        int[] expected = Arrays.stream(values).sorted().distinct().toArray();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertArrayEquals(expected, ForkJoinUtil.sortedDistinct(pool, values));
+        } finally {
+            pool.shutdown();
+        }
+        assertArrayEquals(expected, ForkJoinUtil.sortedDistinct(null, values));
+        assertArrayEquals(new int[]{1, 2, 3},
+                ForkJoinUtil.sortedDistinct(null, new int[]{3, 1, 2, 1}));
+    }
+}
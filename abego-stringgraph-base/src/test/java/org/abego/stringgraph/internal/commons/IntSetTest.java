@@ -0,0 +1,75 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntSetTest {
+
+    @Test
+    void denseValuesUseBitSet() {
+        IntSet set = IntSet.createIntSet(new int[]{3, 1, 4, 1, 5, 9, 2, 6});
+
+        assertTrue(set instanceof BitSetIntSet);
+        assertEquals(7, set.getSize());
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(9));
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(7));
+        assertFalse(set.contains(10));
+        assertFalse(set.contains(1000));
+        assertFalse(set.contains(-1));
+    }
+
+    @Test
+    void sparseValuesUseHashTable() {
+        IntSet set = IntSet.createIntSet(new int[]{0, 100_000, 7_000_000, 100_000});
+
+        assertTrue(set instanceof HashIntSet);
+        assertEquals(3, set.getSize());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(100_000));
+        assertTrue(set.contains(7_000_000));
+        assertFalse(set.contains(1));
+        assertFalse(set.contains(-1));
+    }
+
+    @Test
+    void emptySet() {
+        IntSet set = IntSet.createIntSet(new int[0]);
+
+        assertEquals(0, set.getSize());
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    void negativeValue() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> IntSet.createIntSet(new int[]{1, -2}));
+        assertEquals("value must not be negative, got -2", e.getMessage());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IntSortUtilTest {
+
+    @Test
+    void constructor() {
+        assertThrows(UnsupportedOperationException.class, IntSortUtil::new);
+    }
+
+    @Test
+    void sort() {
+        int[] values = {3, 1, 4, 1, 5, 9, 2, 6};
+
+        IntSortUtil.sort(values, (a, b) -> Integer.compare(b, a));
+
+        assertArrayEquals(new int[]{9, 6, 5, 4, 3, 2, 1, 1}, values);
+    }
+
+    @Test
+    void sortIsStable() {
+        // sort a permutation by keys with many duplicates
+        Random random = new Random(42);
+        int[] keys = new int[1000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(20);
+        }
+        int[] order = new int[keys.length];
+        Integer[] expected = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = i;
+            expected[i] = i;
+        }
+        Arrays.sort(expected, Comparator.comparingInt(i -> keys[i]));
+
+        IntSortUtil.sort(order, (a, b) -> Integer.compare(keys[a], keys[b]));
+
+        assertArrayEquals(Arrays.stream(expected).mapToInt(i -> i).toArray(), order);
+    }
+
+    @Test
+    void sortEmptyAndSingleValue() {
+        int[] empty = new int[0];
+        int[] single = {42};
+
+        IntSortUtil.sort(empty, Integer::compare);
+        IntSortUtil.sort(single, Integer::compare);
+
+        assertArrayEquals(new int[0], empty);
+        assertArrayEquals(new int[]{42}, single);
+    }
+
+    @Test
+    void sortedTriples() {
+        int[] triples = {
+                2, 1, 7,
+                1, 100_000, 3,
+                1, 5, 3,
+                70_000, 0, 0,
+                1, 2, 200_000};
+
+        int[] sorted = IntSortUtil.sortedTriples(triples, 0, 2, 1);
+
+        assertArrayEquals(new int[]{
+                1, 5, 3,
+                1, 100_000, 3,
+                1, 2, 200_000,
+                2, 1, 7,
+                70_000, 0, 0}, sorted);
+        assertEquals(1, triples[3]);
+    }
+
+    @Test
+    void sortedTriplesLikeComparator() {
+        Random random = new Random(42);
+        int[] triples = new int[3000];
+        for (int i = 0; i < triples.length; i++) {
+            triples[i] = random.nextInt(i % 2 == 0 ? 50 : 1_000_000);
+        }
+        Integer[] order = new Integer[triples.length / 3];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i * 3;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> triples[i + 1])
+                .thenComparingInt(i -> triples[i])
+                .thenComparingInt(i -> triples[i + 2]));
+        int[] expected = new int[triples.length];
+        for (int i = 0; i < order.length; i++) {
+            System.arraycopy(triples, order[i], expected, i * 3, 3);
+        }
+
+        assertArrayEquals(expected, IntSortUtil.sortedTriples(triples, 1, 0, 2));
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheTest {
+
+    /**
+     * Returns a file with the ints 0..n-1, little-endian.
+     */
+    private static File fileWithInts(File dir, int n) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(n * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(i);
+        }
+        File file = new File(dir, "ints.bin");
+        Files.write(file.toPath(), buffer.array());
+        return file;
+    }
+
+    @Test
+    void getInt(@TempDir File tempDir) throws IOException {
+        File file = fileWithInts(tempDir, 100);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            PageCache cache = PageCache.createPageCache(channel, 16, 1024);
+
+            assertEquals(0, cache.getInt(0));
+            assertEquals(42, cache.getInt(42 * 4));
+            assertEquals(99, cache.getInt(99 * 4));
+            assertEquals(3, cache.getCachedPagesCount());
+        }
+    }
+
+    @Test
+    void getBytesSpanningPages(@TempDir File tempDir) throws IOException {
+        File file = new File(tempDir, "bytes.bin");
+        Files.write(file.toPath(), "0123456789abcdef".getBytes());
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            PageCache cache = PageCache.createPageCache(channel, 4, 1024);
+
+            assertEquals("3456789a", new String(cache.getBytes(3, 8)));
+            assertEquals("", new String(cache.getBytes(16, 0)));
+            assertThrows(IndexOutOfBoundsException.class, () -> cache.getBytes(14, 4));
+        }
+    }
+
+    @Test
+    void evictsPageNotRecentlyUsed(@TempDir File tempDir) throws IOException {
+        File file = fileWithInts(tempDir, 100);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 2 pages of 4 ints each
+            PageCache cache = PageCache.createPageCache(channel, 16, 32);
+            assertEquals(2, cache.getMaxPagesCount());
+
+            cache.getInt(0);  // page 0
+            cache.getInt(16); // page 1
+            cache.getInt(4);  // page 0, now recently used
+            assertEquals(2, cache.getPageReadsCount());
+
+            cache.getInt(32); // page 2, evicts page 1
+            cache.getInt(0);  // page 0, still cached
+            assertEquals(3, cache.getPageReadsCount());
+
+            assertEquals(5, cache.getInt(20)); // page 1, read again
+            assertEquals(4, cache.getPageReadsCount());
+            assertEquals(2, cache.getCachedPagesCount());
+        }
+    }
+
+    @Test
+    void cachesAtLeastOnePage(@TempDir File tempDir) throws IOException {
+        File file = fileWithInts(tempDir, 10);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            PageCache cache = PageCache.createPageCache(channel, 16, 0);
+
+            assertEquals(1, cache.getMaxPagesCount());
+            assertEquals(9, cache.getInt(36));
+        }
+    }
+
+    @Test
+    void invalidPageSize(@TempDir File tempDir) throws IOException {
+        File file = fileWithInts(tempDir, 10);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> PageCache.createPageCache(channel, 10, 1024));
+            assertEquals("pageSize must be a positive multiple of 4, got 10", e.getMessage());
+        }
+    }
+
+    @Test
+    void pagedIntArray(@TempDir File tempDir) throws IOException {
+        File file = fileWithInts(tempDir, 100);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            PageCache cache = PageCache.createPageCache(channel, 16, 1024);
+            // the ints 10..29
+            PagedIntArray array = PagedIntArray.createPagedIntArray(cache, 40, 20);
+
+            assertEquals(20, array.length());
+            assertEquals(10, array.get(0));
+            assertEquals(29, array.get(19));
+            assertThrows(IndexOutOfBoundsException.class, () -> array.get(20));
+            assertArrayEquals(new int[]{12, 13, 14}, array.toArray(2, 5));
+            // spanning several pages
+            assertArrayEquals(IntStream.range(10, 30).toArray(), array.toArray());
+            assertArrayEquals(new int[0], array.toArray(20, 20));
+            assertThrows(IndexOutOfBoundsException.class, () -> array.toArray(15, 21));
+            assertEquals(5, array.binarySearch(15));
+            assertEquals(-1, array.binarySearch(9));
+            assertEquals(-1, array.binarySearch(30));
+
+            IntSet set = array.asIntSet();
+            assertEquals(20, set.getSize());
+            assertTrue(set.contains(10));
+            assertTrue(set.contains(29));
+            assertFalse(set.contains(30));
+        }
+    }
+
+    @Test
+    void getIntsSpanningPages(@TempDir File tempDir) throws IOException {
+        File file = fileWithInts(tempDir, 100);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            PageCache cache = PageCache.createPageCache(channel, 16, 1024);
+            int[] ints = new int[12];
+
+            cache.getInts(8, ints, 1, 10);
+
+            assertArrayEquals(new int[]{0, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 0}, ints);
+            assertEquals(3, cache.getPageReadsCount());
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> cache.getInts(98 * 4, new int[4], 0, 4));
+        }
+    }
+
+    @Test
+    void concurrentReaders(@TempDir File tempDir) throws Exception {
+        File file = fileWithInts(tempDir, 10_000);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // a small cache, to make the readers evict each other's pages
+            PageCache cache = PageCache.createPageCache(channel, 64, 8 * 64);
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int seed = t;
+                    results.add(executor.submit(() -> {
+                        Random random = new Random(seed);
+                        for (int n = 0; n < 20_000; n++) {
+                            int i = random.nextInt(10_000);
+                            if (cache.getInt(i * 4L) != i) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> result : results) {
+                    assertTrue(result.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertTrue(cache.getCachedPagesCount() <= 8);
+        }
+    }
+}
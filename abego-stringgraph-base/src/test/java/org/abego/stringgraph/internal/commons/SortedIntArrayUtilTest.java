@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIntArrayUtilTest {
+    private static final int[] A = {1, 3, 5, 7, 9};
+    private static final int[] B = {2, 3, 4, 5, 10};
+    /**
+     * Much larger than A, to make the intersection/difference "gallop".
+     */
+    private static final int[] LARGE = IntStream.range(0, 1000).map(i -> 2 * i + 1).toArray();
+
+    @Test
+    void constructor() {
+        assertThrows(UnsupportedOperationException.class, SortedIntArrayUtil::new);
+    }
+
+    @Test
+    void intersection() {
+        assertArrayEquals(new int[]{3, 5},
+                SortedIntArrayUtil.intersection(A, 0, A.length, B, 0, B.length));
+        assertArrayEquals(new int[]{5},
+                SortedIntArrayUtil.intersection(A, 2, 4, B, 0, B.length));
+        assertArrayEquals(A,
+                SortedIntArrayUtil.intersection(A, 0, A.length, LARGE, 0, LARGE.length));
+        assertArrayEquals(new int[]{3, 5},
+                SortedIntArrayUtil.intersection(LARGE, 0, LARGE.length, B, 0, B.length));
+        assertArrayEquals(new int[0],
+                SortedIntArrayUtil.intersection(A, 0, 0, B, 0, B.length));
+    }
+
+    @Test
+    void union() {
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 7, 9, 10},
+                SortedIntArrayUtil.union(A, 0, A.length, B, 0, B.length));
+        assertArrayEquals(B,
+                SortedIntArrayUtil.union(A, 0, 0, B, 0, B.length));
+    }
+
+    @Test
+    void difference() {
+        assertArrayEquals(new int[]{1, 7, 9},
+                SortedIntArrayUtil.difference(A, 0, A.length, B, 0, B.length));
+        assertArrayEquals(new int[]{2, 4, 10},
+                SortedIntArrayUtil.difference(B, 0, B.length, A, 0, A.length));
+        assertArrayEquals(new int[0],
+                SortedIntArrayUtil.difference(A, 0, A.length, LARGE, 0, LARGE.length));
+        assertArrayEquals(new int[]{2, 4, 10},
+                SortedIntArrayUtil.difference(B, 0, B.length, LARGE, 0, LARGE.length));
+    }
+
+    @Test
+    void gallop() {
+        assertEquals(0, SortedIntArrayUtil.gallop(LARGE, 0, LARGE.length, 0));
+        assertEquals(500, SortedIntArrayUtil.gallop(LARGE, 0, LARGE.length, 1000));
+        assertEquals(500, SortedIntArrayUtil.gallop(LARGE, 0, LARGE.length, 1001));
+        assertEquals(LARGE.length, SortedIntArrayUtil.gallop(LARGE, 0, LARGE.length, 5000));
+    }
+
+    @Test
+    void isStrictlyAscending() {
+        assertTrue(SortedIntArrayUtil.isStrictlyAscending(A, 0, A.length));
+        assertFalse(SortedIntArrayUtil.isStrictlyAscending(new int[]{1, 1}, 0, 2));
+        assertTrue(SortedIntArrayUtil.isStrictlyAscending(new int[]{2, 1}, 1, 2));
+    }
+}
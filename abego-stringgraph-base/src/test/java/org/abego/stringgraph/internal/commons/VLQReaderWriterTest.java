@@ -0,0 +1,101 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2023 Udo Borkowski, (ub@abego.org)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.abego.stringgraph.internal.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VLQReaderWriterTest {
+    private static final int[] VALUES = {
+            0, 1, 127, 128, 16383, 16384, 2097151, 2097152,
+            268435455, 268435456, Integer.MAX_VALUE};
+
+    @Test
+    void writeAndRead() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // use a tiny buffer to also cover the buffer boundaries 
+        VLQWriter writer = VLQWriter.createVLQWriter(out, 7);
+        for (int v : VALUES) {
+            writer.writeUnsignedInt(v);
+        }
+        writer.write(new byte[]{1, 2, 3});
+        writer.flush();
+
+        VLQReader reader = VLQReader.createVLQReader(
+                new ByteArrayInputStream(out.toByteArray()), 6);
+        int[] values = new int[VALUES.length];
+        reader.readUnsignedInts(values, 0, values.length);
+        byte[] bytes = new byte[3];
+        reader.readFully(bytes);
+
+        assertArrayEquals(VALUES, values);
+        assertArrayEquals(new byte[]{1, 2, 3}, bytes);
+        assertThrows(EOFException.class, reader::readUnsignedInt);
+    }
+
+    @Test
+    void compatibleToVLQUtil() throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int v : VALUES) {
+            VLQUtil.encodeUnsignedIntAsVLQ(v, expected::write);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VLQWriter writer = VLQWriter.createVLQWriter(out);
+        for (int v : VALUES) {
+            writer.writeUnsignedInt(v);
+        }
+        writer.flush();
+
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    void invalidInput() throws IOException {
+        VLQWriter writer = VLQWriter.createVLQWriter(new ByteArrayOutputStream());
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.writeUnsignedInt(-1));
+
+        // 5th byte uses more than 3 bits
+        VLQReader reader = VLQReader.createVLQReader(new ByteArrayInputStream(
+                new byte[]{0x7f, 0x7f, 0x7f, 0x7f, (byte) 0x88}));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                reader::readUnsignedInt);
+        assertEquals("VLQ encoded number too large to fit into an unsigned int. Try to read it in a long.", e.getMessage());
+
+        // missing end byte
+        VLQReader truncatedReader = VLQReader.createVLQReader(
+                new ByteArrayInputStream(new byte[]{0x7f}));
+        assertThrows(EOFException.class, truncatedReader::readUnsignedInt);
+        assertThrows(EOFException.class, () -> truncatedReader.readFully(new byte[2]));
+    }
+}